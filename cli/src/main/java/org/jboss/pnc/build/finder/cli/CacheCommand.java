@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static org.jboss.pnc.build.finder.core.AnsiUtils.boldRed;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.green;
+import static org.jboss.pnc.build.finder.core.Utils.byteCountToDisplaySize;
+import static org.jboss.pnc.build.finder.core.Utils.getAllErrorMessages;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.CacheClusterMode;
+import org.jboss.pnc.build.finder.core.CacheFamily;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.ConfigDefaults;
+import org.jboss.pnc.build.finder.core.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Offline maintenance of the local cache directory. Reports the number of entries and size of each cache, and can
+ * purge expired entries, enforce the stored entry limits, compact the cache, and export or import a snapshot of the
+ * build resolution caches.
+ */
+@Command(
+        description = "Maintains the local cache. Run while no other build-finder process uses the cache.",
+        mixinStandardHelpOptions = true,
+        name = "cache",
+        showDefaultValues = true)
+public final class CacheCommand implements Callable<Integer> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheCommand.class);
+
+    private static final Set<ChecksumType> CHECKSUM_TYPES = EnumSet.allOf(ChecksumType.class);
+
+    @Option(names = { "-c", "--config" }, paramLabel = "FILE", description = "Specify configuration file to use.")
+    private Path configFile = ConfigDefaults.CONFIG;
+
+    @Option(names = "--cache-location", paramLabel = "DIR", description = "Specify cache location.")
+    private Path cacheLocation = ConfigDefaults.CACHE_LOCATION;
+
+    @Option(
+            names = "--purge",
+            description = "Purge expired entries and the oldest entries over the stored entry limit of each cache"
+                    + " family.")
+    private boolean purge;
+
+    @Option(names = "--compact", description = "Compact the cache by rewriting the live entries to a new store.")
+    private boolean compact;
+
+    @Option(
+            names = "--export",
+            paramLabel = "FILE",
+            description = "Export the build resolution caches to a compressed snapshot file.")
+    private Path exportFile;
+
+    @Option(
+            names = "--import",
+            paramLabel = "FILE",
+            description = "Merge a compressed snapshot file into the build resolution caches.")
+    private Path importFile;
+
+    @Override
+    public Integer call() {
+        if (!Files.isDirectory(cacheLocation)) {
+            LOGGER.error("Cache location {} does not exist or is not a directory", boldRed(cacheLocation));
+            return 1;
+        }
+
+        try {
+            BuildConfig config = Files.isRegularFile(configFile) && Files.isReadable(configFile)
+                    ? BuildConfig.load(configFile)
+                    : new BuildConfig();
+
+            // Maintenance works on the local cache directory only, so never join a cache cluster
+            config.setCacheClusterMode(CacheClusterMode.local);
+
+            if (importFile != null) {
+                importSnapshot(config);
+            }
+
+            if (purge) {
+                purge(config);
+            }
+
+            if (compact) {
+                compact(config);
+            }
+
+            if (exportFile != null) {
+                exportSnapshot(config);
+            }
+
+            report(config);
+        } catch (IOException e) {
+            LOGGER.error("Error maintaining cache {}: {}", boldRed(cacheLocation), boldRed(getAllErrorMessages(e)));
+            LOGGER.debug("Error", e);
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private void importSnapshot(BuildConfig config) throws IOException {
+        try (EmbeddedCacheManager cacheManager = CacheUtils.createCacheManager(config, cacheLocation, CHECKSUM_TYPES)) {
+            CacheSnapshot.ImportResult result = CacheSnapshot.importSnapshot(
+                    cacheManager,
+                    CacheSnapshot.getCacheNames(CHECKSUM_TYPES),
+                    importFile,
+                    config.getCacheLifespan());
+            LOGGER.info(
+                    "Imported {} entries from cache snapshot {} ({} stale, {} skipped)",
+                    green(result.getImported()),
+                    green(importFile),
+                    green(result.getStale()),
+                    green(result.getSkipped()));
+        }
+    }
+
+    private void exportSnapshot(BuildConfig config) throws IOException {
+        try (EmbeddedCacheManager cacheManager = CacheUtils.createCacheManager(config, cacheLocation, CHECKSUM_TYPES)) {
+            long count = CacheSnapshot
+                    .exportSnapshot(cacheManager, CacheSnapshot.getCacheNames(CHECKSUM_TYPES), exportFile);
+            LOGGER.info("Exported {} entries to cache snapshot {}", green(count), green(exportFile));
+        }
+    }
+
+    private void purge(BuildConfig config) throws IOException {
+        try (EmbeddedCacheManager cacheManager = CacheUtils.createCacheManager(config, cacheLocation, CHECKSUM_TYPES)) {
+            for (CacheFamily family : CacheFamily.values()) {
+                Long maxStoredEntries = config.getCacheMaxStoredEntriesPerFamily().get(family);
+
+                for (String cacheName : family.getCacheNames(CHECKSUM_TYPES)) {
+                    AdvancedCache<Object, Object> cache = cacheManager.getCache(cacheName).getAdvancedCache();
+                    int before = cache.size();
+
+                    cache.getExpirationManager().processExpiration();
+
+                    int removed = before - cache.size();
+
+                    if (maxStoredEntries != null) {
+                        removed += CacheUtils.removeOldestEntries(cache, maxStoredEntries);
+                    }
+
+                    LOGGER.info("Purged {} entries from cache {}", green(removed), green(cacheName));
+                }
+            }
+        }
+    }
+
+    private void compact(BuildConfig config) throws IOException {
+        Path fileName = cacheLocation.getFileName();
+        Path compactLocation = cacheLocation.resolveSibling(fileName + ".compact");
+        Path oldLocation = cacheLocation.resolveSibling(fileName + ".old");
+        long sizeBefore = Utils.sizeOfDirectory(cacheLocation);
+
+        Utils.deleteDirectory(compactLocation);
+        Utils.deleteDirectory(oldLocation);
+
+        try (EmbeddedCacheManager source = CacheUtils.createCacheManager(config, cacheLocation, CHECKSUM_TYPES);
+                EmbeddedCacheManager target = CacheUtils
+                        .createCacheManager(config, compactLocation, CHECKSUM_TYPES)) {
+            for (String cacheName : CacheUtils.getCacheNames(CHECKSUM_TYPES)) {
+                int copied = copyLiveEntries(
+                        source.getCache(cacheName).getAdvancedCache(),
+                        target.getCache(cacheName).getAdvancedCache());
+                LOGGER.debug("Copied {} entries of cache {}", copied, cacheName);
+            }
+        }
+
+        Files.move(cacheLocation, oldLocation);
+        Files.move(compactLocation, cacheLocation);
+        Utils.deleteDirectory(oldLocation);
+
+        long sizeAfter = Utils.sizeOfDirectory(cacheLocation);
+
+        LOGGER.info(
+                "Compacted cache {} from {} to {}",
+                green(cacheLocation),
+                green(byteCountToDisplaySize(sizeBefore)),
+                green(byteCountToDisplaySize(sizeAfter)));
+    }
+
+    private static int copyLiveEntries(AdvancedCache<Object, Object> source, AdvancedCache<Object, Object> target) {
+        long now = System.currentTimeMillis();
+        int count = 0;
+
+        try (CloseableIterator<CacheEntry<Object, Object>> it = source.cacheEntrySet().iterator()) {
+            while (it.hasNext()) {
+                CacheEntry<Object, Object> entry = it.next();
+                long lifespan = entry.getLifespan();
+
+                if (lifespan < 0L) {
+                    target.put(entry.getKey(), entry.getValue(), -1L, TimeUnit.MILLISECONDS);
+                    count++;
+                } else {
+                    // Keep the original expiration time
+                    long remaining = entry.getCreated() + lifespan - now;
+
+                    if (remaining > 0L) {
+                        target.put(entry.getKey(), entry.getValue(), remaining, TimeUnit.MILLISECONDS);
+                        count++;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private void report(BuildConfig config) throws IOException {
+        try (EmbeddedCacheManager cacheManager = CacheUtils.createCacheManager(config, cacheLocation, CHECKSUM_TYPES)) {
+            for (CacheFamily family : CacheFamily.values()) {
+                for (String cacheName : family.getCacheNames(CHECKSUM_TYPES)) {
+                    AdvancedCache<Object, Object> cache = cacheManager.getCache(cacheName).getAdvancedCache();
+
+                    LOGGER.info(
+                            "Cache {} ({}): {} entries, {} on disk",
+                            green(cacheName),
+                            green(family),
+                            green(cache.size()),
+                            green(byteCountToDisplaySize(Utils.sizeOfDirectory(cacheLocation.resolve(cacheName)))));
+                }
+            }
+        }
+
+        LOGGER.info(
+                "Total size of cache {}: {}",
+                green(cacheLocation),
+                green(byteCountToDisplaySize(Utils.sizeOfDirectory(cacheLocation))));
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.protostream.ProtobufUtil;
+import org.infinispan.protostream.SerializationContext;
+import org.jboss.pnc.build.finder.core.CacheFamily;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.protobuf.ProtobufSerializer;
+import org.jboss.pnc.build.finder.protobuf.ProtobufSerializerImpl;
+
+/**
+ * Exports and imports the build resolution caches as a single gzip-compressed snapshot file, so that a warm cache
+ * can be shared between machines.
+ * <p>
+ * The snapshot contains, for each live entry, the cache name, the creation time and lifespan, and the key and value
+ * marshalled with Protobuf. The <code>files-*</code> caches are not included, since they depend on the local inputs.
+ */
+public final class CacheSnapshot {
+    /**
+     * The cache families included in a snapshot.
+     */
+    public static final Set<CacheFamily> FAMILIES = Collections.unmodifiableSet(
+            EnumSet.of(CacheFamily.checksums, CacheFamily.rpms, CacheFamily.builds, CacheFamily.artifacts));
+
+    private static final int MAGIC = 0x42464353; // BFCS
+
+    private static final int VERSION = 1;
+
+    private static final SerializationContext CTX = ProtobufUtil.newSerializationContext();
+
+    static {
+        ProtobufSerializer serializer = new ProtobufSerializerImpl();
+        serializer.registerSchema(CTX);
+        serializer.registerMarshallers(CTX);
+    }
+
+    private CacheSnapshot() {
+        throw new IllegalArgumentException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Gets the names of the caches included in a snapshot.
+     *
+     * @param checksumTypes the checksum types in use
+     * @return the cache names
+     */
+    public static List<String> getCacheNames(Collection<ChecksumType> checksumTypes) {
+        return FAMILIES.stream().flatMap(family -> family.getCacheNames(checksumTypes).stream()).toList();
+    }
+
+    /**
+     * Writes the live entries of the given caches to a snapshot file. The file is written to a temporary file first
+     * and then moved into place.
+     *
+     * @param cacheManager the cache manager
+     * @param cacheNames the names of the caches to export
+     * @param file the snapshot file
+     * @return the number of entries written
+     * @throws IOException if an error occurs writing the file
+     */
+    public static long exportSnapshot(EmbeddedCacheManager cacheManager, Collection<String> cacheNames, Path file)
+            throws IOException {
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        long count = 0L;
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmpFile))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            for (String cacheName : cacheNames) {
+                AdvancedCache<Object, Object> cache = cacheManager.<Object, Object> getCache(cacheName)
+                        .getAdvancedCache();
+
+                try (CloseableIterator<CacheEntry<Object, Object>> it = cache.cacheEntrySet().iterator()) {
+                    while (it.hasNext()) {
+                        CacheEntry<Object, Object> entry = it.next();
+
+                        out.writeBoolean(true);
+                        out.writeUTF(cacheName);
+                        out.writeLong(entry.getCreated());
+                        out.writeLong(entry.getLifespan());
+                        writeBytes(out, ProtobufUtil.toWrappedByteArray(CTX, entry.getKey()));
+                        writeBytes(out, ProtobufUtil.toWrappedByteArray(CTX, entry.getValue()));
+                        count++;
+                    }
+                }
+            }
+
+            out.writeBoolean(false);
+        }
+
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+
+        return count;
+    }
+
+    /**
+     * Merges the entries of a snapshot file into the caches. Entries already present in the local cache are kept.
+     * Entries whose lifespan has elapsed, or which are older than the given maximum lifespan, are stale and are
+     * dropped. Entries for caches that are not in the given cache names are ignored.
+     *
+     * @param cacheManager the cache manager
+     * @param cacheNames the names of the caches to import into
+     * @param file the snapshot file
+     * @param maxLifespan the maximum lifespan of an entry in milliseconds, or a negative value for no limit
+     * @return the import statistics
+     * @throws IOException if an error occurs reading the file, or the file is not a supported snapshot
+     */
+    public static ImportResult importSnapshot(
+            EmbeddedCacheManager cacheManager,
+            Collection<String> cacheNames,
+            Path file,
+            long maxLifespan) throws IOException {
+        long now = System.currentTimeMillis();
+        long imported = 0L;
+        long stale = 0L;
+        long skipped = 0L;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("File " + file + " is not a cache snapshot");
+            }
+
+            int version = in.readInt();
+
+            if (version != VERSION) {
+                throw new IOException(
+                        "Unsupported cache snapshot version " + version + " in file " + file + " (expected " + VERSION
+                                + ")");
+            }
+
+            while (in.readBoolean()) {
+                String cacheName = in.readUTF();
+                long created = in.readLong();
+                long lifespan = in.readLong();
+                byte[] key = readBytes(in);
+                byte[] value = readBytes(in);
+
+                if (!cacheNames.contains(cacheName)) {
+                    skipped++;
+                    continue;
+                }
+
+                long effectiveLifespan = lifespan < 0L ? maxLifespan
+                        : maxLifespan < 0L ? lifespan : Math.min(lifespan, maxLifespan);
+                long remaining = effectiveLifespan < 0L ? -1L : created + effectiveLifespan - now;
+
+                if (effectiveLifespan >= 0L && remaining <= 0L) {
+                    stale++;
+                    continue;
+                }
+
+                AdvancedCache<Object, Object> cache = cacheManager.<Object, Object> getCache(cacheName)
+                        .getAdvancedCache();
+                Object previous = cache.putIfAbsent(
+                        ProtobufUtil.fromWrappedByteArray(CTX, key),
+                        ProtobufUtil.fromWrappedByteArray(CTX, value),
+                        remaining,
+                        TimeUnit.MILLISECONDS);
+
+                if (previous == null) {
+                    imported++;
+                } else {
+                    skipped++;
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Cache snapshot " + file + " is truncated", e);
+        }
+
+        return new ImportResult(imported, stale, skipped);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0) {
+            throw new IOException("Invalid entry length " + length + " in cache snapshot");
+        }
+
+        byte[] bytes = in.readNBytes(length);
+
+        if (bytes.length != length) {
+            throw new EOFException("Expected " + length + " bytes but got " + bytes.length);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Statistics of a snapshot import.
+     */
+    public static final class ImportResult {
+        private final long imported;
+
+        private final long stale;
+
+        private final long skipped;
+
+        ImportResult(long imported, long stale, long skipped) {
+            this.imported = imported;
+            this.stale = stale;
+            this.skipped = skipped;
+        }
+
+        /**
+         * Gets the number of entries added to the caches.
+         *
+         * @return the number of entries added
+         */
+        public long getImported() {
+            return imported;
+        }
+
+        /**
+         * Gets the number of expired entries which were dropped.
+         *
+         * @return the number of expired entries
+         */
+        public long getStale() {
+            return stale;
+        }
+
+        /**
+         * Gets the number of entries already present locally or for unknown caches.
+         *
+         * @return the number of skipped entries
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+    }
+}
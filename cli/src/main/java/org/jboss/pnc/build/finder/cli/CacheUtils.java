@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static org.jboss.pnc.build.finder.core.AnsiUtils.green;
+
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.CloseableIterator;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.CacheClusterMode;
+import org.jboss.pnc.build.finder.core.CacheFamily;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.protobuf.ProtobufSerializerImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the cache manager for the local caches.
+ */
+public final class CacheUtils {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheUtils.class);
+
+    private CacheUtils() {
+        throw new IllegalArgumentException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Creates a cache manager with the caches of all families defined, but not started. Each cache is started on
+     * first use, so only the caches needed by the selected mode are opened.
+     * <p>
+     * If a cache cluster mode other than {@link CacheClusterMode#local} is configured, the build resolution caches
+     * join a JGroups cluster using the configured JGroups stack, so that resolutions are reused by every member.
+     *
+     * @param config the configuration
+     * @param location the cache location
+     * @param checksumTypes the checksum types in use
+     * @return the cache manager
+     */
+    public static EmbeddedCacheManager createCacheManager(
+            BuildConfig config,
+            Path location,
+            Collection<ChecksumType> checksumTypes) {
+        GlobalConfigurationBuilder globalConfig = new GlobalConfigurationBuilder();
+        String cacheLocation = location.toString();
+        CacheClusterMode clusterMode = config.getCacheClusterMode();
+
+        if (clusterMode != CacheClusterMode.local) {
+            globalConfig.transport()
+                    .defaultTransport()
+                    .clusterName(config.getCacheClusterName())
+                    .addProperty(JGroupsTransport.CONFIGURATION_FILE, config.getCacheClusterConfig());
+        }
+
+        globalConfig.globalState()
+                .persistentLocation(cacheLocation)
+                .serialization()
+                .addContextInitializer(new ProtobufSerializerImpl())
+                .allowList()
+                .addRegexp(".*")
+                .create();
+
+        GlobalConfiguration globalConfiguration = globalConfig.build();
+        EmbeddedCacheManager cacheManager = new DefaultCacheManager(globalConfiguration);
+
+        for (CacheFamily family : CacheFamily.values()) {
+            // Only the build resolution caches are shared, since the files-* caches depend on the local inputs
+            CacheMode cacheMode = clusterMode == CacheClusterMode.local || !CacheSnapshot.FAMILIES.contains(family)
+                    ? CacheMode.LOCAL
+                    : clusterMode == CacheClusterMode.replicated ? CacheMode.REPL_SYNC : CacheMode.DIST_SYNC;
+            // Only a bounded number of entries is kept in memory. Evicted entries stay in the file store and are
+            // loaded on demand, so the store is not preloaded. Infinispan evicts using W-TinyLFU, which combines
+            // recency (LRU) and frequency (LFU)
+            Configuration configuration = new ConfigurationBuilder().clustering()
+                    .cacheMode(cacheMode)
+                    .memory()
+                    .maxCount(config.getCacheMaxEntries(family))
+                    .whenFull(EvictionStrategy.REMOVE)
+                    .expiration()
+                    .lifespan(config.getCacheLifespan())
+                    .wakeUpInterval(-1L)
+                    .persistence()
+                    .addSoftIndexFileStore()
+                    .segmented(true)
+                    .shared(false)
+                    .preload(false)
+                    .purgeOnStartup(false)
+                    .dataLocation(cacheLocation)
+                    .indexLocation(cacheLocation)
+                    .build();
+
+            for (String cacheName : family.getCacheNames(checksumTypes)) {
+                cacheManager.defineConfiguration(cacheName, configuration);
+            }
+        }
+
+        return cacheManager;
+    }
+
+    /**
+     * Gets the names of all caches.
+     *
+     * @param checksumTypes the checksum types in use
+     * @return the cache names
+     */
+    public static List<String> getCacheNames(Collection<ChecksumType> checksumTypes) {
+        List<String> names = new ArrayList<>();
+
+        for (CacheFamily family : CacheFamily.values()) {
+            names.addAll(family.getCacheNames(checksumTypes));
+        }
+
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Enforces the stored entry limit of each cache family on the local caches that were opened, so that the cache
+     * directory stays bounded without running {@code cache --purge}. Call it before closing the cache manager.
+     * <p>
+     * Clustered caches are skipped: their entries are shared with the other members, and trimming them on every
+     * member's shutdown would remove entries across the whole cluster.
+     *
+     * @param cacheManager the cache manager
+     * @param maxStoredEntriesPerFamily the maximum number of stored entries of each cache of a family
+     * @param checksumTypes the checksum types in use
+     */
+    public static void enforceStoredEntryLimits(
+            EmbeddedCacheManager cacheManager,
+            Map<CacheFamily, Long> maxStoredEntriesPerFamily,
+            Collection<ChecksumType> checksumTypes) {
+        for (Entry<CacheFamily, Long> entry : maxStoredEntriesPerFamily.entrySet()) {
+            for (String cacheName : entry.getKey().getCacheNames(checksumTypes)) {
+                // Caches are opened on first use, so the other caches cannot have grown during this run
+                if (!cacheManager.isRunning(cacheName)) {
+                    continue;
+                }
+
+                AdvancedCache<Object, Object> cache = cacheManager.getCache(cacheName).getAdvancedCache();
+
+                if (cache.getCacheConfiguration().clustering().cacheMode().isClustered()) {
+                    LOGGER.debug("Not enforcing the stored entry limit of clustered cache {}", cacheName);
+                    continue;
+                }
+
+                int removed = removeOldestEntries(cache, entry.getValue());
+
+                if (removed > 0) {
+                    LOGGER.info(
+                            "Removed {} entries over the stored entry limit from cache {}",
+                            green(removed),
+                            green(cacheName));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes entries of a cache until it holds at most the given number of entries.
+     * <p>
+     * This is not an LRU or LFU policy, since the store does not record when an entry was read. Entries held in memory
+     * were used since the cache was opened, and the memory keeps the most recently and frequently used of them, so the
+     * other entries are removed first. Among those, the entries which expire first, which are the oldest ones written,
+     * are removed first. The expiration time is used rather than the creation time, since compacting the cache keeps
+     * the former but not the latter.
+     *
+     * @param cache the cache
+     * @param maxStoredEntries the maximum number of entries
+     * @return the number of removed entries
+     */
+    public static int removeOldestEntries(AdvancedCache<Object, Object> cache, long maxStoredEntries) {
+        int size = cache.size();
+
+        if (size <= maxStoredEntries) {
+            return 0;
+        }
+
+        int numToRemove = (int) (size - maxStoredEntries);
+        Set<Object> used = new HashSet<>(cache.withFlags(Flag.SKIP_CACHE_LOAD).keySet());
+        Comparator<Entry<Object, Long>> order = Comparator
+                .<Entry<Object, Long>, Boolean> comparing(entry -> used.contains(entry.getKey()))
+                .thenComparing(Entry::getValue);
+        // Keep only the entries to remove seen so far, the last of them at the head, instead of sorting all keys
+        PriorityQueue<Entry<Object, Long>> oldest = new PriorityQueue<>(numToRemove, order.reversed());
+
+        try (CloseableIterator<CacheEntry<Object, Object>> it = cache.cacheEntrySet().iterator()) {
+            while (it.hasNext()) {
+                CacheEntry<Object, Object> cacheEntry = it.next();
+                long expiryTime = cacheEntry.getLifespan() < 0L ? Long.MAX_VALUE : cacheEntry.getExpiryTime();
+                Entry<Object, Long> entry = new SimpleImmutableEntry<>(cacheEntry.getKey(), expiryTime);
+
+                if (oldest.size() < numToRemove) {
+                    oldest.add(entry);
+                } else if (order.compare(entry, oldest.peek()) < 0) {
+                    oldest.poll();
+                    oldest.add(entry);
+                }
+            }
+        }
+
+        for (Entry<Object, Long> entry : oldest) {
+            cache.remove(entry.getKey());
+        }
+
+        return oldest.size();
+    }
+}
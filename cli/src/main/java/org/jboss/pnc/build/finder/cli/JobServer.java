@@ -0,0 +1,396 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.boldRed;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.green;
+import static org.jboss.pnc.build.finder.core.Utils.getAllErrorMessages;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.pnc.build.finder.core.BuildFinderObjectMapper;
+import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
+import org.jboss.pnc.build.finder.core.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP server which accepts analysis jobs. The jobs are queued and run by a fixed number of job threads, each
+ * in its own output directory, by a {@link Runner} which may share caches and sessions between them.
+ * <p>
+ * The API consists of:
+ * <ul>
+ * <li>{@code POST /jobs} with a JSON object whose {@code files} array lists the files to analyze, which answers
+ * {@code 202 Accepted} with the queued job</li>
+ * <li>{@code GET /jobs}, which lists the jobs</li>
+ * <li>{@code GET /jobs/<id>}, which gets a job</li>
+ * </ul>
+ * Every request must carry the server token in an {@code Authorization: Bearer <token>} header, since a job makes the
+ * server read local files and fetch URLs on behalf of the caller. Requests without it are answered
+ * {@code 401 Unauthorized}.
+ * <p>
+ * Only a given number of finished jobs are remembered. The output directories of the forgotten jobs are kept.
+ */
+public final class JobServer implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobServer.class);
+
+    private static final String JOBS_PATH = "/jobs";
+
+    private static final String FILES = "files";
+
+    private static final String BEARER = "Bearer ";
+
+    private static final int TOKEN_LENGTH = 32;
+
+    /**
+     * The default maximum number of finished jobs remembered.
+     */
+    public static final int MAX_FINISHED_JOBS = 100;
+
+    private static final ObjectMapper MAPPER = new BuildFinderObjectMapper();
+
+    private static final ObjectWriter WRITER = MAPPER.writer()
+            .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final HttpServer server;
+
+    private final ExecutorService jobPool;
+
+    private final Path outputDirectory;
+
+    private final Runner runner;
+
+    private final int maxFinishedJobs;
+
+    private final byte[] token;
+
+    private final Map<String, ServeJob> jobs = new LinkedHashMap<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Runs the jobs of a {@link JobServer}.
+     */
+    @FunctionalInterface
+    public interface Runner {
+        /**
+         * Analyzes the files of a job.
+         *
+         * @param files the files to analyze
+         * @param outputDirectory the output directory of the job, which exists
+         * @return the number of builds found
+         * @throws Exception if an error occurs while running the job
+         */
+        int run(List<String> files, Path outputDirectory) throws Exception;
+    }
+
+    /**
+     * Creates a job server. It does not accept requests before {@link #start()} is called.
+     *
+     * @param address the address to listen on
+     * @param numJobs the number of jobs run at the same time
+     * @param outputDirectory the directory containing the output directory of each job
+     * @param runner the job runner
+     * @param token the token which the requests must carry
+     * @throws IOException if the server cannot listen on the address
+     */
+    public JobServer(InetSocketAddress address, int numJobs, Path outputDirectory, Runner runner, String token)
+            throws IOException {
+        this(address, numJobs, outputDirectory, runner, token, MAX_FINISHED_JOBS);
+    }
+
+    /**
+     * Creates a job server. It does not accept requests before {@link #start()} is called.
+     *
+     * @param address the address to listen on
+     * @param numJobs the number of jobs run at the same time
+     * @param outputDirectory the directory containing the output directory of each job
+     * @param runner the job runner
+     * @param token the token which the requests must carry
+     * @param maxFinishedJobs the maximum number of finished jobs remembered, beyond which the oldest are forgotten
+     * @throws IOException if the server cannot listen on the address
+     */
+    public JobServer(
+            InetSocketAddress address,
+            int numJobs,
+            Path outputDirectory,
+            Runner runner,
+            String token,
+            int maxFinishedJobs) throws IOException {
+        if (token.isEmpty()) {
+            throw new IllegalArgumentException("The token must not be empty");
+        }
+
+        this.outputDirectory = outputDirectory;
+        this.runner = runner;
+        this.token = token.getBytes(UTF_8);
+        this.maxFinishedJobs = maxFinishedJobs;
+        jobPool = Executors.newFixedThreadPool(numJobs);
+        server = HttpServer.create(address, 0);
+        server.createContext(JOBS_PATH, this::handle);
+    }
+
+    /**
+     * Generates a random token for a server.
+     *
+     * @return the token
+     */
+    public static String generateToken() {
+        byte[] bytes = new byte[TOKEN_LENGTH];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public void start() {
+        server.start();
+
+        LOGGER.info("Accepting jobs on {}", green("http://" + server.getAddress().getHostString() + ":" + getPort()));
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Queues a job.
+     *
+     * @param files the files to analyze
+     * @return the job
+     */
+    public ServeJob submit(List<String> files) {
+        String id = UUID.randomUUID().toString();
+        ServeJob job = new ServeJob(id, files, outputDirectory.resolve(id));
+
+        synchronized (jobs) {
+            jobs.put(id, job);
+        }
+
+        jobPool.execute(() -> run(job));
+
+        LOGGER.info("Queued job {} for files {}", green(id), green(files));
+
+        return job;
+    }
+
+    public Optional<ServeJob> getJob(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    public List<ServeJob> getJobs() {
+        synchronized (jobs) {
+            return Collections.unmodifiableList(new ArrayList<>(jobs.values()));
+        }
+    }
+
+    private void run(ServeJob job) {
+        try {
+            runJob(job);
+        } finally {
+            forgetFinishedJobs();
+        }
+    }
+
+    private void forgetFinishedJobs() {
+        synchronized (jobs) {
+            long numFinished = jobs.values().stream().filter(ServeJob::isFinished).count();
+            Iterator<ServeJob> it = jobs.values().iterator();
+
+            // The jobs are in submission order, so the oldest finished jobs are forgotten first
+            while (numFinished > maxFinishedJobs && it.hasNext()) {
+                if (it.next().isFinished()) {
+                    it.remove();
+                    numFinished--;
+                }
+            }
+        }
+    }
+
+    private void runJob(ServeJob job) {
+        if (closed) {
+            job.fail("Server stopped");
+            return;
+        }
+
+        job.start();
+
+        LOGGER.info("Running job {}", green(job.getId()));
+
+        try {
+            Files.createDirectories(job.getOutputPath());
+
+            int numberOfBuilds = runner.run(job.getFiles(), job.getOutputPath());
+
+            job.finish(numberOfBuilds);
+
+            LOGGER.info("Job {} found {} builds", green(job.getId()), green(numberOfBuilds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted");
+        } catch (Exception e) {
+            String error = getAllErrorMessages(e);
+
+            LOGGER.error("Job {} failed: {}", boldRed(job.getId()), boldRed(error));
+            LOGGER.debug("Error", e);
+
+            job.fail(error);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+
+            if (!isAuthorized(exchange)) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                sendError(exchange, HttpURLConnection.HTTP_UNAUTHORIZED, "Missing or invalid token");
+            } else if (JOBS_PATH.equals(path)) {
+                if ("GET".equals(method)) {
+                    send(exchange, HttpURLConnection.HTTP_OK, getJobs());
+                } else if ("POST".equals(method)) {
+                    handleSubmit(exchange);
+                } else {
+                    sendError(exchange, HttpURLConnection.HTTP_BAD_METHOD, "Method not allowed: " + method);
+                }
+            } else if (path.startsWith(JOBS_PATH + "/")) {
+                Optional<ServeJob> job = getJob(path.substring(JOBS_PATH.length() + 1));
+
+                if (!"GET".equals(method)) {
+                    sendError(exchange, HttpURLConnection.HTTP_BAD_METHOD, "Method not allowed: " + method);
+                } else if (job.isPresent()) {
+                    send(exchange, HttpURLConnection.HTTP_OK, job.get());
+                } else {
+                    sendError(exchange, HttpURLConnection.HTTP_NOT_FOUND, "No such job: " + path);
+                }
+            } else {
+                sendError(exchange, HttpURLConnection.HTTP_NOT_FOUND, "Not found: " + path);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Error handling request: {}", boldRed(getAllErrorMessages(e)));
+            LOGGER.debug("Error", e);
+            sendError(exchange, HttpURLConnection.HTTP_INTERNAL_ERROR, getAllErrorMessages(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return false;
+        }
+
+        // Compare in constant time, so that the token cannot be guessed from the response times
+        return MessageDigest.isEqual(token, authorization.substring(BEARER.length()).getBytes(UTF_8));
+    }
+
+    private void handleSubmit(HttpExchange exchange) throws IOException {
+        JsonNode request;
+
+        try {
+            request = MAPPER.readTree(exchange.getRequestBody());
+        } catch (JsonProcessingException e) {
+            sendError(exchange, HttpURLConnection.HTTP_BAD_REQUEST, "Invalid JSON: " + e.getOriginalMessage());
+            return;
+        }
+
+        JsonNode filesNode = request != null ? request.get(FILES) : null;
+
+        if (filesNode == null || !filesNode.isArray() || filesNode.isEmpty()) {
+            sendError(exchange, HttpURLConnection.HTTP_BAD_REQUEST, "Missing non-empty array: " + FILES);
+            return;
+        }
+
+        List<String> files = new ArrayList<>(filesNode.size());
+
+        for (JsonNode fileNode : filesNode) {
+            if (!fileNode.isTextual()) {
+                sendError(exchange, HttpURLConnection.HTTP_BAD_REQUEST, "Not a file name: " + fileNode);
+                return;
+            }
+
+            files.add(fileNode.asText());
+        }
+
+        try {
+            // The files are resolved like the analyzer does, so that URLs are accepted as well as local paths
+            DistributionAnalyzer.checkInputs(files);
+        } catch (IOException e) {
+            sendError(exchange, HttpURLConnection.HTTP_BAD_REQUEST, getAllErrorMessages(e));
+            return;
+        }
+
+        ServeJob job = submit(files);
+
+        exchange.getResponseHeaders().set("Location", JOBS_PATH + "/" + job.getId());
+        send(exchange, HttpURLConnection.HTTP_ACCEPTED, job);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String error) throws IOException {
+        send(exchange, status, Collections.singletonMap("error", error));
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = WRITER.writeValueAsBytes(body);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Stops accepting requests, then waits for the running jobs to finish. Queued jobs which did not start are not run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        server.stop(0);
+        Utils.shutdownAndAwaitTermination(jobPool);
+    }
+}
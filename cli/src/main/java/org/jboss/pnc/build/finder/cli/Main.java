@@ -25,16 +25,18 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -43,37 +45,34 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections4.MultiValuedMap;
-import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.infinispan.commons.util.Version;
-import org.infinispan.configuration.cache.Configuration;
-import org.infinispan.configuration.cache.ConfigurationBuilder;
-import org.infinispan.configuration.global.GlobalConfiguration;
-import org.infinispan.configuration.global.GlobalConfigurationBuilder;
-import org.infinispan.configuration.global.GlobalConfigurationChildBuilder;
-import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.jboss.pnc.build.finder.core.BuildConfig;
 import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystem;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
-import org.jboss.pnc.build.finder.core.Checksum;
+import org.jboss.pnc.build.finder.core.CacheClusterMode;
+import org.jboss.pnc.build.finder.core.CacheFamily;
 import org.jboss.pnc.build.finder.core.ChecksumType;
 import org.jboss.pnc.build.finder.core.ConfigDefaults;
+import org.jboss.pnc.build.finder.core.Digest;
+import org.jboss.pnc.build.finder.core.DigestMultiValuedMap;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.JSONUtils;
+import org.jboss.pnc.build.finder.core.JsonCompression;
+import org.jboss.pnc.build.finder.core.LicenseExtractionMode;
 import org.jboss.pnc.build.finder.core.LocalFile;
+import org.jboss.pnc.build.finder.core.ResultBundle;
 import org.jboss.pnc.build.finder.core.Utils;
 import org.jboss.pnc.build.finder.koji.KojiBuild;
 import org.jboss.pnc.build.finder.koji.KojiClientSession;
 import org.jboss.pnc.build.finder.koji.KojiJSONUtils;
 import org.jboss.pnc.build.finder.pnc.client.CachingPncClient;
 import org.jboss.pnc.build.finder.pnc.client.PncClient;
-import org.jboss.pnc.build.finder.protobuf.ProtobufSerializerImpl;
 import org.jboss.pnc.build.finder.report.Report;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Maps;
 import com.redhat.red.build.koji.KojiClientException;
 
 import ch.qos.logback.classic.Level;
@@ -89,6 +88,7 @@ import picocli.CommandLine.ITypeConverter;
 import picocli.CommandLine.IVersionProvider;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.Spec;
 
@@ -99,18 +99,19 @@ import picocli.CommandLine.Spec;
         name = "build-finder",
         showDefaultValues = true,
         showEndOfOptionsDelimiterInUsageHelp = true,
+        subcommands = { CacheCommand.class, ServeCommand.class },
         versionProvider = Main.ManifestVersionProvider.class)
 public final class Main implements Callable<Void> {
     private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
 
-    private static final int NEWMAP_SIZE = 45858;
-
     private ExecutorService pool;
 
     private ExecutorService finderPool;
 
     private EmbeddedCacheManager cacheManager;
 
+    private Map<CacheFamily, Long> cacheMaxStoredEntriesPerFamily;
+
     @Spec
     private CommandSpec commandSpec;
 
@@ -127,9 +128,27 @@ public final class Main implements Callable<Void> {
             description = "Add a build system (${COMPLETION-CANDIDATES}).")
     private List<BuildSystem> buildSystems = ConfigDefaults.BUILD_SYSTEMS;
 
+    @Option(
+            names = "--cache-cluster-mode",
+            paramLabel = "MODE",
+            description = "Share the build resolution caches with other processes (${COMPLETION-CANDIDATES}).")
+    private CacheClusterMode cacheClusterMode = ConfigDefaults.CACHE_CLUSTER_MODE;
+
     @Option(names = "--cache-lifespan", paramLabel = "LONG", description = "Specify cache lifespan.")
     private Long cacheLifespan = ConfigDefaults.CACHE_LIFESPAN;
 
+    @Option(
+            names = "--cache-max-entries",
+            paramLabel = "LONG",
+            description = "Specify maximum number of entries kept in memory for each cache.")
+    private Long cacheMaxEntries = ConfigDefaults.CACHE_MAX_ENTRIES;
+
+    @Option(
+            names = "--cache-snapshot",
+            paramLabel = "FILE",
+            description = "Merge the given cache snapshot into the local cache at startup.")
+    private Path cacheSnapshot;
+
     @Option(names = { "-c", "--config" }, paramLabel = "FILE", description = "Specify configuration file to use.")
     private Path configFile = ConfigDefaults.CONFIG;
 
@@ -152,6 +171,29 @@ public final class Main implements Callable<Void> {
     @Option(names = { "-k", "--checksum-only" }, description = "Only checksum files and do not find builds.")
     private Boolean checksumOnly = ConfigDefaults.CHECKSUM_ONLY;
 
+    @Option(
+            names = "--checksum-queue-size",
+            paramLabel = "INT",
+            description = "Set the maximum number of checksums waiting for build lookup before checksumming blocks "
+                    + "(0 does not limit it).")
+    private Integer checksumQueueSize = ConfigDefaults.CHECKSUM_QUEUE_SIZE;
+
+    @Option(
+            names = "--checksum-spill-threshold",
+            paramLabel = "LONG",
+            description = "Spill checksums to disk beyond this number of entries in memory for each checksum type "
+                    + "(0 keeps all checksums in memory).")
+    private Long checksumSpillThreshold = ConfigDefaults.CHECKSUM_SPILL_THRESHOLD;
+
+    @Option(names = "--json-compact", description = "Write the builds and checksums files without indentation.")
+    private Boolean jsonCompact = ConfigDefaults.JSON_COMPACT;
+
+    @Option(
+            names = "--json-compression",
+            paramLabel = "COMPRESSION",
+            description = "Compress the builds and checksums files (${COMPLETION-CANDIDATES}).")
+    private JsonCompression jsonCompression = ConfigDefaults.JSON_COMPRESSION;
+
     @Option(names = "--koji-hub-url", paramLabel = "URL", description = "Set Koji hub URL.")
     private URL kojiHubURL = ConfigDefaults.KOJI_HUB_URL;
 
@@ -184,6 +226,13 @@ public final class Main implements Callable<Void> {
     @Option(names = "--krb-service", paramLabel = "STRING", description = "Set Kerberos client service.")
     private String krbService;
 
+    @Option(
+            names = "--license-extraction-mode",
+            paramLabel = "MODE",
+            description = "Extract licenses from all files, only from files of found builds, or not at all "
+                    + "(${COMPLETION-CANDIDATES}).")
+    private LicenseExtractionMode licenseExtractionMode = ConfigDefaults.LICENSE_EXTRACTION_MODE;
+
     @Option(names = { "-o", "--output-directory" }, paramLabel = "FILE", description = "Set output directory.")
     private Path outputDirectory = Path.of(ConfigDefaults.OUTPUT_DIR);
 
@@ -199,6 +248,19 @@ public final class Main implements Callable<Void> {
     @Option(names = { "-q", "--quiet" }, description = "Disable all logging.")
     private boolean quiet;
 
+    @Option(
+            names = "--report-archives-page-size",
+            paramLabel = "INT",
+            description = "Split the artifact lists of builds in the HTML report into collapsible pages of this size "
+                    + "(0 lists all artifacts of a build at once).")
+    private Integer reportArchivesPageSize = ConfigDefaults.REPORT_ARCHIVES_PAGE_SIZE;
+
+    @Option(
+            names = "--result-bundle",
+            description = "Also write the checksums and builds to a binary result bundle, and load it instead of the "
+                    + "JSON files when it exists.")
+    private Boolean resultBundle = ConfigDefaults.RESULT_BUNDLE;
+
     @Option(
             names = { "-t", "--checksum-type" },
             paramLabel = "CHECKSUM",
@@ -217,7 +279,8 @@ public final class Main implements Callable<Void> {
             description = "Add a pattern to exclude from build lookup.")
     private List<Pattern> excludes = ConfigDefaults.EXCLUDES;
 
-    @Parameters(arity = "1..*", paramLabel = "FILE", description = "One or more files.")
+    // Not required at parse time so that subcommands can be used without files
+    @Parameters(arity = "0..*", paramLabel = "FILE", description = "One or more files.")
     private List<String> files;
 
     public static void main(String[] args) {
@@ -317,20 +380,34 @@ public final class Main implements Callable<Void> {
             LOGGER.info("Using build systems: {}", green(buildSystems));
         }
 
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--cache-cluster-mode")) {
+            config.setCacheClusterMode(cacheClusterMode);
+        }
+
         if (commandSpec.commandLine().getParseResult().hasMatchedOption("--cache-lifespan")) {
             config.setCacheLifespan(cacheLifespan);
         }
 
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--cache-max-entries")) {
+            config.setCacheMaxEntries(cacheMaxEntries);
+        }
+
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--cache-snapshot")) {
+            config.setCacheSnapshot(cacheSnapshot.toString());
+        }
+
         if (commandSpec.commandLine().getParseResult().hasMatchedOption("--disable-cache")) {
             config.setDisableCache(disableCache);
             LOGGER.info("Local cache: {}", green("disabled"));
         } else {
             LOGGER.info(
-                    "Local cache: {} ({} {}), lifespan: {}",
+                    "Local cache: {} ({} {}), lifespan: {}, max entries in memory: {}, cluster mode: {}",
                     green("enabled"),
                     green(Version.getBrandName()),
                     green(Version.getVersion()),
-                    green(config.getCacheLifespan()));
+                    green(config.getCacheLifespan()),
+                    green(config.getCacheMaxEntries()),
+                    green(config.getCacheClusterMode()));
         }
 
         if (commandSpec.commandLine().getParseResult().hasMatchedOption("--disable-recursion")) {
@@ -341,6 +418,14 @@ public final class Main implements Callable<Void> {
             config.setChecksumOnly(checksumOnly);
         }
 
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--checksum-queue-size")) {
+            config.setChecksumQueueSize(checksumQueueSize);
+        }
+
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--checksum-spill-threshold")) {
+            config.setChecksumSpillThreshold(checksumSpillThreshold);
+        }
+
         if (commandSpec.commandLine().getParseResult().hasMatchedOption("-t")) {
             config.setChecksumTypes(checksumTypes);
         }
@@ -357,6 +442,14 @@ public final class Main implements Callable<Void> {
             config.setExcludes(excludes);
         }
 
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--json-compact")) {
+            config.setJsonCompact(jsonCompact);
+        }
+
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--json-compression")) {
+            config.setJsonCompression(jsonCompression);
+        }
+
         if (commandSpec.commandLine().getParseResult().hasMatchedOption("--koji-hub-url")) {
             config.setKojiHubURL(kojiHubURL);
         }
@@ -393,6 +486,10 @@ public final class Main implements Callable<Void> {
             LOGGER.debug("Read Kerberos password");
         }
 
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--license-extraction-mode")) {
+            config.setLicenseExtractionMode(licenseExtractionMode);
+        }
+
         if (commandSpec.commandLine().getParseResult().hasMatchedOption("--pnc-num-threads")) {
             config.setPncNumThreads(pncNumThreads);
         }
@@ -405,6 +502,14 @@ public final class Main implements Callable<Void> {
             config.setPncURL(pncURL);
         }
 
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--report-archives-page-size")) {
+            config.setReportArchivesPageSize(reportArchivesPageSize);
+        }
+
+        if (commandSpec.commandLine().getParseResult().hasMatchedOption("--result-bundle")) {
+            config.setResultBundle(resultBundle);
+        }
+
         if (commandSpec.commandLine().getParseResult().hasMatchedOption("--use-builds-file")) {
             config.setUseBuildsFile(useBuildsFile);
         }
@@ -422,49 +527,42 @@ public final class Main implements Callable<Void> {
     }
 
     private void initCaches(BuildConfig config) {
-        GlobalConfigurationChildBuilder globalConfig = new GlobalConfigurationBuilder();
-        String cacheLocation = ConfigDefaults.CACHE_LOCATION.toString();
-
-        globalConfig.globalState()
-                .persistentLocation(cacheLocation)
-                .serialization()
-                .addContextInitializer(new ProtobufSerializerImpl())
-                .allowList()
-                .addRegexp(".*")
-                .create();
-
-        GlobalConfiguration globalConfiguration = globalConfig.build();
-        Configuration configuration = new ConfigurationBuilder().expiration()
-                .lifespan(config.getCacheLifespan())
-                .wakeUpInterval(-1L)
-                .persistence()
-                .addSoftIndexFileStore()
-                .segmented(true)
-                .shared(false)
-                .preload(true)
-                .purgeOnStartup(false)
-                .dataLocation(cacheLocation)
-                .indexLocation(cacheLocation)
-                .build();
-
-        cacheManager = new DefaultCacheManager(globalConfiguration);
+        cacheManager = CacheUtils.createCacheManager(config, ConfigDefaults.CACHE_LOCATION, checksumTypes);
+        cacheMaxStoredEntriesPerFamily = config.getCacheMaxStoredEntriesPerFamily();
 
-        for (ChecksumType checksumType : checksumTypes) {
-            cacheManager.defineConfiguration("files-" + checksumType, configuration);
-            cacheManager.defineConfiguration("checksums-" + checksumType, configuration);
-            cacheManager.defineConfiguration("checksums-pnc-" + checksumType, configuration);
-            cacheManager.defineConfiguration("rpms-" + checksumType, configuration);
-        }
+        String snapshot = config.getCacheSnapshot();
 
-        cacheManager.defineConfiguration("builds", configuration);
-        cacheManager.defineConfiguration("builds-pnc", configuration);
-        cacheManager.defineConfiguration("artifact-pnc", configuration);
+        if (snapshot != null) {
+            Path snapshotFile = Path.of(snapshot);
 
-        cacheManager.startCaches();
+            try {
+                CacheSnapshot.ImportResult result = CacheSnapshot.importSnapshot(
+                        cacheManager,
+                        CacheSnapshot.getCacheNames(checksumTypes),
+                        snapshotFile,
+                        config.getCacheLifespan());
+                LOGGER.info(
+                        "Imported {} entries from cache snapshot {} ({} stale, {} skipped)",
+                        green(result.getImported()),
+                        green(snapshotFile),
+                        green(result.getStale()),
+                        green(result.getSkipped()));
+            } catch (IOException e) {
+                LOGGER.warn("Error importing cache snapshot {}: {}", red(snapshotFile), red(getAllErrorMessages(e)));
+                LOGGER.debug("Error", e);
+            }
+        }
     }
 
     private void closeCaches() {
         if (cacheManager != null) {
+            try {
+                CacheUtils.enforceStoredEntryLimits(cacheManager, cacheMaxStoredEntriesPerFamily, checksumTypes);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Error enforcing stored entry limits: {}", red(getAllErrorMessages(e)));
+                LOGGER.debug("Error", e);
+            }
+
             try {
                 cacheManager.close();
             } catch (IOException e) {
@@ -484,6 +582,33 @@ public final class Main implements Callable<Void> {
         }
     }
 
+    /**
+     * Finds a checksums or builds file which is newer than the result bundle. The files are written before the bundle,
+     * so a newer file was written by a later run without the bundle, and the bundle is stale.
+     *
+     * @param bundleFile the result bundle file
+     * @return a newer checksums or builds file, or empty if the bundle is at least as new as all of them
+     * @throws IOException if an error occurs reading the file times
+     */
+    private Optional<Path> findNewerResultFile(Path bundleFile) throws IOException {
+        FileTime bundleTime = Files.getLastModifiedTime(bundleFile);
+        List<Path> files = new ArrayList<>(checksumTypes.size() + 1);
+
+        for (ChecksumType checksumType : checksumTypes) {
+            files.add(JSONUtils.resolveFile(outputDirectory.resolve(BuildFinder.getChecksumFilename(checksumType))));
+        }
+
+        files.add(JSONUtils.resolveFile(outputDirectory.resolve(BuildFinder.getBuildsFilename())));
+
+        for (Path file : files) {
+            if (Files.isRegularFile(file) && Files.getLastModifiedTime(file).compareTo(bundleTime) > 0) {
+                return Optional.of(file);
+            }
+        }
+
+        return Optional.empty();
+    }
+
     private static void writeConfiguration(Path configFile, BuildConfig config) {
         if (Files.exists(configFile)) {
             if (!Files.isRegularFile(configFile)) {
@@ -509,6 +634,10 @@ public final class Main implements Callable<Void> {
 
     @Override
     public Void call() {
+        if (files == null || files.isEmpty()) {
+            throw new ParameterException(commandSpec.commandLine(), "Missing required parameter: '<FILE>'");
+        }
+
         if (quiet) {
             disableLogging();
         } else if (debug) {
@@ -560,34 +689,45 @@ public final class Main implements Callable<Void> {
                                             .collect(Collectors.toUnmodifiableSet()))));
         }
 
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksumsFromFile = new EnumMap<>(ChecksumType.class);
+        ResultBundle bundle = null;
+        Path bundleFile = outputDirectory.resolve(BuildFinder.getResultBundleFilename());
 
-        if (Boolean.TRUE.equals(config.getUseChecksumsFile())) {
-            for (ChecksumType checksumType : checksumTypes) {
-                Path checksumFile = outputDirectory.resolve(BuildFinder.getChecksumFilename(checksumType));
+        if (Boolean.TRUE.equals(config.getResultBundle())
+                && (Boolean.TRUE.equals(config.getUseChecksumsFile()) || Boolean.TRUE.equals(config.getUseBuildsFile()))
+                && Files.isRegularFile(bundleFile)) {
+            try {
+                Optional<Path> newerFile = findNewerResultFile(bundleFile);
 
-                if (Files.isRegularFile(checksumFile) && Files.isReadable(checksumFile)) {
-                    checksumsFromFile.put(checksumType, new ArrayListValuedHashMap<>()); // TODO: size
+                if (newerFile.isPresent()) {
+                    LOGGER.info("Ignoring result bundle {} older than {}", green(bundleFile), green(newerFile.get()));
+                } else {
+                    LOGGER.info("Loading results from bundle: {}", green(bundleFile));
 
-                    LOGGER.info("Loading checksums from file: {}", green(checksumFile));
+                    bundle = ResultBundle.read(bundleFile);
+                }
+            } catch (IOException e) {
+                LOGGER.error("Error loading result bundle: {}", boldRed(e.getMessage()));
+                LOGGER.debug("Error", e);
+                System.exit(1);
+            }
 
-                    try {
-                        Map<String, Collection<LocalFile>> subChecksums = JSONUtils.loadChecksumsFile(checksumFile);
-                        Set<Entry<String, Collection<LocalFile>>> entrySet = subChecksums.entrySet();
+            if (bundle != null && Boolean.TRUE.equals(config.getUseChecksumsFile())
+                    && !bundle.getChecksums().keySet().containsAll(checksumTypes)) {
+                LOGGER.info("Ignoring result bundle {} without all checksum types", green(bundleFile));
 
-                        for (Entry<String, Collection<LocalFile>> entry : entrySet) {
-                            String key = entry.getKey();
-                            Collection<LocalFile> values = entry.getValue();
+                bundle = null;
+            }
+        }
 
-                            for (LocalFile value : values) {
-                                checksumsFromFile.get(checksumType).put(key, value);
-                            }
-                        }
-                    } catch (IOException e) {
-                        LOGGER.error("Error loading checksums file: {}", boldRed(e.getMessage()));
-                        LOGGER.debug("Error", e);
-                        System.exit(1);
-                    }
+        Map<ChecksumType, Path> checksumFiles = new EnumMap<>(ChecksumType.class);
+
+        if (Boolean.TRUE.equals(config.getUseChecksumsFile()) && bundle == null) {
+            for (ChecksumType checksumType : checksumTypes) {
+                Path checksumFile = JSONUtils
+                        .resolveFile(outputDirectory.resolve(BuildFinder.getChecksumFilename(checksumType)));
+
+                if (Files.isRegularFile(checksumFile) && Files.isReadable(checksumFile)) {
+                    checksumFiles.put(checksumType, checksumFile);
                 } else {
                     LOGGER.error("File {} does not exist or is not readable", boldRed(checksumFile));
                     System.exit(1);
@@ -595,7 +735,7 @@ public final class Main implements Callable<Void> {
             }
         }
 
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = checksumsFromFile;
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = new EnumMap<>(ChecksumType.class);
 
         if (Boolean.TRUE.equals(checksumOnly)) {
             if (Boolean.FALSE.equals(config.getUseChecksumsFile())) {
@@ -606,7 +746,7 @@ public final class Main implements Callable<Void> {
                 pool = Executors.newSingleThreadExecutor();
 
                 DistributionAnalyzer analyzer = new DistributionAnalyzer(files, config, cacheManager);
-                Future<Map<ChecksumType, MultiValuedMap<String, LocalFile>>> futureChecksum = pool.submit(analyzer);
+                Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum = pool.submit(analyzer);
 
                 try {
                     checksums = futureChecksum.get();
@@ -639,7 +779,37 @@ public final class Main implements Callable<Void> {
                         System.exit(1);
                     }
                 }
+
+                if (Boolean.TRUE.equals(config.getResultBundle())) {
+                    try {
+                        analyzer.outputToBundle();
+                    } catch (IOException e) {
+                        LOGGER.error("Error writing result bundle: {}", boldRed(e.getMessage()));
+                        LOGGER.debug("Error", e);
+                        System.exit(1);
+                    }
+                }
+
+                analyzer.close();
             } else {
+                if (bundle != null) {
+                    checksums.putAll(bundle.getChecksums());
+                }
+
+                for (Entry<ChecksumType, Path> entry : checksumFiles.entrySet()) {
+                    LOGGER.info("Loading checksums from file: {}", green(entry.getValue()));
+
+                    try {
+                        MultiValuedMap<Digest, LocalFile> fileMap = new DigestMultiValuedMap<>();
+                        JSONUtils.loadChecksumsFile(entry.getValue(), fileMap::putAll);
+                        checksums.put(entry.getKey(), fileMap);
+                    } catch (IOException e) {
+                        LOGGER.error("Error loading checksums file: {}", boldRed(e.getMessage()));
+                        LOGGER.debug("Error", e);
+                        System.exit(1);
+                    }
+                }
+
                 int numChecksums = checksums.values().iterator().next().size();
 
                 LOGGER.info("Total number of checksums: {}", green(numChecksums));
@@ -660,10 +830,12 @@ public final class Main implements Callable<Void> {
 
         BuildFinder finder;
         Map<BuildSystemInteger, KojiBuild> builds = null;
-        Path buildsFile = outputDirectory.resolve(BuildFinder.getBuildsFilename());
+        Path buildsFile = JSONUtils.resolveFile(outputDirectory.resolve(BuildFinder.getBuildsFilename()));
 
         if (Boolean.TRUE.equals(config.getUseBuildsFile())) {
-            if (Files.isRegularFile(buildsFile) && Files.isReadable(buildsFile)) {
+            if (bundle != null && !bundle.getBuilds().isEmpty()) {
+                builds = bundle.getBuilds();
+            } else if (Files.isRegularFile(buildsFile) && Files.isReadable(buildsFile)) {
                 if (LOGGER.isInfoEnabled()) {
                     LOGGER.info("Loading builds from file: {}", green(buildsFile.toAbsolutePath().getParent()));
                 }
@@ -699,39 +871,49 @@ public final class Main implements Callable<Void> {
                                 krbKeytab)
                         : new KojiClientSession(config.getKojiHubURL());
                         PncClient pncClient = config.getPncURL() != null ? new CachingPncClient(config, cacheManager)
-                                : null) {
+                                : null;
+                        DistributionAnalyzer analyzer = new DistributionAnalyzer(files, config, cacheManager)) {
                     if (isKerberos) {
                         LOGGER.info("Using Koji session with Kerberos service: {}", green(krbService));
                     } else {
                         LOGGER.info("Using anonymous Koji session");
                     }
 
-                    DistributionAnalyzer analyzer = new DistributionAnalyzer(files, config, cacheManager);
-
-                    analyzer.setChecksums(checksums);
-
                     if (config.getPncURL() != null) {
                         finder = new BuildFinder(session, config, analyzer, cacheManager, pncClient);
                     } else {
                         finder = new BuildFinder(session, config, analyzer, cacheManager);
                     }
 
-                    Map<Checksum, Collection<String>> newMap = Maps.newHashMapWithExpectedSize(NEWMAP_SIZE);
+                    finder.setOutputDirectory(outputDirectory);
 
-                    for (ChecksumType checksumType : checksumTypes) {
-                        Map<String, Collection<LocalFile>> map = checksums.get(checksumType).asMap();
+                    // Builds are looked up on this thread while the checksums files are still being loaded
+                    pool = Executors.newSingleThreadExecutor();
+                    Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum = pool.submit(
+                            bundle != null ? analyzer.loadChecksumsTask(bundle)
+                                    : analyzer.loadChecksumsTask(checksumFiles));
+                    builds = finder.call();
 
-                        for (Entry<String, Collection<LocalFile>> entry : map.entrySet()) {
-                            for (LocalFile filename : entry.getValue()) {
-                                newMap.put(
-                                        new Checksum(checksumType, entry.getKey(), filename),
-                                        entry.getValue().stream().map(LocalFile::getFilename).toList());
-                            }
-                        }
+                    try {
+                        checksums = futureChecksum.get();
+                    } catch (ExecutionException e) {
+                        LOGGER.error("Error loading checksums file: {}", boldRed(getAllErrorMessages(e)));
+                        LOGGER.debug("Error", e);
+                        System.exit(1);
+                    } catch (InterruptedException e) {
+                        LOGGER.warn("Thread interrupted while loading checksums");
+                        LOGGER.debug("Error", e);
+                        Thread.currentThread().interrupt();
                     }
 
-                    finder.setOutputDirectory(outputDirectory);
-                    builds = finder.findBuilds(newMap);
+                    if (Boolean.TRUE.equals(config.getResultBundle())) {
+                        try {
+                            finder.outputToBundle(builds);
+                        } catch (IOException e) {
+                            LOGGER.error("Error writing result bundle: {}", boldRed(e.getMessage()));
+                            LOGGER.debug("Error", e);
+                        }
+                    }
                 } catch (KojiClientException e) {
                     LOGGER.error("Error finding builds: {}", boldRed(e.getMessage()));
                     LOGGER.debug("Error", e);
@@ -742,16 +924,20 @@ public final class Main implements Callable<Void> {
                     initCaches(config);
                 }
 
-                pool = Executors.newFixedThreadPool(2);
+                pool = Executors.newSingleThreadExecutor();
                 finderPool = Executors.newSingleThreadExecutor();
 
+                // Builds are looked up while the files are still being checksummed
                 DistributionAnalyzer analyzer = new DistributionAnalyzer(files, config, cacheManager);
-                Future<Map<ChecksumType, MultiValuedMap<String, LocalFile>>> futureChecksum = pool.submit(analyzer);
+                Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum = pool
+                        .submit(analyzer.analyzeTask(config.getChecksumQueueSize()));
 
                 boolean isKerberos = krbService != null && krbPrincipal != null && krbPassword != null
                         || krbCCache != null || krbKeytab != null;
 
-                try (KojiClientSession session = isKerberos
+                // The checksums spilled to disk are deleted once the output files are written
+                try (analyzer;
+                        KojiClientSession session = isKerberos
                         ? new KojiClientSession(
                                 config.getKojiHubURL(),
                                 krbService,
@@ -776,18 +962,32 @@ public final class Main implements Callable<Void> {
 
                     finder.setOutputDirectory(outputDirectory);
 
+                    BuildFinder buildFinder = finder;
+                    Future<Map<BuildSystemInteger, KojiBuild>> futureBuilds = finderPool.submit(() -> {
+                        try {
+                            return buildFinder.call();
+                        } catch (KojiClientException | RuntimeException e) {
+                            // Stop checksumming, which would otherwise wait forever for the queue to be taken from
+                            futureChecksum.cancel(true);
+                            throw e;
+                        }
+                    });
+
                     try {
                         checksums = futureChecksum.get();
                     } catch (ExecutionException e) {
                         LOGGER.error("Error getting checksums: {}", boldRed(getAllErrorMessages(e)));
                         LOGGER.debug("Error", e);
                         System.exit(1);
+                    } catch (CancellationException e) {
+                        LOGGER.debug("Checksumming cancelled since finding builds failed", e);
                     } catch (InterruptedException e) {
                         LOGGER.warn("Thread interrupted while getting checksums");
                         LOGGER.debug("Error", e);
                         Thread.currentThread().interrupt();
                     }
 
+                    // The checksums files are written while the last builds are still being looked up
                     Set<ChecksumType> keySet = checksums.keySet();
 
                     for (ChecksumType checksumType : keySet) {
@@ -804,8 +1004,6 @@ public final class Main implements Callable<Void> {
                         LOGGER.warn("The list of checksums is empty");
                     }
 
-                    Future<Map<BuildSystemInteger, KojiBuild>> futureBuilds = finderPool.submit(finder);
-
                     try {
                         builds = futureBuilds.get();
                     } catch (ExecutionException e) {
@@ -826,11 +1024,24 @@ public final class Main implements Callable<Void> {
                     }
 
                     try {
-                        JSONUtils.dumpObjectToFile(builds, buildsFile);
+                        JSONUtils.writeMap(
+                                builds,
+                                finder.getBuildsFile(),
+                                config.getJsonCompact(),
+                                config.getJsonCompression());
                     } catch (IOException e) {
                         LOGGER.error("Error writing builds file: {}", boldRed(e.getMessage()));
                         LOGGER.debug("Error", e);
                     }
+
+                    if (Boolean.TRUE.equals(config.getResultBundle())) {
+                        try {
+                            finder.outputToBundle(builds);
+                        } catch (IOException e) {
+                            LOGGER.error("Error writing result bundle: {}", boldRed(e.getMessage()));
+                            LOGGER.debug("Error", e);
+                        }
+                    }
                 } catch (KojiClientException e) {
                     LOGGER.error("Error finding builds: {}", boldRed(e.getMessage()));
                     LOGGER.debug("Koji Client Error", e);
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static org.jboss.pnc.build.finder.core.AnsiUtils.boldRed;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.green;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.red;
+import static org.jboss.pnc.build.finder.core.Utils.getAllErrorMessages;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.BuildFinder;
+import org.jboss.pnc.build.finder.core.BuildSystemInteger;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.ConfigDefaults;
+import org.jboss.pnc.build.finder.core.Digest;
+import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
+import org.jboss.pnc.build.finder.core.JSONUtils;
+import org.jboss.pnc.build.finder.core.LocalFile;
+import org.jboss.pnc.build.finder.core.SpdxLicenseUtils;
+import org.jboss.pnc.build.finder.core.Utils;
+import org.jboss.pnc.build.finder.koji.KojiBuild;
+import org.jboss.pnc.build.finder.koji.KojiClientSession;
+import org.jboss.pnc.build.finder.pnc.client.CachingPncClient;
+import org.jboss.pnc.build.finder.pnc.client.PncClient;
+import org.jboss.pnc.build.finder.report.Report;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redhat.red.build.koji.KojiClientException;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Runs build-finder as a long-running process which accepts analysis jobs over a local HTTP API. The SPDX license
+ * list, the caches, the Koji archive types and the Koji and PNC sessions are set up once and shared by all jobs, so
+ * that each job only pays for its own files.
+ */
+@Command(
+        description = "Accepts analysis jobs over a local HTTP API, sharing caches and sessions between them.",
+        mixinStandardHelpOptions = true,
+        name = "serve",
+        showDefaultValues = true)
+public final class ServeCommand implements Callable<Integer> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServeCommand.class);
+
+    private static final String TOKEN_FILENAME = "serve.token";
+
+    @Option(names = { "-c", "--config" }, paramLabel = "FILE", description = "Specify configuration file to use.")
+    private Path configFile = ConfigDefaults.CONFIG;
+
+    @Option(
+            names = "--host",
+            paramLabel = "HOST",
+            description = "Set the address to listen on, which other machines can reach unless it is loopback.")
+    private String host = "127.0.0.1";
+
+    @Option(names = "--port", paramLabel = "INT", description = "Set the port to listen on (0 for any free port).")
+    private int port = 8080;
+
+    @Option(names = "--jobs", paramLabel = "INT", description = "Set the number of jobs run at the same time.")
+    private int numJobs = 1;
+
+    @Option(
+            names = "--max-finished-jobs",
+            paramLabel = "INT",
+            description = "Set the number of finished jobs remembered, beyond which the oldest are forgotten.")
+    private int maxFinishedJobs = JobServer.MAX_FINISHED_JOBS;
+
+    @Option(
+            names = { "-o", "--output-directory" },
+            paramLabel = "DIR",
+            description = "Use specified directory to contain the output directory of each job.")
+    private Path outputDirectory = Path.of(ConfigDefaults.OUTPUT_DIR);
+
+    @Option(names = "--krb-ccache", paramLabel = "FILE", description = "Set location of Kerberos credential cache.")
+    private Path krbCCache;
+
+    @Option(names = "--krb-keytab", paramLabel = "FILE", description = "Set location of Kerberos keytab.")
+    private Path krbKeytab;
+
+    @Option(
+            names = "--krb-password",
+            paramLabel = "STRING",
+            description = "Set Kerberos password.",
+            arity = "0..1",
+            interactive = true)
+    private String krbPassword;
+
+    @Option(names = "--krb-principal", paramLabel = "STRING", description = "Set Kerberos client principal.")
+    private String krbPrincipal;
+
+    @Option(names = "--krb-service", paramLabel = "STRING", description = "Set Kerberos client service.")
+    private String krbService;
+
+    private BuildConfig config;
+
+    private EmbeddedCacheManager cacheManager;
+
+    private KojiClientSession session;
+
+    private PncClient pncClient;
+
+    private ExecutorService analyzerPool;
+
+    @Override
+    public Integer call() {
+        try {
+            config = Files.isRegularFile(configFile) && Files.isReadable(configFile)
+                    ? BuildConfig.load(configFile)
+                    : new BuildConfig();
+        } catch (IOException e) {
+            LOGGER.error("Error reading configuration file {}: {}", boldRed(configFile), boldRed(e.getMessage()));
+            LOGGER.debug("Error", e);
+            return 1;
+        }
+
+        if (config.getKojiHubURL() == null || config.getKojiWebURL() == null) {
+            LOGGER.error("Must set koji-hub-url and koji-web-url");
+            return 1;
+        }
+
+        if (!config.getChecksumTypes().contains(ChecksumType.md5)) {
+            LOGGER.error("To find builds, you must enable checksum type: {}", boldRed(ChecksumType.md5));
+            return 1;
+        }
+
+        // Loading the SPDX license list is slow, so do it once before the first job
+        LOGGER.info("Loaded {} SPDX licenses", green(SpdxLicenseUtils.getNumberOfSPDXLicenses()));
+
+        if (!Boolean.TRUE.equals(config.getDisableCache())) {
+            cacheManager = CacheUtils
+                    .createCacheManager(config, ConfigDefaults.CACHE_LOCATION, config.getChecksumTypes());
+        }
+
+        analyzerPool = Executors.newFixedThreadPool(numJobs);
+
+        boolean isKerberos = krbService != null && krbPrincipal != null && krbPassword != null || krbCCache != null
+                || krbKeytab != null;
+
+        try {
+            session = isKerberos
+                    ? new KojiClientSession(
+                            config.getKojiHubURL(),
+                            krbService,
+                            krbPrincipal,
+                            krbPassword,
+                            krbCCache,
+                            krbKeytab)
+                    : new KojiClientSession(config.getKojiHubURL());
+            pncClient = config.getPncURL() != null ? new CachingPncClient(config, cacheManager) : null;
+
+            if (isKerberos) {
+                LOGGER.info("Using Koji session with Kerberos service: {}", green(krbService));
+            } else {
+                LOGGER.info("Using anonymous Koji session");
+            }
+
+            LOGGER.info("Loaded {} Koji archive types", green(session.getArchiveTypeMap().size()));
+
+            return serve();
+        } catch (KojiClientException | IOException e) {
+            LOGGER.error("Error starting server: {}", boldRed(getAllErrorMessages(e)));
+            LOGGER.debug("Error", e);
+            return 1;
+        } finally {
+            close();
+        }
+    }
+
+    private int serve() throws IOException {
+        CountDownLatch stopping = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        // The JVM exits once the shutdown hooks return, so wait for the running jobs and the caches to be closed
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stopping.countDown();
+
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        InetSocketAddress address = new InetSocketAddress(host, port);
+
+        if (address.getAddress() != null && !address.getAddress().isLoopbackAddress()) {
+            LOGGER.warn("Listening on non-loopback address {}, which other machines can reach", red(host));
+        }
+
+        String token = JobServer.generateToken();
+        Path tokenFile = writeToken(token);
+
+        try (JobServer server = new JobServer(
+                address,
+                numJobs,
+                outputDirectory,
+                this::runJob,
+                token,
+                maxFinishedJobs)) {
+            server.start();
+            LOGGER.info("Requests must carry the bearer token in file {}", green(tokenFile));
+            stopping.await();
+            LOGGER.info("Stopping server");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            Files.deleteIfExists(tokenFile);
+            close();
+            stopped.countDown();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Writes the token to a file of the output directory which only the current user may read, so that only the
+     * users who may read it can submit jobs.
+     *
+     * @param token the token
+     * @return the token file
+     * @throws IOException if an error occurs writing the file
+     */
+    private Path writeToken(String token) throws IOException {
+        Files.createDirectories(outputDirectory);
+
+        Path tokenFile = outputDirectory.resolve(TOKEN_FILENAME);
+
+        Files.deleteIfExists(tokenFile);
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(
+                    tokenFile,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(tokenFile);
+        }
+
+        Files.writeString(tokenFile, token);
+
+        return tokenFile;
+    }
+
+    private int runJob(List<String> files, Path jobOutputDirectory) throws Exception {
+        BuildConfig jobConfig = BuildConfig.copy(config);
+
+        jobConfig.setOutputDirectory(jobOutputDirectory.toString());
+
+        Map<BuildSystemInteger, KojiBuild> builds;
+
+        // The checksums spilled to disk are deleted once the output files are written
+        try (DistributionAnalyzer analyzer = new DistributionAnalyzer(files, jobConfig, cacheManager)) {
+            Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum = analyzerPool
+                    .submit(analyzer.analyzeTask(jobConfig.getChecksumQueueSize()));
+            BuildFinder finder = pncClient != null
+                    ? new BuildFinder(session, jobConfig, analyzer, cacheManager, pncClient)
+                    : new BuildFinder(session, jobConfig, analyzer, cacheManager);
+
+            finder.setOutputDirectory(jobOutputDirectory);
+
+            try {
+                builds = finder.call();
+            } catch (KojiClientException | RuntimeException e) {
+                // Stop checksumming, which would otherwise wait forever for the queue to be taken from
+                futureChecksum.cancel(true);
+                throw e;
+            }
+
+            Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums;
+
+            try {
+                checksums = futureChecksum.get();
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+
+            for (ChecksumType checksumType : checksums.keySet()) {
+                analyzer.outputToFile(checksumType);
+            }
+
+            analyzer.outputLicensesToFile();
+            JSONUtils.writeMap(
+                    builds,
+                    finder.getBuildsFile(),
+                    jobConfig.getJsonCompact(),
+                    jobConfig.getJsonCompression());
+
+            if (Boolean.TRUE.equals(jobConfig.getResultBundle())) {
+                finder.outputToBundle(builds);
+            }
+        }
+
+        List<KojiBuild> buildList = new ArrayList<>(builds.values());
+
+        buildList.sort(Comparator.comparing(KojiBuild::getId));
+
+        Report.generateReports(jobConfig, buildList, jobOutputDirectory, files);
+
+        return buildList.size();
+    }
+
+    private synchronized void close() {
+        if (analyzerPool != null) {
+            Utils.shutdownAndAwaitTermination(analyzerPool);
+            analyzerPool = null;
+        }
+
+        if (pncClient != null) {
+            pncClient.close();
+            pncClient = null;
+        }
+
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+
+        if (cacheManager != null) {
+            try {
+                CacheUtils.enforceStoredEntryLimits(
+                        cacheManager,
+                        config.getCacheMaxStoredEntriesPerFamily(),
+                        config.getChecksumTypes());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Error enforcing stored entry limits: {}", red(getAllErrorMessages(e)));
+                LOGGER.debug("Error", e);
+            }
+
+            try {
+                cacheManager.close();
+            } catch (IOException e) {
+                LOGGER.warn("Error closing cache manager: {}", red(e.getMessage()));
+                LOGGER.debug("Error", e);
+            }
+
+            cacheManager = null;
+        }
+    }
+}
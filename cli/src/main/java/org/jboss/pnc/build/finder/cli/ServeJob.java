@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An analysis job submitted to the {@link JobServer}. Its state is serialized as the response of the job endpoints.
+ */
+public final class ServeJob {
+    /**
+     * The state of a job.
+     */
+    public enum State {
+        /**
+         * The job waits for a free job slot.
+         */
+        queued,
+        /**
+         * The job is being analyzed.
+         */
+        running,
+        /**
+         * The job finished successfully.
+         */
+        done,
+        /**
+         * The job finished with an error.
+         */
+        failed
+    }
+
+    private final String id;
+
+    private final List<String> files;
+
+    private final Path outputDirectory;
+
+    private final Instant submitted;
+
+    private State state;
+
+    private Instant started;
+
+    private Instant finished;
+
+    private Integer numberOfBuilds;
+
+    private String error;
+
+    ServeJob(String id, List<String> files, Path outputDirectory) {
+        this.id = id;
+        this.files = List.copyOf(files);
+        this.outputDirectory = outputDirectory;
+        this.submitted = Instant.now();
+        this.state = State.queued;
+    }
+
+    Path getOutputPath() {
+        return outputDirectory;
+    }
+
+    synchronized void start() {
+        state = State.running;
+        started = Instant.now();
+    }
+
+    synchronized void finish(int numberOfBuilds) {
+        state = State.done;
+        finished = Instant.now();
+        this.numberOfBuilds = numberOfBuilds;
+    }
+
+    synchronized void fail(String error) {
+        state = State.failed;
+        finished = Instant.now();
+        this.error = error;
+    }
+
+    synchronized boolean isFinished() {
+        return state == State.done || state == State.failed;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<String> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    public String getOutputDirectory() {
+        return outputDirectory.toString();
+    }
+
+    public Instant getSubmitted() {
+        return submitted;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Instant getStarted() {
+        return started;
+    }
+
+    public synchronized Instant getFinished() {
+        return finished;
+    }
+
+    public synchronized Integer getNumberOfBuilds() {
+        return numberOfBuilds;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ServeJob{" + "id='" + id + '\'' + ", files=" + files + ", outputDirectory=" + outputDirectory
+                + ", state=" + state + '}';
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.protobuf.ListKojiArchiveInfoProtobufWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CacheSnapshotTest {
+    private static final Set<ChecksumType> CHECKSUM_TYPES = Set.of(ChecksumType.md5);
+
+    @Test
+    void testExportImport(@TempDir Path folder) throws IOException {
+        BuildConfig config = new BuildConfig();
+        Path snapshot = folder.resolve("snapshot.bin.gz");
+        List<String> cacheNames = CacheSnapshot.getCacheNames(CHECKSUM_TYPES);
+
+        assertThat(cacheNames).contains("checksums-md5", "builds", "artifact-pnc").doesNotContain("files-md5");
+
+        try (EmbeddedCacheManager source = CacheUtils
+                .createCacheManager(config, folder.resolve("source"), CHECKSUM_TYPES)) {
+            source.getCache("checksums-md5").put("a", new ListKojiArchiveInfoProtobufWrapper(new ArrayList<>()));
+            source.getCache("checksums-md5").put("b", new ListKojiArchiveInfoProtobufWrapper(new ArrayList<>()));
+            source.getCache("files-md5").put("c", new ListKojiArchiveInfoProtobufWrapper(new ArrayList<>()));
+
+            assertThat(CacheSnapshot.exportSnapshot(source, cacheNames, snapshot)).isEqualTo(2L);
+        }
+
+        assertThat(snapshot).isRegularFile();
+
+        try (EmbeddedCacheManager target = CacheUtils
+                .createCacheManager(config, folder.resolve("target"), CHECKSUM_TYPES)) {
+            target.getCache("checksums-md5").put("a", new ListKojiArchiveInfoProtobufWrapper(new ArrayList<>()));
+
+            CacheSnapshot.ImportResult result = CacheSnapshot
+                    .importSnapshot(target, cacheNames, snapshot, config.getCacheLifespan());
+
+            assertThat(result.getImported()).isEqualTo(1L);
+            assertThat(result.getSkipped()).isEqualTo(1L);
+            assertThat(result.getStale()).isZero();
+            assertThat(target.getCache("checksums-md5").get("b"))
+                    .isInstanceOf(ListKojiArchiveInfoProtobufWrapper.class);
+        }
+
+        try (EmbeddedCacheManager target = CacheUtils
+                .createCacheManager(config, folder.resolve("stale"), CHECKSUM_TYPES)) {
+            CacheSnapshot.ImportResult result = CacheSnapshot.importSnapshot(target, cacheNames, snapshot, 0L);
+
+            assertThat(result.getImported()).isZero();
+            assertThat(result.getStale()).isEqualTo(2L);
+            assertThat(target.getCache("checksums-md5").isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void testImportInvalidFile(@TempDir Path folder) throws IOException {
+        Path snapshot = folder.resolve("snapshot.bin.gz");
+
+        Files.writeString(snapshot, "not a snapshot");
+
+        try (EmbeddedCacheManager target = CacheUtils
+                .createCacheManager(new BuildConfig(), folder.resolve("target"), CHECKSUM_TYPES)) {
+            assertThatThrownBy(
+                    () -> CacheSnapshot
+                            .importSnapshot(target, CacheSnapshot.getCacheNames(CHECKSUM_TYPES), snapshot, -1L))
+                    .isInstanceOf(IOException.class);
+        }
+    }
+}
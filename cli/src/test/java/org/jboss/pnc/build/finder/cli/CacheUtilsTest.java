@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.CacheFamily;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.protobuf.ListKojiArchiveInfoProtobufWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CacheUtilsTest {
+    private static final Set<ChecksumType> CHECKSUM_TYPES = Set.of(ChecksumType.md5);
+
+    @Test
+    void testEnforceStoredEntryLimits(@TempDir Path folder) throws Exception {
+        try (EmbeddedCacheManager cacheManager = CacheUtils
+                .createCacheManager(new BuildConfig(), folder, CHECKSUM_TYPES)) {
+            Cache<Object, Object> cache = cacheManager.getCache("checksums-md5");
+
+            for (String key : new String[] { "a", "b", "c" }) {
+                cache.put(key, new ListKojiArchiveInfoProtobufWrapper(new ArrayList<>()));
+                // Make sure that each entry has a distinct creation time
+                Thread.sleep(5L);
+            }
+
+            CacheUtils.enforceStoredEntryLimits(
+                    cacheManager,
+                    Map.of(CacheFamily.checksums, 2L, CacheFamily.files, 0L),
+                    CHECKSUM_TYPES);
+
+            assertThat(cache.keySet()).containsExactlyInAnyOrder("b", "c");
+            // The caches of the other families were not used, so they are not opened only to enforce their limits
+            assertThat(cacheManager.isRunning("files-md5")).isFalse();
+        }
+    }
+
+    @Test
+    void testRemoveOldestEntriesKeepsUsedEntries(@TempDir Path folder) throws Exception {
+        try (EmbeddedCacheManager cacheManager = CacheUtils
+                .createCacheManager(new BuildConfig(), folder, CHECKSUM_TYPES)) {
+            Cache<Object, Object> cache = cacheManager.getCache("checksums-md5");
+
+            for (String key : new String[] { "a", "b", "c" }) {
+                cache.put(key, new ListKojiArchiveInfoProtobufWrapper(new ArrayList<>()));
+                Thread.sleep(5L);
+            }
+
+            // The newest entry is only left in the store, as if it had not been used since the cache was opened
+            cache.evict("c");
+
+            assertThat(CacheUtils.removeOldestEntries(cache.getAdvancedCache(), 2L)).isOne();
+            assertThat(cache.keySet()).containsExactlyInAnyOrder("a", "b");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.CacheClusterMode;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Starts a second JVM running {@link ClusteredCacheNode} and checks that both JVMs share the build resolution caches
+ * over the loopback interface, each reading the entry written by the other.
+ */
+class ClusteredCacheIT {
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(60L);
+
+    @ParameterizedTest
+    @EnumSource(value = CacheClusterMode.class, names = { "replicated", "distributed" })
+    void testSharedCache(CacheClusterMode mode, @TempDir Path folder) throws IOException, InterruptedException {
+        String clusterName = "build-finder-" + UUID.randomUUID();
+        String javaBin = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                List.of(
+                        javaBin,
+                        "-cp",
+                        System.getProperty("java.class.path"),
+                        "-Djava.net.preferIPv4Stack=true",
+                        ClusteredCacheNode.class.getName(),
+                        folder.resolve("node1").toString(),
+                        mode.name(),
+                        clusterName,
+                        "key1",
+                        "value1",
+                        "key2")).redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = processBuilder.start();
+
+        try {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+                String line;
+
+                do {
+                    line = reader.readLine();
+                } while (line != null && !line.contains(ClusteredCacheNode.READY));
+
+                assertThat(line).isNotNull();
+
+                BuildConfig config = new BuildConfig();
+                config.setCacheClusterMode(mode);
+                config.setCacheClusterName(clusterName);
+
+                try (EmbeddedCacheManager cacheManager = CacheUtils
+                        .createCacheManager(config, folder.resolve("node2"), Set.of(ChecksumType.md5))) {
+                    Cache<Object, Object> cache = cacheManager.getCache("checksums-md5");
+
+                    assertThat(cacheManager.getMembers()).hasSize(2);
+                    assertThat(cache.get("key1")).isEqualTo("value1");
+
+                    cache.put("key2", "value2");
+
+                    assertThat(cache.get("key2")).isEqualTo("value2");
+
+                    // Let the other node read key2 while this node is still a member
+                    process.getOutputStream().close();
+
+                    do {
+                        line = reader.readLine();
+                    } while (line != null && !line.startsWith(ClusteredCacheNode.VALUE_PREFIX));
+
+                    assertThat(line).isEqualTo(ClusteredCacheNode.VALUE_PREFIX + "value2");
+                    // files-* caches stay local
+                    CacheMode filesCacheMode = cacheManager.getCache("files-md5")
+                            .getCacheConfiguration()
+                            .clustering()
+                            .cacheMode();
+
+                    assertThat(filesCacheMode.isClustered()).isFalse();
+                }
+            }
+        } finally {
+            process.getOutputStream().close();
+
+            if (!process.waitFor(TIMEOUT, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
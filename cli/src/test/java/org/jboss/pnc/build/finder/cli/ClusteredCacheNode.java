@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.CacheClusterMode;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+
+/**
+ * Cluster member run in a separate JVM by {@link ClusteredCacheIT}. Puts an entry into the <code>checksums-md5</code>
+ * cache, prints a line when ready and stays in the cluster until its standard input is closed. It then prints the value
+ * of the entry put by the other member, so that the test can check the replication in both directions.
+ */
+public final class ClusteredCacheNode {
+    static final String READY = "READY";
+
+    static final String VALUE_PREFIX = "VALUE=";
+
+    private ClusteredCacheNode() {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        BuildConfig config = new BuildConfig();
+        config.setCacheClusterMode(CacheClusterMode.valueOf(args[1]));
+        config.setCacheClusterName(args[2]);
+
+        try (EmbeddedCacheManager cacheManager = CacheUtils
+                .createCacheManager(config, Path.of(args[0]), Set.of(ChecksumType.md5))) {
+            Cache<Object, Object> cache = cacheManager.getCache("checksums-md5");
+            cache.put(args[3], args[4]);
+            System.out.println(READY);
+            System.out.flush();
+
+            while (System.in.read() != -1) {
+                // Wait until the parent process closes our standard input
+            }
+
+            System.out.println(VALUE_PREFIX + cache.get(args[5]));
+            System.out.flush();
+        }
+    }
+}
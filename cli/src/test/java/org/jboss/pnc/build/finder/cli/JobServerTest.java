@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
+import org.jboss.pnc.build.finder.core.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JobServerTest {
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    private static final String TOKEN = JobServer.generateToken();
+
+    private static JobServer createServer(Path folder, JobServer.Runner runner) throws IOException {
+        return createServer(folder, runner, JobServer.MAX_FINISHED_JOBS);
+    }
+
+    private static JobServer createServer(Path folder, JobServer.Runner runner, int maxFinishedJobs)
+            throws IOException {
+        JobServer server = new JobServer(
+                new InetSocketAddress("127.0.0.1", 0),
+                2,
+                folder.resolve("jobs"),
+                runner,
+                TOKEN,
+                maxFinishedJobs);
+        server.start();
+        return server;
+    }
+
+    private static HttpRequest.Builder request(JobServer server, String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .header("Authorization", "Bearer " + TOKEN);
+    }
+
+    private static HttpResponse<String> post(JobServer server, String body) throws IOException, InterruptedException {
+        HttpRequest request = request(server, "/jobs").POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> get(JobServer server, String path) throws IOException, InterruptedException {
+        HttpRequest request = request(server, path).GET().build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static ServeJob awaitJob(JobServer server, String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30L);
+        ServeJob job = server.getJob(id).orElseThrow();
+
+        while ((job.getState() == ServeJob.State.queued || job.getState() == ServeJob.State.running)
+                && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+
+        return job;
+    }
+
+    @Test
+    void testSubmitJob(@TempDir Path folder) throws IOException, InterruptedException {
+        Path file = Files.createFile(folder.resolve("file.txt"));
+
+        try (JobServer server = createServer(folder, (files, outputDirectory) -> {
+            Files.writeString(outputDirectory.resolve("files.txt"), String.join("\n", files));
+            return 3;
+        })) {
+            HttpResponse<String> response = post(server, "{\"files\":[\"" + file + "\"]}");
+
+            assertThat(response.statusCode()).isEqualTo(HttpURLConnection.HTTP_ACCEPTED);
+            assertThat(response.headers().firstValue("Location"))
+                    .hasValueSatisfying(location -> assertThat(location).startsWith("/jobs/"));
+
+            String location = response.headers().firstValue("Location").orElseThrow();
+            ServeJob job = awaitJob(server, location.substring("/jobs/".length()));
+
+            assertThat(job.getState()).isEqualTo(ServeJob.State.done);
+            assertThat(job.getNumberOfBuilds()).isEqualTo(3);
+            assertThat(job.getFiles()).containsExactly(file.toString());
+            assertThat(Path.of(job.getOutputDirectory()).resolve("files.txt")).hasContent(file.toString());
+
+            HttpResponse<String> jobResponse = get(server, location);
+
+            assertThat(jobResponse.statusCode()).isEqualTo(HttpURLConnection.HTTP_OK);
+            assertThat(jobResponse.body()).contains("\"state\":\"done\"", "\"numberOfBuilds\":3");
+            assertThat(get(server, "/jobs").body()).contains(job.getId());
+        }
+    }
+
+    @Test
+    void testFailedJob(@TempDir Path folder) throws IOException, InterruptedException {
+        Path file = Files.createFile(folder.resolve("file.txt"));
+
+        try (JobServer server = createServer(folder, (files, outputDirectory) -> {
+            throw new IOException("Broken");
+        })) {
+            ServeJob job = awaitJob(server, server.submit(List.of(file.toString())).getId());
+
+            assertThat(job.getState()).isEqualTo(ServeJob.State.failed);
+            assertThat(job.getError()).contains("Broken");
+            assertThat(job.getNumberOfBuilds()).isNull();
+        }
+    }
+
+    @Test
+    void testConcurrentJobs(@TempDir Path folder) throws IOException, InterruptedException {
+        String file = TestUtils.loadFile("nested.zip").toAbsolutePath().toString();
+        BuildConfig config = new BuildConfig();
+        config.setArchiveExtensions(Collections.emptyList());
+        CountDownLatch started = new CountDownLatch(2);
+
+        try (JobServer server = createServer(folder, (files, outputDirectory) -> {
+            // Make both analyzers run at the same time, so that they would remove each other's nested archives if
+            // they shared a VFS cache directory
+            started.countDown();
+            started.await(30L, TimeUnit.SECONDS);
+
+            try (DistributionAnalyzer analyzer = new DistributionAnalyzer(files, config)) {
+                return analyzer.checksumFiles().get(ChecksumType.md5).size();
+            }
+        })) {
+            ServeJob first = server.submit(List.of(file));
+            ServeJob second = server.submit(List.of(file));
+
+            for (ServeJob job : List.of(awaitJob(server, first.getId()), awaitJob(server, second.getId()))) {
+                assertThat(job.getError()).isNull();
+                assertThat(job.getState()).isEqualTo(ServeJob.State.done);
+                assertThat(job.getNumberOfBuilds()).isEqualTo(25);
+            }
+        }
+    }
+
+    @Test
+    void testBadRequests(@TempDir Path folder) throws IOException, InterruptedException {
+        try (JobServer server = createServer(folder, (files, outputDirectory) -> 0)) {
+            assertThat(post(server, "{\"files\":[\"" + folder.resolve("missing") + "\"]}").statusCode())
+                    .isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+            // Neither a URI nor a valid path
+            assertThat(post(server, "{\"files\":[\"nul\\u0000.zip\"]}").statusCode())
+                    .isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+            assertThat(post(server, "{\"files\":[1]}").statusCode()).isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+            assertThat(post(server, "{}").statusCode()).isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+            assertThat(post(server, "{").statusCode()).isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+            assertThat(get(server, "/jobs/unknown").statusCode()).isEqualTo(HttpURLConnection.HTTP_NOT_FOUND);
+            assertThat(server.getJobs()).isEmpty();
+        }
+    }
+
+    @Test
+    void testUnauthorized(@TempDir Path folder) throws IOException, InterruptedException {
+        Path file = Files.createFile(folder.resolve("file.txt"));
+
+        try (JobServer server = createServer(folder, (files, outputDirectory) -> 0)) {
+            URI uri = URI.create("http://127.0.0.1:" + server.getPort() + "/jobs");
+
+            HttpRequest withoutToken = HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"files\":[\"" + file + "\"]}"))
+                    .build();
+            HttpRequest withWrongToken = HttpRequest.newBuilder(uri)
+                    .header("Authorization", "Bearer " + JobServer.generateToken())
+                    .GET()
+                    .build();
+
+            assertThat(CLIENT.send(withoutToken, HttpResponse.BodyHandlers.ofString()).statusCode())
+                    .isEqualTo(HttpURLConnection.HTTP_UNAUTHORIZED);
+            assertThat(CLIENT.send(withWrongToken, HttpResponse.BodyHandlers.ofString()).statusCode())
+                    .isEqualTo(HttpURLConnection.HTTP_UNAUTHORIZED);
+            assertThat(server.getJobs()).isEmpty();
+        }
+    }
+
+    @Test
+    void testSubmitUri(@TempDir Path folder) throws IOException, InterruptedException {
+        Path file = Files.createFile(folder.resolve("file.txt"));
+
+        try (JobServer server = createServer(folder, (files, outputDirectory) -> 0)) {
+            // The files are resolved like the analyzer does, so URIs are accepted as well as paths
+            assertThat(post(server, "{\"files\":[\"" + file.toUri() + "\"]}").statusCode())
+                    .isEqualTo(HttpURLConnection.HTTP_ACCEPTED);
+            assertThat(post(server, "{\"files\":[\"" + folder.resolve("missing").toUri() + "\"]}").statusCode())
+                    .isEqualTo(HttpURLConnection.HTTP_BAD_REQUEST);
+        }
+    }
+
+    @Test
+    void testForgetFinishedJobs(@TempDir Path folder) throws InterruptedException, IOException {
+        Path file = Files.createFile(folder.resolve("file.txt"));
+
+        try (JobServer server = createServer(folder, (files, outputDirectory) -> 0, 2)) {
+            String first = server.submit(List.of(file.toString())).getId();
+
+            awaitJob(server, first);
+
+            for (int i = 0; i < 2; i++) {
+                awaitJob(server, server.submit(List.of(file.toString())).getId());
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30L);
+
+            // A finished job is forgotten right after the next job finishes
+            while (server.getJob(first).isPresent() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10L);
+            }
+
+            assertThat(server.getJob(first)).isEmpty();
+            assertThat(server.getJobs()).hasSize(2);
+        }
+    }
+}
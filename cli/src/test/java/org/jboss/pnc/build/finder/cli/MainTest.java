@@ -22,6 +22,7 @@ import static org.jboss.pnc.build.finder.core.ChecksumType.sha256;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
@@ -314,4 +315,32 @@ class MainTest {
             root.setLevel(level);
         }
     }
+
+    @Test
+    void testCacheCommand(@TempDir Path folder) throws IOException {
+        Path cacheLocation = folder.resolve("cache");
+        String[] args = {
+                "cache",
+                "--config",
+                folder.resolve("config.json").toString(),
+                "--cache-location",
+                cacheLocation.toString(),
+                "--purge",
+                "--compact" };
+
+        ParseResult parseResult = parseCommandLine(new Main(), args);
+
+        assertThat(parseResult.hasSubcommand()).isTrue();
+        assertThat(parseResult.subcommand().hasMatchedOption("--purge")).isTrue();
+        assertThat(parseResult.subcommand().hasMatchedOption("--compact")).isTrue();
+
+        assertThat(new CommandLine(new Main()).execute(args)).isEqualTo(1);
+
+        Files.createDirectories(cacheLocation);
+
+        assertThat(new CommandLine(new Main()).execute(args)).isZero();
+        assertThat(cacheLocation).isDirectory();
+        assertThat(folder.resolve("cache.compact")).doesNotExist();
+        assertThat(folder.resolve("cache.old")).doesNotExist();
+    }
 }
@@ -22,6 +22,7 @@ import java.net.URLConnection;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -45,15 +46,42 @@ public class BuildConfig {
     @JsonAlias("build-systems")
     private List<BuildSystem> buildSystems;
 
+    @JsonAlias("cache-cluster-config")
+    private String cacheClusterConfig;
+
+    @JsonAlias("cache-cluster-mode")
+    private CacheClusterMode cacheClusterMode;
+
+    @JsonAlias("cache-cluster-name")
+    private String cacheClusterName;
+
     @JsonAlias("cache-lifespan")
     private Long cacheLifespan;
 
+    @JsonAlias("cache-max-entries")
+    private Long cacheMaxEntries;
+
+    @JsonAlias("cache-max-entries-per-family")
+    private Map<CacheFamily, Long> cacheMaxEntriesPerFamily;
+
     @JsonAlias("cache-max-idle")
     private Long cacheMaxIdle;
 
+    @JsonAlias("cache-max-stored-entries-per-family")
+    private Map<CacheFamily, Long> cacheMaxStoredEntriesPerFamily;
+
+    @JsonAlias("cache-snapshot")
+    private String cacheSnapshot;
+
     @JsonAlias("checksum-only")
     private Boolean checksumOnly;
 
+    @JsonAlias("checksum-queue-size")
+    private Integer checksumQueueSize;
+
+    @JsonAlias("checksum-spill-threshold")
+    private Long checksumSpillThreshold;
+
     @JsonAlias("checksum-type")
     private Set<ChecksumType> checksumTypes;
 
@@ -65,6 +93,12 @@ public class BuildConfig {
 
     private List<Pattern> excludes;
 
+    @JsonAlias("json-compact")
+    private Boolean jsonCompact;
+
+    @JsonAlias("json-compression")
+    private JsonCompression jsonCompression;
+
     @JsonAlias("koji-hub-url")
     private URL kojiHubURL;
 
@@ -77,6 +111,9 @@ public class BuildConfig {
     @JsonAlias("koji-web-url")
     private URL kojiWebURL;
 
+    @JsonAlias("license-extraction-mode")
+    private LicenseExtractionMode licenseExtractionMode;
+
     @JsonAlias("output-directory")
     private String outputDirectory;
 
@@ -89,6 +126,12 @@ public class BuildConfig {
     @JsonAlias("pnc-url")
     private URL pncURL;
 
+    @JsonAlias("report-archives-page-size")
+    private Integer reportArchivesPageSize;
+
+    @JsonAlias("result-bundle")
+    private Boolean resultBundle;
+
     @JsonAlias("use-builds-file")
     private Boolean useBuildsFile;
 
@@ -185,6 +228,42 @@ public class BuildConfig {
         this.buildSystems = buildSystems;
     }
 
+    public String getCacheClusterConfig() {
+        if (cacheClusterConfig == null) {
+            cacheClusterConfig = ConfigDefaults.CACHE_CLUSTER_CONFIG;
+        }
+
+        return cacheClusterConfig;
+    }
+
+    public void setCacheClusterConfig(String cacheClusterConfig) {
+        this.cacheClusterConfig = cacheClusterConfig;
+    }
+
+    public CacheClusterMode getCacheClusterMode() {
+        if (cacheClusterMode == null) {
+            cacheClusterMode = ConfigDefaults.CACHE_CLUSTER_MODE;
+        }
+
+        return cacheClusterMode;
+    }
+
+    public void setCacheClusterMode(CacheClusterMode cacheClusterMode) {
+        this.cacheClusterMode = cacheClusterMode;
+    }
+
+    public String getCacheClusterName() {
+        if (cacheClusterName == null) {
+            cacheClusterName = ConfigDefaults.CACHE_CLUSTER_NAME;
+        }
+
+        return cacheClusterName;
+    }
+
+    public void setCacheClusterName(String cacheClusterName) {
+        this.cacheClusterName = cacheClusterName;
+    }
+
     public Long getCacheLifespan() {
         if (cacheLifespan == null) {
             cacheLifespan = ConfigDefaults.CACHE_LIFESPAN;
@@ -197,6 +276,64 @@ public class BuildConfig {
         this.cacheLifespan = cacheLifespan;
     }
 
+    public Long getCacheMaxEntries() {
+        if (cacheMaxEntries == null) {
+            cacheMaxEntries = ConfigDefaults.CACHE_MAX_ENTRIES;
+        }
+
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(Long cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public Map<CacheFamily, Long> getCacheMaxEntriesPerFamily() {
+        if (cacheMaxEntriesPerFamily == null) {
+            cacheMaxEntriesPerFamily = ConfigDefaults.CACHE_MAX_ENTRIES_PER_FAMILY;
+        }
+
+        return Collections.unmodifiableMap(cacheMaxEntriesPerFamily);
+    }
+
+    public void setCacheMaxEntriesPerFamily(Map<CacheFamily, Long> cacheMaxEntriesPerFamily) {
+        this.cacheMaxEntriesPerFamily = cacheMaxEntriesPerFamily;
+    }
+
+    /**
+     * Gets the maximum number of entries kept in memory for each cache in the given family.
+     *
+     * @param family the cache family
+     * @return the maximum number of entries in memory
+     */
+    public long getCacheMaxEntries(CacheFamily family) {
+        return getCacheMaxEntriesPerFamily().getOrDefault(family, getCacheMaxEntries());
+    }
+
+    public Map<CacheFamily, Long> getCacheMaxStoredEntriesPerFamily() {
+        if (cacheMaxStoredEntriesPerFamily == null) {
+            cacheMaxStoredEntriesPerFamily = ConfigDefaults.CACHE_MAX_STORED_ENTRIES_PER_FAMILY;
+        }
+
+        return Collections.unmodifiableMap(cacheMaxStoredEntriesPerFamily);
+    }
+
+    public void setCacheMaxStoredEntriesPerFamily(Map<CacheFamily, Long> cacheMaxStoredEntriesPerFamily) {
+        this.cacheMaxStoredEntriesPerFamily = cacheMaxStoredEntriesPerFamily;
+    }
+
+    public String getCacheSnapshot() {
+        if (cacheSnapshot == null) {
+            cacheSnapshot = ConfigDefaults.CACHE_SNAPSHOT;
+        }
+
+        return cacheSnapshot;
+    }
+
+    public void setCacheSnapshot(String cacheSnapshot) {
+        this.cacheSnapshot = cacheSnapshot;
+    }
+
     public Boolean getChecksumOnly() {
         if (checksumOnly == null) {
             checksumOnly = ConfigDefaults.CHECKSUM_ONLY;
@@ -209,6 +346,30 @@ public class BuildConfig {
         this.checksumOnly = checksumOnly;
     }
 
+    public Integer getChecksumQueueSize() {
+        if (checksumQueueSize == null) {
+            checksumQueueSize = ConfigDefaults.CHECKSUM_QUEUE_SIZE;
+        }
+
+        return checksumQueueSize;
+    }
+
+    public void setChecksumQueueSize(Integer checksumQueueSize) {
+        this.checksumQueueSize = checksumQueueSize;
+    }
+
+    public Long getChecksumSpillThreshold() {
+        if (checksumSpillThreshold == null) {
+            checksumSpillThreshold = ConfigDefaults.CHECKSUM_SPILL_THRESHOLD;
+        }
+
+        return checksumSpillThreshold;
+    }
+
+    public void setChecksumSpillThreshold(Long checksumSpillThreshold) {
+        this.checksumSpillThreshold = checksumSpillThreshold;
+    }
+
     public Set<ChecksumType> getChecksumTypes() {
         if (checksumTypes == null) {
             checksumTypes = ConfigDefaults.CHECKSUM_TYPES;
@@ -257,6 +418,30 @@ public class BuildConfig {
         this.excludes = excludes;
     }
 
+    public Boolean getJsonCompact() {
+        if (jsonCompact == null) {
+            jsonCompact = ConfigDefaults.JSON_COMPACT;
+        }
+
+        return jsonCompact;
+    }
+
+    public void setJsonCompact(Boolean jsonCompact) {
+        this.jsonCompact = jsonCompact;
+    }
+
+    public JsonCompression getJsonCompression() {
+        if (jsonCompression == null) {
+            jsonCompression = ConfigDefaults.JSON_COMPRESSION;
+        }
+
+        return jsonCompression;
+    }
+
+    public void setJsonCompression(JsonCompression jsonCompression) {
+        this.jsonCompression = jsonCompression;
+    }
+
     public URL getKojiHubURL() {
         if (kojiHubURL == null) {
             kojiHubURL = ConfigDefaults.KOJI_HUB_URL;
@@ -305,6 +490,18 @@ public class BuildConfig {
         this.kojiWebURL = kojiWebURL;
     }
 
+    public LicenseExtractionMode getLicenseExtractionMode() {
+        if (licenseExtractionMode == null) {
+            licenseExtractionMode = ConfigDefaults.LICENSE_EXTRACTION_MODE;
+        }
+
+        return licenseExtractionMode;
+    }
+
+    public void setLicenseExtractionMode(LicenseExtractionMode licenseExtractionMode) {
+        this.licenseExtractionMode = licenseExtractionMode;
+    }
+
     public String getOutputDirectory() {
         if (outputDirectory == null) {
             outputDirectory = ConfigDefaults.OUTPUT_DIR;
@@ -353,6 +550,30 @@ public class BuildConfig {
         this.pncURL = pncURL;
     }
 
+    public Integer getReportArchivesPageSize() {
+        if (reportArchivesPageSize == null) {
+            reportArchivesPageSize = ConfigDefaults.REPORT_ARCHIVES_PAGE_SIZE;
+        }
+
+        return reportArchivesPageSize;
+    }
+
+    public void setReportArchivesPageSize(Integer reportArchivesPageSize) {
+        this.reportArchivesPageSize = reportArchivesPageSize;
+    }
+
+    public Boolean getResultBundle() {
+        if (resultBundle == null) {
+            resultBundle = ConfigDefaults.RESULT_BUNDLE;
+        }
+
+        return resultBundle;
+    }
+
+    public void setResultBundle(Boolean resultBundle) {
+        this.resultBundle = resultBundle;
+    }
+
     public Boolean getUseBuildsFile() {
         if (useBuildsFile == null) {
             useBuildsFile = ConfigDefaults.USE_BUILDS_FILE;
@@ -384,12 +605,20 @@ public class BuildConfig {
     @Override
     public String toString() {
         return "BuildConfig{" + "archiveExtensions=" + archiveExtensions + ", archiveTypes=" + archiveTypes
-                + ", buildSystems=" + buildSystems + ", cacheLifespan=" + cacheLifespan + ", cacheMaxIdle="
-                + cacheMaxIdle + ", checksumOnly=" + checksumOnly + ", checksumTypes=" + checksumTypes
-                + ", disableCache=" + disableCache + ", disableRecursion=" + disableRecursion + ", excludes=" + excludes
-                + ", kojiHubURL=" + kojiHubURL + ", kojiMulticallSize=" + kojiMulticallSize + ", kojiNumThreads="
-                + kojiNumThreads + ", kojiWebURL=" + kojiWebURL + ", outputDirectory='" + outputDirectory + '\''
-                + ", pncPartitionSize=" + pncPartitionSize + ", pncURL=" + pncURL + ", useBuildsFile=" + useBuildsFile
+                + ", buildSystems=" + buildSystems + ", cacheClusterConfig=" + cacheClusterConfig
+                + ", cacheClusterMode=" + cacheClusterMode + ", cacheClusterName=" + cacheClusterName
+                + ", cacheLifespan=" + cacheLifespan + ", cacheMaxEntries=" + cacheMaxEntries
+                + ", cacheMaxEntriesPerFamily=" + cacheMaxEntriesPerFamily + ", cacheMaxIdle=" + cacheMaxIdle
+                + ", cacheMaxStoredEntriesPerFamily=" + cacheMaxStoredEntriesPerFamily + ", cacheSnapshot="
+                + cacheSnapshot + ", checksumOnly=" + checksumOnly + ", checksumQueueSize=" + checksumQueueSize
+                + ", checksumSpillThreshold=" + checksumSpillThreshold + ", checksumTypes=" + checksumTypes
+                + ", disableCache=" + disableCache + ", disableRecursion=" + disableRecursion + ", excludes="
+                + excludes + ", jsonCompact=" + jsonCompact + ", jsonCompression=" + jsonCompression + ", kojiHubURL="
+                + kojiHubURL + ", kojiMulticallSize=" + kojiMulticallSize + ", kojiNumThreads=" + kojiNumThreads
+                + ", kojiWebURL=" + kojiWebURL + ", licenseExtractionMode=" + licenseExtractionMode
+                + ", outputDirectory='" + outputDirectory + '\'' + ", pncNumThreads=" + pncNumThreads
+                + ", pncPartitionSize=" + pncPartitionSize + ", pncURL=" + pncURL + ", reportArchivesPageSize="
+                + reportArchivesPageSize + ", resultBundle=" + resultBundle + ", useBuildsFile=" + useBuildsFile
                 + ", useChecksumsFile=" + useChecksumsFile + '}';
     }
 }
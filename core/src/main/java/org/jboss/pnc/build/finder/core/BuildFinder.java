@@ -41,7 +41,6 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
@@ -56,7 +55,6 @@ import java.util.stream.Stream;
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
-import org.apache.commons.lang3.Strings;
 import org.infinispan.commons.api.BasicCache;
 import org.infinispan.commons.api.BasicCacheContainer;
 import org.jboss.pnc.build.finder.koji.ClientSession;
@@ -88,6 +86,8 @@ public class BuildFinder
 
     private static final String BUILDS_FILENAME = "builds.json";
 
+    private static final String RESULT_BUNDLE_FILENAME = "results.bin";
+
     private static final String CHECKSUMS_FILENAME_BASENAME = "checksums-";
 
     private static final int CHECKSUMS_SIZE = 18130;
@@ -200,6 +200,10 @@ public class BuildFinder
         return BUILDS_FILENAME;
     }
 
+    public static String getResultBundleFilename() {
+        return RESULT_BUNDLE_FILENAME;
+    }
+
     private void initBuilds() {
         builds = Maps.newHashMapWithExpectedSize(BUILDS_SIZE);
         KojiBuild build = BuildFinderUtils.createKojiBuildZero();
@@ -1227,7 +1231,7 @@ public class BuildFinder
                                 .stream()
                                 .anyMatch(
                                         cksum -> cksum.getType() == entry.getKey().getType()
-                                                && cksum.getValue().equals(entry.getKey().getValue())));
+                                                && cksum.getDigest().equals(entry.getKey().getDigest())));
 
         // The same checksum might be associated with multiple filenames (in case of files present multiple times inside
         // the zip distribution).
@@ -1307,8 +1311,28 @@ public class BuildFinder
         this.outputDirectory = outputDirectory;
     }
 
+    public Path getBuildsFile() {
+        return outputDirectory.resolve(getBuildsFilename() + config.getJsonCompression().getExtension());
+    }
+
     public void outputToFile() throws IOException {
-        JSONUtils.dumpObjectToFile(builds, outputDirectory.resolve(getBuildsFilename()));
+        JSONUtils.writeMap(builds, getBuildsFile(), config.getJsonCompact(), config.getJsonCompression());
+    }
+
+    public Path getResultBundleFile() {
+        return outputDirectory.resolve(getResultBundleFilename());
+    }
+
+    /**
+     * Writes the checksums of the analyzer and the given builds to a result bundle.
+     *
+     * @param builds the builds
+     * @throws IOException if an error occurs while writing the bundle
+     */
+    public void outputToBundle(Map<BuildSystemInteger, KojiBuild> builds) throws IOException {
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = analyzer != null ? analyzer.getChecksums()
+                : Collections.emptyMap();
+        new ResultBundle(checksums, builds).write(getResultBundleFile());
     }
 
     @Override
@@ -1329,7 +1353,7 @@ public class BuildFinder
                 throw new KojiClientException("Error taking from queue", e);
             }
 
-            if (checksum.getValue() == null) {
+            if (checksum.getDigest() == null) {
                 break;
             }
 
@@ -1340,9 +1364,7 @@ public class BuildFinder
             LOGGER.debug("Got {} checksums from queue", numElements + 1);
 
             for (Checksum cksum : checksums) {
-                String value = cksum.getValue();
-
-                if (value == null) {
+                if (cksum.getDigest() == null) {
                     finished = true;
                 } else {
                     if (cksum.getType() == ChecksumType.md5) {
@@ -1360,8 +1382,8 @@ public class BuildFinder
                 // The preferred checksumType for PNC is sha256, so replace the original map with a preferred map
                 LOGGER.debug(
                         "Swapping the original MD5-based checksum map to a SHA256-based checksum map (whenever possible) for finding builds in PNC!");
-                Map<Checksum, Collection<String>> sha256BasedCheckumMap = BuildFinderUtils
-                        .swapEntriesWithPreferredChecksum(map, analyzer.getFiles(), ChecksumType.sha256);
+                Map<Checksum, Collection<String>> sha256BasedCheckumMap = analyzer.getContents()
+                        .withPreferredType(map, ChecksumType.sha256);
                 LOGGER.debug(
                         "Original MD5-based checksum map: {}, new SHA256-based checksum map: {}",
                         map,
@@ -1381,11 +1403,8 @@ public class BuildFinder
                     LOGGER.debug(
                             "Swapping back the SHA256-based checksum map to a MD5-based checksum map for finding builds in Brew!");
 
-                    Map<Checksum, Collection<String>> md5BasedNotFoundCheckumMap = BuildFinderUtils
-                            .swapEntriesWithPreferredChecksum(
-                                    pncBuildsNew.getNotFoundChecksums(),
-                                    analyzer.getFiles(),
-                                    ChecksumType.md5);
+                    Map<Checksum, Collection<String>> md5BasedNotFoundCheckumMap = analyzer.getContents()
+                            .withPreferredType(pncBuildsNew.getNotFoundChecksums(), ChecksumType.md5);
 
                     LOGGER.debug(
                             "Original SHA256-based not found checksum map: {}",
@@ -1400,11 +1419,9 @@ public class BuildFinder
                     LOGGER.debug(
                             "Swapping the MD5-based not found checksum map to a SHA256-based checksum map for finding more builds in Brew!");
 
-                    Map<Checksum, Collection<String>> sha256BasedNotFoundCheckumMap = BuildFinderUtils
-                            .swapEntriesWithPreferredChecksum(
-                                    notFoundChecksums,
-                                    analyzer.getFiles(),
-                                    ChecksumType.sha256);
+                    // Copied, since finding the builds adds to the not found checksums
+                    Map<Checksum, Collection<String>> sha256BasedNotFoundCheckumMap = new HashMap<>(
+                            analyzer.getContents().withPreferredType(notFoundChecksums, ChecksumType.sha256));
 
                     LOGGER.debug("Original MD5-based not found checksum map: {}", notFoundChecksums);
                     LOGGER.debug("New SHA256-based not found checksum map: {}", sha256BasedNotFoundCheckumMap);
@@ -1428,8 +1445,9 @@ public class BuildFinder
                 LOGGER.debug(
                         "Swapping the MD5-based not found checksum map to a SHA256-based checksum map for finding more builds in Brew!");
 
-                Map<Checksum, Collection<String>> sha256BasedNotFoundCheckumMap = BuildFinderUtils
-                        .swapEntriesWithPreferredChecksum(notFoundChecksums, analyzer.getFiles(), ChecksumType.sha256);
+                // Copied, since finding the builds adds to the not found checksums
+                Map<Checksum, Collection<String>> sha256BasedNotFoundCheckumMap = new HashMap<>(
+                        analyzer.getContents().withPreferredType(notFoundChecksums, ChecksumType.sha256));
 
                 LOGGER.debug("Original MD5-based not found checksum map: {}", notFoundChecksums);
                 LOGGER.debug("New SHA256-based not found checksum map: {}", sha256BasedNotFoundCheckumMap);
@@ -1464,7 +1482,24 @@ public class BuildFinder
                     green(numBuilds > 0 ? duration.dividedBy(numBuilds) : 0));
         }
 
-        Set<LicenseInfo> allLicenses = addLicensesToBuilds(analyzer.getLicensesMap(), allBuilds);
+        if (config.getLicenseExtractionMode() == LicenseExtractionMode.builds) {
+            Set<String> filenames = allBuilds.values()
+                    .stream()
+                    .filter(kojiBuild -> !BuildFinderUtils.isBuildZero(kojiBuild))
+                    .flatMap(kojiBuild -> kojiBuild.getArchives().stream())
+                    .flatMap(kojiLocalArchive -> kojiLocalArchive.getFilenames().stream())
+                    .collect(Collectors.toUnmodifiableSet());
+
+            try {
+                analyzer.extractLicenses(filenames);
+            } catch (IOException e) {
+                throw new KojiClientException("Error extracting licenses", e);
+            }
+        }
+
+        Instant licensesStartTime = Instant.now();
+        LicenseJoin licenseJoin = new LicenseJoin(allBuilds.values());
+        Set<LicenseInfo> allLicenses = licenseJoin.join(analyzer.getLicensesMap());
         List<String> uniqueLicenses = allLicenses.stream()
                 .map(LicenseInfo::getSpdxLicenseId)
                 .sorted()
@@ -1476,28 +1511,14 @@ public class BuildFinder
                     "Added {} unique SPDX licenses to builds: {}",
                     green(uniqueLicenses.size()),
                     green(String.join(", ", uniqueLicenses)));
-            List<KojiBuild> buildsWithLicenses = allBuilds.values()
-                    .stream()
-                    .filter(
-                            kojiBuild -> kojiBuild.getArchives()
-                                    .stream()
-                                    .anyMatch(kojiLocalArchive -> !kojiLocalArchive.getLicenses().isEmpty()))
-                    .toList();
-            int numBuildsWithLicenses = buildsWithLicenses.size();
+            int numBuildsWithLicenses = licenseJoin.getNumBuildsWithLicenses();
             LOGGER.info(
                     "{} / {} = {}% of builds have license information",
                     green(numBuildsWithLicenses),
                     green(numBuilds),
                     green(Math.round(((double) numBuildsWithLicenses / (double) numBuilds) * 100D)));
-
-            List<KojiLocalArchive> archives = allBuilds.values()
-                    .stream()
-                    .flatMap(kojiBuild -> kojiBuild.getArchives().stream())
-                    .toList();
-            int numArchives = archives.size();
-            long numArchivesWithLicenses = archives.stream()
-                    .filter(kojiLocalArchive -> !kojiLocalArchive.getLicenses().isEmpty())
-                    .count();
+            int numArchives = licenseJoin.getNumArchives();
+            int numArchivesWithLicenses = licenseJoin.getNumArchivesWithLicenses();
             LOGGER.info(
                     "{} / {} = {}% of archives have license information",
                     green(numArchivesWithLicenses),
@@ -1505,13 +1526,10 @@ public class BuildFinder
                     green(Math.round(((double) numArchivesWithLicenses / (double) numArchives) * 100D)));
 
             if (LOGGER.isWarnEnabled()) {
-                List<KojiBuild> buildsWithoutLicenses = new ArrayList<>(allBuilds.values());
-                buildsWithoutLicenses.removeIf(BuildFinderUtils::isBuildZero);
-                buildsWithoutLicenses.removeAll(buildsWithLicenses);
-                int numBuildsWithoutLicenses = buildsWithoutLicenses.size();
+                List<KojiBuild> buildsWithoutLicenses = licenseJoin.getBuildsWithoutLicenses();
                 LOGGER.warn(
                         "{} builds are missing licenses: {}",
-                        red(numBuildsWithoutLicenses),
+                        red(buildsWithoutLicenses.size()),
                         red(
                                 buildsWithoutLicenses.stream()
                                         .map(KojiBuild::getBuildInfo)
@@ -1519,49 +1537,16 @@ public class BuildFinder
                                         .sorted()
                                         .collect(Collectors.joining(", "))));
             }
-        }
-
-        return allBuilds;
-    }
-
-    private static Set<LicenseInfo> addLicensesToBuilds(
-            Map<String, Collection<LicenseInfo>> licensesMap,
-            Map<BuildSystemInteger, KojiBuild> allBuilds) {
-        Set<Entry<String, Collection<LicenseInfo>>> entries = licensesMap.entrySet();
-        Set<LicenseInfo> allLicenses = new TreeSet<>();
-
-        for (Entry<String, Collection<LicenseInfo>> licenseEntry : entries) {
-            String filename = Strings.CS.removeEnd(licenseEntry.getKey(), BANG_SLASH);
-            Optional<KojiLocalArchive> optLocalArchive = findLocalArchiveForFilename(filename, allBuilds);
-
-            if (optLocalArchive.isPresent()) {
-                KojiLocalArchive localArchive = optLocalArchive.get();
-                Collection<LicenseInfo> licenseInfos = licenseEntry.getValue();
-                localArchive.getLicenses().addAll(licenseInfos);
-                allLicenses.addAll(licenseInfos);
-            } else {
-                LOGGER.warn("No matching archive found for file {}", red(filename));
-            }
-        }
-
-        return Collections.unmodifiableSet(allLicenses);
-    }
-
-    private static Optional<KojiLocalArchive> findLocalArchiveForFilename(
-            String filename,
-            Map<BuildSystemInteger, KojiBuild> allBuilds) {
-        for (KojiBuild build : allBuilds.values()) {
-            Optional<KojiLocalArchive> optArchive = build.getArchives()
-                    .stream()
-                    .filter(ar -> ar.getFilenames().contains(filename))
-                    .findFirst();
 
-            if (optArchive.isPresent()) {
-                return optArchive;
-            }
+            Duration duration = Duration.between(licensesStartTime, Instant.now()).abs();
+            LOGGER.info(
+                    "Added licenses of {} files to builds ({} without a matching archive) in {}",
+                    green(analyzer.getLicensesMap().size()),
+                    green(licenseJoin.getNumMissingArchives()),
+                    green(duration));
         }
 
-        return Optional.empty();
+        return allBuilds;
     }
 
     /**
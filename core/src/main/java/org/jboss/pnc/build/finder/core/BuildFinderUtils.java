@@ -33,7 +33,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.zip.ZipOutputStream;
 
-import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.jboss.pnc.build.finder.koji.ClientSession;
@@ -68,9 +67,9 @@ public final class BuildFinderUtils {
 
     private final DistributionAnalyzer distributionAnalyzer;
 
-    private final Map<ChecksumType, String> emptyFileDigests;
+    private final Map<ChecksumType, Digest> emptyFileDigests;
 
-    private final Map<ChecksumType, String> emptyZipDigests;
+    private final Map<ChecksumType, Digest> emptyZipDigests;
 
     public BuildFinderUtils(BuildConfig config, DistributionAnalyzer distributionAnalyzer, ClientSession session) {
         this.config = config;
@@ -85,15 +84,14 @@ public final class BuildFinderUtils {
                 .forEach(
                         checksumType -> emptyFileDigests.put(
                                 checksumType,
-                                Hex.encodeHexString(DigestUtils.getDigest(checksumType.getAlgorithm()).digest())));
+                                Digest.of(DigestUtils.getDigest(checksumType.getAlgorithm()).digest())));
 
         byte[] emptyZip = emptyZipBytes();
         config.getChecksumTypes()
                 .forEach(
                         checksumType -> emptyZipDigests.put(
                                 checksumType,
-                                Hex.encodeHexString(
-                                        DigestUtils.getDigest(checksumType.getAlgorithm()).digest(emptyZip))));
+                                Digest.of(DigestUtils.getDigest(checksumType.getAlgorithm()).digest(emptyZip))));
 
     }
 
@@ -111,11 +109,11 @@ public final class BuildFinderUtils {
     }
 
     public boolean isEmptyFileDigest(Checksum checksum) {
-        return checksum.getValue().equals(emptyFileDigests.get(checksum.getType()));
+        return checksum.getDigest().equals(emptyFileDigests.get(checksum.getType()));
     }
 
     public boolean isEmptyZipDigest(Checksum checksum) {
-        return checksum.getValue().equals(emptyZipDigests.get(checksum.getType()));
+        return checksum.getDigest().equals(emptyZipDigests.get(checksum.getType()));
     }
 
     public boolean shouldSkipChecksum(Checksum checksum, Collection<String> filenames) {
@@ -220,7 +218,7 @@ public final class BuildFinderUtils {
                                 .stream()
                                 .anyMatch(
                                         cksum -> cksum.getType() == checksum.getType()
-                                                && cksum.getValue().equals(checksum.getValue())))
+                                                && cksum.getDigest().equals(checksum.getDigest())))
                 .findFirst();
 
         if (matchingArchive.isPresent()) {
@@ -436,6 +434,16 @@ public final class BuildFinderUtils {
         return extensionsToCheck;
     }
 
+    /**
+     * Copies the map with each key replaced by the checksum of the preferred type of the same file, whenever possible.
+     *
+     * @param originalMap the map
+     * @param fileInverseMap the checksums of each file
+     * @param preferredChecksumType the preferred checksum type
+     * @return the copy of the map
+     * @deprecated Use {@link ContentIndex#withPreferredType(Map, ChecksumType)}.
+     */
+    @Deprecated(since = "2.7.0", forRemoval = true)
     public static Map<Checksum, Collection<String>> swapEntriesWithPreferredChecksum(
             Map<Checksum, Collection<String>> originalMap,
             Map<String, Collection<Checksum>> fileInverseMap,
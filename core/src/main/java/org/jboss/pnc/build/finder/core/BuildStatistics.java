@@ -50,61 +50,74 @@ public class BuildStatistics {
 
     public BuildStatistics(Collection<KojiBuild> builds) {
         for (KojiBuild build : builds) {
-            boolean isImport = build.isImport();
-            List<KojiLocalArchive> archives = build.getArchives();
-            int archiveCount = archives.size();
+            add(build);
+        }
+    }
 
-            if (isNotBuildZero(build)) {
-                numberOfBuilds++;
+    /**
+     * Adds a build to the statistics, so that they can be computed in the same pass over the builds as other
+     * aggregates.
+     *
+     * @param build the build
+     */
+    public void add(KojiBuild build) {
+        boolean isImport = build.isImport();
+        List<KojiLocalArchive> archives = build.getArchives();
+        int archiveCount = archives.size();
 
-                if (isImport) {
-                    numberOfImportedBuilds++;
-                }
-            }
+        if (isNotBuildZero(build)) {
+            numberOfBuilds++;
 
-            if (archives.isEmpty()) {
-                continue;
+            if (isImport) {
+                numberOfImportedBuilds++;
             }
+        }
 
-            for (KojiLocalArchive archive : archives) {
-                if (!isImport && !archive.isBuiltFromSource()) {
-                    int unmatchedFilenamesCount = archive.getUnmatchedFilenames().size();
-
-                    numberOfImportedArchives += unmatchedFilenamesCount;
-
-                    if (LOGGER.isWarnEnabled()) {
-                        LOGGER.warn(
-                                "Built archive {} with {} unmatched files: {}",
-                                red(archive.getArchive().getFilename()),
-                                red(unmatchedFilenamesCount),
-                                red(String.join(", ", archive.getUnmatchedFilenames())));
-                    }
-                }
-            }
+        if (archives.isEmpty()) {
+            updatePercentages();
+            return;
+        }
 
-            numberOfArchives += archiveCount;
+        for (KojiLocalArchive archive : archives) {
+            if (!isImport && !archive.isBuiltFromSource()) {
+                int unmatchedFilenamesCount = archive.getUnmatchedFilenames().size();
 
-            if (isImport) {
-                numberOfImportedArchives += archiveCount;
+                numberOfImportedArchives += unmatchedFilenamesCount;
 
                 if (LOGGER.isWarnEnabled()) {
                     LOGGER.warn(
-                            "Imported build {} with {} archives: {}",
-                            red(build.getBuildInfo().getName()),
-                            red(archiveCount),
-                            red(
-                                    archives.stream()
-                                            .flatMap(a -> a.getFilenames().stream())
-                                            .collect(Collectors.joining(", "))));
+                            "Built archive {} with {} unmatched files: {}",
+                            red(archive.getArchive().getFilename()),
+                            red(unmatchedFilenamesCount),
+                            red(String.join(", ", archive.getUnmatchedFilenames())));
                 }
             }
         }
 
-        if (!builds.isEmpty()) {
-            percentOfBuildsImported = ((double) numberOfImportedBuilds / (double) numberOfBuilds) * ONE_HUNDRED_PERCENT;
-            percentOfArchivesImported = ((double) numberOfImportedArchives / (double) numberOfArchives)
-                    * ONE_HUNDRED_PERCENT;
+        numberOfArchives += archiveCount;
+
+        if (isImport) {
+            numberOfImportedArchives += archiveCount;
+
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn(
+                        "Imported build {} with {} archives: {}",
+                        red(build.getBuildInfo().getName()),
+                        red(archiveCount),
+                        red(
+                                archives.stream()
+                                        .flatMap(a -> a.getFilenames().stream())
+                                        .collect(Collectors.joining(", "))));
+            }
         }
+
+        updatePercentages();
+    }
+
+    private void updatePercentages() {
+        percentOfBuildsImported = ((double) numberOfImportedBuilds / (double) numberOfBuilds) * ONE_HUNDRED_PERCENT;
+        percentOfArchivesImported = ((double) numberOfImportedArchives / (double) numberOfArchives)
+                * ONE_HUNDRED_PERCENT;
     }
 
     public long getNumberOfBuilds() {
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+/**
+ * How the build resolution caches are shared with other Build Finder processes.
+ */
+public enum CacheClusterMode {
+    /**
+     * The caches are only available to this process.
+     */
+    local,
+    /**
+     * Every member of the cluster holds a copy of every entry.
+     */
+    replicated,
+    /**
+     * Each entry is held by a subset of the members of the cluster.
+     */
+    distributed
+}
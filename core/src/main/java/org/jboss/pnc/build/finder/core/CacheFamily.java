@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Groups of local caches sharing the same kind of entries, and therefore the same limits.
+ */
+public enum CacheFamily {
+    files(true, "files-"), checksums(true, "checksums-", "checksums-pnc-"), rpms(true, "rpms-"),
+    builds(false, "builds", "builds-pnc"), artifacts(false, "artifact-pnc"), licenses(false, LicenseCache.CACHE_NAME);
+
+    private final boolean perChecksumType;
+
+    private final List<String> prefixes;
+
+    CacheFamily(boolean perChecksumType, String... prefixes) {
+        this.perChecksumType = perChecksumType;
+        this.prefixes = List.of(prefixes);
+    }
+
+    /**
+     * Gets the names of the caches in this family.
+     *
+     * @param checksumTypes the checksum types in use
+     * @return the cache names
+     */
+    public List<String> getCacheNames(Collection<ChecksumType> checksumTypes) {
+        if (!perChecksumType) {
+            return prefixes;
+        }
+
+        List<String> names = new ArrayList<>(prefixes.size() * checksumTypes.size());
+
+        for (String prefix : prefixes) {
+            for (ChecksumType checksumType : checksumTypes) {
+                names.add(prefix + checksumType);
+            }
+        }
+
+        return Collections.unmodifiableList(names);
+    }
+}
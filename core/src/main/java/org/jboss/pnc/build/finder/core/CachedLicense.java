@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+
+/**
+ * License detected from the contents of a file, without the location of the file. This is what is stored in the
+ * license cache, so that the same result can be reused for every file with identical contents.
+ *
+ * @see LicenseCache
+ */
+public class CachedLicense {
+    private final String comments;
+
+    private final String distribution;
+
+    private final String name;
+
+    private final String url;
+
+    private final String spdxLicenseId;
+
+    @ProtoFactory
+    public CachedLicense(String comments, String distribution, String name, String url, String spdxLicenseId) {
+        this.comments = comments;
+        this.distribution = distribution;
+        this.name = name;
+        this.url = url;
+        this.spdxLicenseId = spdxLicenseId;
+    }
+
+    /**
+     * Creates a cached license from the given license, dropping its source.
+     *
+     * @param licenseInfo the license
+     * @return the cached license
+     */
+    public static CachedLicense of(LicenseInfo licenseInfo) {
+        return new CachedLicense(
+                licenseInfo.getComments(),
+                licenseInfo.getDistribution(),
+                licenseInfo.getName(),
+                licenseInfo.getUrl(),
+                licenseInfo.getSpdxLicenseId());
+    }
+
+    @ProtoField(1)
+    public String getComments() {
+        return comments;
+    }
+
+    @ProtoField(2)
+    public String getDistribution() {
+        return distribution;
+    }
+
+    @ProtoField(3)
+    public String getName() {
+        return name;
+    }
+
+    @ProtoField(4)
+    public String getUrl() {
+        return url;
+    }
+
+    @ProtoField(5)
+    public String getSpdxLicenseId() {
+        return spdxLicenseId;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedLicense{" + "comments='" + comments + '\'' + ", distribution='" + distribution + '\'' + ", name='"
+                + name + '\'' + ", url='" + url + '\'' + ", spdxLicenseId='" + spdxLicenseId + '\'' + '}';
+    }
+}
@@ -32,8 +32,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
-import org.apache.commons.codec.binary.Hex;
-import org.apache.commons.lang3.Strings;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
@@ -52,16 +51,16 @@ public class Checksum implements Comparable<Checksum>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(Checksum.class);
 
     @Serial
-    private static final long serialVersionUID = -7347509034711302799L;
+    private static final long serialVersionUID = 6921586384173250338L;
 
     private static final int BUFFER_SIZE = 8192;
 
     private ChecksumType type;
 
-    private String value;
+    private Digest digest;
 
     @JsonIgnore
-    private String filename;
+    private PathNode filename;
 
     @JsonIgnore
     private long fileSize;
@@ -71,17 +70,26 @@ public class Checksum implements Comparable<Checksum>, Serializable {
     }
 
     public Checksum(ChecksumType type, String value, String filename, long fileSize) {
-        this.type = type;
-        this.value = value;
-        this.filename = filename;
-        this.fileSize = fileSize;
+        this(type, value != null ? Digest.fromHex(value) : null, filename, fileSize);
     }
 
     public Checksum(ChecksumType type, String value, LocalFile localFile) {
+        this(type, value, localFile.getFilename(), localFile.getSize());
+    }
+
+    public Checksum(ChecksumType type, Digest digest, String filename, long fileSize) {
+        this(type, digest, PathNode.ofNullable(filename), fileSize);
+    }
+
+    public Checksum(ChecksumType type, Digest digest, PathNode path, long fileSize) {
         this.type = type;
-        this.value = value;
-        this.filename = localFile.getFilename();
-        this.fileSize = localFile.getSize();
+        this.digest = digest;
+        this.filename = path;
+        this.fileSize = fileSize;
+    }
+
+    public Checksum(ChecksumType type, Digest digest, LocalFile localFile) {
+        this(type, digest, localFile.getPath(), localFile.getSize());
     }
 
     public static long determineFileSize(FileContent fc) throws FileSystemException {
@@ -122,7 +130,7 @@ public class Checksum implements Comparable<Checksum>, Serializable {
                     }
                 }
 
-                String normalizedPath = Utils.normalizePath(fo, root);
+                PathNode path = PathNode.of(Utils.normalizePath(fo, root));
 
                 for (ChecksumType checksumType : checksumTypes) {
                     LOGGER.debug("Handle checksum type {} for RPM {}", checksumType.getAlgorithm(), filename);
@@ -132,12 +140,7 @@ public class Checksum implements Comparable<Checksum>, Serializable {
                             Object md5 = in.getSignatureHeader().getTag(RpmSignatureTag.MD5);
 
                             if (md5 instanceof byte[] md5Bytes) {
-                                results.add(
-                                        new Checksum(
-                                                checksumType,
-                                                Hex.encodeHexString(md5Bytes),
-                                                normalizedPath,
-                                                fileSize));
+                                results.add(new Checksum(checksumType, Digest.of(md5Bytes), path, fileSize));
                             } else {
                                 throw new IOException("Missing " + checksumType.getAlgorithm() + " for " + fo);
                             }
@@ -146,14 +149,9 @@ public class Checksum implements Comparable<Checksum>, Serializable {
                             Object sha1 = in.getSignatureHeader().getTag(RpmSignatureTag.SHA1HEADER);
 
                             if (sha1 instanceof String sha1Hex) {
-                                results.add(new Checksum(checksumType, sha1Hex, normalizedPath, fileSize));
+                                results.add(new Checksum(checksumType, Digest.fromHex(sha1Hex), path, fileSize));
                             } else if (sha1 instanceof byte[] sha1Bytes) {
-                                results.add(
-                                        new Checksum(
-                                                checksumType,
-                                                Hex.encodeHexString(sha1Bytes),
-                                                normalizedPath,
-                                                fileSize));
+                                results.add(new Checksum(checksumType, Digest.of(sha1Bytes), path, fileSize));
                             } else {
                                 LOGGER.warn("Missing {} for {}", red(checksumType.getAlgorithm()), red(fo));
                             }
@@ -162,14 +160,9 @@ public class Checksum implements Comparable<Checksum>, Serializable {
                             Object sha256 = in.getSignatureHeader().getTag(RpmSignatureTag.SHA256HEADER);
 
                             if (sha256 instanceof String sha256Hex) {
-                                results.add(new Checksum(checksumType, sha256Hex, normalizedPath, fileSize));
+                                results.add(new Checksum(checksumType, Digest.fromHex(sha256Hex), path, fileSize));
                             } else if (sha256 instanceof byte[] sha256Bytes) {
-                                results.add(
-                                        new Checksum(
-                                                checksumType,
-                                                Hex.encodeHexString(sha256Bytes),
-                                                normalizedPath,
-                                                fileSize));
+                                results.add(new Checksum(checksumType, Digest.of(sha256Bytes), path, fileSize));
                             } else {
                                 LOGGER.warn("Missing {} for {}", red(checksumType.getAlgorithm()), red(fo));
                             }
@@ -201,16 +194,11 @@ public class Checksum implements Comparable<Checksum>, Serializable {
                 }
             }
 
-            String normalizedPath = Utils.normalizePath(fo, root);
+            PathNode path = PathNode.of(Utils.normalizePath(fo, root));
 
             for (ChecksumType checksumType : checksumTypes) {
                 MessageDigest md = mds.get(checksumType);
-                results.add(
-                        new Checksum(
-                                checksumType,
-                                Hex.encodeHexString(md.digest()),
-                                normalizedPath,
-                                fileSize));
+                results.add(new Checksum(checksumType, Digest.of(md.digest()), path, fileSize));
             }
         }
 
@@ -229,20 +217,41 @@ public class Checksum implements Comparable<Checksum>, Serializable {
         this.type = type;
     }
 
+    /**
+     * Gets the hexadecimal string of the checksum, for use when talking to other systems. Internally, prefer
+     * {@link #getDigest()}, which does not create a new string.
+     *
+     * @return the hexadecimal string of the checksum, or <code>null</code> if not set
+     */
     public String getValue() {
-        return value;
+        return digest != null ? digest.toHex() : null;
     }
 
     public void setValue(String value) {
-        this.value = value;
+        this.digest = value != null ? Digest.fromHex(value) : null;
+    }
+
+    @JsonIgnore
+    public Digest getDigest() {
+        return digest;
+    }
+
+    @JsonIgnore
+    public void setDigest(Digest digest) {
+        this.digest = digest;
     }
 
     public String getFilename() {
-        return filename;
+        return filename != null ? filename.toString() : null;
     }
 
     public void setFilename(String filename) {
-        this.filename = filename;
+        this.filename = PathNode.ofNullable(filename);
+    }
+
+    @JsonIgnore
+    public PathNode getPath() {
+        return filename;
     }
 
     public long getFileSize() {
@@ -265,13 +274,13 @@ public class Checksum implements Comparable<Checksum>, Serializable {
             return i;
         }
 
-        int j = Strings.CS.compare(value, o.value);
+        int j = ObjectUtils.compare(digest, o.digest);
 
         if (j != 0) {
             return j;
         }
 
-        int k = Strings.CS.compare(filename, o.filename);
+        int k = ObjectUtils.compare(filename, o.filename);
 
         if (k != 0) {
             return k;
@@ -291,18 +300,18 @@ public class Checksum implements Comparable<Checksum>, Serializable {
         }
 
         Checksum checksum = (Checksum) o;
-        return fileSize == checksum.fileSize && type == checksum.type && Objects.equals(value, checksum.value)
+        return fileSize == checksum.fileSize && type == checksum.type && Objects.equals(digest, checksum.digest)
                 && Objects.equals(filename, checksum.filename);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, value, filename, fileSize);
+        return Objects.hash(type, digest, filename, fileSize);
     }
 
     @Override
     public String toString() {
-        return "Checksum{" + "type=" + type + ", value='" + value + '\'' + ", filename='" + filename + '\''
+        return "Checksum{" + "type=" + type + ", value='" + digest + '\'' + ", filename='" + filename + '\''
                 + ", fileSize=" + fileSize + '}';
     }
 }
@@ -20,6 +20,7 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -43,9 +44,17 @@ public abstract class ConfigDefaults {
             "war",
             "xml");
     public static final List<BuildSystem> BUILD_SYSTEMS = List.of(BuildSystem.pnc, BuildSystem.koji);
+    public static final CacheClusterMode CACHE_CLUSTER_MODE = CacheClusterMode.local;
+    public static final String CACHE_CLUSTER_NAME = "build-finder";
+    public static final String CACHE_CLUSTER_CONFIG = "build-finder-jgroups-tcp.xml";
     public static final Long CACHE_LIFESPAN = TimeUnit.HOURS.toMillis(1L);
     public static final Long CACHE_MAX_IDLE = TimeUnit.HOURS.toMillis(1L);
+    public static final Long CACHE_MAX_ENTRIES = 10_000L;
+    public static final Map<CacheFamily, Long> CACHE_MAX_ENTRIES_PER_FAMILY = Collections.emptyMap();
+    public static final Map<CacheFamily, Long> CACHE_MAX_STORED_ENTRIES_PER_FAMILY = Collections.emptyMap();
     public static final Boolean CHECKSUM_ONLY = Boolean.FALSE;
+    public static final Integer CHECKSUM_QUEUE_SIZE = 100000;
+    public static final Long CHECKSUM_SPILL_THRESHOLD = 0L;
     public static final Set<ChecksumType> CHECKSUM_TYPES = Collections
             .unmodifiableSet(EnumSet.allOf(ChecksumType.class));
     public static final String CONFIG_FILE = "config.json";
@@ -53,18 +62,24 @@ public abstract class ConfigDefaults {
     public static final Path CONFIG = CONFIG_PATH.resolve(CONFIG_FILE);
     public static final Boolean DISABLE_CACHE = Boolean.FALSE;
     public static final Path CACHE_LOCATION = CONFIG_PATH.resolve("cache");
+    public static final String CACHE_SNAPSHOT = null;
     public static final Boolean DISABLE_RECURSION = Boolean.FALSE;
     public static final List<Pattern> EXCLUDES = List.of(Pattern.compile("^(?!.*/pom\\.xml$).*/.*\\.xml$"));
+    public static final Boolean JSON_COMPACT = Boolean.FALSE;
+    public static final JsonCompression JSON_COMPRESSION = JsonCompression.none;
     public static final URL KOJI_HUB_URL = null;
     public static final Integer KOJI_MULTICALL_SIZE = 150;
     public static final Integer KOJI_NUM_THREADS = 12;
     public static final URL KOJI_WEB_URL = null;
+    public static final LicenseExtractionMode LICENSE_EXTRACTION_MODE = LicenseExtractionMode.all;
     public static final String OUTPUT_DIR = ".";
     public static final Integer PNC_CONNECTION_TIMEOUT = -1;
     public static final Long PNC_NUM_THREADS = 10L;
     public static final Integer PNC_PARTITION_SIZE = 18;
     public static final Integer PNC_READ_TIMEOUT = -1;
     public static final URL PNC_URL = null;
+    public static final Integer REPORT_ARCHIVES_PAGE_SIZE = 0;
+    public static final Boolean RESULT_BUNDLE = Boolean.FALSE;
     public static final Boolean USE_BUILDS_FILE = Boolean.FALSE;
     public static final Boolean USE_CHECKSUMS_FILE = Boolean.FALSE;
 
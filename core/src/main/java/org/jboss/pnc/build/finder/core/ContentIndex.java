@@ -0,0 +1,848 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of {@link ContentRecord}s by each digest type and by file path. Adding the checksums of a file either creates
+ * the record of its content or adds the file to the existing record, so that any checksum of a file can be translated
+ * to its checksum of another type without scanning the checksums of the file.
+ * <p>
+ * The index may keep at most a given number of file records on the heap, like {@link SpillingChecksumMap}. When the
+ * records on the heap reach that number, they are written to a run: one file sorted by path, and one file for each
+ * checksum type sorted by digest. Lookups then merge the digests of a file from the heap and from each run, and return
+ * a copy of its record, so that records are no longer shared between files with the same content. The run files are
+ * deleted by {@link #close()}.
+ */
+public final class ContentIndex implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentIndex.class);
+
+    private static final ChecksumType[] TYPES = ChecksumType.values();
+
+    private static final int BLOCK_SIZE = 64;
+
+    // A run file is memory-mapped as a single buffer, so it must not exceed 2 GiB
+    private static final long MAX_RUN_BYTES = Integer.MAX_VALUE - 65_536L;
+
+    private static final String RUN_FILE_PREFIX = "build-finder-contents-";
+
+    private final Map<ChecksumType, Map<Digest, ContentRecord>> byDigest;
+
+    private final Map<PathNode, ContentRecord> byPath;
+
+    private final long maxHeapRecords;
+
+    private final List<Run> runs;
+
+    private long heapBytes;
+
+    /**
+     * Creates an empty index which keeps all records on the heap.
+     */
+    public ContentIndex() {
+        this(0L);
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxHeapRecords the maximum number of file records kept on the heap, or 0 to keep all records on the heap
+     */
+    public ContentIndex(long maxHeapRecords) {
+        if (maxHeapRecords < 0L) {
+            throw new IllegalArgumentException(
+                    "Maximum number of heap records must not be negative: " + maxHeapRecords);
+        }
+
+        byDigest = new EnumMap<>(ChecksumType.class);
+
+        for (ChecksumType type : TYPES) {
+            byDigest.put(type, new ConcurrentHashMap<>());
+        }
+
+        byPath = new ConcurrentHashMap<>();
+        this.maxHeapRecords = maxHeapRecords;
+        runs = new ArrayList<>();
+    }
+
+    private static long maxRecordLength(PathNode path) {
+        // A UTF-16 char takes at most 3 bytes in UTF-8, so the path does not need to be encoded here
+        return Integer.BYTES + 3L * path.length() + Long.BYTES + TYPES.length * (1L + Digest.MAX_LENGTH);
+    }
+
+    private static ContentRecord copyOf(ContentRecord record) {
+        ContentRecord copy = new ContentRecord(record.getSize());
+
+        for (PathNode path : record.getPaths()) {
+            copy.addPath(path);
+        }
+
+        for (ChecksumType type : TYPES) {
+            Digest digest = record.getDigest(type);
+
+            if (digest != null) {
+                copy.putDigest(type, digest);
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     * Adds the checksum of a file. The checksums of a file may be added one at a time and in any order.
+     *
+     * @param checksum the checksum
+     */
+    public synchronized void add(Checksum checksum) {
+        put(checksum);
+        spillIfFull();
+    }
+
+    /**
+     * Adds the checksums of a file.
+     *
+     * @param checksums the checksums
+     */
+    public synchronized void addAll(Collection<Checksum> checksums) {
+        for (Checksum checksum : checksums) {
+            put(checksum);
+        }
+
+        spillIfFull();
+    }
+
+    private void put(Checksum checksum) {
+        ChecksumType type = checksum.getType();
+        Digest digest = checksum.getDigest();
+        PathNode path = checksum.getPath();
+        ContentRecord record = byPath.get(path);
+
+        if (record == null) {
+            record = byDigest.get(type).get(digest);
+
+            if (record == null) {
+                record = new ContentRecord(checksum.getFileSize());
+            }
+
+            record.addPath(path);
+            heapBytes += maxRecordLength(path);
+        }
+
+        record.putDigest(type, digest);
+        byDigest.get(type).putIfAbsent(digest, record);
+        byPath.putIfAbsent(path, record);
+    }
+
+    private void spillIfFull() {
+        if (maxHeapRecords > 0L && (byPath.size() >= maxHeapRecords || heapBytes >= MAX_RUN_BYTES)) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        List<SpilledRecord> records = new ArrayList<>(byPath.size());
+
+        for (Entry<PathNode, ContentRecord> entry : byPath.entrySet()) {
+            records.add(SpilledRecord.of(entry.getKey(), entry.getValue()));
+        }
+
+        try {
+            runs.add(Run.write(records));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Spilled {} file records to run {}", records.size(), runs.size());
+        }
+
+        for (Map<Digest, ContentRecord> digests : byDigest.values()) {
+            digests.clear();
+        }
+
+        byPath.clear();
+        heapBytes = 0L;
+    }
+
+    /**
+     * Gets the number of run files.
+     *
+     * @return the number of runs
+     */
+    synchronized int getRunCount() {
+        return runs.size();
+    }
+
+    public ContentRecord get(ChecksumType type, Digest digest) {
+        if (maxHeapRecords == 0L) {
+            return byDigest.get(type).get(digest);
+        }
+
+        return lookup(type, digest);
+    }
+
+    public ContentRecord get(Checksum checksum) {
+        return get(checksum.getType(), checksum.getDigest());
+    }
+
+    private synchronized ContentRecord lookup(ChecksumType type, Digest digest) {
+        ContentRecord record = byDigest.get(type).get(digest);
+
+        if (runs.isEmpty()) {
+            return record;
+        }
+
+        if (record != null) {
+            // The file which created the record is mapped to it, so its digests can be merged from the runs
+            return lookup(record.getPaths().get(0));
+        }
+
+        for (Run run : runs) {
+            SpilledRecord spilled = run.find(type, digest);
+
+            if (spilled != null) {
+                return lookup(spilled.getPath());
+            }
+        }
+
+        return null;
+    }
+
+    private synchronized ContentRecord lookup(PathNode path) {
+        ContentRecord record = byPath.get(path);
+
+        if (runs.isEmpty()) {
+            return record;
+        }
+
+        ContentRecord merged = record != null ? copyOf(record) : null;
+        byte[] key = path.toString().getBytes(UTF_8);
+
+        for (Run run : runs) {
+            SpilledRecord spilled = run.find(key);
+
+            if (spilled != null) {
+                if (merged == null) {
+                    merged = new ContentRecord(spilled.size);
+                    merged.addPath(path);
+                }
+
+                spilled.putDigests(merged);
+            }
+        }
+
+        return merged;
+    }
+
+    Map<PathNode, ContentRecord> getRecordsByPath() {
+        if (maxHeapRecords == 0L) {
+            return Collections.unmodifiableMap(byPath);
+        }
+
+        return new SpilledPathMap();
+    }
+
+    /**
+     * Iterates over the records of each file in path order, with the digests of each file merged from the heap and
+     * the runs. Takes a snapshot of the heap records, so that the iteration is not affected by later additions.
+     *
+     * @return the iterator
+     */
+    private synchronized Iterator<Entry<PathNode, ContentRecord>> mergedIterator() {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                Comparator.comparing((Cursor cursor) -> cursor.record().path, Arrays::compareUnsigned));
+        List<SpilledRecord> heapRecords = new ArrayList<>(byPath.size());
+
+        for (Entry<PathNode, ContentRecord> entry : byPath.entrySet()) {
+            heapRecords.add(SpilledRecord.of(entry.getKey(), entry.getValue()));
+        }
+
+        if (!heapRecords.isEmpty()) {
+            heapRecords.sort(Comparator.comparing((SpilledRecord record) -> record.path, Arrays::compareUnsigned));
+            queue.add(new HeapCursor(heapRecords));
+        }
+
+        for (Run run : runs) {
+            Cursor cursor = run.cursor();
+
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Entry<PathNode, ContentRecord> next() {
+                if (queue.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+
+                SpilledRecord first = queue.peek().record();
+                PathNode path = first.getPath();
+                ContentRecord merged = new ContentRecord(first.size);
+                merged.addPath(path);
+
+                while (!queue.isEmpty() && Arrays.equals(queue.peek().record().path, first.path)) {
+                    Cursor cursor = queue.poll();
+                    cursor.record().putDigests(merged);
+
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+
+                return new SimpleImmutableEntry<>(path, merged);
+            }
+        };
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Run run : runs) {
+            run.delete();
+        }
+
+        runs.clear();
+    }
+
+    /**
+     * Translates a checksum to the checksum of the preferred type of the same file.
+     *
+     * @param checksum the checksum
+     * @param preferredChecksumType the preferred checksum type
+     * @return the checksum of the preferred type, or the given checksum if its content has no digest of the preferred
+     *         type
+     */
+    public Checksum toPreferred(Checksum checksum, ChecksumType preferredChecksumType) {
+        if (checksum.getType() == preferredChecksumType) {
+            return checksum;
+        }
+
+        ContentRecord record = get(checksum);
+
+        if (record == null) {
+            return checksum;
+        }
+
+        Checksum preferred = record.getChecksum(preferredChecksumType, checksum.getPath());
+        return preferred != null ? preferred : checksum;
+    }
+
+    /**
+     * Gets a read-only view of the given map with each key translated to its checksum of the preferred type, whenever
+     * possible. The keys are translated while iterating, so the map is never copied.
+     *
+     * @param map the map
+     * @param preferredChecksumType the preferred checksum type
+     * @return the view
+     */
+    public Map<Checksum, Collection<String>> withPreferredType(
+            Map<Checksum, Collection<String>> map,
+            ChecksumType preferredChecksumType) {
+        return new PreferredMap(map, preferredChecksumType);
+    }
+
+    private final class PreferredMap extends AbstractMap<Checksum, Collection<String>> {
+        private final Map<Checksum, Collection<String>> map;
+
+        private final ChecksumType type;
+
+        PreferredMap(Map<Checksum, Collection<String>> map, ChecksumType type) {
+            this.map = map;
+            this.type = type;
+        }
+
+        @Override
+        public Collection<String> get(Object key) {
+            Checksum original = toOriginal(key);
+            return original != null ? map.get(original) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return toOriginal(key) != null;
+        }
+
+        private Checksum toOriginal(Object key) {
+            if (!(key instanceof Checksum checksum)) {
+                return null;
+            }
+
+            ContentRecord record = ContentIndex.this.get(checksum);
+
+            if (record != null) {
+                for (ChecksumType originalType : ChecksumType.values()) {
+                    if (originalType != type) {
+                        Checksum original = record.getChecksum(originalType, checksum.getPath());
+
+                        if (original != null && map.containsKey(original)
+                                && toPreferred(original, type).equals(checksum)) {
+                            return original;
+                        }
+                    }
+                }
+            }
+
+            // Either the key is untranslated, or it was already of the preferred type
+            return map.containsKey(checksum) && toPreferred(checksum, type).equals(checksum) ? checksum : null;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public Set<Entry<Checksum, Collection<String>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Checksum, Collection<String>>> iterator() {
+                    Iterator<Entry<Checksum, Collection<String>>> it = map.entrySet().iterator();
+
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Checksum, Collection<String>> next() {
+                            Entry<Checksum, Collection<String>> entry = it.next();
+                            return new SimpleImmutableEntry<>(toPreferred(entry.getKey(), type), entry.getValue());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return map.size();
+                }
+            };
+        }
+    }
+
+    private final class SpilledPathMap extends AbstractMap<PathNode, ContentRecord> {
+        @Override
+        public ContentRecord get(Object key) {
+            return key instanceof PathNode path ? lookup(path) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<PathNode, ContentRecord>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<PathNode, ContentRecord>> iterator() {
+                    return mergedIterator();
+                }
+
+                @Override
+                public int size() {
+                    // The runs may share paths, so they must be merged to count the paths
+                    Iterator<Entry<PathNode, ContentRecord>> it = mergedIterator();
+                    int count = 0;
+
+                    while (it.hasNext()) {
+                        it.next();
+                        count++;
+                    }
+
+                    return count;
+                }
+            };
+        }
+    }
+
+    /**
+     * The digests and size of one file, as written to a run. Each record is the path length and UTF-8 bytes, the file
+     * size, and for each checksum type the digest length and bytes, with a length of 0 if the file has no digest of
+     * that type.
+     */
+    private static final class SpilledRecord {
+        private final byte[] path;
+
+        private final long size;
+
+        private final Digest[] digests;
+
+        SpilledRecord(byte[] path, long size, Digest[] digests) {
+            this.path = path;
+            this.size = size;
+            this.digests = digests;
+        }
+
+        static SpilledRecord of(PathNode path, ContentRecord record) {
+            Digest[] digests = new Digest[TYPES.length];
+
+            for (ChecksumType type : TYPES) {
+                digests[type.ordinal()] = record.getDigest(type);
+            }
+
+            return new SpilledRecord(path.toString().getBytes(UTF_8), record.getSize(), digests);
+        }
+
+        static SpilledRecord read(MappedByteBuffer buffer, int offset) {
+            // Absolute reads only, so that cursors can share the buffer
+            byte[] path = new byte[buffer.getInt(offset)];
+            buffer.get(offset + Integer.BYTES, path);
+            int position = offset + Integer.BYTES + path.length;
+            long size = buffer.getLong(position);
+            position += Long.BYTES;
+            Digest[] digests = new Digest[TYPES.length];
+
+            for (int i = 0; i < TYPES.length; i++) {
+                int length = buffer.get(position) & 0xFF;
+                position++;
+
+                if (length > 0) {
+                    byte[] digest = new byte[length];
+                    buffer.get(position, digest);
+                    position += length;
+                    digests[i] = Digest.of(digest);
+                }
+            }
+
+            return new SpilledRecord(path, size, digests);
+        }
+
+        int length() {
+            int length = Integer.BYTES + path.length + Long.BYTES;
+
+            for (Digest digest : digests) {
+                length += 1 + (digest != null ? digest.length() : 0);
+            }
+
+            return length;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(path.length);
+            out.write(path);
+            out.writeLong(size);
+
+            for (Digest digest : digests) {
+                if (digest != null) {
+                    out.writeByte(digest.length());
+                    out.write(digest.toBytes());
+                } else {
+                    out.writeByte(0);
+                }
+            }
+        }
+
+        PathNode getPath() {
+            return PathNode.of(new String(path, UTF_8));
+        }
+
+        Digest getDigest(ChecksumType type) {
+            return digests[type.ordinal()];
+        }
+
+        void putDigests(ContentRecord record) {
+            for (ChecksumType type : TYPES) {
+                Digest digest = digests[type.ordinal()];
+
+                if (digest != null) {
+                    record.putDigest(type, digest);
+                }
+            }
+        }
+    }
+
+    private interface Cursor {
+        boolean advance();
+
+        SpilledRecord record();
+    }
+
+    private static final class HeapCursor implements Cursor {
+        private final Iterator<SpilledRecord> it;
+
+        private SpilledRecord record;
+
+        HeapCursor(List<SpilledRecord> records) {
+            it = records.iterator();
+            record = it.next();
+        }
+
+        @Override
+        public boolean advance() {
+            if (!it.hasNext()) {
+                return false;
+            }
+
+            record = it.next();
+            return true;
+        }
+
+        @Override
+        public SpilledRecord record() {
+            return record;
+        }
+    }
+
+    /**
+     * The records spilled at once: one section sorted by path, and one section for each checksum type sorted by
+     * digest, which holds only the records with a digest of that type.
+     */
+    private static final class Run {
+        private final Section<byte[]> byPath;
+
+        private final Map<ChecksumType, Section<Digest>> byDigest;
+
+        private Run(Section<byte[]> byPath, Map<ChecksumType, Section<Digest>> byDigest) {
+            this.byPath = byPath;
+            this.byDigest = byDigest;
+        }
+
+        static Run write(List<SpilledRecord> records) throws IOException {
+            Map<ChecksumType, Section<Digest>> byDigest = new EnumMap<>(ChecksumType.class);
+            Section<byte[]> byPath = null;
+
+            try {
+                byPath = Section.write(records, record -> record.path, Arrays::compareUnsigned);
+
+                for (ChecksumType type : TYPES) {
+                    if (records.stream().anyMatch(record -> record.getDigest(type) != null)) {
+                        byDigest.put(type, Section.write(records, record -> record.getDigest(type), Digest::compareTo));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (byPath != null) {
+                    byPath.delete();
+                }
+
+                byDigest.values().forEach(Section::delete);
+                throw e;
+            }
+
+            return new Run(byPath, byDigest);
+        }
+
+        SpilledRecord find(byte[] path) {
+            return byPath.find(path);
+        }
+
+        SpilledRecord find(ChecksumType type, Digest digest) {
+            Section<Digest> section = byDigest.get(type);
+            return section != null ? section.find(digest) : null;
+        }
+
+        Cursor cursor() {
+            return byPath.cursor();
+        }
+
+        void delete() {
+            byPath.delete();
+            byDigest.values().forEach(Section::delete);
+        }
+    }
+
+    /**
+     * A run file of records sorted by key. Only every 64th key is kept on the heap, as an index for binary search.
+     *
+     * @param <K> the key type
+     */
+    private static final class Section<K> {
+        private final Path path;
+
+        private final MappedByteBuffer buffer;
+
+        private final int length;
+
+        private final Function<SpilledRecord, K> keyFunction;
+
+        private final Comparator<K> comparator;
+
+        private final List<K> blockKeys;
+
+        private final int[] blockOffsets;
+
+        private Section(
+                Path path,
+                MappedByteBuffer buffer,
+                int length,
+                Function<SpilledRecord, K> keyFunction,
+                Comparator<K> comparator,
+                List<K> blockKeys,
+                int[] blockOffsets) {
+            this.path = path;
+            this.buffer = buffer;
+            this.length = length;
+            this.keyFunction = keyFunction;
+            this.comparator = comparator;
+            this.blockKeys = blockKeys;
+            this.blockOffsets = blockOffsets;
+        }
+
+        static <K> Section<K> write(
+                List<SpilledRecord> records,
+                Function<SpilledRecord, K> keyFunction,
+                Comparator<K> comparator) throws IOException {
+            List<SpilledRecord> sorted = new ArrayList<>(records.size());
+
+            for (SpilledRecord record : records) {
+                if (keyFunction.apply(record) != null) {
+                    sorted.add(record);
+                }
+            }
+
+            sorted.sort(Comparator.comparing(keyFunction, comparator));
+
+            Path path = SpillingChecksumMap.createRunFile(RUN_FILE_PREFIX);
+            int numBlocks = (sorted.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            List<K> blockKeys = new ArrayList<>(numBlocks);
+            int[] blockOffsets = new int[numBlocks];
+
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(path)))) {
+                    for (int i = 0; i < sorted.size(); i++) {
+                        SpilledRecord record = sorted.get(i);
+
+                        if (i % BLOCK_SIZE == 0) {
+                            blockKeys.add(keyFunction.apply(record));
+                            blockOffsets[i / BLOCK_SIZE] = out.size();
+                        }
+
+                        record.write(out);
+                    }
+                }
+
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    int length = (int) channel.size();
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, length);
+                    return new Section<>(path, buffer, length, keyFunction, comparator, blockKeys, blockOffsets);
+                }
+            } catch (IOException | RuntimeException e) {
+                SpillingChecksumMap.deleteRunFile(path);
+                throw e;
+            }
+        }
+
+        SpilledRecord find(K key) {
+            // The first block which may contain the key is the one before the first block starting at or after it
+            int low = 0;
+            int high = blockKeys.size();
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (comparator.compare(blockKeys.get(mid), key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            if (blockKeys.isEmpty() || low == 0 && comparator.compare(blockKeys.get(0), key) > 0) {
+                return null;
+            }
+
+            SectionCursor cursor = new SectionCursor(blockOffsets[Math.max(0, low - 1)]);
+
+            while (cursor.advance()) {
+                int cmp = comparator.compare(keyFunction.apply(cursor.record()), key);
+
+                if (cmp > 0) {
+                    break;
+                }
+
+                if (cmp == 0) {
+                    return cursor.record();
+                }
+            }
+
+            return null;
+        }
+
+        Cursor cursor() {
+            return new SectionCursor(0);
+        }
+
+        void delete() {
+            SpillingChecksumMap.deleteRunFile(path);
+        }
+
+        private final class SectionCursor implements Cursor {
+            private int offset;
+
+            private SpilledRecord record;
+
+            SectionCursor(int offset) {
+                this.offset = offset;
+            }
+
+            @Override
+            public boolean advance() {
+                if (offset >= length) {
+                    return false;
+                }
+
+                record = SpilledRecord.read(buffer, offset);
+                offset += record.length();
+                return true;
+            }
+
+            @Override
+            public SpilledRecord record() {
+                return record;
+            }
+        }
+    }
+}
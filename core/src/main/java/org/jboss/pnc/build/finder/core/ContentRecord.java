@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All digests, the size and the file names of one distinct file content. A record is shared by all the files with the
+ * same content, so that switching between checksum types is a single array lookup.
+ */
+public final class ContentRecord {
+    private static final ChecksumType[] TYPES = ChecksumType.values();
+
+    private final Digest[] digests;
+
+    private final long size;
+
+    private final List<PathNode> paths;
+
+    ContentRecord(long size) {
+        this.digests = new Digest[TYPES.length];
+        this.size = size;
+        this.paths = new ArrayList<>(1);
+    }
+
+    /**
+     * Gets the digest of the given type.
+     *
+     * @param type the checksum type
+     * @return the digest, or <code>null</code> if the content has no digest of the given type
+     */
+    public Digest getDigest(ChecksumType type) {
+        return digests[type.ordinal()];
+    }
+
+    /**
+     * Sets the digest of the given type, unless the content already has one.
+     *
+     * @param type the checksum type
+     * @param digest the digest
+     * @return whether the digest was set
+     */
+    boolean putDigest(ChecksumType type, Digest digest) {
+        if (digests[type.ordinal()] != null) {
+            return false;
+        }
+
+        digests[type.ordinal()] = digest;
+        return true;
+    }
+
+    public Map<ChecksumType, Digest> getDigests() {
+        Map<ChecksumType, Digest> map = new EnumMap<>(ChecksumType.class);
+
+        for (ChecksumType type : TYPES) {
+            Digest digest = digests[type.ordinal()];
+
+            if (digest != null) {
+                map.put(type, digest);
+            }
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    synchronized void addPath(PathNode path) {
+        paths.add(path);
+    }
+
+    synchronized List<PathNode> getPaths() {
+        return Collections.unmodifiableList(new ArrayList<>(paths));
+    }
+
+    public synchronized List<String> getFilenames() {
+        List<String> filenames = new ArrayList<>(paths.size());
+
+        for (PathNode path : paths) {
+            filenames.add(path.toString());
+        }
+
+        return Collections.unmodifiableList(filenames);
+    }
+
+    /**
+     * Gets the checksum of the given type for one of the files with this content.
+     *
+     * @param type the checksum type
+     * @param path the path of the file
+     * @return the checksum, or <code>null</code> if the content has no digest of the given type
+     */
+    public Checksum getChecksum(ChecksumType type, PathNode path) {
+        Digest digest = digests[type.ordinal()];
+        return digest != null ? new Checksum(type, digest, path, size) : null;
+    }
+
+    /**
+     * Gets the checksums of all types for one of the files with this content.
+     *
+     * @param path the path of the file
+     * @return the checksums
+     */
+    public Collection<Checksum> getChecksums(PathNode path) {
+        List<Checksum> checksums = new ArrayList<>(TYPES.length);
+
+        for (ChecksumType type : TYPES) {
+            Checksum checksum = getChecksum(type, path);
+
+            if (checksum != null) {
+                checksums.add(checksum);
+            }
+        }
+
+        return Collections.unmodifiableList(checksums);
+    }
+
+    @Override
+    public String toString() {
+        return "ContentRecord{" + "digests=" + getDigests() + ", size=" + size + ", filenames=" + getFilenames() + '}';
+    }
+}
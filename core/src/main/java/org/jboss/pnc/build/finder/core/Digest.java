@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Compact, immutable message digest value.
+ * <p>
+ * The digest bytes are packed big-endian into four <code>long</code> fields, so that any digest of up to 32 bytes
+ * (MD5, SHA-1 and SHA-256) takes the same fixed amount of memory, which is roughly half of its hexadecimal string.
+ * Since digests are uniformly distributed, the hash code is taken directly from the first bytes. The natural ordering
+ * is the same as the ordering of the lowercase hexadecimal strings.
+ * <p>
+ * The hexadecimal form is only meant to be used when talking to other systems, and for JSON.
+ */
+public final class Digest implements Comparable<Digest>, Serializable {
+    /**
+     * Maximum digest length in bytes.
+     */
+    public static final int MAX_LENGTH = 32;
+
+    @Serial
+    private static final long serialVersionUID = 3452809761835413295L;
+
+    private static final int WORD_BYTES = Long.BYTES;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final long w0;
+
+    private final long w1;
+
+    private final long w2;
+
+    private final long w3;
+
+    private final int length;
+
+    private Digest(long w0, long w1, long w2, long w3, int length) {
+        this.w0 = w0;
+        this.w1 = w1;
+        this.w2 = w2;
+        this.w3 = w3;
+        this.length = length;
+    }
+
+    /**
+     * Creates a digest from its bytes.
+     *
+     * @param bytes the digest bytes
+     * @return the digest
+     * @throws IllegalArgumentException if there are more than {@link #MAX_LENGTH} bytes
+     */
+    public static Digest of(byte[] bytes) {
+        int length = bytes.length;
+
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Digest length " + length + " exceeds maximum of " + MAX_LENGTH);
+        }
+
+        long[] words = new long[MAX_LENGTH / WORD_BYTES];
+
+        for (int i = 0; i < length; i++) {
+            words[i / WORD_BYTES] |= (bytes[i] & 0xFFL) << shift(i);
+        }
+
+        return new Digest(words[0], words[1], words[2], words[3], length);
+    }
+
+    /**
+     * Creates a digest from its hexadecimal string, in either case.
+     *
+     * @param hex the hexadecimal string
+     * @return the digest
+     * @throws IllegalArgumentException if the string is not an even number of hexadecimal digits, or is too long
+     */
+    @JsonCreator
+    public static Digest fromHex(String hex) {
+        int numChars = hex.length();
+
+        if ((numChars & 1) != 0) {
+            throw new IllegalArgumentException("Digest " + hex + " has an odd number of hexadecimal digits");
+        }
+
+        int length = numChars / 2;
+
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Digest length " + length + " exceeds maximum of " + MAX_LENGTH);
+        }
+
+        long[] words = new long[MAX_LENGTH / WORD_BYTES];
+
+        for (int i = 0; i < length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Digest " + hex + " is not a hexadecimal string");
+            }
+
+            words[i / WORD_BYTES] |= (long) (high << 4 | low) << shift(i);
+        }
+
+        return new Digest(words[0], words[1], words[2], words[3], length);
+    }
+
+    private static int shift(int index) {
+        return (WORD_BYTES - 1 - index % WORD_BYTES) * Byte.SIZE;
+    }
+
+    private long word(int index) {
+        return switch (index) {
+            case 0 -> w0;
+            case 1 -> w1;
+            case 2 -> w2;
+            default -> w3;
+        };
+    }
+
+    private int byteAt(int index) {
+        return (int) (word(index / WORD_BYTES) >>> shift(index)) & 0xFF;
+    }
+
+    /**
+     * Gets the digest length.
+     *
+     * @return the number of digest bytes
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Gets the digest bytes.
+     *
+     * @return a new array with the digest bytes
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) byteAt(i);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Gets the lowercase hexadecimal string of the digest.
+     *
+     * @return the hexadecimal string
+     */
+    @JsonValue
+    public String toHex() {
+        char[] chars = new char[length * 2];
+
+        for (int i = 0; i < length; i++) {
+            int b = byteAt(i);
+            chars[2 * i] = HEX_DIGITS[b >>> 4];
+            chars[2 * i + 1] = HEX_DIGITS[b & 0xF];
+        }
+
+        return new String(chars);
+    }
+
+    @Override
+    public int compareTo(Digest o) {
+        int i = Long.compareUnsigned(w0, o.w0);
+
+        if (i != 0) {
+            return i;
+        }
+
+        int j = Long.compareUnsigned(w1, o.w1);
+
+        if (j != 0) {
+            return j;
+        }
+
+        int k = Long.compareUnsigned(w2, o.w2);
+
+        if (k != 0) {
+            return k;
+        }
+
+        int l = Long.compareUnsigned(w3, o.w3);
+
+        if (l != 0) {
+            return l;
+        }
+
+        return Integer.compare(length, o.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Digest digest = (Digest) o;
+        return w0 == digest.w0 && w1 == digest.w1 && w2 == digest.w2 && w3 == digest.w3 && length == digest.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (w0 >>> 32);
+    }
+
+    /**
+     * Gets the lowercase hexadecimal string of the digest.
+     *
+     * @return the hexadecimal string
+     */
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
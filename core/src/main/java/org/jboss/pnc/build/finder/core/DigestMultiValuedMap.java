@@ -0,0 +1,692 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.MultiSet;
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multiset.HashMultiSet;
+
+/**
+ * Multi-valued map from {@link Digest} to a set of values, using open addressing with linear probing. Unlike
+ * {@link org.apache.commons.collections4.multimap.HashSetValuedHashMap}, there is no entry object per key and no
+ * collection per key for the common case of a single value: a key with a single value costs two array slots.
+ * <p>
+ * The collections returned by {@link #get(Digest)}, {@link #asMap()}, {@link #entries()}, {@link #keySet()} and
+ * {@link #values()} are read-only views. This class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public final class DigestMultiValuedMap<V> implements MultiValuedMap<Digest, V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private Digest[] keys;
+
+    private Object[] slots;
+
+    private int keyCount;
+
+    private int size;
+
+    /**
+     * Creates an empty map.
+     */
+    public DigestMultiValuedMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map with room for the given number of keys.
+     *
+     * @param expectedKeys the expected number of keys
+     */
+    public DigestMultiValuedMap(int expectedKeys) {
+        int capacity = tableSizeFor(expectedKeys);
+        keys = new Digest[capacity];
+        slots = new Object[capacity];
+    }
+
+    /**
+     * Creates a copy of the given map.
+     *
+     * @param map the map
+     */
+    public DigestMultiValuedMap(MultiValuedMap<? extends Digest, ? extends V> map) {
+        this(map.keySet().size());
+        putAll(map);
+    }
+
+    private static int tableSizeFor(int expectedKeys) {
+        // Keep the load factor at or below 2/3
+        long capacity = Math.max(MIN_CAPACITY, (long) expectedKeys * 3 / 2 + 1);
+        return (int) Math.min(1 << 30, Long.highestOneBit(capacity - 1) << 1);
+    }
+
+    private static int spread(Digest key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof Digest digest)) {
+            return -1;
+        }
+
+        int mask = keys.length - 1;
+
+        for (int i = spread(digest) & mask;; i = (i + 1) & mask) {
+            Digest k = keys[i];
+
+            if (k == null) {
+                return -1;
+            }
+
+            if (k.equals(digest)) {
+                return i;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        Digest[] oldKeys = keys;
+        Object[] oldSlots = slots;
+        keys = new Digest[capacity];
+        slots = new Object[capacity];
+        int mask = capacity - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            Digest k = oldKeys[j];
+
+            if (k != null) {
+                int i = spread(k) & mask;
+
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+
+                keys[i] = k;
+                slots[i] = oldSlots[j];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<V> valuesAt(int i) {
+        Object slot = slots[i];
+        return slot instanceof Values values ? (Collection<V>) values.view : Collections.singleton((V) slot);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && valuesAt(i).contains(value)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean containsMapping(Object key, Object value) {
+        int i = indexOf(key);
+        return i >= 0 && valuesAt(i).contains(value);
+    }
+
+    @Override
+    public Collection<V> get(Digest key) {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                int i = indexOf(key);
+                return i >= 0 ? valuesAt(i).iterator() : Collections.emptyIterator();
+            }
+
+            @Override
+            public int size() {
+                int i = indexOf(key);
+                return i >= 0 ? valuesAt(i).size() : 0;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsMapping(key, o);
+            }
+        };
+    }
+
+    @Override
+    public boolean put(Digest key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+
+        if ((keyCount + 1) * 3L > keys.length * 2L) {
+            resize(keys.length << 1);
+        }
+
+        int mask = keys.length - 1;
+        int i = spread(key) & mask;
+
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                Object slot = slots[i];
+
+                if (slot instanceof Values values) {
+                    if (!values.add(value)) {
+                        return false;
+                    }
+                } else if (slot.equals(value)) {
+                    return false;
+                } else {
+                    Values values = new Values(slot);
+                    values.add(value);
+                    slots[i] = values;
+                }
+
+                size++;
+                return true;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        slots[i] = value;
+        keyCount++;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean putAll(Digest key, Iterable<? extends V> values) {
+        boolean changed = false;
+
+        for (V value : values) {
+            changed |= put(key, value);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public boolean putAll(Map<? extends Digest, ? extends V> map) {
+        boolean changed = false;
+
+        for (Entry<? extends Digest, ? extends V> entry : map.entrySet()) {
+            changed |= put(entry.getKey(), entry.getValue());
+        }
+
+        return changed;
+    }
+
+    @Override
+    public boolean putAll(MultiValuedMap<? extends Digest, ? extends V> map) {
+        boolean changed = false;
+
+        for (Entry<? extends Digest, ? extends V> entry : map.entries()) {
+            changed |= put(entry.getKey(), entry.getValue());
+        }
+
+        return changed;
+    }
+
+    @Override
+    public Collection<V> remove(Object key) {
+        int i = indexOf(key);
+
+        if (i < 0) {
+            return Collections.emptyList();
+        }
+
+        Collection<V> removed = new ArrayList<>(valuesAt(i));
+        size -= removed.size();
+        deleteAt(i);
+        return removed;
+    }
+
+    @Override
+    public boolean removeMapping(Object key, Object value) {
+        int i = indexOf(key);
+
+        if (i < 0) {
+            return false;
+        }
+
+        Object slot = slots[i];
+
+        if (slot instanceof Values values) {
+            if (!values.remove(value)) {
+                return false;
+            }
+
+            if (values.size == 1) {
+                slots[i] = values.items[0];
+            }
+        } else if (slot.equals(value)) {
+            deleteAt(i);
+        } else {
+            return false;
+        }
+
+        size--;
+        return true;
+    }
+
+    private void deleteAt(int index) {
+        // Shift back the following keys of the probe sequence, so that no key is separated from its home slot by a gap
+        int mask = keys.length - 1;
+        int gap = index;
+
+        for (int i = (gap + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = spread(keys[i]) & mask;
+
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                slots[gap] = slots[i];
+                gap = i;
+            }
+        }
+
+        keys[gap] = null;
+        slots[gap] = null;
+        keyCount--;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(slots, null);
+        keyCount = 0;
+        size = 0;
+    }
+
+    @Override
+    public Collection<Entry<Digest, V>> entries() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Entry<Digest, V>> iterator() {
+                return new Iterator<>() {
+                    private final MapIterator<Digest, V> it = mapIterator();
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Digest, V> next() {
+                        Digest key = it.next();
+                        return new SimpleImmutableEntry<>(key, it.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public MultiSet<Digest> keys() {
+        MultiSet<Digest> multiSet = new HashMultiSet<>();
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                multiSet.add(keys[i], valuesAt(i).size());
+            }
+        }
+
+        return multiSet;
+    }
+
+    @Override
+    public Set<Digest> keySet() {
+        return asMap().keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                MapIterator<Digest, V> it = mapIterator();
+
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        it.next();
+                        return it.getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Map<Digest, Collection<V>> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Collection<V> get(Object key) {
+                int i = indexOf(key);
+                return i >= 0 ? valuesAt(i) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return indexOf(key) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return keyCount;
+            }
+
+            @Override
+            public Set<Entry<Digest, Collection<V>>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<Digest, Collection<V>>> iterator() {
+                        return new SlotIterator<>() {
+                            @Override
+                            Entry<Digest, Collection<V>> element(int i) {
+                                return new SimpleImmutableEntry<>(keys[i], valuesAt(i));
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return keyCount;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public MapIterator<Digest, V> mapIterator() {
+        return new MapIterator<>() {
+            private final Iterator<Entry<Digest, Collection<V>>> keyIterator = asMap().entrySet().iterator();
+
+            private Digest key;
+
+            private Iterator<V> valueIterator = Collections.emptyIterator();
+
+            private V value;
+
+            private boolean valid;
+
+            @Override
+            public boolean hasNext() {
+                return valueIterator.hasNext() || keyIterator.hasNext();
+            }
+
+            @Override
+            public Digest next() {
+                if (!valueIterator.hasNext()) {
+                    Entry<Digest, Collection<V>> entry = keyIterator.next();
+                    key = entry.getKey();
+                    valueIterator = entry.getValue().iterator();
+                }
+
+                value = valueIterator.next();
+                valid = true;
+                return key;
+            }
+
+            @Override
+            public Digest getKey() {
+                checkValid();
+                return key;
+            }
+
+            @Override
+            public V getValue() {
+                checkValid();
+                return value;
+            }
+
+            @Override
+            public V setValue(V value) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            private void checkValid() {
+                if (!valid) {
+                    throw new IllegalStateException();
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof MultiValuedMap<?, ?> that) || size != that.size()
+                || keyCount != that.keySet().size()) {
+            return false;
+        }
+
+        Map<?, ? extends Collection<?>> thatMap = that.asMap();
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                Collection<?> thatValues = thatMap.get(keys[i]);
+
+                if (thatValues == null || !new HashSet<>(valuesAt(i)).equals(new HashSet<>(thatValues))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Same as the hash code of a map of sets, as for HashSetValuedHashMap
+        int h = 0;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                int valuesHash = 0;
+
+                for (V value : valuesAt(i)) {
+                    valuesHash += value.hashCode();
+                }
+
+                h += keys[i].hashCode() ^ valuesHash;
+            }
+        }
+
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private int next = advance(0);
+
+        private int advance(int from) {
+            int i = from;
+
+            while (i < keys.length && keys[i] == null) {
+                i++;
+            }
+
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int i = next;
+            next = advance(i + 1);
+            return element(i);
+        }
+
+        abstract T element(int i);
+    }
+
+    /**
+     * The values of a key with more than one value. A hash set is only built for keys with many values, such as the
+     * digest of an empty file.
+     */
+    private static final class Values {
+        private static final int MAX_SCAN = 8;
+
+        private Object[] items;
+
+        private int size;
+
+        private Set<Object> index;
+
+        private final Set<Object> view = new AbstractSet<>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return Collections.unmodifiableList(Arrays.asList(items).subList(0, size)).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return Values.this.contains(o);
+            }
+        };
+
+        Values(Object first) {
+            items = new Object[] { first, null };
+            size = 1;
+        }
+
+        boolean contains(Object value) {
+            if (index != null) {
+                return index.contains(value);
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (items[i].equals(value)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        boolean add(Object value) {
+            if (contains(value)) {
+                return false;
+            }
+
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+
+            items[size++] = value;
+
+            if (index != null) {
+                index.add(value);
+            } else if (size > MAX_SCAN) {
+                index = new HashSet<>(Arrays.asList(items).subList(0, size));
+            }
+
+            return true;
+        }
+
+        boolean remove(Object value) {
+            for (int i = 0; i < size; i++) {
+                if (items[i].equals(value)) {
+                    System.arraycopy(items, i + 1, items, i, size - i - 1);
+                    items[--size] = null;
+
+                    if (index != null) {
+                        index.remove(value);
+                    }
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -18,41 +18,40 @@ package org.jboss.pnc.build.finder.core;
 import static java.util.Comparator.reverseOrder;
 import static java.util.Map.Entry.comparingByValue;
 import static java.util.function.Function.identity;
-import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.counting;
 import static java.util.stream.Collectors.groupingBy;
-import static org.jboss.pnc.build.finder.core.AnsiUtils.boldRed;
 import static org.jboss.pnc.build.finder.core.AnsiUtils.green;
 import static org.jboss.pnc.build.finder.core.AnsiUtils.red;
-import static org.jboss.pnc.build.finder.core.LicenseUtils.getBundleLicenseFromManifest;
-import static org.jboss.pnc.build.finder.core.LicenseUtils.getFirstNonBlankString;
+import static org.jboss.pnc.build.finder.core.LicenseUtils.findLicenseCandidates;
 import static org.jboss.pnc.build.finder.core.LicenseUtils.isManifestMfFileName;
-import static org.jboss.pnc.build.finder.core.LicenseUtils.isUrl;
-import static org.jboss.pnc.build.finder.core.MavenUtils.getLicenses;
 import static org.jboss.pnc.build.finder.core.MavenUtils.isPom;
 import static org.jboss.pnc.build.finder.core.MavenUtils.isPomXml;
-import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.NOASSERTION;
 import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.getNumberOfSPDXLicenses;
 import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.getSPDXLicenseListVersion;
 import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.getSpdxLicenseMapping;
 import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.isLicenseFile;
-import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.isLicenseFileName;
 import static org.jboss.pnc.build.finder.core.Utils.BANG_SLASH;
 import static org.jboss.pnc.build.finder.core.Utils.byteCountToDisplaySize;
+import static org.jboss.pnc.build.finder.core.Utils.deleteDirectory;
 import static org.jboss.pnc.build.finder.core.Utils.getAllErrorMessages;
 import static org.jboss.pnc.build.finder.core.Utils.normalizePath;
 import static org.jboss.pnc.build.finder.core.Utils.shutdownAndAwaitTermination;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Iterator;
@@ -77,8 +76,8 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.commons.collections4.MultiMapUtils;
 import org.apache.commons.collections4.MultiValuedMap;
-import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.Strings;
 import org.apache.commons.vfs2.FileContent;
@@ -88,18 +87,22 @@ import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemManager;
 import org.apache.commons.vfs2.InvertIncludeFileSelector;
+import org.apache.commons.vfs2.impl.DefaultFileReplicator;
 import org.apache.commons.vfs2.impl.StandardFileSystemManager;
 import org.apache.commons.vfs2.provider.http5.Http5FileProvider;
-import org.codehaus.plexus.interpolation.InterpolationException;
-import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.infinispan.commons.api.BasicCache;
 import org.infinispan.commons.api.BasicCacheContainer;
-import org.jboss.pnc.build.finder.protobuf.MultiValuedMapProtobufWrapper;
+import org.jboss.pnc.build.finder.core.LicenseCache.Source;
+import org.jboss.pnc.build.finder.core.LicenseExtractor.Candidate;
+import org.jboss.pnc.build.finder.core.LicenseExtractor.Job;
+import org.jboss.pnc.build.finder.protobuf.LocalFileMapProtobufWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiValuedMap<String, LocalFile>>>,
-        Supplier<Map<ChecksumType, MultiValuedMap<String, LocalFile>>> {
+import com.google.common.collect.Maps;
+
+public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>>,
+        Supplier<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>>, AutoCloseable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DistributionAnalyzer.class);
 
     /**
@@ -124,17 +127,19 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
 
     private static final String LICENSES_FILENAME_BASENAME = "licenses";
 
+    private static final String VFS_CACHE_PREFIX = "build-finder-vfs-";
+
     private static final int FILE_ERRORS_SIZE = 2;
 
     private static final int LOCAL_FILES_SIZE = 44515;
 
     private final List<String> inputs;
 
-    private final MultiValuedMap<String, Checksum> inverseMap;
+    private final ContentIndex contents;
 
     private final BuildConfig config;
 
-    private final Map<ChecksumType, BasicCache<String, MultiValuedMapProtobufWrapper<String, LocalFile>>> fileCaches;
+    private final Map<ChecksumType, BasicCache<String, Object>> fileCaches;
 
     private final BasicCacheContainer cacheManager;
 
@@ -144,10 +149,14 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
 
     private final List<FileError> fileErrors;
 
-    private Map<ChecksumType, MultiValuedMap<String, LocalFile>> map;
+    private Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map;
 
     private final Map<String, Collection<LicenseInfo>> licensesMap;
 
+    private final LicenseCache licenseCache;
+
+    private final LicenseExtractor licenseExtractor;
+
     private String root;
 
     private BlockingQueue<Checksum> queue;
@@ -180,11 +189,21 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
                 green(licenseListVersion),
                 green(licenseListSize));
 
+        long spillThreshold = config.getChecksumSpillThreshold();
+
+        if (spillThreshold > 0L) {
+            LOGGER.info(
+                    "Spilling checksums and file records to disk beyond {} entries for each checksum type",
+                    green(spillThreshold));
+        }
+
         for (ChecksumType checksumType : checksumTypesToCheck) {
-            map.put(checksumType, new HashSetValuedHashMap<>()); // TODO: size
+            map.put(
+                    checksumType,
+                    spillThreshold > 0L ? new SpillingChecksumMap(spillThreshold) : new DigestMultiValuedMap<>());
         }
 
-        inverseMap = new HashSetValuedHashMap<>(); // TODO: size
+        contents = new ContentIndex(spillThreshold);
 
         this.cacheManager = cacheManager;
 
@@ -196,6 +215,14 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
             }
         }
 
+        licenseCache = new LicenseCache(
+                checksumTypesToCheck.isEmpty() ? ChecksumType.sha256 : Collections.max(checksumTypesToCheck),
+                LicenseCache.getCache(cacheManager));
+        licenseExtractor = new LicenseExtractor(
+                config.getLicenseExtractionMode(),
+                licenseCache,
+                this::putLicenses,
+                Runtime.getRuntime().availableProcessors());
         pool = Executors.newWorkStealingPool(Runtime.getRuntime().availableProcessors() * 2);
         fileErrors = new CopyOnWriteArrayList<>();
     }
@@ -204,10 +231,75 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
         return FilenameUtils.isExtension(fo.getName().getBaseName(), JAR_EXTENSIONS);
     }
 
-    public Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksumFiles() throws IOException {
+    /**
+     * Gets the files for the given distribution checksum from the cache. Entries written in an older or unsupported
+     * format are treated as a cache miss, so that they are recomputed and overwritten.
+     *
+     * @param checksumType the checksum type
+     * @param value the checksum of the distribution
+     * @return the files, or null if not found in the cache
+     */
+    private MultiValuedMap<Digest, LocalFile> getCachedFiles(ChecksumType checksumType, String value) {
+        Object cached = fileCaches.get(checksumType).get(value);
+
+        if (cached == null) {
+            return null;
+        }
+
+        if (cached instanceof LocalFileMapProtobufWrapper wrapper) {
+            if (wrapper.isSupportedVersion()) {
+                try {
+                    return wrapper.toMap();
+                } catch (IllegalStateException e) {
+                    if (LOGGER.isWarnEnabled()) {
+                        LOGGER.warn(
+                                "Ignoring corrupt entry {} in cache {}: {}",
+                                red(value),
+                                red("files-" + checksumType),
+                                red(getAllErrorMessages(e)));
+                    }
+
+                    return null;
+                }
+            }
+
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn(
+                        "Ignoring entry {} in cache {} with unsupported version {} (expected {})",
+                        red(value),
+                        red("files-" + checksumType),
+                        red(wrapper.getVersion()),
+                        red(LocalFileMapProtobufWrapper.CURRENT_VERSION));
+            }
+
+            return null;
+        }
+
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn(
+                    "Ignoring entry {} in cache {} with old format {}; it will be recomputed",
+                    red(value),
+                    red("files-" + checksumType),
+                    red(cached.getClass().getSimpleName()));
+        }
+
+        return null;
+    }
+
+    public Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksumFiles() throws IOException {
         Instant startTime = Instant.now();
+        // Nested archives are replicated to a directory of this analyzer, so that analyzers running at the same time
+        // do not delete each other's copies
+        Path vfsCacheDir = Files.createTempDirectory(VFS_CACHE_PREFIX);
+
+        try (FileSystemManager manager = createManager(vfsCacheDir)) {
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info(
+                        "Initialized file system manager {} with schemes: {}",
+                        green(StandardFileSystemManager.class.getSimpleName()),
+                        green(String.join(", ", manager.getSchemes())));
+            }
 
-        try (FileSystemManager manager = createManager()) {
             for (String input : inputs) {
                 try (FileObject fo = getFileObjectOfFile(manager, input)) {
                     if (LOGGER.isDebugEnabled()) {
@@ -233,32 +325,19 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
                                     .orElse(null);
 
                             if (value != null) {
-                                MultiValuedMap<String, LocalFile> localMap = fileCaches.get(checksumType).get(value);
+                                MultiValuedMap<Digest, LocalFile> localMap = getCachedFiles(checksumType, value);
 
                                 if (localMap != null) {
                                     map.get(checksumType).putAll(localMap);
 
-                                    Collection<Entry<String, LocalFile>> entries = localMap.entries();
-                                    try {
-                                        for (Entry<String, LocalFile> entry : entries) {
-                                            inverseMap.put(
-                                                    entry.getValue().getFilename(),
-                                                    new Checksum(checksumType, entry.getKey(), entry.getValue()));
-                                        }
-                                    } catch (ClassCastException e) {
-                                        if (LOGGER.isErrorEnabled()) {
-                                            LOGGER.error(
-                                                    "Error loading cache {}: {}. The cache format has changed"
-                                                            + " and you will have to manually delete the existing cache",
-                                                    boldRed(ConfigDefaults.CACHE_LOCATION),
-                                                    boldRed(getAllErrorMessages(e)));
-                                        }
+                                    Collection<Entry<Digest, LocalFile>> entries = localMap.entries();
 
-                                        throw e;
+                                    for (Entry<Digest, LocalFile> entry : entries) {
+                                        contents.add(new Checksum(checksumType, entry.getKey(), entry.getValue()));
                                     }
 
                                     if (queue != null && checksumType == ChecksumType.md5) {
-                                        for (Entry<String, LocalFile> entry : entries) {
+                                        for (Entry<Digest, LocalFile> entry : entries) {
                                             try {
                                                 Checksum checksum = new Checksum(
                                                         checksumType,
@@ -321,7 +400,7 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
                                     fileCaches.get(checksumType)
                                             .put(
                                                     cksum.get().getValue(),
-                                                    new MultiValuedMapProtobufWrapper<>(map.get(checksumType)));
+                                                    LocalFileMapProtobufWrapper.of(map.get(checksumType)));
                                 } else {
                                     throw new IOException("Checksum type " + checksumType + " not found");
                                 }
@@ -333,52 +412,29 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
                 }
             }
         } finally {
-            try {
-                Optional<Path> optionalPath = Utils.getVfsCache();
-
-                if (optionalPath.isPresent()) {
-                    boolean clean = Utils.cleanupVfsCache();
+            // The archive tasks may still submit license jobs, so they must stop before the license workers
+            shutdownAndAwaitTermination(pool);
+            licenseExtractor.finish();
 
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug(
-                                "Cleaned up {}: {}",
-                                green(optionalPath.get()),
-                                clean ? green("yes") : green("no"));
-                    }
-                } else {
-                    LOGGER.debug("VFS cache directory does not exist or is not a directory");
-                }
+            try {
+                deleteDirectory(vfsCacheDir);
+                LOGGER.debug("Cleaned up {}", green(vfsCacheDir));
             } catch (IOException e) {
                 if (LOGGER.isWarnEnabled()) {
-                    LOGGER.warn("Cleaning up VFS cache failed: {}", red(getMessage(e)));
+                    LOGGER.warn("Cleaning up VFS cache {} failed: {}", red(vfsCacheDir), red(getMessage(e)));
                 }
 
                 LOGGER.debug("Cleaning up VFS cache failed", e);
             }
-
-            shutdownAndAwaitTermination(pool);
         }
 
         int numChecksums = map.values().iterator().next().size();
 
+        if (config.getLicenseExtractionMode() == LicenseExtractionMode.all) {
+            logLicenses();
+        }
+
         if (LOGGER.isInfoEnabled()) {
-            List<String> totalLicenses = licensesMap.values()
-                    .stream()
-                    .flatMap(Collection::stream)
-                    .map(LicenseInfo::getSpdxLicenseId)
-                    .toList();
-            Set<String> uniqueLicenses = new TreeSet<>(totalLicenses);
-            Map<String, Long> licenseCountMap = totalLicenses.stream().collect(groupingBy(identity(), counting()));
-            String licenseCounts = licenseCountMap.entrySet()
-                    .stream()
-                    .sorted(comparingByValue(reverseOrder()))
-                    .map(entry -> entry.getKey() + ": " + entry.getValue())
-                    .collect(Collectors.joining(", "));
-            LOGGER.info(
-                    "Found {} unique SPDX licenses (out of {} total SPDX licenses found): {}",
-                    green(uniqueLicenses.size()),
-                    green(totalLicenses.size()),
-                    green(licenseCounts));
             Instant endTime = Instant.now();
             Duration duration = Duration.between(startTime, endTime).abs();
             LOGGER.info(
@@ -393,11 +449,74 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
             listener.checksumsComputed(new ChecksumsComputedEvent(numChecksums));
         }
 
-        return Collections.unmodifiableMap(map);
+        return getChecksums();
     }
 
-    private static FileSystemManager createManager() throws FileSystemException {
-        StandardFileSystemManager sfs = new StandardFileSystemManager();
+    /**
+     * Extracts the licenses of the given archives, when the license extraction mode is
+     * {@link LicenseExtractionMode#builds}. The license candidates were read while the distribution was analyzed, and
+     * only those of the given archives are processed. For the other modes, this does nothing, since the licenses have
+     * already been extracted (or are not extracted at all).
+     *
+     * @param filenames the normalized file names of the archives of the found builds
+     * @throws IOException if interrupted while extracting the licenses
+     */
+    public void extractLicenses(Set<String> filenames) throws IOException {
+        if (config.getLicenseExtractionMode() != LicenseExtractionMode.builds) {
+            return;
+        }
+
+        Instant startTime = Instant.now();
+        licenseExtractor.extractDeferred(key -> filenames.contains(Strings.CS.removeEnd(key, BANG_SLASH)));
+
+        if (LOGGER.isInfoEnabled()) {
+            Duration duration = Duration.between(startTime, Instant.now()).abs();
+            LOGGER.info(
+                    "Extracted licenses from {} files of found builds ({} other files skipped) in {}",
+                    green(licenseExtractor.getProcessed()),
+                    green(licenseExtractor.getSkipped()),
+                    green(duration));
+        }
+
+        logLicenses();
+    }
+
+    private void logLicenses() {
+        if (!LOGGER.isInfoEnabled()) {
+            return;
+        }
+
+        List<String> totalLicenses = licensesMap.values()
+                .stream()
+                .flatMap(Collection::stream)
+                .map(LicenseInfo::getSpdxLicenseId)
+                .toList();
+        Set<String> uniqueLicenses = new TreeSet<>(totalLicenses);
+        Map<String, Long> licenseCountMap = totalLicenses.stream().collect(groupingBy(identity(), counting()));
+        String licenseCounts = licenseCountMap.entrySet()
+                .stream()
+                .sorted(comparingByValue(reverseOrder()))
+                .map(entry -> entry.getKey() + ": " + entry.getValue())
+                .collect(Collectors.joining(", "));
+        LOGGER.info(
+                "Found {} unique SPDX licenses (out of {} total SPDX licenses found): {}",
+                green(uniqueLicenses.size()),
+                green(totalLicenses.size()),
+                green(licenseCounts));
+        LOGGER.info(
+                "Detected licenses in {} distinct files ({} loaded from cache), reused for {} identical files",
+                green(licenseCache.getDetected() + licenseCache.getLoaded()),
+                green(licenseCache.getLoaded()),
+                green(licenseCache.getReused()));
+    }
+
+    private static FileSystemManager createManager(Path vfsCacheDir) throws FileSystemException {
+        StandardFileSystemManager sfs = new StandardFileSystemManager() {
+            @Override
+            protected DefaultFileReplicator createDefaultFileReplicator() {
+                return new DefaultFileReplicator(vfsCacheDir.toFile());
+            }
+        };
 
         sfs.init();
 
@@ -409,31 +528,55 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
             sfs.addProvider("https", new Http5FileProvider());
         }
 
-        if (LOGGER.isInfoEnabled()) {
-            LOGGER.info(
-                    "Initialized file system manager {} with schemes: {}",
-                    green(sfs.getClass().getSimpleName()),
-                    green(String.join(", ", sfs.getSchemes())));
-        }
-
         return sfs;
     }
 
-    private static FileObject getFileObjectOfFile(FileSystemManager manager, String input) throws IOException {
-        FileObject fo;
+    /**
+     * Checks that the given inputs can be analyzed, by resolving them like {@link #checksumFiles()} does: either as a
+     * URI of a supported scheme, such as <code>https</code>, or as a readable local file.
+     *
+     * @param inputs the inputs
+     * @throws IOException if an input cannot be resolved or does not exist
+     */
+    public static void checkInputs(Collection<String> inputs) throws IOException {
+        Path vfsCacheDir = Files.createTempDirectory(VFS_CACHE_PREFIX);
 
+        try (FileSystemManager manager = createManager(vfsCacheDir)) {
+            for (String input : inputs) {
+                try (FileObject fo = resolveInput(manager, input)) {
+                    if (!fo.exists()) {
+                        throw new IOException("Input " + input + " does not exist");
+                    }
+                }
+            }
+        } finally {
+            deleteDirectory(vfsCacheDir);
+        }
+    }
+
+    private static FileObject resolveInput(FileSystemManager manager, String input) throws IOException {
         try {
             URI uri = URI.create(input);
-            fo = manager.resolveFile(uri);
+            return manager.resolveFile(uri);
         } catch (IllegalArgumentException | FileSystemException e) {
-            Path path = Path.of(input);
+            Path path;
+
+            try {
+                path = Path.of(input);
+            } catch (InvalidPathException ipe) {
+                throw new IOException("Input " + input + " is neither a URI nor a valid path", ipe);
+            }
 
             if (!Files.exists(path) || !Files.isRegularFile(path) || !Files.isReadable(path)) {
                 throw new IOException("Input path " + path + " does not exist, is not a file, or is not readable");
             }
 
-            fo = manager.resolveFile(path.toUri());
+            return manager.resolveFile(path.toUri());
         }
+    }
+
+    private static FileObject getFileObjectOfFile(FileSystemManager manager, String input) throws IOException {
+        FileObject fo = resolveInput(manager, input);
 
         if (LOGGER.isInfoEnabled()) {
             String filename = fo.getPublicURIString();
@@ -541,20 +684,21 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
         return () -> Checksum.checksum(fo, checksumTypesToCheck, root);
     }
 
-    private synchronized void handleChecksumResult(Set<Checksum> checksums) throws IOException {
-        for (ChecksumType checksumType : checksumTypesToCheck) {
-            Optional<Checksum> optionalChecksum = Checksum.findByType(checksums, checksumType);
-            optionalChecksum.ifPresent(
-                    checksum -> map.get(checksumType)
-                            .put(
-                                    checksum.getValue(),
-                                    new LocalFile(checksum.getFilename(), checksum.getFileSize())));
-        }
+    private void handleChecksumResult(Set<Checksum> checksums) throws IOException {
+        synchronized (this) {
+            for (ChecksumType checksumType : checksumTypesToCheck) {
+                Optional<Checksum> optionalChecksum = Checksum.findByType(checksums, checksumType);
+                optionalChecksum.ifPresent(
+                        checksum -> map.get(checksumType)
+                                .put(
+                                        checksum.getDigest(),
+                                        new LocalFile(checksum.getPath(), checksum.getFileSize())));
+            }
 
-        for (Checksum checksum : checksums) {
-            inverseMap.put(checksum.getFilename(), checksum);
+            contents.addAll(checksums);
         }
 
+        // The queue may be bounded, so wait for room without holding the lock, which the license extraction also uses
         if (queue != null && config.getChecksumTypes().contains(ChecksumType.md5)) {
             try {
                 for (Checksum checksum : checksums) {
@@ -592,9 +736,8 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
             List<Callable<Set<Checksum>>> checksumTasks = new ArrayList<>(pomFiles.size());
             List<Future<?>> archiveFutures = new ArrayList<>();
 
-            if (isMainJar(fo)) {
-                List<LicenseInfo> licenseInfos = addLicensesFromJar(fo, pomFiles);
-                putLicenses(Utils.normalizePath(fo, root), licenseInfos);
+            if (licenseExtractor.isEnabled() && isMainJar(fo)) {
+                submitLicensesFromJar(fo);
             }
 
             boolean isTarFileSystem = "tar".equals(fo.getName().getScheme());
@@ -622,23 +765,8 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
                         }
                     }
 
-                    boolean pom = isPom(file);
-                    boolean pomXml = isPomXml(file);
-
-                    if (pom || pomXml) {
-                        List<LicenseInfo> licenseInfos = addLicensesFromPom(file);
-
-                        try {
-                            Map<String, List<LicenseInfo>> map = getLicenses(root, file);
-                            putLicenses(map.keySet().iterator().next(), licenseInfos);
-                        } catch (XmlPullParserException | InterpolationException e) {
-                            if (LOGGER.isErrorEnabled()) {
-                                LOGGER.error(
-                                        "Error parsing POM file {}: {}",
-                                        boldRed(file),
-                                        boldRed(getAllErrorMessages(e)));
-                            }
-                        }
+                    if (licenseExtractor.isEnabled() && (isPom(file) || isPomXml(file))) {
+                        submitLicensesFromPom(file);
                     }
 
                     if (willListArchive) {
@@ -693,194 +821,64 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
         return name.endsWith(JAR_URI) && !Strings.CS.endsWithAny(name, JARS_TO_IGNORE);
     }
 
-    private List<LicenseInfo> addLicensesFromJar(FileObject jar, List<FileObject> localFiles) {
-        return localFiles.parallelStream()
-                .map(localFile -> addLicensesFromJar(jar, localFile))
-                .filter(not(Collection::isEmpty))
-                .flatMap(Collection::stream)
-                .toList();
-    }
+    private void submitLicensesFromJar(FileObject jar) throws IOException {
+        List<FileObject> localFiles = findLicenseCandidates(jar);
+        List<Candidate> candidates = new ArrayList<>(localFiles.size());
 
-    private List<LicenseInfo> addLicensesFromJar(FileObject jar, FileObject localFile) {
-        List<LicenseInfo> licenseInfos;
+        for (FileObject localFile : localFiles) {
+            Source source;
 
-        try {
             if (isPomXml(localFile)) {
-                licenseInfos = addLicensesFromPom(localFile);
+                source = Source.pom;
             } else if (isManifestMfFileName(localFile)) {
-                licenseInfos = addLicensesFromBundleLicense(localFile);
+                source = Source.manifest;
             } else if (isLicenseFile(localFile)) {
-                licenseInfos = addLicenseFromTextFile(jar, localFile);
+                source = Source.text;
             } else {
-                licenseInfos = Collections.emptyList();
+                continue;
             }
-        } catch (IOException e) {
-            licenseInfos = Collections.emptyList();
-        }
-
-        licenseInfos.stream()
-                .filter(licenseInfo -> NOASSERTION.equals(licenseInfo.getSpdxLicenseId()))
-                .forEach(licenseInfo -> handleRelativeURL(jar, localFile, licenseInfo));
-
-        if (LOGGER.isWarnEnabled()) {
-            licenseInfos.stream()
-                    .filter(licenseInfo -> NOASSERTION.equals(licenseInfo.getSpdxLicenseId()))
-                    .forEach(licenseInfo -> checkMissingMapping(localFile, licenseInfo));
-        }
-
-        return Collections.unmodifiableList(licenseInfos);
-    }
 
-    private static List<LicenseInfo> addLicenseFromTextFile(FileObject jar, FileObject licenseFile) throws IOException {
-        LicenseInfo licenseInfo = new LicenseInfo(
-                licenseFile,
-                jar.getName().getRelativeName(licenseFile.getName()));
-        return Collections.singletonList(licenseInfo);
-    }
-
-    private static List<LicenseInfo> addLicensesFromBundleLicense(FileObject fileObject) throws IOException {
-        List<LicenseInfo> licenses = new ArrayList<>(3);
-        List<BundleLicense> bundlesLicenses = getBundleLicenseFromManifest(fileObject);
-
-        for (BundleLicense bundleLicense : bundlesLicenses) {
-            String licenseIdentifier = bundleLicense.getLicenseIdentifier();
-            String description = bundleLicense.getDescription();
-            String name = getFirstNonBlankString(licenseIdentifier, description);
-            String url = bundleLicense.getLink();
-            LicenseInfo licenseInfo = new LicenseInfo(fileObject, name, url);
-            licenses.add(licenseInfo);
-        }
-
-        return Collections.unmodifiableList(licenses);
-    }
-
-    private List<LicenseInfo> addLicensesFromPom(FileObject fileObject) throws IOException {
-        try {
-            Map<String, List<LicenseInfo>> map = getLicenses(root, fileObject);
-            Entry<String, List<LicenseInfo>> entry = map.entrySet().iterator().next();
-            String pomOrJarFile = entry.getKey();
-            List<LicenseInfo> licenseInfos = entry.getValue();
-
-            if (licenseInfos.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug(
-                        "Found {} SPDX licenses for {}: {}",
-                        licenseInfos.size(),
-                        pomOrJarFile,
-                        String.join(
-                                ", ",
-                                licenseInfos.stream()
-                                        .map(LicenseInfo::getSpdxLicenseId)
-                                        .collect(Collectors.toUnmodifiableSet())));
-            }
-
-            return Collections.unmodifiableList(licenseInfos);
-        } catch (XmlPullParserException | InterpolationException e) {
-            if (LOGGER.isErrorEnabled()) {
-                LOGGER.error(
-                        "Unable to read licenses from file {}: {}",
-                        boldRed(fileObject),
-                        boldRed(getAllErrorMessages(e)));
+            try {
+                candidates.add(readLicenseCandidate(source, localFile));
+            } catch (IOException e) {
+                if (LOGGER.isWarnEnabled()) {
+                    LOGGER.warn(
+                            "Unable to read license candidate {}: {}",
+                            red(normalizePath(localFile, root)),
+                            red(getAllErrorMessages(e)));
+                }
             }
-
-            throw new IOException(e);
-        }
-    }
-
-    private void checkMissingMapping(FileObject localFile, LicenseInfo licenseInfo) {
-        String name = licenseInfo.getName();
-        String url = licenseInfo.getUrl();
-
-        if (name == null && url == null) {
-            return;
-        }
-
-        if (isLicenseFileName(name)) {
-            return;
         }
 
-        if (isLicenseFileName(url)) {
-            return;
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(
+                    "Number of license candidates in {}: {} of {}",
+                    normalizePath(jar, root),
+                    candidates.size(),
+                    localFiles.size());
         }
 
-        if (LOGGER.isWarnEnabled()) {
-            LOGGER.warn(
-                    "Missing SPDX license mapping for name: {}, URL: {}, filename: {}",
-                    red(name),
-                    red(url),
-                    red(normalizePath(localFile, root)));
-        }
+        licenseExtractor.submit(new Job(normalizePath(jar, root), true, candidates));
     }
 
-    private void handleRelativeURL(FileObject jar, FileObject localFile, LicenseInfo licenseInfo) {
-        String name = licenseInfo.getName();
-        String url = licenseInfo.getUrl();
-
-        if (name == null && url == null) {
-            return;
-        }
+    private void submitLicensesFromPom(FileObject file) throws IOException {
+        Candidate candidate = readLicenseCandidate(Source.pom, file);
+        licenseExtractor.submit(new Job(normalizePath(file, root), false, Collections.singletonList(candidate)));
+    }
 
-        // URL is not relative, ignore
-        if (isUrl(url)) {
-            return;
-        }
+    private Candidate readLicenseCandidate(Source source, FileObject fileObject) throws IOException {
+        byte[] content;
 
-        if (name == null) {
-            name = url;
+        try (FileContent fc = fileObject.getContent(); InputStream in = fc.getInputStream()) {
+            content = in.readAllBytes();
         }
 
-        try {
-            // If the URL is absent, consider the possibility that the name refers to a file inside the JAR
-            FileObject licenseFile = jar.resolveFile(name);
-
-            if (!isLicenseFile(licenseFile)) {
-                return;
-            }
-
-            if (licenseFile.isFolder()) {
-                return;
-            }
-
-            if (!licenseFile.isReadable()) {
-                if (LOGGER.isWarnEnabled()) {
-                    LOGGER.warn(
-                            "License file {} from {} is not a file or is not readable",
-                            red(name),
-                            red(normalizePath(localFile, root)));
-                }
-
-                return;
-            }
-
-            List<LicenseInfo> licenseInfos = addLicenseFromTextFile(jar, licenseFile);
-
-            if (licenseInfos.isEmpty()) {
-                if (LOGGER.isWarnEnabled()) {
-                    LOGGER.warn(
-                            "Failed to add licenses from file {} located in JAR {}",
-                            red(normalizePath(licenseFile, root)),
-                            red(normalizePath(jar, root)));
-                }
-
-                return;
-            }
-
-            // XXX: Currently, the API returns either 0 or 1 licenses, which we rely on here
-            LicenseInfo licenseInfo2 = licenseInfos.get(0);
-            String spdxLicenseId = licenseInfo2.getSpdxLicenseId();
-            licenseInfo.setSpdxLicense(spdxLicenseId);
-        } catch (IOException e) {
-            if (LOGGER.isErrorEnabled()) {
-                LOGGER.error(
-                        "Error adding relative license URL name {} for {}: {}",
-                        boldRed(name),
-                        boldRed(normalizePath(jar, root)),
-                        boldRed(getAllErrorMessages(e)));
-            }
-        }
+        return new Candidate(
+                source,
+                fileObject.getName().getPath(),
+                normalizePath(fileObject, root),
+                LicenseInfo.relativize(fileObject),
+                content);
     }
 
     private synchronized void putLicenses(String pomOrJarFile, Collection<LicenseInfo> licenseInfos) {
@@ -900,7 +898,9 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
     }
 
     public Path getChecksumFile(ChecksumType checksumType) {
-        return Path.of(config.getOutputDirectory(), CHECKSUMS_FILENAME_BASENAME + checksumType + ".json");
+        return Path.of(
+                config.getOutputDirectory(),
+                CHECKSUMS_FILENAME_BASENAME + checksumType + ".json" + config.getJsonCompression().getExtension());
     }
 
     public Path getLicensesFile() {
@@ -912,22 +912,47 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
     }
 
     public void outputToFile(ChecksumType checksumType) throws IOException {
-        JSONUtils.dumpObjectToFile(getChecksums(checksumType), getChecksumFile(checksumType));
+        JSONUtils.writeMap(
+                getChecksums(checksumType),
+                getChecksumFile(checksumType),
+                config.getJsonCompact(),
+                config.getJsonCompression());
     }
 
     public void outputLicensesToFile() throws IOException {
         JSONUtils.dumpObjectToFile(getLicensesMap(), getLicensesFile());
     }
 
+    public Path getResultBundleFile() {
+        return Path.of(config.getOutputDirectory(), BuildFinder.getResultBundleFilename());
+    }
+
+    /**
+     * Writes the checksums to a result bundle, without any builds.
+     *
+     * @throws IOException if an error occurs while writing the bundle
+     */
+    public void outputToBundle() throws IOException {
+        new ResultBundle(getChecksums(), Collections.emptyMap()).write(getResultBundleFile());
+    }
+
     public Map<String, Collection<Checksum>> getFiles() {
-        return Collections.unmodifiableMap(inverseMap.asMap());
+        return Collections.unmodifiableMap(
+                new PathMap<>(
+                        Maps.transformEntries(
+                                contents.getRecordsByPath(),
+                                (path, record) -> record.getChecksums(path))));
+    }
+
+    public ContentIndex getContents() {
+        return contents;
     }
 
-    public void setChecksums(Map<ChecksumType, MultiValuedMap<String, LocalFile>> map) {
+    public void setChecksums(Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map) {
         this.map = map;
     }
 
-    public Map<String, Collection<LocalFile>> getChecksums(ChecksumType checksumType) {
+    public Map<Digest, Collection<LocalFile>> getChecksums(ChecksumType checksumType) {
         return Collections.unmodifiableMap(map.get(checksumType).asMap());
     }
 
@@ -935,12 +960,12 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
         return Collections.unmodifiableList(fileErrors);
     }
 
-    public Map<ChecksumType, MultiValuedMap<String, LocalFile>> getChecksums() {
-        return Collections.unmodifiableMap(map);
+    public Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> getChecksums() {
+        return Collections.unmodifiableMap(Maps.transformValues(map, MultiMapUtils::unmodifiableMultiValuedMap));
     }
 
     @Override
-    public Map<ChecksumType, MultiValuedMap<String, LocalFile>> call() throws IOException {
+    public Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> call() throws IOException {
         queue = new LinkedBlockingQueue<>();
 
         checksumFiles();
@@ -952,7 +977,135 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
             throw new IOException(e);
         }
 
-        return Collections.unmodifiableMap(map);
+        return getChecksums();
+    }
+
+    /**
+     * Gets a task which checksums the inputs like {@link #call()}, but whose queue is created right away, so that a
+     * {@link BuildFinder} may consume it while the inputs are still being checksummed. When the queue holds the given
+     * number of checksums, checksumming blocks until some are taken. The end of the queue is marked even if
+     * checksumming fails, so that the consumer does not wait forever.
+     *
+     * @param queueCapacity the maximum number of checksums in the queue, or 0 to not limit it
+     * @return a task returning, for each checksum type (key), the checksum values of the files
+     */
+    public Callable<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> analyzeTask(int queueCapacity) {
+        queue = queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new LinkedBlockingQueue<>();
+
+        return () -> {
+            try {
+                checksumFiles();
+            } finally {
+                endQueue();
+            }
+
+            return getChecksums();
+        };
+    }
+
+    /**
+     * Gets a task which loads the checksums from the files written by {@link #outputToFile(ChecksumType)} instead of
+     * checksumming the inputs. The queue is created right away, so that a {@link BuildFinder} may be started before the
+     * task runs. The entries are added to the checksums of this analyzer as they are read and the md5 checksums are put
+     * on the queue at the same time, so that the builds are looked up while the files are still being loaded. The md5
+     * file is loaded last, so that the other checksum types of each file are already known when it is looked up.
+     *
+     * @param checksumFiles the checksums file of each checksum type
+     * @return a task returning, for each checksum type (key), the checksum values of the files
+     */
+    public Callable<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> loadChecksumsTask(
+            Map<ChecksumType, Path> checksumFiles) {
+        queue = new LinkedBlockingQueue<>();
+
+        return () -> loadChecksums(checksumFiles);
+    }
+
+    private Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> loadChecksums(Map<ChecksumType, Path> checksumFiles)
+            throws IOException {
+        try {
+            for (ChecksumType checksumType : md5Last(checksumFiles.keySet())) {
+                Path checksumFile = checksumFiles.get(checksumType);
+
+                LOGGER.info("Loading checksums from file: {}", green(checksumFile));
+
+                JSONUtils.loadChecksumsFile(
+                        checksumFile,
+                        (digest, localFiles) -> handleLoadedChecksums(checksumType, digest, localFiles));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            endQueue();
+        }
+
+        return getChecksums();
+    }
+
+    /**
+     * Gets a task which loads the checksums of a result bundle, in the same way as
+     * {@link #loadChecksumsTask(Map)}.
+     *
+     * @param bundle the result bundle
+     * @return a task returning, for each checksum type (key), the checksum values of the files
+     */
+    public Callable<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> loadChecksumsTask(ResultBundle bundle) {
+        queue = new LinkedBlockingQueue<>();
+
+        return () -> loadChecksums(bundle);
+    }
+
+    private Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> loadChecksums(ResultBundle bundle)
+            throws IOException {
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = bundle.getChecksums();
+
+        try {
+            for (ChecksumType checksumType : md5Last(checksums.keySet())) {
+                if (map.containsKey(checksumType)) {
+                    for (Entry<Digest, Collection<LocalFile>> entry : checksums.get(checksumType).asMap().entrySet()) {
+                        handleLoadedChecksums(checksumType, entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            endQueue();
+        }
+
+        return getChecksums();
+    }
+
+    private static List<ChecksumType> md5Last(Collection<ChecksumType> checksumTypes) {
+        List<ChecksumType> list = new ArrayList<>(checksumTypes);
+        list.sort(Comparator.comparing(checksumType -> checksumType == ChecksumType.md5));
+        return list;
+    }
+
+    private void endQueue() {
+        try {
+            queue.put(new Checksum());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleLoadedChecksums(ChecksumType checksumType, Digest digest, Collection<LocalFile> localFiles) {
+        map.get(checksumType).putAll(digest, localFiles);
+
+        for (LocalFile localFile : localFiles) {
+            Checksum checksum = new Checksum(checksumType, digest, localFile);
+
+            contents.add(checksum);
+
+            if (checksumType == ChecksumType.md5) {
+                try {
+                    queue.put(checksum);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new InterruptedIOException(e.getMessage()));
+                }
+            }
+        }
     }
 
     /**
@@ -964,7 +1117,7 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
      * @return For each checksum type (key), the checksum values of the files
      */
     @Override
-    public Map<ChecksumType, MultiValuedMap<String, LocalFile>> get() {
+    public Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> get() {
         try {
             return call();
         } catch (IOException e) {
@@ -972,6 +1125,22 @@ public class DistributionAnalyzer implements Callable<Map<ChecksumType, MultiVal
         }
     }
 
+    /**
+     * Deletes the files that the checksums and the content index were spilled to, if any (see
+     * {@link BuildConfig#getChecksumSpillThreshold()}). The spilled checksums are no longer available afterward, so
+     * this must only be called once the checksums files and the result bundle are written.
+     */
+    @Override
+    public void close() {
+        for (MultiValuedMap<Digest, LocalFile> checksums : map.values()) {
+            if (checksums instanceof SpillingChecksumMap spillingChecksumMap) {
+                spillingChecksumMap.close();
+            }
+        }
+
+        contents.close();
+    }
+
     public BlockingQueue<Checksum> getQueue() {
         return queue;
     }
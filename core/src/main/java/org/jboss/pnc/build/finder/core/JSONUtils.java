@@ -15,23 +15,50 @@
  */
 package org.jboss.pnc.build.finder.core;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
 
 public final class JSONUtils {
     private static final ObjectMapper MAPPER = new BuildFinderObjectMapper();
 
+    private static final int BUFFER_SIZE = 65536;
+
+    private static final byte[] GZIP_MAGIC = { (byte) 0x1f, (byte) 0x8b };
+
+    private static final byte[] ZSTD_MAGIC = { (byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd };
+
     private JSONUtils() {
 
     }
@@ -49,9 +76,126 @@ public final class JSONUtils {
         Files.write(path, Collections.singletonList(""), StandardOpenOption.APPEND);
     }
 
-    public static Map<String, Collection<LocalFile>> loadChecksumsFile(Path path) throws IOException {
-        TypeReference<Map<String, Collection<LocalFile>>> typeReference = new ChecksumsMapTypeReference();
-        return MAPPER.readValue(path.toFile(), typeReference);
+    /**
+     * Writes the given map as a JSON object, one entry at a time, straight to the generator. Unlike
+     * {@link #dumpObjectToFile(Object, Path)}, the output may be compact and compressed.
+     *
+     * @param map the map to write
+     * @param path the file to write to
+     * @param compact whether to leave out the indentation
+     * @param compression the compression to apply to the file
+     * @param <K> the key type
+     * @param <V> the value type
+     * @throws IOException if an error occurs while writing the file
+     */
+    public static <K, V> void writeMap(Map<K, V> map, Path path, boolean compact, JsonCompression compression)
+            throws IOException {
+        ObjectWriter writer = compact ? MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT)
+                : MAPPER.writerWithDefaultPrettyPrinter();
+        writer = writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        SerializerProvider provider = MAPPER.getSerializerProviderInstance();
+
+        try (OutputStream out = compress(Files.newOutputStream(path), compression);
+                JsonGenerator generator = writer.createGenerator(out)) {
+            generator.writeStartObject();
+
+            for (Entry<K, V> entry : map.entrySet()) {
+                K key = entry.getKey();
+                JsonSerializer<Object> keySerializer = provider.findKeySerializer(key.getClass(), null);
+                keySerializer.serialize(key, generator, provider);
+                writer.writeValue(generator, entry.getValue());
+            }
+
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * Reads a JSON object written by {@link #writeMap(Map, Path, boolean, JsonCompression)} or
+     * {@link #dumpObjectToFile(Object, Path)} one entry at a time, without holding the whole document in memory. The
+     * compression is detected from the content of the file.
+     *
+     * @param path the file to read
+     * @param keyType the key type
+     * @param valueType the value type
+     * @param consumer the consumer which receives each entry
+     * @param <K> the key type
+     * @param <V> the value type
+     * @throws IOException if an error occurs while reading the file
+     */
+    public static <K, V> void readMap(
+            Path path,
+            Class<K> keyType,
+            TypeReference<V> valueType,
+            BiConsumer<? super K, ? super V> consumer) throws IOException {
+        ObjectReader reader = MAPPER.readerFor(valueType);
+
+        try (InputStream in = decompress(Files.newInputStream(path)); JsonParser parser = MAPPER.createParser(in)) {
+            DefaultDeserializationContext context = ((DefaultDeserializationContext) MAPPER
+                    .getDeserializationContext())
+                    .createInstance(MAPPER.getDeserializationConfig(), parser, MAPPER.getInjectableValues());
+            KeyDeserializer keyDeserializer = context.findKeyDeserializer(MAPPER.constructType(keyType), null);
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object in file " + path);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                K key = keyType.cast(keyDeserializer.deserializeKey(parser.currentName(), context));
+                parser.nextToken();
+                V value = reader.readValue(parser);
+                consumer.accept(key, value);
+            }
+        }
+    }
+
+    /**
+     * Gets the file to read for the given uncompressed file name, which is the most recently modified of the plain,
+     * gzip and zstd variants which exist. A variant left by an earlier run with another compression is older than the
+     * one written by the last run, so it is not read instead of it.
+     *
+     * @param path the uncompressed file
+     * @return the existing file, or the given file if none exists
+     */
+    public static Path resolveFile(Path path) {
+        Path newest = path;
+        FileTime newestTime = null;
+
+        for (JsonCompression compression : JsonCompression.values()) {
+            Path file = path.resolveSibling(path.getFileName() + compression.getExtension());
+
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+
+            FileTime time;
+
+            try {
+                time = Files.getLastModifiedTime(file);
+            } catch (IOException e) {
+                // The file cannot be read either, so it is skipped
+                continue;
+            }
+
+            if (newestTime == null || time.compareTo(newestTime) > 0) {
+                newest = file;
+                newestTime = time;
+            }
+        }
+
+        return newest;
+    }
+
+    public static Map<Digest, Collection<LocalFile>> loadChecksumsFile(Path path) throws IOException {
+        Map<Digest, Collection<LocalFile>> checksums = new LinkedHashMap<>();
+        readMap(path, Digest.class, new LocalFilesTypeReference(), checksums::put);
+        return checksums;
+    }
+
+    public static void loadChecksumsFile(Path path, BiConsumer<Digest, Collection<LocalFile>> consumer)
+            throws IOException {
+        readMap(path, Digest.class, new LocalFilesTypeReference(), consumer);
     }
 
     public static Map<String, List<String>> loadLicenseMapping(InputStream in) throws IOException {
@@ -63,7 +207,47 @@ public final class JSONUtils {
 
     }
 
-    private static final class ChecksumsMapTypeReference extends TypeReference<Map<String, Collection<LocalFile>>> {
+    private static final class LocalFilesTypeReference extends TypeReference<Collection<LocalFile>> {
+
+    }
+
+    private static OutputStream compress(OutputStream out, JsonCompression compression) throws IOException {
+        if (compression == JsonCompression.gzip) {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        } else if (compression == JsonCompression.zstd) {
+            return new ZstdOutputStream(out);
+        }
+
+        return out;
+    }
+
+    private static InputStream decompress(InputStream in) throws IOException {
+        InputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        byte[] magic = new byte[ZSTD_MAGIC.length];
+        buffered.mark(magic.length);
+        int length = buffered.readNBytes(magic, 0, magic.length);
+        buffered.reset();
+
+        if (startsWith(magic, length, GZIP_MAGIC)) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        } else if (startsWith(magic, length, ZSTD_MAGIC)) {
+            return new ZstdInputStream(buffered);
+        }
+
+        return buffered;
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
 
+        return true;
     }
 }
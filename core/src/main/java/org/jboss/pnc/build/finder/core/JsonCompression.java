@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+/**
+ * How the JSON output files (builds and checksums) are compressed.
+ */
+public enum JsonCompression {
+    /**
+     * The files are written as plain JSON.
+     */
+    none(""),
+    /**
+     * The files are compressed with gzip and get the <code>.gz</code> extension.
+     */
+    gzip(".gz"),
+    /**
+     * The files are compressed with Zstandard and get the <code>.zst</code> extension.
+     */
+    zstd(".zst");
+
+    private final String extension;
+
+    JsonCompression(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
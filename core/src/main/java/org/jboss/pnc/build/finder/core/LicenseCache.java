@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.jboss.pnc.build.finder.core.AnsiUtils.red;
+import static org.jboss.pnc.build.finder.core.Utils.getAllErrorMessages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.infinispan.commons.api.BasicCache;
+import org.infinispan.commons.api.BasicCacheContainer;
+import org.jboss.pnc.build.finder.protobuf.ListCachedLicenseProtobufWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the licenses detected in files, keyed by the digest of the file contents.
+ * <p>
+ * The same license files, manifests and POM files appear in many archives of a distribution. Their licenses only
+ * depend on their contents, so they are detected once per distinct content and reused for every other copy. Results
+ * are kept for the whole run, and are also stored in the optional persistent cache so that they are reused by later
+ * runs. The persistent keys include the Build Finder and SPDX License List versions, since the results depend on them.
+ */
+final class LicenseCache {
+    /**
+     * The name of the persistent cache.
+     */
+    static final String CACHE_NAME = "licenses";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LicenseCache.class);
+
+    /**
+     * The kind of file that licenses are detected in. Identical contents may give different results depending on how
+     * they are interpreted, so the kind is part of the key.
+     */
+    enum Source {
+        pom, manifest, text
+    }
+
+    /**
+     * Detects the licenses in the contents of a file.
+     */
+    @FunctionalInterface
+    interface Detector {
+        List<CachedLicense> detect(byte[] content) throws IOException;
+    }
+
+    private final ChecksumType checksumType;
+
+    private final String version;
+
+    private final BasicCache<String, Object> cache;
+
+    private final ConcurrentMap<String, FutureTask<List<CachedLicense>>> results;
+
+    private final LongAdder detected;
+
+    private final LongAdder reused;
+
+    private final LongAdder loaded;
+
+    /**
+     * Creates a new license cache.
+     *
+     * @param checksumType the checksum type of the content digest
+     * @param cache the persistent cache, or null
+     */
+    LicenseCache(ChecksumType checksumType, BasicCache<String, Object> cache) {
+        this.checksumType = checksumType;
+        this.version = Utils.getBuildFinderVersion() + "/" + SpdxLicenseUtils.getSPDXLicenseListVersion();
+        this.cache = cache;
+        this.results = new ConcurrentHashMap<>();
+        this.detected = new LongAdder();
+        this.reused = new LongAdder();
+        this.loaded = new LongAdder();
+    }
+
+    /**
+     * Gets the persistent cache from the given cache manager. A cache manager supplied by an embedding application may
+     * not define the cache, in which case the licenses are only cached for the run.
+     *
+     * @param cacheManager the cache manager, or null
+     * @return the persistent cache, or null if there is no cache manager or it does not have the cache
+     */
+    static BasicCache<String, Object> getCache(BasicCacheContainer cacheManager) {
+        if (cacheManager == null) {
+            return null;
+        }
+
+        BasicCache<String, Object> cache;
+
+        try {
+            cache = cacheManager.getCache(CACHE_NAME);
+        } catch (RuntimeException e) {
+            // An embedded cache manager throws if there is neither such a cache nor a default cache
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn(
+                        "Not storing licenses across runs since cache {} is not available: {}",
+                        red(CACHE_NAME),
+                        red(getAllErrorMessages(e)));
+            }
+
+            return null;
+        }
+
+        if (cache == null && LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Not storing licenses across runs since cache {} is not available", red(CACHE_NAME));
+        }
+
+        return cache;
+    }
+
+    /**
+     * Gets the licenses in the given file. The licenses are only detected if no file with the same contents and kind
+     * has been seen before. Concurrent requests for the same contents wait for a single detection.
+     *
+     * @param source the kind of file
+     * @param fileObject the file
+     * @param detector the license detector
+     * @return the licenses (which may be empty)
+     * @throws IOException if an error occurs reading the file, or if the detector fails
+     */
+    List<CachedLicense> get(Source source, FileObject fileObject, Detector detector) throws IOException {
+        byte[] content;
+
+        try (FileContent fc = fileObject.getContent(); InputStream in = fc.getInputStream()) {
+            content = in.readAllBytes();
+        }
+
+        return get(source, content, detector);
+    }
+
+    /**
+     * Gets the licenses in the given file contents. The licenses are only detected if no file with the same contents
+     * and kind has been seen before. Concurrent requests for the same contents wait for a single detection.
+     *
+     * @param source the kind of file
+     * @param content the file contents
+     * @param detector the license detector
+     * @return the licenses (which may be empty)
+     * @throws IOException if the detector fails
+     */
+    List<CachedLicense> get(Source source, byte[] content, Detector detector) throws IOException {
+        String key = String.join(":", source.name(), checksumType.name(), digest(content));
+        FutureTask<List<CachedLicense>> task = new FutureTask<>(() -> load(key, content, detector));
+        FutureTask<List<CachedLicense>> existing = results.putIfAbsent(key, task);
+
+        if (existing == null) {
+            existing = task;
+            task.run();
+        } else {
+            reused.increment();
+        }
+
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            // Do not remember failures, so that the next copy is detected again and reports its own error
+            results.remove(key, existing);
+
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private List<CachedLicense> load(String key, byte[] content, Detector detector) throws IOException {
+        String cacheKey = version + ":" + key;
+
+        if (cache != null) {
+            Object cached = cache.get(cacheKey);
+
+            if (cached instanceof ListCachedLicenseProtobufWrapper wrapper) {
+                loaded.increment();
+                return Collections.unmodifiableList(wrapper.getData());
+            }
+
+            if (cached != null && LOGGER.isWarnEnabled()) {
+                LOGGER.warn(
+                        "Ignoring entry {} in cache {} with unexpected type {}",
+                        red(cacheKey),
+                        red(CACHE_NAME),
+                        red(cached.getClass().getSimpleName()));
+            }
+        }
+
+        detected.increment();
+        List<CachedLicense> licenses = List.copyOf(detector.detect(content));
+
+        if (cache != null) {
+            try {
+                cache.put(cacheKey, new ListCachedLicenseProtobufWrapper(new ArrayList<>(licenses)));
+            } catch (RuntimeException e) {
+                if (LOGGER.isWarnEnabled()) {
+                    LOGGER.warn(
+                            "Error storing entry {} in cache {}: {}",
+                            red(cacheKey),
+                            red(CACHE_NAME),
+                            red(getAllErrorMessages(e)));
+                }
+            }
+        }
+
+        return licenses;
+    }
+
+    private String digest(byte[] content) throws IOException {
+        try {
+            MessageDigest md = MessageDigest.getInstance(checksumType.getAlgorithm());
+            return Hex.encodeHexString(md.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Gets the number of distinct contents whose licenses were detected.
+     *
+     * @return the number of detections
+     */
+    long getDetected() {
+        return detected.sum();
+    }
+
+    /**
+     * Gets the number of files whose licenses were reused from another file with the same contents in this run.
+     *
+     * @return the number of files reused within the run
+     */
+    long getReused() {
+        return reused.sum();
+    }
+
+    /**
+     * Gets the number of distinct contents whose licenses were loaded from the persistent cache.
+     *
+     * @return the number of entries loaded from the persistent cache
+     */
+    long getLoaded() {
+        return loaded.sum();
+    }
+}
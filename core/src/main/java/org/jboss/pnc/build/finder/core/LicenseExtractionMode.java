@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+/**
+ * Which files the licenses are extracted from.
+ */
+public enum LicenseExtractionMode {
+    /**
+     * Licenses are extracted from every jar and POM file of the distribution, while it is being analyzed.
+     */
+    all,
+    /**
+     * Licenses are only extracted from the jar and POM files which belong to found builds, once the builds are known.
+     */
+    builds,
+    /**
+     * Licenses are not extracted.
+     */
+    none
+}
@@ -0,0 +1,703 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.vfs2.FileName.SEPARATOR;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.boldRed;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.red;
+import static org.jboss.pnc.build.finder.core.LicenseUtils.getBundleLicenseFromManifest;
+import static org.jboss.pnc.build.finder.core.LicenseUtils.getFirstNonBlankString;
+import static org.jboss.pnc.build.finder.core.LicenseUtils.isUrl;
+import static org.jboss.pnc.build.finder.core.MavenUtils.getMavenProject;
+import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.NOASSERTION;
+import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.findMatchingLicenseText;
+import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.findSPDXIdentifierFromFileName;
+import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.getSPDXLicenseId;
+import static org.jboss.pnc.build.finder.core.SpdxLicenseUtils.isLicenseFileName;
+import static org.jboss.pnc.build.finder.core.Utils.getAllErrorMessages;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.Strings;
+import org.apache.maven.model.License;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.interpolation.InterpolationException;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.jboss.pnc.build.finder.core.LicenseCache.Source;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pipeline stage which extracts the licenses of the jar and POM files found by the {@link DistributionAnalyzer}.
+ * <p>
+ * While walking the distribution, the analyzer reads the license candidates of each jar (its manifest, embedded POM
+ * files and license files) and each POM file, and submits them as a {@link Job}. The jobs are processed by a separate
+ * pool of workers fed by a bounded queue, so that slow SPDX matching never delays the checksums, while the walk is
+ * held back if the workers fall too far behind. Depending on the {@link LicenseExtractionMode}, the jobs may instead be
+ * kept until the builds are known, so that only the archives of the found builds are processed, or be dropped. The
+ * contents of the kept jobs are written to a temporary file, so that only their file names stay on the heap.
+ */
+final class LicenseExtractor {
+    /**
+     * The maximum number of jobs waiting for a worker.
+     */
+    static final int QUEUE_CAPACITY = 256;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LicenseExtractor.class);
+
+    private static final String DEFERRED_FILE_PREFIX = "build-finder-licenses-";
+
+    private final LicenseExtractionMode mode;
+
+    private final LicenseCache licenseCache;
+
+    private final BiConsumer<String, List<LicenseInfo>> consumer;
+
+    private final int numThreads;
+
+    private final Queue<DeferredJob> deferredJobs;
+
+    private final LongAdder processed;
+
+    private final LongAdder skipped;
+
+    private ThreadPoolExecutor pool;
+
+    private boolean finished;
+
+    private Path deferredPath;
+
+    private FileChannel deferredChannel;
+
+    private long deferredLength;
+
+    /**
+     * Creates a new license extractor.
+     *
+     * @param mode the license extraction mode
+     * @param licenseCache the license cache
+     * @param consumer receives the key and licenses of each processed job
+     * @param numThreads the number of workers
+     */
+    LicenseExtractor(
+            LicenseExtractionMode mode,
+            LicenseCache licenseCache,
+            BiConsumer<String, List<LicenseInfo>> consumer,
+            int numThreads) {
+        this.mode = mode;
+        this.licenseCache = licenseCache;
+        this.consumer = consumer;
+        this.numThreads = numThreads;
+        this.deferredJobs = new ConcurrentLinkedQueue<>();
+        this.processed = new LongAdder();
+        this.skipped = new LongAdder();
+    }
+
+    /**
+     * Returns whether licenses are extracted at all. If not, there is no need to read or submit any candidates.
+     *
+     * @return whether licenses are extracted
+     */
+    boolean isEnabled() {
+        return mode != LicenseExtractionMode.none;
+    }
+
+    /**
+     * Submits a job. With {@link LicenseExtractionMode#all}, the job is queued for the workers, waiting for room in the
+     * queue if it is full, or processed by the calling thread once {@link #finish()} was called. With
+     * {@link LicenseExtractionMode#builds}, the job is kept until {@link #extractDeferred(Predicate)} is called.
+     *
+     * @param job the job
+     * @throws IOException if interrupted while waiting for room in the queue, or if the job cannot be kept
+     */
+    void submit(Job job) throws IOException {
+        switch (mode) {
+            case all -> execute(job);
+            case builds -> defer(job);
+            case none -> skipped.increment();
+        }
+    }
+
+    private synchronized void defer(Job job) throws IOException {
+        if (deferredChannel == null) {
+            deferredPath = SpillingChecksumMap.createRunFile(DEFERRED_FILE_PREFIX);
+            deferredChannel = FileChannel.open(deferredPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            deferredLength = 0L;
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+
+        for (Candidate candidate : job.getCandidates()) {
+            ByteBuffer buffer = ByteBuffer.wrap(candidate.getContent());
+
+            while (buffer.hasRemaining()) {
+                deferredChannel.write(buffer, deferredLength + buffer.position());
+            }
+
+            candidates.add(candidate.withContent(null));
+            offsets.add(deferredLength);
+            deferredLength += buffer.capacity();
+        }
+
+        deferredJobs.add(new DeferredJob(job.getKey(), job.isJar(), candidates, offsets));
+    }
+
+    private synchronized Job read(DeferredJob deferredJob) throws IOException {
+        List<Candidate> candidates = new ArrayList<>(deferredJob.candidates.size());
+
+        for (int i = 0; i < deferredJob.candidates.size(); i++) {
+            Candidate candidate = deferredJob.candidates.get(i);
+            long offset = deferredJob.offsets.get(i);
+            ByteBuffer buffer = ByteBuffer.allocate(candidate.getLength());
+
+            while (buffer.hasRemaining()) {
+                if (deferredChannel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of deferred license candidates in " + deferredPath);
+                }
+            }
+
+            candidates.add(candidate.withContent(buffer.array()));
+        }
+
+        return new Job(deferredJob.key, deferredJob.jar, candidates);
+    }
+
+    private synchronized void deleteDeferred() {
+        if (deferredChannel == null) {
+            return;
+        }
+
+        try {
+            deferredChannel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Error closing deferred license candidates {}", deferredPath, e);
+        }
+
+        SpillingChecksumMap.deleteRunFile(deferredPath);
+        deferredChannel = null;
+        deferredPath = null;
+    }
+
+    /**
+     * Processes the kept jobs whose key is accepted by the given filter, drops the others, and waits for the workers to
+     * finish.
+     *
+     * @param filter the filter for the job keys
+     * @throws IOException if interrupted while waiting for room in the queue
+     */
+    void extractDeferred(Predicate<String> filter) throws IOException {
+        // The workers were stopped when the distribution was analyzed, so new ones are started for the kept jobs
+        synchronized (this) {
+            finished = false;
+        }
+
+        try {
+            DeferredJob deferredJob;
+
+            while ((deferredJob = deferredJobs.poll()) != null) {
+                if (filter.test(deferredJob.key)) {
+                    execute(read(deferredJob));
+                } else {
+                    skipped.increment();
+                }
+            }
+        } finally {
+            finish();
+            deleteDeferred();
+        }
+    }
+
+    /**
+     * Waits for the workers to finish the submitted jobs and stops them. Jobs submitted later are processed by the
+     * submitting thread.
+     */
+    void finish() {
+        ThreadPoolExecutor executor;
+
+        synchronized (this) {
+            executor = pool;
+            pool = null;
+            finished = true;
+        }
+
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+
+        try {
+            while (!executor.awaitTermination(Utils.TIMEOUT, TimeUnit.MILLISECONDS)) {
+                LOGGER.debug(
+                        "Waiting for license extraction to finish: {} jobs queued",
+                        executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of processed jobs.
+     *
+     * @return the number of processed jobs
+     */
+    long getProcessed() {
+        return processed.sum();
+    }
+
+    /**
+     * Gets the number of dropped jobs.
+     *
+     * @return the number of dropped jobs
+     */
+    long getSkipped() {
+        return skipped.sum();
+    }
+
+    private void execute(Job job) throws IOException {
+        ThreadPoolExecutor executor = getPool();
+
+        if (executor == null) {
+            process(job);
+            return;
+        }
+
+        try {
+            executor.execute(() -> process(job));
+        } catch (RejectedExecutionException e) {
+            if (e.getCause() instanceof InterruptedException) {
+                throw new IOException(e.getCause());
+            }
+
+            throw e;
+        }
+    }
+
+    private synchronized ThreadPoolExecutor getPool() {
+        if (finished) {
+            return null;
+        }
+
+        if (pool == null) {
+            pool = new ThreadPoolExecutor(
+                    numThreads,
+                    numThreads,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                    new WaitPolicy());
+        }
+
+        return pool;
+    }
+
+    private void process(Job job) {
+        List<LicenseInfo> licenseInfos = new ArrayList<>();
+
+        for (Candidate candidate : job.getCandidates()) {
+            try {
+                licenseInfos.addAll(extract(job, candidate));
+            } catch (RuntimeException e) {
+                if (LOGGER.isErrorEnabled()) {
+                    LOGGER.error(
+                            "Error extracting licenses from file {}: {}",
+                            boldRed(candidate.getName()),
+                            boldRed(getAllErrorMessages(e)));
+                }
+            }
+        }
+
+        consumer.accept(job.getKey(), Collections.unmodifiableList(licenseInfos));
+        processed.increment();
+    }
+
+    private List<LicenseInfo> extract(Job job, Candidate candidate) {
+        List<LicenseInfo> licenseInfos;
+
+        try {
+            licenseInfos = switch (candidate.getSource()) {
+                case pom -> getLicensesFromPom(candidate);
+                case manifest -> getLicensesFromBundleLicense(candidate);
+                case text -> getLicenseFromTextFile(candidate);
+            };
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+
+        if (job.isJar()) {
+            licenseInfos.stream()
+                    .filter(licenseInfo -> NOASSERTION.equals(licenseInfo.getSpdxLicenseId()))
+                    .forEach(licenseInfo -> handleRelativeURL(job, candidate, licenseInfo));
+
+            if (LOGGER.isWarnEnabled()) {
+                licenseInfos.stream()
+                        .filter(licenseInfo -> NOASSERTION.equals(licenseInfo.getSpdxLicenseId()))
+                        .forEach(licenseInfo -> checkMissingMapping(candidate, licenseInfo));
+            }
+        }
+
+        return licenseInfos;
+    }
+
+    private List<LicenseInfo> getLicenseFromTextFile(Candidate licenseFile) {
+        String licenseId = findSPDXIdentifierFromFileName(licenseFile.getPath()).orElseGet(() -> {
+            try {
+                return licenseCache
+                        .get(Source.text, licenseFile.getContent(), LicenseExtractor::detectLicenseFromTextFile)
+                        .get(0)
+                        .getSpdxLicenseId();
+            } catch (IOException e) {
+                return NOASSERTION;
+            }
+        });
+        String name = Strings.CS.removeStart(licenseFile.getPath(), SEPARATOR);
+        return Collections.singletonList(LicenseInfo.ofTextFile(licenseFile.getSourceUrl(), name, licenseId));
+    }
+
+    private static List<CachedLicense> detectLicenseFromTextFile(byte[] content) {
+        String licenseId = findMatchingLicenseText(new String(content, UTF_8)).orElse(NOASSERTION);
+        return Collections.singletonList(new CachedLicense(null, null, null, null, licenseId));
+    }
+
+    private List<LicenseInfo> getLicensesFromBundleLicense(Candidate candidate) throws IOException {
+        List<CachedLicense> licenses = licenseCache
+                .get(Source.manifest, candidate.getContent(), LicenseExtractor::detectLicensesFromBundleLicense);
+        return toLicenseInfos(candidate, licenses);
+    }
+
+    private static List<CachedLicense> detectLicensesFromBundleLicense(byte[] content) throws IOException {
+        List<CachedLicense> licenses = new ArrayList<>(3);
+        List<BundleLicense> bundlesLicenses = getBundleLicenseFromManifest(new ByteArrayInputStream(content));
+
+        for (BundleLicense bundleLicense : bundlesLicenses) {
+            String licenseIdentifier = bundleLicense.getLicenseIdentifier();
+            String description = bundleLicense.getDescription();
+            String name = getFirstNonBlankString(licenseIdentifier, description);
+            String url = bundleLicense.getLink();
+            licenses.add(new CachedLicense(null, null, name, url, getSPDXLicenseId(name, url)));
+        }
+
+        return Collections.unmodifiableList(licenses);
+    }
+
+    private List<LicenseInfo> getLicensesFromPom(Candidate candidate) throws IOException {
+        List<CachedLicense> licenses = licenseCache
+                .get(Source.pom, candidate.getContent(), content -> detectLicensesFromPom(candidate, content));
+
+        if (licenses.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<LicenseInfo> licenseInfos = toLicenseInfos(candidate, licenses);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(
+                    "Found {} SPDX licenses for {}: {}",
+                    licenseInfos.size(),
+                    candidate.getName(),
+                    String.join(
+                            ", ",
+                            licenseInfos.stream()
+                                    .map(LicenseInfo::getSpdxLicenseId)
+                                    .collect(Collectors.toUnmodifiableSet())));
+        }
+
+        return licenseInfos;
+    }
+
+    private static List<CachedLicense> detectLicensesFromPom(Candidate candidate, byte[] content) throws IOException {
+        try {
+            MavenProject project = getMavenProject(new ByteArrayInputStream(content));
+            List<CachedLicense> licenses = new ArrayList<>(project.getLicenses().size());
+
+            for (License license : project.getLicenses()) {
+                String name = license.getName();
+                String url = license.getUrl();
+                licenses.add(
+                        new CachedLicense(
+                                license.getComments(),
+                                license.getDistribution(),
+                                name,
+                                url,
+                                getSPDXLicenseId(name, url)));
+            }
+
+            return Collections.unmodifiableList(licenses);
+        } catch (XmlPullParserException | InterpolationException e) {
+            if (LOGGER.isErrorEnabled()) {
+                LOGGER.error(
+                        "Unable to read licenses from file {}: {}",
+                        boldRed(candidate.getName()),
+                        boldRed(getAllErrorMessages(e)));
+            }
+
+            throw new IOException(e);
+        }
+    }
+
+    private static List<LicenseInfo> toLicenseInfos(Candidate candidate, List<CachedLicense> licenses) {
+        return licenses.stream().map(license -> LicenseInfo.of(candidate.getSourceUrl(), license)).toList();
+    }
+
+    private static void checkMissingMapping(Candidate candidate, LicenseInfo licenseInfo) {
+        String name = licenseInfo.getName();
+        String url = licenseInfo.getUrl();
+
+        if (name == null && url == null) {
+            return;
+        }
+
+        if (isLicenseFileName(name)) {
+            return;
+        }
+
+        if (isLicenseFileName(url)) {
+            return;
+        }
+
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn(
+                    "Missing SPDX license mapping for name: {}, URL: {}, filename: {}",
+                    red(name),
+                    red(url),
+                    red(candidate.getName()));
+        }
+    }
+
+    private void handleRelativeURL(Job job, Candidate candidate, LicenseInfo licenseInfo) {
+        String name = licenseInfo.getName();
+        String url = licenseInfo.getUrl();
+
+        if (name == null && url == null) {
+            return;
+        }
+
+        // URL is not relative, ignore
+        if (isUrl(url)) {
+            return;
+        }
+
+        if (name == null) {
+            name = url;
+        }
+
+        // If the URL is absent, consider the possibility that the name refers to a license file inside the JAR
+        String path = FilenameUtils.normalize(SEPARATOR + name, true);
+
+        if (path == null || !isLicenseFileName(path)) {
+            return;
+        }
+
+        Candidate licenseFile = job.getCandidate(path);
+
+        if (licenseFile == null || licenseFile.getSource() != Source.text) {
+            LOGGER.debug("License file {} from {} is not a license candidate", name, candidate.getName());
+            return;
+        }
+
+        // XXX: Currently, the API returns either 0 or 1 licenses, which we rely on here
+        LicenseInfo licenseInfo2 = getLicenseFromTextFile(licenseFile).get(0);
+        String spdxLicenseId = licenseInfo2.getSpdxLicenseId();
+        licenseInfo.setSpdxLicense(spdxLicenseId);
+    }
+
+    /**
+     * Waits for room in the queue instead of rejecting the job, so that the walk is held back when the workers fall
+     * behind.
+     */
+    private static final class WaitPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("License extraction has finished");
+            }
+
+            try {
+                executor.getQueue().put(runnable);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(e);
+            }
+        }
+    }
+
+    /**
+     * A job kept until the builds are known. The contents of its candidates are stored in the deferred file, at the
+     * given offsets.
+     */
+    private static final class DeferredJob {
+        private final String key;
+
+        private final boolean jar;
+
+        private final List<Candidate> candidates;
+
+        private final List<Long> offsets;
+
+        DeferredJob(String key, boolean jar, List<Candidate> candidates, List<Long> offsets) {
+            this.key = key;
+            this.jar = jar;
+            this.candidates = candidates;
+            this.offsets = offsets;
+        }
+    }
+
+    /**
+     * A file which may hold license information, with its contents.
+     */
+    static final class Candidate {
+        private final Source source;
+
+        private final String path;
+
+        private final String name;
+
+        private final String sourceUrl;
+
+        private final byte[] content;
+
+        private final int length;
+
+        /**
+         * Creates a new candidate.
+         *
+         * @param source the kind of file
+         * @param path the absolute path of the file inside its archive
+         * @param name the normalized path of the file, for messages
+         * @param sourceUrl the source URL of the licenses found in the file
+         * @param content the contents of the file
+         */
+        Candidate(Source source, String path, String name, String sourceUrl, byte[] content) {
+            this(source, path, name, sourceUrl, content, content.length);
+        }
+
+        private Candidate(Source source, String path, String name, String sourceUrl, byte[] content, int length) {
+            this.source = source;
+            this.path = path;
+            this.name = name;
+            this.sourceUrl = sourceUrl;
+            this.content = content;
+            this.length = length;
+        }
+
+        /**
+         * Gets a copy of this candidate with the given contents, or without contents if they are kept elsewhere.
+         *
+         * @param content the contents, or <code>null</code>
+         * @return the copy
+         */
+        Candidate withContent(byte[] content) {
+            return new Candidate(source, path, name, sourceUrl, content, length);
+        }
+
+        Source getSource() {
+            return source;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getSourceUrl() {
+            return sourceUrl;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        int getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * The license candidates of a jar or POM file. The licenses found in all the candidates are stored together under
+     * the key of the job.
+     */
+    static final class Job {
+        private final String key;
+
+        private final boolean jar;
+
+        private final Map<String, Candidate> candidates;
+
+        /**
+         * Creates a new job.
+         *
+         * @param key the normalized path of the jar or POM file
+         * @param jar whether the candidates are the entries of a jar, whose relative license URLs are resolved against
+         *        the other candidates
+         * @param candidates the candidates
+         */
+        Job(String key, boolean jar, List<Candidate> candidates) {
+            this.key = key;
+            this.jar = jar;
+            this.candidates = new LinkedHashMap<>(candidates.size());
+
+            for (Candidate candidate : candidates) {
+                this.candidates.put(candidate.getPath(), candidate);
+            }
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        boolean isJar() {
+            return jar;
+        }
+
+        Iterable<Candidate> getCandidates() {
+            return candidates.values();
+        }
+
+        Candidate getCandidate(String path) {
+            return candidates.get(path);
+        }
+    }
+}
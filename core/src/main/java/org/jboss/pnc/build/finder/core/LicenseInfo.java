@@ -79,16 +79,61 @@ public class LicenseInfo implements Comparable<LicenseInfo> {
      * @param name the relative file name of the license text file, which may contain the SPDX license identifier
      */
     public LicenseInfo(FileObject fileObject, String name) {
+        this(name, getMatchingLicense(fileObject), relativize(fileObject));
+    }
+
+    private LicenseInfo(String name, String matchingLicenseId, String sourceUrl) {
         comments = null;
         distribution = null;
         this.name = name;
-        String licenseId = getMatchingLicense(fileObject);
-        this.spdxLicenseId = !NOASSERTION.equals(licenseId) ? licenseId : SpdxLicenseUtils.getSPDXLicenseId(name, null);
+        this.spdxLicenseId = !NOASSERTION.equals(matchingLicenseId) ? matchingLicenseId
+                : SpdxLicenseUtils.getSPDXLicenseId(name, null);
         this.url = findFirstSeeAlsoUrl(spdxLicenseId).orElse(null);
-        sourceUrl = relativize(fileObject);
+        this.sourceUrl = sourceUrl;
+    }
+
+    private LicenseInfo(CachedLicense license, String sourceUrl) {
+        comments = license.getComments();
+        distribution = license.getDistribution();
+        name = license.getName();
+        url = license.getUrl();
+        spdxLicenseId = license.getSpdxLicenseId();
+        this.sourceUrl = sourceUrl;
     }
 
-    private static String relativize(FileObject fileObject) {
+    /**
+     * Creates a new license from the given name, which is the relative path to the license text file, and the license
+     * identifier already matched for the text of the file.
+     *
+     * @param sourceUrl the source URL of the license text file (see {@link #relativize(FileObject)})
+     * @param name the relative file name of the license text file, which may contain the SPDX license identifier
+     * @param matchingLicenseId the matching license identifier for the text, or {@code NOASSERTION}
+     * @return the license
+     * @see SpdxLicenseUtils#getMatchingLicense(FileObject)
+     */
+    static LicenseInfo ofTextFile(String sourceUrl, String name, String matchingLicenseId) {
+        return new LicenseInfo(name, matchingLicenseId, sourceUrl);
+    }
+
+    /**
+     * Creates a new license from the given cached license, found in a file with the same contents as the given file.
+     *
+     * @param sourceUrl the source URL of the file (see {@link #relativize(FileObject)})
+     * @param license the cached license
+     * @return the license
+     */
+    static LicenseInfo of(String sourceUrl, CachedLicense license) {
+        return new LicenseInfo(license, sourceUrl);
+    }
+
+    /**
+     * Gets the source URL of a license found in the given file, which is the path of the file inside its archive, or
+     * its base name if it is not inside an archive.
+     *
+     * @param fileObject the file object
+     * @return the source URL
+     */
+    static String relativize(FileObject fileObject) {
         String friendlyURI = fileObject.getName().getFriendlyURI();
         int index = friendlyURI.lastIndexOf("!/");
 
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.jboss.pnc.build.finder.core.AnsiUtils.red;
+import static org.jboss.pnc.build.finder.core.Utils.BANG_SLASH;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.Strings;
+import org.jboss.pnc.build.finder.koji.KojiBuild;
+import org.jboss.pnc.build.finder.koji.KojiLocalArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds the licenses found by the {@link DistributionAnalyzer} to the local archives of the builds, and collects the
+ * license statistics of the builds and archives.
+ * <p>
+ * An index from file name to local archive is built in a single pass over the builds, so that each license entry is
+ * added with a single lookup instead of a search of every build. If several archives have the same file name, the
+ * licenses are added to the first one, in the iteration order of the builds.
+ */
+final class LicenseJoin {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LicenseJoin.class);
+
+    private final Collection<KojiBuild> builds;
+
+    private final Map<String, KojiLocalArchive> archivesByFilename;
+
+    private final Map<KojiLocalArchive, KojiBuild> buildsByArchive;
+
+    private final Set<KojiLocalArchive> archivesWithLicenses;
+
+    private final Set<KojiBuild> buildsWithLicenses;
+
+    private int numMissingArchives;
+
+    /**
+     * Creates the file name index of the local archives of the given builds.
+     *
+     * @param builds the builds
+     */
+    LicenseJoin(Collection<KojiBuild> builds) {
+        this.builds = builds;
+        this.archivesByFilename = new HashMap<>();
+        this.buildsByArchive = new IdentityHashMap<>();
+        this.archivesWithLicenses = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.buildsWithLicenses = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (KojiBuild build : builds) {
+            for (KojiLocalArchive archive : build.getArchives()) {
+                buildsByArchive.put(archive, build);
+
+                if (!archive.getLicenses().isEmpty()) {
+                    archivesWithLicenses.add(archive);
+                    buildsWithLicenses.add(build);
+                }
+
+                for (String filename : archive.getFilenames()) {
+                    archivesByFilename.putIfAbsent(filename, archive);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the licenses of each file to the local archive with the same file name, if any.
+     *
+     * @param licensesMap the licenses, keyed by file name
+     * @return all the licenses that were added
+     */
+    Set<LicenseInfo> join(Map<String, Collection<LicenseInfo>> licensesMap) {
+        Set<LicenseInfo> allLicenses = new TreeSet<>();
+
+        for (Entry<String, Collection<LicenseInfo>> licenseEntry : licensesMap.entrySet()) {
+            String filename = Strings.CS.removeEnd(licenseEntry.getKey(), BANG_SLASH);
+            KojiLocalArchive localArchive = archivesByFilename.get(filename);
+
+            if (localArchive == null) {
+                numMissingArchives++;
+
+                if (LOGGER.isWarnEnabled()) {
+                    LOGGER.warn("No matching archive found for file {}", red(filename));
+                }
+
+                continue;
+            }
+
+            Collection<LicenseInfo> licenseInfos = licenseEntry.getValue();
+            localArchive.getLicenses().addAll(licenseInfos);
+            allLicenses.addAll(licenseInfos);
+
+            if (!localArchive.getLicenses().isEmpty()) {
+                archivesWithLicenses.add(localArchive);
+                buildsWithLicenses.add(buildsByArchive.get(localArchive));
+            }
+        }
+
+        return Collections.unmodifiableSet(allLicenses);
+    }
+
+    /**
+     * Gets the number of local archives of the builds.
+     *
+     * @return the number of local archives
+     */
+    int getNumArchives() {
+        return buildsByArchive.size();
+    }
+
+    /**
+     * Gets the number of local archives which have license information.
+     *
+     * @return the number of local archives with licenses
+     */
+    int getNumArchivesWithLicenses() {
+        return archivesWithLicenses.size();
+    }
+
+    /**
+     * Gets the number of builds with at least one local archive which has license information.
+     *
+     * @return the number of builds with licenses
+     */
+    int getNumBuildsWithLicenses() {
+        return buildsWithLicenses.size();
+    }
+
+    /**
+     * Gets the number of license entries whose file name did not match any local archive.
+     *
+     * @return the number of license entries without an archive
+     */
+    int getNumMissingArchives() {
+        return numMissingArchives;
+    }
+
+    /**
+     * Gets the builds, other than build zero, without any local archive which has license information.
+     *
+     * @return the builds without licenses
+     */
+    List<KojiBuild> getBuildsWithoutLicenses() {
+        List<KojiBuild> buildsWithoutLicenses = new ArrayList<>();
+
+        for (KojiBuild build : builds) {
+            if (!BuildFinderUtils.isBuildZero(build) && !buildsWithLicenses.contains(build)) {
+                buildsWithoutLicenses.add(build);
+            }
+        }
+
+        return Collections.unmodifiableList(buildsWithoutLicenses);
+    }
+}
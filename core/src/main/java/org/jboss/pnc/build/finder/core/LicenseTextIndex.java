@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Word shingle index over license texts, used to order the licenses that a text file is compared against, so that the
+ * (expensive) full SPDX template comparison usually finds the match first.
+ * <p>
+ * Each license text is reduced to the set of hashes of its word <i>n</i>-grams (shingles). For a candidate text, the
+ * index computes, for each license, the fraction of the license shingles which also occur in the candidate text
+ * (containment). A text matching a license template contains nearly all of its shingles, since only the variable and
+ * optional parts of the template may differ. The top <i>k</i> licenses by containment, above a minimum containment,
+ * are compared first, followed by every other license, each group in index order. No license is skipped, so the
+ * ordering only affects how soon the match is found, and the result is the same as when comparing against every
+ * license in index order as long as the text matches a single license template.
+ */
+final class LicenseTextIndex {
+    static final int SHINGLE_SIZE = 3;
+
+    static final double MIN_CONTAINMENT = 0.5;
+
+    static final int TOP_K = 3;
+
+    private static final Pattern NON_WORD_PATTERN = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final int[] EMPTY = new int[0];
+
+    private final List<String> ids;
+
+    private final List<int[]> shingles;
+
+    private final int topK;
+
+    /**
+     * Creates an index over the given license texts.
+     *
+     * @param texts the license texts by license identifier, in the order in which they should be compared. A
+     *        <code>null</code> text means that the license cannot be indexed and is always a candidate
+     * @param topK the number of licenses with the highest containment to return before the others
+     */
+    LicenseTextIndex(Map<String, String> texts, int topK) {
+        List<String> indexIds = new ArrayList<>(texts.size());
+        List<int[]> indexShingles = new ArrayList<>(texts.size());
+
+        for (Entry<String, String> entry : texts.entrySet()) {
+            indexIds.add(entry.getKey());
+            indexShingles.add(entry.getValue() != null ? shingles(entry.getValue()) : null);
+        }
+
+        this.ids = Collections.unmodifiableList(indexIds);
+        this.shingles = Collections.unmodifiableList(indexShingles);
+        this.topK = topK;
+    }
+
+    /**
+     * Gets the identifiers of all the licenses, in the order in which the given text should be compared against them.
+     * The top <i>k</i> licenses by containment come first, then the other licenses, each in index order.
+     *
+     * @param text the text
+     * @return the license identifiers
+     */
+    List<String> rank(String text) {
+        int[] textShingles = shingles(text);
+        Map<String, Double> scores = new LinkedHashMap<>(ids.size());
+
+        for (int i = 0; i < ids.size(); i++) {
+            int[] licenseShingles = shingles.get(i);
+            double containment = licenseShingles != null && licenseShingles.length > 0
+                    ? containment(licenseShingles, textShingles)
+                    : 1.0;
+
+            if (containment >= MIN_CONTAINMENT) {
+                scores.put(ids.get(i), containment);
+            }
+        }
+
+        Set<String> top = scores.entrySet()
+                .stream()
+                .sorted(Entry.<String, Double> comparingByValue(Comparator.reverseOrder()))
+                .limit(topK)
+                .map(Entry::getKey)
+                .collect(Collectors.toSet());
+        List<String> ranked = new ArrayList<>(ids.size());
+
+        // The other licenses are kept as a fallback, so that a text is still compared against every license
+        ids.stream().filter(top::contains).forEach(ranked::add);
+        ids.stream().filter(id -> !top.contains(id)).forEach(ranked::add);
+
+        return Collections.unmodifiableList(ranked);
+    }
+
+    /**
+     * Computes the sorted, distinct hashes of the word shingles of the given text. Words are lower-cased runs of
+     * letters and digits.
+     *
+     * @param text the text
+     * @return the sorted shingle hashes
+     */
+    static int[] shingles(String text) {
+        String[] words = Arrays.stream(NON_WORD_PATTERN.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+
+        if (words.length == 0) {
+            return EMPTY;
+        }
+
+        int n = Math.min(SHINGLE_SIZE, words.length);
+        int[] hashes = new int[words.length - n + 1];
+
+        for (int i = 0; i < hashes.length; i++) {
+            int hash = 1;
+
+            for (int j = i; j < i + n; j++) {
+                hash = 31 * hash + words[j].hashCode();
+            }
+
+            hashes[i] = hash;
+        }
+
+        return Arrays.stream(hashes).sorted().distinct().toArray();
+    }
+
+    private static double containment(int[] licenseShingles, int[] textShingles) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < licenseShingles.length && j < textShingles.length) {
+            int cmp = Integer.compare(licenseShingles[i], textShingles[j]);
+
+            if (cmp == 0) {
+                common++;
+                i++;
+                j++;
+            } else if (cmp < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return (double) common / licenseShingles.length;
+    }
+}
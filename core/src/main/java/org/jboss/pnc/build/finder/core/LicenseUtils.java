@@ -42,6 +42,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.Selectors;
 
 /**
  * Utilities for working with SPDX licenses.
@@ -57,6 +59,8 @@ public final class LicenseUtils {
 
     private static final Pattern MANIFEST_MF_PATTERN = Pattern.compile("^.*META-INF/MANIFEST.MF$");
 
+    private static final String META_INF = "META-INF";
+
     private static final String URL_MARKER = ":/";
 
     private static final String UNINTERPOLATED_PROPERTY_MARKER = "${";
@@ -142,6 +146,23 @@ public final class LicenseUtils {
 
         String[] licenseCandidates = tokenizeLicenseString(licenseStringCandidate).toArray(EMPTY_STRING_ARRAY);
         String[] searchStrings = tokenizeLicenseString(licenseString).toArray(EMPTY_STRING_ARRAY);
+        return containsWordsInSameOrder(licenseCandidates, searchStrings);
+    }
+
+    /**
+     * Returns whether the given candidate tokens contain all the search tokens, in the same order. This is the same as
+     * {@link #containsWordsInSameOrder(String, String)} for strings which have already been tokenized with
+     * {@link #tokenizeLicenseString(String)}.
+     *
+     * @param licenseCandidates the candidate tokens, or <code>null</code>
+     * @param searchStrings the search tokens, or <code>null</code>
+     * @return whether the candidate tokens contain all the search tokens in the same order
+     */
+    static boolean containsWordsInSameOrder(String[] licenseCandidates, String[] searchStrings) {
+        if (licenseCandidates == null || searchStrings == null) {
+            return false;
+        }
+
         int startIndex = 0;
 
         for (String objectToFind : searchStrings) {
@@ -167,6 +188,35 @@ public final class LicenseUtils {
         return MANIFEST_MF_PATTERN.matcher(fileObject.getName().getPath()).matches();
     }
 
+    /**
+     * Finds the files inside a jar which may hold license information. Only the files in the <code>META-INF</code>
+     * directory (such as <code>MANIFEST.MF</code>, embedded <code>pom.xml</code> files and license files) and the files
+     * at the root of the jar (such as <code>LICENSE</code> or <code>&lt;SPDX-ID&gt;.txt</code>) are candidates. They
+     * are found from the children of the root and of <code>META-INF</code>, so the other entries of the jar are never
+     * visited.
+     *
+     * @param jar the root of the jar
+     * @return the candidate files
+     * @throws FileSystemException if an error occurs listing the jar
+     */
+    public static List<FileObject> findLicenseCandidates(FileObject jar) throws FileSystemException {
+        List<FileObject> candidates = new ArrayList<>();
+
+        for (FileObject child : jar.getChildren()) {
+            if (child.isFile()) {
+                candidates.add(child);
+            }
+        }
+
+        FileObject metaInf = jar.getChild(META_INF);
+
+        if (metaInf != null && metaInf.isFolder()) {
+            metaInf.findFiles(Selectors.SELECT_FILES, true, candidates);
+        }
+
+        return candidates;
+    }
+
     /**
      * Returns whether this extension is a plain-text file extension.
      *
@@ -207,13 +257,24 @@ public final class LicenseUtils {
      */
     public static List<BundleLicense> getBundleLicenseFromManifest(FileObject manifestFileObject) throws IOException {
         try (FileContent fc = manifestFileObject.getContent(); InputStream in = fc.getInputStream()) {
-            Manifest manifest = new Manifest(in);
-            Attributes mainAttributes = manifest.getMainAttributes();
-            String bundleLicense = mainAttributes.getValue(BUNDLE_LICENSE);
-            return getBundleLicenseFromManifest(bundleLicense);
+            return getBundleLicenseFromManifest(in);
         }
     }
 
+    /**
+     * Returns the list of licenses from the <code>Bundle-License</code> manifest header, if any.
+     *
+     * @param in the manifest input stream
+     * @return the list of licenses from the <code>Bundle-License</code> manifest header, if any
+     * @throws IOException if an error occurs while reading from the input stream
+     */
+    public static List<BundleLicense> getBundleLicenseFromManifest(InputStream in) throws IOException {
+        Manifest manifest = new Manifest(in);
+        Attributes mainAttributes = manifest.getMainAttributes();
+        String bundleLicense = mainAttributes.getValue(BUNDLE_LICENSE);
+        return getBundleLicenseFromManifest(bundleLicense);
+    }
+
     /**
      * Gets the first non-blank string.
      *
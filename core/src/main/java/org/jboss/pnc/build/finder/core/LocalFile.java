@@ -15,29 +15,41 @@
  */
 package org.jboss.pnc.build.finder.core;
 
+import java.util.Objects;
+
 import org.infinispan.protostream.annotations.ProtoFactory;
 import org.infinispan.protostream.annotations.ProtoField;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 @JsonDeserialize
 public class LocalFile {
-    private final String filename;
+    private final PathNode path;
 
     private final long size;
 
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     @ProtoFactory
     public LocalFile(@JsonProperty("filename") String filename, @JsonProperty("size") long size) {
-        this.filename = filename;
+        this(PathNode.ofNullable(filename), size);
+    }
+
+    public LocalFile(PathNode path, long size) {
+        this.path = path;
         this.size = size;
     }
 
     @ProtoField(value = 1)
     public String getFilename() {
-        return filename;
+        return path != null ? path.toString() : null;
+    }
+
+    @JsonIgnore
+    public PathNode getPath() {
+        return path;
     }
 
     @ProtoField(value = 2, defaultValue = "0")
@@ -45,8 +57,27 @@ public class LocalFile {
         return size;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        LocalFile localFile = (LocalFile) o;
+        return size == localFile.size && Objects.equals(path, localFile.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, size);
+    }
+
     @Override
     public String toString() {
-        return "LocalFile{" + "filename='" + filename + '\'' + ", size=" + size + '}';
+        return "LocalFile{" + "filename='" + path + '\'' + ", size=" + size + '}';
     }
 }
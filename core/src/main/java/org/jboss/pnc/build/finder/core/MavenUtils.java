@@ -30,7 +30,6 @@ import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.maven.model.License;
 import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.interpolation.InterpolationException;
 import org.codehaus.plexus.interpolation.ObjectBasedValueSource;
@@ -110,29 +109,40 @@ public final class MavenUtils {
     public static MavenProject getMavenProject(FileObject pomFileObject)
             throws InterpolationException, IOException, XmlPullParserException {
         try (FileContent content = pomFileObject.getContent(); InputStream in = content.getInputStream()) {
-            MavenXpp3Reader reader = new MavenXpp3Reader();
-
-            try {
-                Model model = reader.read(in);
-                String groupId = model.getGroupId();
-                String artifactId = model.getArtifactId();
-                String version = model.getVersion();
-                model.setGroupId(interpolateString(model, groupId));
-                model.setArtifactId(interpolateString(model, artifactId));
-                model.setVersion(interpolateString(model, version));
-                List<License> licenses = model.getLicenses();
-
-                for (License license : licenses) {
-                    license.setName(interpolateString(model, license.getName()));
-                    license.setUrl(interpolateString(model, license.getUrl()));
-                    license.setDistribution(interpolateString(model, license.getDistribution()));
-                    license.setComments(interpolateString(model, license.getComments()));
-                }
-
-                return new MavenProject(model);
-            } catch (IOException e) {
-                throw new XmlPullParserException(e.getMessage());
+            return getMavenProject(in);
+        }
+    }
+
+    /**
+     * Gets the Maven project from the given POM input stream. Only the coordinates, the parent, the properties and the
+     * licenses are read (see {@link PomReader}), and the coordinates and licenses are interpolated.
+     *
+     * @param in the POM input stream
+     * @return the Maven project
+     * @throws InterpolationException if an error occurs while interpolating the Maven properties
+     * @throws XmlPullParserException if an error occurs when parsing the POM file
+     */
+    public static MavenProject getMavenProject(InputStream in) throws InterpolationException, XmlPullParserException {
+        try {
+            Model model = PomReader.read(in);
+            String groupId = model.getGroupId();
+            String artifactId = model.getArtifactId();
+            String version = model.getVersion();
+            model.setGroupId(interpolateString(model, groupId));
+            model.setArtifactId(interpolateString(model, artifactId));
+            model.setVersion(interpolateString(model, version));
+            List<License> licenses = model.getLicenses();
+
+            for (License license : licenses) {
+                license.setName(interpolateString(model, license.getName()));
+                license.setUrl(interpolateString(model, license.getUrl()));
+                license.setDistribution(interpolateString(model, license.getDistribution()));
+                license.setComments(interpolateString(model, license.getComments()));
             }
+
+            return new MavenProject(model);
+        } catch (IOException e) {
+            throw new XmlPullParserException(e.getMessage());
         }
     }
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Read-only view of a map keyed by {@link PathNode}, keyed by the path strings instead. The path strings are only
+ * materialized while iterating.
+ *
+ * @param <V> the type of the values
+ */
+final class PathMap<V> extends AbstractMap<String, V> {
+    private final Map<PathNode, V> map;
+
+    PathMap(Map<PathNode, V> map) {
+        this.map = map;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof String path ? map.get(PathNode.of(path)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String path && map.containsKey(PathNode.of(path));
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                Iterator<Entry<PathNode, V>> it = map.entrySet().iterator();
+
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, V> next() {
+                        Entry<PathNode, V> entry = it.next();
+                        return new SimpleImmutableEntry<>(entry.getKey().toString(), entry.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Normalized path of a file inside a distribution, stored as a parent node plus the last segment of the path.
+ * <p>
+ * Paths such as <code>dist.zip!/lib/a.war!/WEB-INF/lib/b.jar!/META-INF/MANIFEST.MF</code> share long prefixes with the
+ * other files inside the same archives. The parent nodes are interned, so that every prefix is stored once no matter
+ * how many files it contains, and the path string is only materialized by {@link #toString()} when needed. The leaf
+ * nodes are not interned, since they are rarely shared.
+ * <p>
+ * Two nodes are equal if their paths are equal, and the natural ordering is the same as the ordering of the path
+ * strings.
+ */
+public final class PathNode implements Comparable<PathNode>, Serializable {
+    @Serial
+    private static final long serialVersionUID = -2714950153375908321L;
+
+    private static final char SEPARATOR = '/';
+
+    private static final Interner<PathNode> INTERNER = Interners.newWeakInterner();
+
+    private final PathNode parent;
+
+    private final String segment;
+
+    private final int length;
+
+    private final int depth;
+
+    private final int hash;
+
+    private PathNode(PathNode parent, String segment) {
+        this.parent = parent;
+        this.segment = segment;
+        this.length = parent != null ? parent.length + 1 + segment.length() : segment.length();
+        this.depth = parent != null ? parent.depth + 1 : 0;
+        this.hash = 31 * Objects.hashCode(parent) + segment.hashCode();
+    }
+
+    /**
+     * Gets the node of the given path. The segments of the path are separated by <code>/</code>.
+     *
+     * @param path the path
+     * @return the node
+     */
+    public static PathNode of(String path) {
+        PathNode node = null;
+        int start = 0;
+        int end;
+
+        while ((end = path.indexOf(SEPARATOR, start)) != -1) {
+            node = INTERNER.intern(new PathNode(node, path.substring(start, end)));
+            start = end + 1;
+        }
+
+        return new PathNode(node, path.substring(start));
+    }
+
+    /**
+     * Gets the node of the given path, or <code>null</code> if the path is <code>null</code>.
+     *
+     * @param path the path, or <code>null</code>
+     * @return the node, or <code>null</code>
+     */
+    public static PathNode ofNullable(String path) {
+        return path != null ? of(path) : null;
+    }
+
+    /**
+     * Gets the child node with the given segment.
+     *
+     * @param segment the segment, which must not contain <code>/</code>
+     * @return the child node
+     */
+    public PathNode child(String segment) {
+        if (segment.indexOf(SEPARATOR) != -1) {
+            throw new IllegalArgumentException("Segment " + segment + " contains " + SEPARATOR);
+        }
+
+        return new PathNode(INTERNER.intern(this), segment);
+    }
+
+    public PathNode getParent() {
+        return parent;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+
+    /**
+     * Gets the length of the path string, without materializing it.
+     *
+     * @return the length of the path string
+     */
+    public int length() {
+        return length;
+    }
+
+    private PathNode[] ancestors() {
+        PathNode[] nodes = new PathNode[depth + 1];
+
+        for (PathNode node = this; node != null; node = node.parent) {
+            nodes[node.depth] = node;
+        }
+
+        return nodes;
+    }
+
+    private static String join(PathNode[] nodes, int from) {
+        PathNode last = nodes[nodes.length - 1];
+        int skipped = from > 0 ? nodes[from - 1].length + 1 : 0;
+        char[] chars = new char[last.length - skipped];
+        int end = chars.length;
+
+        for (int i = nodes.length - 1; i >= from; i--) {
+            String s = nodes[i].segment;
+            end -= s.length();
+            s.getChars(0, s.length(), chars, end);
+
+            if (i > from) {
+                chars[--end] = SEPARATOR;
+            }
+        }
+
+        return new String(chars);
+    }
+
+    @Override
+    public int compareTo(PathNode o) {
+        if (this == o) {
+            return 0;
+        }
+
+        PathNode[] a = ancestors();
+        PathNode[] b = o.ancestors();
+        int min = Math.min(a.length, b.length);
+        int i = 0;
+
+        // The parent nodes are equal up to here, so comparing the segments is enough
+        while (i < min && (a[i] == b[i] || a[i].segment.equals(b[i].segment))) {
+            i++;
+        }
+
+        if (i == min) {
+            return Integer.compare(a.length, b.length);
+        }
+
+        return join(a, i).compareTo(join(b, i));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        PathNode pathNode = (PathNode) o;
+        return hash == pathNode.hash && length == pathNode.length && segment.equals(pathNode.segment)
+                && Objects.equals(parent, pathNode.parent);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Serial
+    private Object readResolve() {
+        return parent != null ? new PathNode(INTERNER.intern(parent), segment) : this;
+    }
+
+    /**
+     * Materializes the path string.
+     *
+     * @return the path string
+     */
+    @Override
+    public String toString() {
+        return parent != null ? join(ancestors(), 0) : segment;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * Sorted set of paths, which stores {@link PathNode}s and only materializes the path strings while iterating.
+ */
+public final class PathSet extends AbstractSet<String> {
+    private final TreeSet<PathNode> nodes;
+
+    public PathSet() {
+        this.nodes = new TreeSet<>();
+    }
+
+    public PathSet(Collection<String> paths) {
+        this();
+        addAll(paths);
+    }
+
+    @Override
+    public boolean add(String path) {
+        return nodes.add(PathNode.of(path));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String path && nodes.contains(PathNode.of(path));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof String path && nodes.remove(PathNode.of(path));
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        Iterator<PathNode> it = nodes.iterator();
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return it.next().toString();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+}
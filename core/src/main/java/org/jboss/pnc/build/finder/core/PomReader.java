@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.apache.maven.model.License;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+import org.codehaus.plexus.util.xml.pull.EntityReplacementMap;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Streaming reader for the parts of a POM file which are used by Build Finder: the coordinates, the parent
+ * coordinates, the properties (for interpolation) and the licenses.
+ * <p>
+ * Unlike <code>MavenXpp3Reader</code>, which builds the full model, every other element (dependencies, build,
+ * profiles, reporting, etc.) is skipped as it is read, which makes reading the POM files of large Maven repository
+ * distributions much cheaper. Like <code>MavenXpp3Reader</code>, the HTML entities (such as <code>&amp;copy;</code>)
+ * which are commonly found in POM files are replaced.
+ * <p>
+ * The POM files are read from {@link LicenseExtractor}, through the {@link LicenseCache}, which is keyed by the digest
+ * of the contents, so each distinct POM file is only read once per run.
+ */
+final class PomReader {
+    private static final String PROJECT = "project";
+
+    private PomReader() {
+        throw new IllegalArgumentException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Reads the coordinates, parent, properties and licenses from the given POM input stream. The values are trimmed
+     * but not interpolated.
+     *
+     * @param in the POM input stream
+     * @return the partial model
+     * @throws IOException if an error occurs when reading from the stream
+     * @throws XmlPullParserException if an error occurs when parsing the POM file
+     */
+    static Model read(InputStream in) throws IOException, XmlPullParserException {
+        XmlPullParser parser = new MXParser(EntityReplacementMap.defaultEntityReplacementMap);
+        parser.setInput(new XmlStreamReader(in));
+        parser.nextTag();
+        parser.require(XmlPullParser.START_TAG, null, PROJECT);
+        Model model = new Model();
+
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            switch (parser.getName()) {
+                case "groupId" -> model.setGroupId(readText(parser));
+                case "artifactId" -> model.setArtifactId(readText(parser));
+                case "version" -> model.setVersion(readText(parser));
+                case "packaging" -> model.setPackaging(readText(parser));
+                case "parent" -> model.setParent(readParent(parser));
+                case "properties" -> model.setProperties(readProperties(parser));
+                case "licenses" -> readLicenses(parser, model);
+                default -> skip(parser);
+            }
+        }
+
+        return model;
+    }
+
+    private static Parent readParent(XmlPullParser parser) throws IOException, XmlPullParserException {
+        Parent parent = new Parent();
+
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            switch (parser.getName()) {
+                case "groupId" -> parent.setGroupId(readText(parser));
+                case "artifactId" -> parent.setArtifactId(readText(parser));
+                case "version" -> parent.setVersion(readText(parser));
+                case "relativePath" -> parent.setRelativePath(readText(parser));
+                default -> skip(parser);
+            }
+        }
+
+        return parent;
+    }
+
+    private static Properties readProperties(XmlPullParser parser) throws IOException, XmlPullParserException {
+        Properties properties = new Properties();
+
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            String key = parser.getName();
+            properties.setProperty(key, readText(parser));
+        }
+
+        return properties;
+    }
+
+    private static void readLicenses(XmlPullParser parser, Model model) throws IOException, XmlPullParserException {
+        while (parser.nextTag() == XmlPullParser.START_TAG) {
+            if (!"license".equals(parser.getName())) {
+                skip(parser);
+                continue;
+            }
+
+            License license = new License();
+
+            while (parser.nextTag() == XmlPullParser.START_TAG) {
+                switch (parser.getName()) {
+                    case "name" -> license.setName(readText(parser));
+                    case "url" -> license.setUrl(readText(parser));
+                    case "distribution" -> license.setDistribution(readText(parser));
+                    case "comments" -> license.setComments(readText(parser));
+                    default -> skip(parser);
+                }
+            }
+
+            model.addLicense(license);
+        }
+    }
+
+    private static String readText(XmlPullParser parser) throws IOException, XmlPullParserException {
+        return parser.nextText().trim();
+    }
+
+    private static void skip(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (parser.next()) {
+                case XmlPullParser.START_TAG -> depth++;
+                case XmlPullParser.END_TAG -> depth--;
+                case XmlPullParser.END_DOCUMENT -> throw new XmlPullParserException(
+                        "Unexpected end of document",
+                        parser,
+                        null);
+                default -> {
+                    // Skip text, comments and processing instructions
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.jboss.pnc.build.finder.koji.KojiBuild;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.Maps;
+
+/**
+ * The checksums and builds of a run, in a compact binary encoding which is much smaller and faster to load than the
+ * JSON files.
+ * <p>
+ * The bundle starts with a magic number and a format version, followed by these sections:
+ * <ol>
+ * <li>the distinct path segments</li>
+ * <li>the path nodes, each one being the index of its parent node and of its segment, so that every prefix of the
+ * paths is stored once</li>
+ * <li>for each checksum type, the raw digests and, for each digest, the node index and size of its files</li>
+ * <li>the distinct builds, as compact JSON since they are not read often enough to justify a binary encoding</li>
+ * <li>the build keys, each one referencing a build by index</li>
+ * </ol>
+ * Integers are written as variable-length quantities. Licenses are not part of the bundle, since they are only
+ * written.
+ */
+public final class ResultBundle {
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x42465242;
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private static final ObjectMapper MAPPER = new BuildFinderObjectMapper();
+
+    private static final ObjectWriter BUILD_WRITER = MAPPER.writerFor(KojiBuild.class)
+            .without(SerializationFeature.INDENT_OUTPUT);
+
+    private static final ObjectReader BUILD_READER = MAPPER.readerFor(KojiBuild.class);
+
+    private final Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums;
+
+    private final Map<BuildSystemInteger, KojiBuild> builds;
+
+    public ResultBundle(
+            Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums,
+            Map<BuildSystemInteger, KojiBuild> builds) {
+        this.checksums = checksums;
+        this.builds = builds;
+    }
+
+    public Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> getChecksums() {
+        return Collections.unmodifiableMap(checksums);
+    }
+
+    public Map<BuildSystemInteger, KojiBuild> getBuilds() {
+        return Collections.unmodifiableMap(builds);
+    }
+
+    /**
+     * Gets the builds sorted by id, as expected by the reports.
+     *
+     * @return the sorted builds
+     */
+    public List<KojiBuild> getBuildList() {
+        List<KojiBuild> buildList = new ArrayList<>(builds.values());
+        buildList.sort(Comparator.comparing(KojiBuild::getId));
+        return buildList;
+    }
+
+    public void write(Path path) throws IOException {
+        Map<String, Integer> segments = new LinkedHashMap<>();
+        Map<PathNode, Integer> nodes = new LinkedHashMap<>();
+
+        for (MultiValuedMap<Digest, LocalFile> map : checksums.values()) {
+            for (LocalFile localFile : map.values()) {
+                if (localFile.getPath() != null) {
+                    indexNode(localFile.getPath(), nodes, segments);
+                }
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            writeVarLong(out, VERSION);
+            writeVarLong(out, segments.size());
+
+            for (String segment : segments.keySet()) {
+                out.writeUTF(segment);
+            }
+
+            writeVarLong(out, nodes.size());
+
+            for (PathNode node : nodes.keySet()) {
+                PathNode parent = node.getParent();
+                writeVarLong(out, parent != null ? nodes.get(parent) + 1L : 0L);
+                writeVarLong(out, segments.get(node.getSegment()));
+            }
+
+            writeChecksums(out, nodes);
+            writeBuilds(out);
+        }
+    }
+
+    private static int indexNode(PathNode node, Map<PathNode, Integer> nodes, Map<String, Integer> segments) {
+        Integer index = nodes.get(node);
+
+        if (index != null) {
+            return index;
+        }
+
+        if (node.getParent() != null) {
+            indexNode(node.getParent(), nodes, segments);
+        }
+
+        segments.putIfAbsent(node.getSegment(), segments.size());
+        index = nodes.size();
+        nodes.put(node, index);
+
+        return index;
+    }
+
+    private void writeChecksums(DataOutput out, Map<PathNode, Integer> nodes) throws IOException {
+        writeVarLong(out, checksums.size());
+
+        for (Entry<ChecksumType, MultiValuedMap<Digest, LocalFile>> entry : checksums.entrySet()) {
+            Map<Digest, Collection<LocalFile>> map = entry.getValue().asMap();
+
+            out.writeUTF(entry.getKey().name());
+            writeVarLong(out, map.size());
+
+            for (Entry<Digest, Collection<LocalFile>> digestEntry : map.entrySet()) {
+                byte[] bytes = digestEntry.getKey().toBytes();
+                Collection<LocalFile> localFiles = digestEntry.getValue();
+
+                out.writeByte(bytes.length);
+                out.write(bytes);
+                writeVarLong(out, localFiles.size());
+
+                for (LocalFile localFile : localFiles) {
+                    PathNode node = localFile.getPath();
+                    writeVarLong(out, node != null ? nodes.get(node) + 1L : 0L);
+                    writeVarLong(out, localFile.getSize());
+                }
+            }
+        }
+    }
+
+    private void writeBuilds(DataOutput out) throws IOException {
+        Map<KojiBuild, Integer> buildIndexes = new IdentityHashMap<>();
+
+        for (KojiBuild build : builds.values()) {
+            buildIndexes.putIfAbsent(build, buildIndexes.size());
+        }
+
+        KojiBuild[] distinctBuilds = new KojiBuild[buildIndexes.size()];
+
+        for (Entry<KojiBuild, Integer> entry : buildIndexes.entrySet()) {
+            distinctBuilds[entry.getValue()] = entry.getKey();
+        }
+
+        writeVarLong(out, distinctBuilds.length);
+
+        for (KojiBuild build : distinctBuilds) {
+            byte[] bytes = BUILD_WRITER.writeValueAsBytes(build);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+
+        writeVarLong(out, builds.size());
+
+        for (Entry<BuildSystemInteger, KojiBuild> entry : builds.entrySet()) {
+            BuildSystemInteger key = entry.getKey();
+            out.writeUTF(key.getBuildSystem().name());
+            out.writeUTF(key.getValue());
+            writeVarLong(out, buildIndexes.get(entry.getValue()));
+        }
+    }
+
+    public static ResultBundle read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("File " + path + " is not a result bundle");
+            }
+
+            long version = readVarLong(in);
+
+            if (version != VERSION) {
+                throw new IOException("Unsupported result bundle version " + version + " in file " + path);
+            }
+
+            // Every element takes at least one byte, so a count larger than the file is corrupt, and must not be
+            // used to allocate an array
+            long maxCount = Files.size(path);
+            String[] segments = new String[readCount(in, maxCount)];
+
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = in.readUTF();
+            }
+
+            PathNode[] nodes = new PathNode[readCount(in, maxCount)];
+
+            for (int i = 0; i < nodes.length; i++) {
+                // The parent of a node is written before it
+                int parent = readIndex(in, i + 1, "parent node");
+                String segment = segments[readIndex(in, segments.length, "segment")];
+
+                try {
+                    nodes[i] = parent == 0 ? PathNode.of(segment) : nodes[parent - 1].child(segment);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid path segment " + segment, e);
+                }
+            }
+
+            Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = readChecksums(in, nodes, maxCount);
+            Map<BuildSystemInteger, KojiBuild> builds = readBuilds(in, maxCount);
+
+            return new ResultBundle(checksums, builds);
+        }
+    }
+
+    private static Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> readChecksums(
+            DataInput in,
+            PathNode[] nodes,
+            long maxCount) throws IOException {
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = new EnumMap<>(ChecksumType.class);
+        int numTypes = readCount(in);
+
+        for (int i = 0; i < numTypes; i++) {
+            ChecksumType checksumType = readEnum(in, ChecksumType.class);
+            int numDigests = readCount(in, maxCount);
+            MultiValuedMap<Digest, LocalFile> map = new DigestMultiValuedMap<>(numDigests);
+
+            for (int j = 0; j < numDigests; j++) {
+                int length = in.readUnsignedByte();
+
+                if (length > Digest.MAX_LENGTH) {
+                    throw new IOException("Invalid digest length " + length);
+                }
+
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                Digest digest = Digest.of(bytes);
+                int numFiles = readCount(in);
+
+                for (int k = 0; k < numFiles; k++) {
+                    int node = readIndex(in, nodes.length + 1, "node");
+                    long size = readVarLong(in);
+                    map.put(digest, new LocalFile(node != 0 ? nodes[node - 1] : null, size));
+                }
+            }
+
+            checksums.put(checksumType, map);
+        }
+
+        return checksums;
+    }
+
+    private static Map<BuildSystemInteger, KojiBuild> readBuilds(DataInput in, long maxCount) throws IOException {
+        KojiBuild[] distinctBuilds = new KojiBuild[readCount(in, maxCount)];
+
+        for (int i = 0; i < distinctBuilds.length; i++) {
+            byte[] bytes = new byte[readCount(in, maxCount)];
+            in.readFully(bytes);
+            distinctBuilds[i] = BUILD_READER.readValue(bytes);
+        }
+
+        int numBuilds = readCount(in, maxCount);
+        Map<BuildSystemInteger, KojiBuild> builds = Maps.newHashMapWithExpectedSize(numBuilds);
+
+        for (int i = 0; i < numBuilds; i++) {
+            BuildSystem buildSystem = readEnum(in, BuildSystem.class);
+            String value = in.readUTF();
+            builds.put(
+                    new BuildSystemInteger(value, buildSystem),
+                    distinctBuilds[readIndex(in, distinctBuilds.length, "build")]);
+        }
+
+        return builds;
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInput in, Class<E> enumType) throws IOException {
+        String name = in.readUTF();
+
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + enumType.getSimpleName() + " " + name, e);
+        }
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        long v = value;
+
+        while ((v & ~0x7FL) != 0L) {
+            out.writeByte((int) (v & 0x7FL) | 0x80);
+            v >>>= 7;
+        }
+
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0L;
+
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        long count = readVarLong(in);
+
+        if (count < 0L || count > Integer.MAX_VALUE) {
+            throw new IOException("Invalid count " + count);
+        }
+
+        return (int) count;
+    }
+
+    private static int readCount(DataInput in, long maxCount) throws IOException {
+        int count = readCount(in);
+
+        if (count > maxCount) {
+            throw new IOException("Invalid count " + count + " exceeds maximum of " + maxCount);
+        }
+
+        return count;
+    }
+
+    private static int readIndex(DataInput in, int length, String name) throws IOException {
+        int index = readCount(in);
+
+        if (index >= length) {
+            throw new IOException("Invalid " + name + " index " + index + " of " + length);
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,689 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_STRING_ARRAY;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.green;
+import static org.jboss.pnc.build.finder.core.AnsiUtils.red;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.Strings;
+import org.spdx.core.DefaultStoreNotInitializedException;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.model.v2.license.InvalidLicenseStringException;
+import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
+import org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Index of the SPDX License List and of the Build Finder license mappings, as used by {@link SpdxLicenseUtils}.
+ * <p>
+ * Loading the license list from the SPDX library requires one lookup per listed license, which may reach for the
+ * network. The index is therefore generated at build time by {@link SpdxLicenseIndexGenerator} and packaged as the
+ * {@value #RESOURCE_NAME} resource. It holds the license identifiers and names (in matching order, together with their
+ * tokenized forms), the <code>seeAlso</code> URLs, the standard texts of the licenses compared by full text, the
+ * deprecated license map and the license mapping. The mapping files are validated when the index is generated.
+ * <p>
+ * If the resource is missing, e.g., when running from an IDE without a Maven build, the index is created from the SPDX
+ * library at runtime instead.
+ */
+final class SpdxLicenseIndex {
+    /**
+     * The name of the resource holding the prebuilt index.
+     */
+    static final String RESOURCE_NAME = "build-finder-spdx-index.bin";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpdxLicenseIndex.class);
+
+    private static final int MAGIC = 0x42465349;
+
+    private static final int VERSION = 1;
+
+    private static final String LICENSE_MAPPING_FILENAME = "build-finder-license-mapping.json";
+
+    private static final String LICENSE_DEPRECATED_FILENAME = "build-finder-license-deprecated.json";
+
+    private static final int EXPECTED_NUM_SPDX_LICENSES = 1024;
+
+    private static final int NOT_FOUND = -1;
+
+    private final String licenseListVersion;
+
+    private final Map<String, License> licenses;
+
+    private final List<Term> idTerms;
+
+    private final List<Term> nameTerms;
+
+    private final TokenSubsequenceIndex idNameIndex;
+
+    private final TokenSubsequenceIndex idUrlIndex;
+
+    private final TokenSubsequenceIndex nameNameIndex;
+
+    private final TokenSubsequenceIndex nameUrlIndex;
+
+    private final Map<String, String> deprecated;
+
+    private final Map<String, List<String>> mapping;
+
+    private SpdxLicenseIndex(
+            String licenseListVersion,
+            List<License> licenses,
+            List<Term> nameTerms,
+            Map<String, String> deprecated,
+            Map<String, List<String>> mapping) {
+        this.licenseListVersion = licenseListVersion;
+        Map<String, License> licenseMap = new LinkedHashMap<>(licenses.size());
+        List<Term> terms = new ArrayList<>(licenses.size());
+
+        for (License license : licenses) {
+            licenseMap.put(license.getId(), license);
+            terms.add(license.getIdTerm());
+        }
+
+        this.licenses = Collections.unmodifiableMap(licenseMap);
+        this.idTerms = Collections.unmodifiableList(terms);
+        this.nameTerms = Collections.unmodifiableList(nameTerms);
+        this.idNameIndex = new TokenSubsequenceIndex(this.idTerms.stream().map(Term::getNameTokens).toList());
+        this.idUrlIndex = new TokenSubsequenceIndex(this.idTerms.stream().map(Term::getUrlTokens).toList());
+        this.nameNameIndex = new TokenSubsequenceIndex(this.nameTerms.stream().map(Term::getNameTokens).toList());
+        this.nameUrlIndex = new TokenSubsequenceIndex(this.nameTerms.stream().map(Term::getUrlTokens).toList());
+        this.deprecated = Collections.unmodifiableMap(deprecated);
+        this.mapping = Collections.unmodifiableMap(mapping);
+    }
+
+    /**
+     * Loads the prebuilt index, or creates it from the SPDX library if there is no prebuilt index.
+     *
+     * @return the index
+     */
+    static SpdxLicenseIndex load() {
+        Instant startTime = Instant.now();
+
+        try (InputStream in = SpdxLicenseIndex.class.getClassLoader().getResourceAsStream(RESOURCE_NAME)) {
+            if (in != null) {
+                SpdxLicenseIndex index = read(in);
+
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(
+                            "Loaded SPDX license index for License List {} in {}",
+                            green(index.getLicenseListVersion()),
+                            green(Duration.between(startTime, Instant.now())));
+                }
+
+                return index;
+            }
+        } catch (IOException e) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn(
+                        "Error reading SPDX license index {}: {}",
+                        red(RESOURCE_NAME),
+                        red(Utils.getAllErrorMessages(e)));
+            }
+        }
+
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("No prebuilt SPDX license index found, creating it from the SPDX License List");
+        }
+
+        return create(SpdxLicenseUtils.getLicenseIdsTextList());
+    }
+
+    /**
+     * Creates the index from the SPDX library and the license mapping resources, and validates the mappings.
+     *
+     * @param textIds the identifiers of the licenses whose standard text is included
+     * @return the index
+     * @throws IllegalArgumentException if the license list cannot be loaded or a mapping is invalid
+     */
+    static SpdxLicenseIndex create(Collection<String> textIds) {
+        List<String> listedLicenseIds = Utils.retry(LicenseInfoFactory::getSpdxListedLicenseIds);
+        List<String> ids = listedLicenseIds.stream()
+                .sorted(comparing(String::length).reversed().thenComparing(naturalOrder()))
+                .toList();
+        List<License> licenses = new ArrayList<>(EXPECTED_NUM_SPDX_LICENSES);
+        Map<String, String> nameToId = new LinkedHashMap<>(EXPECTED_NUM_SPDX_LICENSES);
+        List<String> names = new ArrayList<>(EXPECTED_NUM_SPDX_LICENSES);
+
+        for (String id : ids) {
+            License license = Utils.retry(() -> createLicense(id, textIds.contains(id)));
+            licenses.add(license);
+
+            if (license.getName() != null) {
+                nameToId.put(license.getName(), id);
+                names.add(license.getName());
+            }
+        }
+
+        names.sort(comparing(String::length).reversed().thenComparing(naturalOrder()));
+        List<Term> nameTerms = names.stream()
+                .map(name -> Term.of(name, nameToId.get(name), Strings.CS.replace(name, " only", ""), name))
+                .toList();
+
+        try {
+            Map<String, String> deprecated = loadLicenseDeprecated();
+            Map<String, List<String>> mapping;
+
+            try (InputStream in = getResourceAsStream(LICENSE_MAPPING_FILENAME)) {
+                mapping = JSONUtils.loadLicenseMapping(in);
+            }
+
+            SpdxLicenseIndex index = new SpdxLicenseIndex(
+                    LicenseInfoFactory.getLicenseListVersion(),
+                    licenses,
+                    nameTerms,
+                    deprecated,
+                    mapping);
+            index.validate();
+            return index;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static License createLicense(String id, boolean includeText) {
+        try {
+            ListedLicense listedLicense = LicenseInfoFactory.getListedLicenseById(id);
+            String name = listedLicense.getName().orElse(null);
+            List<String> seeAlsos = List.copyOf(listedLicense.getSeeAlsos());
+            String text = includeText ? listedLicense.getLicenseText() : null;
+            return new License(id, name, seeAlsos, text, Term.of(id, id, Strings.CS.replace(id, "-only", ""), id));
+        } catch (InvalidSPDXAnalysisException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static InputStream getResourceAsStream(String name) throws IOException {
+        InputStream in = SpdxLicenseIndex.class.getClassLoader().getResourceAsStream(name);
+
+        if (in == null) {
+            throw new IOException("Resource " + name + " not found");
+        }
+
+        return in;
+    }
+
+    private static Map<String, String> loadLicenseDeprecated() throws IOException {
+        try (InputStream in = getResourceAsStream(LICENSE_DEPRECATED_FILENAME)) {
+            return new BuildFinderObjectMapper().readValue(in, new TypeReference<LinkedHashMap<String, String>>() {
+            });
+        }
+    }
+
+    private void validate() {
+        deprecated.forEach((key, value) -> {
+            validateLicenseString(key);
+            validateLicenseString(value);
+        });
+
+        for (String licenseString : mapping.keySet()) {
+            if (SpdxLicenseUtils.IDSTRING_PATTERN.matcher(licenseString).matches()) {
+                validateListedLicenseId(licenseString);
+                continue;
+            }
+
+            validateLicenseString(licenseString);
+        }
+    }
+
+    private void validateListedLicenseId(String licenseString) {
+        if (SpdxLicenseUtils.isUnknownLicenseId(licenseString) || licenses.containsKey(licenseString)) {
+            return;
+        }
+
+        throw new IllegalArgumentException(
+                "License identifier '" + licenseString + "' is not in list of SPDX licenses");
+    }
+
+    private void validateLicenseString(String licenseString) {
+        try {
+            AnyLicenseInfo anyLicenseInfo = LicenseInfoFactory.parseSPDXLicenseString(licenseString);
+
+            if (anyLicenseInfo instanceof ListedLicense listedLicense) {
+                validateListedLicenseId(listedLicense.getId());
+            }
+        } catch (InvalidLicenseStringException | DefaultStoreNotInitializedException e) {
+            throw new IllegalArgumentException("Could not parse license string: '" + licenseString + "'", e);
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #write(OutputStream)}.
+     *
+     * @param in the input stream
+     * @return the index
+     * @throws IOException if an error occurs reading the index, or if it is not a supported index
+     */
+    static SpdxLicenseIndex read(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+
+        if (dis.readInt() != MAGIC) {
+            throw new IOException("Not an SPDX license index");
+        }
+
+        int version = dis.readInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported SPDX license index version " + version + " (expected " + VERSION + ")");
+        }
+
+        String licenseListVersion = readString(dis);
+        int numLicenses = dis.readInt();
+        List<License> licenses = new ArrayList<>(numLicenses);
+
+        for (int i = 0; i < numLicenses; i++) {
+            String id = readString(dis);
+            String name = readNullableString(dis);
+            List<String> seeAlsos = readStrings(dis);
+            String text = readNullableString(dis);
+            Term idTerm = new Term(id, id, readTokens(dis), readTokens(dis));
+            licenses.add(new License(id, name, seeAlsos, text, idTerm));
+        }
+
+        int numNames = dis.readInt();
+        List<Term> nameTerms = new ArrayList<>(numNames);
+
+        for (int i = 0; i < numNames; i++) {
+            nameTerms.add(new Term(readString(dis), readString(dis), readTokens(dis), readTokens(dis)));
+        }
+
+        int numDeprecated = dis.readInt();
+        Map<String, String> deprecated = new LinkedHashMap<>(numDeprecated);
+
+        for (int i = 0; i < numDeprecated; i++) {
+            deprecated.put(readString(dis), readString(dis));
+        }
+
+        int numMappings = dis.readInt();
+        Map<String, List<String>> mapping = new LinkedHashMap<>(numMappings);
+
+        for (int i = 0; i < numMappings; i++) {
+            mapping.put(readString(dis), readStrings(dis));
+        }
+
+        return new SpdxLicenseIndex(licenseListVersion, licenses, nameTerms, deprecated, mapping);
+    }
+
+    /**
+     * Writes the index as a compressed binary file.
+     *
+     * @param out the output stream
+     * @throws IOException if an error occurs writing the index
+     */
+    void write(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(gzip));
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        writeString(dos, licenseListVersion);
+        dos.writeInt(licenses.size());
+
+        for (License license : licenses.values()) {
+            writeString(dos, license.getId());
+            writeNullableString(dos, license.getName());
+            writeStrings(dos, license.getSeeAlsos());
+            writeNullableString(dos, license.getText());
+            writeTokens(dos, license.getIdTerm().getNameTokens());
+            writeTokens(dos, license.getIdTerm().getUrlTokens());
+        }
+
+        dos.writeInt(nameTerms.size());
+
+        for (Term term : nameTerms) {
+            writeString(dos, term.getValue());
+            writeString(dos, term.getId());
+            writeTokens(dos, term.getNameTokens());
+            writeTokens(dos, term.getUrlTokens());
+        }
+
+        dos.writeInt(deprecated.size());
+
+        for (Entry<String, String> entry : deprecated.entrySet()) {
+            writeString(dos, entry.getKey());
+            writeString(dos, entry.getValue());
+        }
+
+        dos.writeInt(mapping.size());
+
+        for (Entry<String, List<String>> entry : mapping.entrySet()) {
+            writeString(dos, entry.getKey());
+            writeStrings(dos, entry.getValue());
+        }
+
+        dos.flush();
+        gzip.finish();
+    }
+
+    private static String readString(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+
+        if (length < 0) {
+            throw new IOException("Corrupt SPDX license index: invalid string length " + length);
+        }
+
+        byte[] bytes = dis.readNBytes(length);
+
+        if (bytes.length != length) {
+            throw new EOFException("Corrupt SPDX license index: expected " + length + " bytes but got " + bytes.length);
+        }
+
+        return new String(bytes, UTF_8);
+    }
+
+    private static String readNullableString(DataInputStream dis) throws IOException {
+        return dis.readBoolean() ? readString(dis) : null;
+    }
+
+    private static List<String> readStrings(DataInputStream dis) throws IOException {
+        int size = dis.readInt();
+
+        if (size < 0) {
+            throw new IOException("Corrupt SPDX license index: invalid list size " + size);
+        }
+
+        List<String> strings = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(dis));
+        }
+
+        return Collections.unmodifiableList(strings);
+    }
+
+    private static String[] readTokens(DataInputStream dis) throws IOException {
+        return readStrings(dis).toArray(EMPTY_STRING_ARRAY);
+    }
+
+    private static void writeString(DataOutputStream dos, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static void writeNullableString(DataOutputStream dos, String s) throws IOException {
+        dos.writeBoolean(s != null);
+
+        if (s != null) {
+            writeString(dos, s);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream dos, Collection<String> strings) throws IOException {
+        dos.writeInt(strings.size());
+
+        for (String s : strings) {
+            writeString(dos, s);
+        }
+    }
+
+    private static void writeTokens(DataOutputStream dos, String[] tokens) throws IOException {
+        writeStrings(dos, List.of(tokens));
+    }
+
+    String getLicenseListVersion() {
+        return licenseListVersion;
+    }
+
+    /**
+     * Gets the license with the given identifier.
+     *
+     * @param id the SPDX license identifier
+     * @return the license, or null if the license is not listed
+     */
+    License getLicense(String id) {
+        return licenses.get(id);
+    }
+
+    /**
+     * Gets the listed licenses, in the same order as {@link #getIdTerms()}.
+     *
+     * @return the licenses
+     */
+    Collection<License> getLicenses() {
+        return licenses.values();
+    }
+
+    /**
+     * Gets the tokenized license identifiers, sorted in order of descending length, then in natural order.
+     *
+     * @return the tokenized license identifiers
+     */
+    List<Term> getIdTerms() {
+        return idTerms;
+    }
+
+    /**
+     * Gets the tokenized license names, sorted in order of descending length, then in natural order.
+     *
+     * @return the tokenized license names
+     */
+    List<Term> getNameTerms() {
+        return nameTerms;
+    }
+
+    /**
+     * Finds the first license identifier, in the order of {@link #getIdTerms()}, whose name tokens occur in order in
+     * the given license name tokens, or whose URL tokens occur in order in the given license URL tokens.
+     *
+     * @param nameTokens the tokenized license name, or <code>null</code>
+     * @param urlTokens the tokenized license URL, or <code>null</code>
+     * @return the first matching license identifier, if any
+     */
+    Optional<Term> findIdTerm(String[] nameTokens, String[] urlTokens) {
+        int index = first(idNameIndex.findFirst(nameTokens), idUrlIndex.findFirst(urlTokens));
+        return index != NOT_FOUND ? Optional.of(idTerms.get(index)) : Optional.empty();
+    }
+
+    /**
+     * Finds the first license name, in the order of {@link #getNameTerms()}, which is equal to the given license name
+     * (ignoring case), whose name tokens occur in order in the given license name tokens, or whose URL tokens occur in
+     * order in the given license URL tokens.
+     *
+     * @param licenseName the license name, or <code>null</code>
+     * @param nameTokens the tokenized license name, or <code>null</code>
+     * @param urlTokens the tokenized license URL, or <code>null</code>
+     * @return the first matching license name, if any
+     */
+    Optional<Term> findNameTerm(String licenseName, String[] nameTokens, String[] urlTokens) {
+        int index = first(nameNameIndex.findFirst(nameTokens), nameUrlIndex.findFirst(urlTokens));
+        int end = index != NOT_FOUND ? index : nameTerms.size();
+
+        for (int i = 0; i < end; i++) {
+            if (nameTerms.get(i).getValue().equalsIgnoreCase(licenseName)) {
+                return Optional.of(nameTerms.get(i));
+            }
+        }
+
+        return index != NOT_FOUND ? Optional.of(nameTerms.get(index)) : Optional.empty();
+    }
+
+    private static int first(int index1, int index2) {
+        if (index1 == NOT_FOUND) {
+            return index2;
+        }
+
+        if (index2 == NOT_FOUND) {
+            return index1;
+        }
+
+        return Math.min(index1, index2);
+    }
+
+    Map<String, String> getDeprecated() {
+        return deprecated;
+    }
+
+    Map<String, List<String>> getMapping() {
+        return mapping;
+    }
+
+    /**
+     * A listed license.
+     */
+    static final class License {
+        private final String id;
+
+        private final String name;
+
+        private final List<String> seeAlsos;
+
+        private final List<String> normalizedSeeAlsos;
+
+        private final String text;
+
+        private final Term idTerm;
+
+        License(String id, String name, List<String> seeAlsos, String text, Term idTerm) {
+            this.id = id;
+            this.name = name;
+            this.seeAlsos = seeAlsos;
+            this.normalizedSeeAlsos = seeAlsos.stream()
+                    .filter(LicenseUtils::isUrl)
+                    .map(LicenseUtils::normalizeLicenseUrl)
+                    .toList();
+            this.text = text;
+            this.idTerm = idTerm;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        List<String> getSeeAlsos() {
+            return seeAlsos;
+        }
+
+        /**
+         * Gets the <code>seeAlso</code> URLs which are URLs, normalized with
+         * {@link LicenseUtils#normalizeLicenseUrl(String)}.
+         *
+         * @return the normalized <code>seeAlso</code> URLs
+         */
+        List<String> getNormalizedSeeAlsos() {
+            return normalizedSeeAlsos;
+        }
+
+        /**
+         * Gets the standard license text, if it is included in the index.
+         *
+         * @return the standard license text, or null
+         */
+        String getText() {
+            return text;
+        }
+
+        Term getIdTerm() {
+            return idTerm;
+        }
+    }
+
+    /**
+     * A license identifier or name, tokenized with {@link LicenseUtils#tokenizeLicenseString(String)} for matching
+     * against license names and URLs.
+     */
+    static final class Term {
+        private final String value;
+
+        private final String id;
+
+        private final String[] nameTokens;
+
+        private final String[] urlTokens;
+
+        Term(String value, String id, String[] nameTokens, String[] urlTokens) {
+            this.value = value;
+            this.id = id;
+            this.nameTokens = nameTokens;
+            this.urlTokens = urlTokens;
+        }
+
+        static Term of(String value, String id, String nameString, String urlString) {
+            return new Term(value, id, tokenize(nameString), tokenize(urlString));
+        }
+
+        private static String[] tokenize(String s) {
+            return LicenseUtils.tokenizeLicenseString(s).toArray(EMPTY_STRING_ARRAY);
+        }
+
+        /**
+         * Gets the license identifier or name.
+         *
+         * @return the license identifier or name
+         */
+        String getValue() {
+            return value;
+        }
+
+        /**
+         * Gets the SPDX license identifier.
+         *
+         * @return the SPDX license identifier
+         */
+        String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the tokens to search for in a license name.
+         *
+         * @return the tokens
+         */
+        String[] getNameTokens() {
+            return nameTokens;
+        }
+
+        /**
+         * Gets the tokens to search for in a license URL.
+         *
+         * @return the tokens
+         */
+        String[] getUrlTokens() {
+            return urlTokens;
+        }
+    }
+}
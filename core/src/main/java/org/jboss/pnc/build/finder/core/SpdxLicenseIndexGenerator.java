@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Generates the prebuilt SPDX license index at build time.
+ *
+ * @see SpdxLicenseIndex
+ */
+public final class SpdxLicenseIndexGenerator {
+    private SpdxLicenseIndexGenerator() {
+        throw new IllegalArgumentException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Writes the SPDX license index to the given file. Only the license list bundled with the SPDX library is used, so
+     * that the index does not depend on the network.
+     *
+     * @param args the output file
+     * @throws IOException if an error occurs writing the index
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: SpdxLicenseIndexGenerator <output file>");
+        }
+
+        System.setProperty("org.spdx.useJARLicenseInfoOnly", "true");
+        System.setProperty("SPDXParser.OnlyUseLocalLicenses", "true");
+
+        Path file = Paths.get(args[0]);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        SpdxLicenseIndex index = SpdxLicenseIndex.create(SpdxLicenseUtils.getLicenseIdsTextList());
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            index.write(out);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -16,22 +16,20 @@
 package org.jboss.pnc.build.finder.core;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.Comparator.comparing;
-import static java.util.Comparator.naturalOrder;
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_STRING_ARRAY;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.spdx.library.LicenseInfoFactory.NOASSERTION_LICENSE_NAME;
 import static org.spdx.library.LicenseInfoFactory.NONE_LICENSE_NAME;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,6 +39,8 @@ import org.apache.commons.lang3.Strings;
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
+import org.jboss.pnc.build.finder.core.SpdxLicenseIndex.License;
+import org.jboss.pnc.build.finder.core.SpdxLicenseIndex.Term;
 import org.spdx.core.DefaultStoreNotInitializedException;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.LicenseInfoFactory;
@@ -50,8 +50,6 @@ import org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo;
 import org.spdx.utility.compare.LicenseCompareHelper;
 import org.spdx.utility.compare.SpdxCompareException;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-
 public final class SpdxLicenseUtils {
     static final String NOASSERTION = NOASSERTION_LICENSE_NAME;
 
@@ -60,10 +58,6 @@ public final class SpdxLicenseUtils {
     private static final List<String> LICENSE_IDS_TEXT_LIST = List
             .of("Apache-2.0", "BSD-3-Clause", "EPL-1.0", "BSD-2-Clause", "MIT", "xpp", "Plexus");
 
-    private static final String LICENSE_MAPPING_FILENAME = "build-finder-license-mapping.json";
-
-    private static final String LICENSE_DEPRECATED_FILENAME = "build-finder-license-deprecated.json";
-
     static final Pattern IDSTRING_PATTERN = Pattern.compile("[a-zA-Z0-9-.]+");
 
     private static final String LICENSE = "LICENSE";
@@ -71,99 +65,100 @@ public final class SpdxLicenseUtils {
     private static final Pattern SPDX_LICENSE_IDENTIFIER_PATTERN = Pattern
             .compile("SPDX-License-Identifier:\\s*(" + IDSTRING_PATTERN.pattern() + ")");
 
-    private static final int EXPECTED_NUM_SPDX_LICENSES = 1024;
+    private static final Map<String, ListedLicense> LISTED_LICENSES = new ConcurrentHashMap<>();
 
-    private static final Map<String, List<String>> LICENSE_MAPPINGS_MAP;
+    private static final char SPACE_CHAR = ' ';
 
-    private static Map<String, ListedLicense> LICENSE_IDS_MAP;
+    private static final int EXPECTED_EXPRESSION_LENGTH = 64;
+
+    private SpdxLicenseUtils() {
+        throw new IllegalArgumentException("This is a utility class and cannot be instantiated");
+    }
 
-    private static Map<String, ListedLicense> LICENSE_NAMES_MAP;
+    /**
+     * Holds the SPDX license index, which is only loaded on first use.
+     */
+    private static final class IndexHolder {
+        private static final SpdxLicenseIndex INDEX = SpdxLicenseIndex.load();
+    }
 
-    private static final Map<String, String> LICENSE_IDS_DEPRECATED_MAP;
+    /**
+     * Holds the license text index, which is only created when a license text file is first matched.
+     */
+    private static final class TextIndexHolder {
+        private static final LicenseTextIndex INDEX = createLicenseTextIndex();
+    }
 
-    private static List<String> LICENSE_IDS_LIST;
+    static SpdxLicenseIndex getIndex() {
+        return IndexHolder.INDEX;
+    }
 
-    private static List<String> LICENSE_NAMES_LIST;
+    private static LicenseTextIndex createLicenseTextIndex() {
+        Map<String, String> texts = new LinkedHashMap<>(LICENSE_IDS_TEXT_LIST.size());
 
-    private static final char SPACE_CHAR = ' ';
+        for (String id : LICENSE_IDS_TEXT_LIST) {
+            texts.put(id, getLicenseText(id).orElse(null));
+        }
 
-    private static final int EXPECTED_EXPRESSION_LENGTH = 64;
+        return new LicenseTextIndex(texts, LicenseTextIndex.TOP_K);
+    }
 
-    static {
-        LICENSE_IDS_MAP = new LinkedHashMap<>(EXPECTED_NUM_SPDX_LICENSES);
-        List<String> listedLicenseIds = getListedLicenseIds();
-        LICENSE_IDS_LIST = listedLicenseIds.stream()
-                .sorted(comparing(String::length).reversed().thenComparing(naturalOrder()))
-                .toList();
-        LICENSE_NAMES_MAP = new LinkedHashMap<>(EXPECTED_NUM_SPDX_LICENSES);
-        LICENSE_NAMES_LIST = new ArrayList<>(EXPECTED_NUM_SPDX_LICENSES);
-
-        for (String id : LICENSE_IDS_LIST) {
-            Utils.retry(() -> addLicenseIdToMaps(id));
+    /**
+     * Gets the SPDX listed license with the given identifier from the SPDX library. Listed licenses are only needed to
+     * compare license texts against the license templates, so they are loaded on first use.
+     *
+     * @param licenseId the SPDX license identifier
+     * @return the listed license, or null if the license is not listed
+     */
+    private static ListedLicense getListedLicense(String licenseId) {
+        if (getIndex().getLicense(licenseId) == null) {
+            return null;
         }
 
-        LICENSE_IDS_MAP = Collections.unmodifiableMap(LICENSE_IDS_MAP);
-        LICENSE_NAMES_MAP = Collections.unmodifiableMap(LICENSE_NAMES_MAP);
-        LICENSE_IDS_LIST = Collections.unmodifiableList(LICENSE_IDS_LIST);
-        LICENSE_NAMES_LIST.sort(comparing(String::length).reversed().thenComparing(naturalOrder()));
-        LICENSE_NAMES_LIST = Collections.unmodifiableList(LICENSE_NAMES_LIST);
+        ListedLicense listedLicense = LISTED_LICENSES.get(licenseId);
 
-        try {
-            // XXX: Should be moved to an external file
-            LICENSE_IDS_DEPRECATED_MAP = loadLicenseDeprecated();
+        if (listedLicense != null) {
+            return listedLicense;
+        }
 
-            try (InputStream in = LicenseUtils.class.getClassLoader()
-                    .getResourceAsStream(LICENSE_MAPPING_FILENAME)) {
-                LICENSE_MAPPINGS_MAP = Collections.unmodifiableMap(JSONUtils.loadLicenseMapping(in));
-                validateLicenseMapping();
+        // Loaded outside of the map, since the retries sleep and would block the other threads updating it
+        listedLicense = Utils.retry(() -> {
+            try {
+                return LicenseInfoFactory.getListedLicenseById(licenseId);
+            } catch (InvalidSPDXAnalysisException e) {
+                throw new IllegalArgumentException(e);
             }
-        } catch (IOException e) {
-            throw new IllegalArgumentException(e);
+        });
+
+        if (listedLicense == null) {
+            return null;
         }
-    }
 
-    private SpdxLicenseUtils() {
-        throw new IllegalArgumentException("This is a utility class and cannot be instantiated");
+        ListedLicense existing = LISTED_LICENSES.putIfAbsent(licenseId, listedLicense);
+        return existing != null ? existing : listedLicense;
     }
 
-    private static List<String> getListedLicenseIds() {
-        return Utils.retry(LicenseInfoFactory::getSpdxListedLicenseIds);
-    }
+    /**
+     * Gets the standard license text of the given SPDX license identifier.
+     *
+     * @param licenseId the SPDX license identifier
+     * @return the license text, or empty if the license is unknown or has no text
+     */
+    static Optional<String> getLicenseText(String licenseId) {
+        License license = getIndex().getLicense(licenseId);
 
-    private static ListedLicense addLicenseIdToMaps(String id) {
-        try {
-            ListedLicense listedLicense = LicenseInfoFactory.getListedLicenseById(id);
-            LICENSE_IDS_MAP.put(listedLicense.getId(), listedLicense);
-            listedLicense.getName().ifPresent(licenseName -> {
-                LICENSE_NAMES_MAP.put(licenseName, listedLicense);
-                LICENSE_NAMES_LIST.add(licenseName);
-            });
-            return listedLicense;
-        } catch (InvalidSPDXAnalysisException e) {
-            throw new IllegalArgumentException(e);
+        if (license == null) {
+            return Optional.empty();
         }
-    }
 
-    private static void validateLicenseMapping() {
-        Set<String> licenseStrings = LICENSE_MAPPINGS_MAP.keySet();
-
-        for (String licenseString : licenseStrings) {
-            if (IDSTRING_PATTERN.matcher(licenseString).matches()) {
-                validateSPDXListedLicenseId(licenseString);
-                continue;
-            }
-
-            validateLicenseString(licenseString);
+        if (license.getText() != null) {
+            return Optional.of(license.getText());
         }
-    }
 
-    private static Map<String, String> loadLicenseDeprecated() throws IOException {
-        try (InputStream in = LicenseUtils.class.getClassLoader().getResourceAsStream(LICENSE_DEPRECATED_FILENAME)) {
-            Map<String, String> map = new BuildFinderObjectMapper()
-                    .readValue(in, new TypeReference<LinkedHashMap<String, String>>() {
-                    });
-            validateLicenseDeprecated(map);
-            return Collections.unmodifiableMap(map);
+        try {
+            return Optional.ofNullable(getListedLicense(licenseId).getLicenseText());
+        } catch (InvalidSPDXAnalysisException e) {
+            return Optional.empty();
         }
     }
 
@@ -182,7 +177,7 @@ public final class SpdxLicenseUtils {
      * @return the mapping (or empty if none)
      */
     public static Optional<String> findLicenseMapping(String licenseString) {
-        return findLicenseMapping(LICENSE_MAPPINGS_MAP, licenseString);
+        return findLicenseMapping(getIndex().getMapping(), licenseString);
     }
 
     public static String getSPDXLicenseName(String licenseId) {
@@ -191,17 +186,13 @@ public final class SpdxLicenseUtils {
         }
 
         String currentLicenseId = getCurrentLicenseId(licenseId);
-        ListedLicense spdxListedLicense = LICENSE_IDS_MAP.get(currentLicenseId);
+        License license = getIndex().getLicense(currentLicenseId);
 
-        if (spdxListedLicense == null) {
+        if (license == null || license.getName() == null) {
             return EMPTY;
         }
 
-        try {
-            return spdxListedLicense.getName().orElse(EMPTY);
-        } catch (InvalidSPDXAnalysisException e) {
-            return EMPTY;
-        }
+        return license.getName();
     }
 
     /**
@@ -223,27 +214,52 @@ public final class SpdxLicenseUtils {
      * @return the license URL (which may be <code>null</code>)
      */
     public static Optional<String> findMatchingLicenseName(String licenseName, String licenseUrl) {
-        for (String licenseId : LICENSE_IDS_LIST) {
+        SpdxLicenseIndex index = getIndex();
+        String[] nameTokens = tokenize(licenseName);
+        String[] urlTokens = tokenize(licenseUrl);
+        return index.findIdTerm(nameTokens, urlTokens)
+                .or(() -> index.findNameTerm(licenseName, nameTokens, urlTokens))
+                .map(term -> getCurrentLicenseId(term.getId()));
+    }
+
+    /**
+     * Finds a match for the given Maven license name or URL by comparing against each SPDX license identifier and name
+     * in turn. This gives the same result as {@link #findMatchingLicenseName(String, String)}, and is only used to
+     * check it.
+     *
+     * @param licenseName the license name
+     * @param licenseUrl the license URL
+     * @return the matching license identifier, if any
+     */
+    static Optional<String> findMatchingLicenseNameWithoutIndex(String licenseName, String licenseUrl) {
+        for (Term term : getIndex().getIdTerms()) {
+            String licenseId = term.getValue();
+
             if (LicenseUtils.containsWordsInSameOrder(licenseName, Strings.CS.replace(licenseId, "-only", ""))
                     || LicenseUtils.containsWordsInSameOrder(licenseUrl, licenseId)) {
                 return Optional.of(getCurrentLicenseId(licenseId));
             }
         }
 
-        for (String spdxLicenseName : LICENSE_NAMES_LIST) {
+        for (Term term : getIndex().getNameTerms()) {
+            String spdxLicenseName = term.getValue();
+
             if (spdxLicenseName.equalsIgnoreCase(licenseName)
                     || LicenseUtils
                             .containsWordsInSameOrder(licenseName, Strings.CS.replace(spdxLicenseName, " only", ""))
                     || LicenseUtils.containsWordsInSameOrder(licenseUrl, spdxLicenseName)) {
-                ListedLicense listedLicense = LICENSE_NAMES_MAP.get(spdxLicenseName);
-                String licenseId = getCurrentLicenseId(listedLicense.getId());
-                return Optional.of(licenseId);
+                return Optional.of(getCurrentLicenseId(term.getId()));
             }
         }
 
         return Optional.empty();
     }
 
+    private static String[] tokenize(String licenseString) {
+        return licenseString != null ? LicenseUtils.tokenizeLicenseString(licenseString).toArray(EMPTY_STRING_ARRAY)
+                : null;
+    }
+
     /**
      * Finds a matching SPDX license identifier for the text in the given license text file, if any.
      *
@@ -259,24 +275,69 @@ public final class SpdxLicenseUtils {
 
         try (FileContent fc = licenseFileObject.getContent(); InputStream in = fc.getInputStream()) {
             String licenseText = new String(in.readAllBytes(), UTF_8);
-            return LICENSE_IDS_TEXT_LIST.stream()
-                    .map(id -> LICENSE_IDS_MAP.get(id))
-                    .map(license -> findMatchingSPDXLicenseIdentifier(license, licenseText))
-                    .flatMap(Optional::stream)
-                    .findAny()
-                    .or(() -> findMatchingSPDXLicenseIdentifierOrLicense(licenseText));
+            return findMatchingLicenseText(licenseText);
         } catch (IOException e) {
             return Optional.empty();
         }
     }
 
+    /**
+     * Finds a matching SPDX license identifier for the given license text, if any. The text is compared against every
+     * license template, starting with the templates ranked first by the license text index.
+     *
+     * @param licenseText the license text
+     * @return the matching license identifier, if any
+     */
+    static Optional<String> findMatchingLicenseText(String licenseText) {
+        return findMatchingLicenseText(TextIndexHolder.INDEX.rank(licenseText), licenseText);
+    }
+
+    /**
+     * Finds a matching SPDX license identifier for the given license text, if any, by comparing against every license
+     * template in order. This gives the same result as {@link #findMatchingLicenseText(String)} for texts matching a
+     * single template, and is only used to check it.
+     *
+     * @param licenseText the license text
+     * @return the matching license identifier, if any
+     */
+    static Optional<String> findMatchingLicenseTextWithoutIndex(String licenseText) {
+        return findMatchingLicenseText(LICENSE_IDS_TEXT_LIST, licenseText);
+    }
+
+    private static Optional<String> findMatchingLicenseText(List<String> licenseIds, String licenseText) {
+        return licenseIds.stream()
+                .map(SpdxLicenseUtils::getListedLicense)
+                .map(license -> findMatchingSPDXLicenseIdentifier(license, licenseText))
+                .flatMap(Optional::stream)
+                .findFirst()
+                .or(() -> findMatchingSPDXLicenseIdentifierOrLicense(licenseText));
+    }
+
+    /**
+     * Gets the identifiers of the licenses whose full text is compared against license files.
+     *
+     * @return the license identifiers
+     */
+    static List<String> getLicenseIdsTextList() {
+        return LICENSE_IDS_TEXT_LIST;
+    }
+
+    /**
+     * Gets the identifiers of all SPDX listed licenses.
+     *
+     * @return the license identifiers
+     */
+    static List<String> getLicenseIdsList() {
+        return getIndex().getIdTerms().stream().map(Term::getId).toList();
+    }
+
     /**
      * Returns whether this SPDX license identifier is known.
      *
      * @param licenseId the SPDX license identifier
      */
     public static boolean isKnownLicenseId(String licenseId) {
-        return LICENSE_IDS_LIST.contains(licenseId);
+        return licenseId != null && getIndex().getLicense(licenseId) != null;
     }
 
     /**
@@ -287,7 +348,7 @@ public final class SpdxLicenseUtils {
      * @return the matching SPDX license identifier, or <code>NOASSERTION</code> if no match
      */
     public static String getSPDXLicenseId(String name, String url) {
-        return getSPDXLicenseId(LICENSE_MAPPINGS_MAP, name, url);
+        return getSPDXLicenseId(getIndex().getMapping(), name, url);
     }
 
     /**
@@ -301,17 +362,17 @@ public final class SpdxLicenseUtils {
             return Optional.empty();
         }
 
-        ListedLicense listedLicense = LICENSE_IDS_MAP.get(licenseId);
-        return Optional.ofNullable(listedLicense != null ? getCurrentLicenseId(listedLicense.getId()) : null);
+        License license = getIndex().getLicense(licenseId);
+        return Optional.ofNullable(license != null ? getCurrentLicenseId(license.getId()) : null);
     }
 
     static String getCurrentLicenseId(String licenseId) {
-        String currentId = LICENSE_IDS_DEPRECATED_MAP.get(licenseId);
+        String currentId = getIndex().getDeprecated().get(licenseId);
         return currentId != null ? currentId : licenseId;
     }
 
     public static int getNumberOfSPDXLicenses() {
-        return LICENSE_IDS_MAP.size();
+        return getIndex().getLicenses().size();
     }
 
     static Optional<String> findFirstSeeAlsoUrl(String licenseId) {
@@ -319,17 +380,13 @@ public final class SpdxLicenseUtils {
             return Optional.empty();
         }
 
-        ListedLicense listedLicense = LICENSE_IDS_MAP.get(licenseId);
+        License license = getIndex().getLicense(licenseId);
 
-        if (listedLicense == null) {
+        if (license == null) {
             return Optional.empty();
         }
 
-        Collection<String> seeAlsos = listedLicense.getSeeAlsos();
-        return seeAlsos
-                .stream()
-                .filter(LicenseUtils::isUrl)
-                .findFirst();
+        return license.getSeeAlsos().stream().filter(LicenseUtils::isUrl).findFirst();
     }
 
     static Optional<String> findMatchingLicenseSeeAlso(String licenseUrl) {
@@ -337,17 +394,11 @@ public final class SpdxLicenseUtils {
             return Optional.empty();
         }
 
-        Collection<ListedLicense> values = LICENSE_IDS_MAP.values();
+        String normalizedLicenseUrl = LicenseUtils.normalizeLicenseUrl(licenseUrl);
 
-        for (ListedLicense listedLicense : values) {
-            List<String> seeAlsos = listedLicense.getSeeAlsos()
-                    .stream()
-                    .filter(LicenseUtils::isUrl)
-                    .map(LicenseUtils::normalizeLicenseUrl)
-                    .toList();
-
-            if (seeAlsos.contains(LicenseUtils.normalizeLicenseUrl(licenseUrl))) {
-                return Optional.of(getCurrentLicenseId(listedLicense.getId()));
+        for (License license : getIndex().getLicenses()) {
+            if (license.getNormalizedSeeAlsos().contains(normalizedLicenseUrl)) {
+                return Optional.of(getCurrentLicenseId(license.getId()));
             }
         }
 
@@ -363,21 +414,15 @@ public final class SpdxLicenseUtils {
      * to use a URL as a name may be ambiguous, e.g., how do we know which BSD license the name "BSD" refers
      * to.
      * <p/>
-     * The license file is validated while loading to ensure that the license identifiers are valid.
+     * The license file is validated when the SPDX license index is generated to ensure that the license identifiers
+     * are valid.
      * <em>Note that even though SPDX identifiers are considered to be case-insensitive, the mapping file requires the
      * canonical names of the license identifiers from the license list.</em>
      *
      * @return the license mapping map
      */
     public static Map<String, List<String>> getSpdxLicenseMapping() {
-        return LICENSE_MAPPINGS_MAP;
-    }
-
-    static void validateLicenseDeprecated(Map<String, String> map) {
-        map.forEach((key, value) -> {
-            validateLicenseString(key);
-            validateLicenseString(value);
-        });
+        return getIndex().getMapping();
     }
 
     static Optional<String> findSPDXLicenseId(Map<String, List<String>> mapping, String name, String url) {
@@ -413,7 +458,10 @@ public final class SpdxLicenseUtils {
             return Optional.empty();
         }
 
-        String path = fileObject.getName().getPath();
+        return findSPDXIdentifierFromFileName(fileObject.getName().getPath());
+    }
+
+    static Optional<String> findSPDXIdentifierFromFileName(String path) {
         String name = FilenameUtils.getName(path);
         String baseName = FilenameUtils.removeExtension(name);
 
@@ -424,27 +472,6 @@ public final class SpdxLicenseUtils {
         return Optional.empty();
     }
 
-    static void validateSPDXListedLicenseId(String licenseString) {
-        if (isUnknownLicenseId(licenseString) || isKnownLicenseId(licenseString)) {
-            return;
-        }
-
-        throw new IllegalArgumentException(
-                "License identifier '" + licenseString + "' is not in list of SPDX licenses");
-    }
-
-    static void validateLicenseString(String licenseString) {
-        try {
-            AnyLicenseInfo anyLicenseInfo = parseSPDXLicenseString(licenseString);
-
-            if (anyLicenseInfo instanceof ListedLicense listedLicense) {
-                validateSPDXListedLicenseId(listedLicense.getId());
-            }
-        } catch (InvalidLicenseStringException | DefaultStoreNotInitializedException e) {
-            throw new IllegalArgumentException("Could not parse license string: '" + licenseString + "'", e);
-        }
-    }
-
     static Optional<String> findMatchingSPDXLicenseIdentifierOrLicense(String text) {
         String lines = LicenseUtils.licenseFileToText(text);
         return findMatchingSPDXLicenseIdentifier(lines).or(() -> findMatchingLicense(lines, null));
@@ -656,6 +683,6 @@ public final class SpdxLicenseUtils {
      * @return the version of the license list
      */
     public static String getSPDXLicenseListVersion() {
-        return LicenseInfoFactory.getLicenseListVersion();
+        return getIndex().getLicenseListVersion();
     }
 }
@@ -0,0 +1,763 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.MultiSet;
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multiset.HashMultiSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Multi-valued map from checksum to files, which keeps at most a given number of entries on the heap. When the
+ * entries on the heap reach that number, they are sorted by checksum and appended to a new run file, which is then
+ * memory-mapped for reading. Only every 64th checksum of a run is kept on the heap, as an index for binary search.
+ * <p>
+ * Lookups search the heap entries and each run, and iteration merges the runs in checksum order. The map is
+ * append-only: entries cannot be removed, except by {@link #clear()}. A mapping that was put again after being spilled
+ * to a run is stored twice, but only returned and counted once. The run files are deleted by {@link #close()}, or when
+ * the JVM exits if the map was not closed.
+ */
+public final class SpillingChecksumMap implements MultiValuedMap<Digest, LocalFile>, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillingChecksumMap.class);
+
+    private static final int BLOCK_SIZE = 64;
+
+    // A run is memory-mapped as a single buffer, so it must not exceed 2 GiB
+    private static final long MAX_RUN_BYTES = Integer.MAX_VALUE - 65_536L;
+
+    private static final int NULL_FILENAME = -1;
+
+    // Unlike File#deleteOnExit, which remembers every file until the JVM exits, the files are forgotten when deleted
+    private static final Set<Path> RUN_FILES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SpillingChecksumMap::deleteRunFiles));
+    }
+
+    private final long maxHeapEntries;
+
+    private final List<Run> runs;
+
+    private DigestMultiValuedMap<LocalFile> heap;
+
+    private long heapBytes;
+
+    private long size;
+
+    private long distinctSize;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param maxHeapEntries the maximum number of entries kept on the heap
+     */
+    public SpillingChecksumMap(long maxHeapEntries) {
+        if (maxHeapEntries <= 0L) {
+            throw new IllegalArgumentException("Maximum number of heap entries must be positive: " + maxHeapEntries);
+        }
+
+        this.maxHeapEntries = maxHeapEntries;
+        this.runs = new ArrayList<>();
+        this.heap = new DigestMultiValuedMap<>();
+        this.distinctSize = -1L;
+    }
+
+    private static void deleteRunFiles() {
+        for (Path path : RUN_FILES) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // Nothing more can be done while the JVM exits
+            }
+        }
+    }
+
+    /**
+     * Creates a temporary run file, which is deleted when the JVM exits unless it was deleted by
+     * {@link #deleteRunFile(Path)} before.
+     *
+     * @param prefix the prefix of the file name
+     * @return the path of the file
+     * @throws IOException if an error occurs while creating the file
+     */
+    static Path createRunFile(String prefix) throws IOException {
+        Path path = Files.createTempFile(prefix, ".run");
+        RUN_FILES.add(path);
+        return path;
+    }
+
+    /**
+     * Deletes a run file created by {@link #createRunFile(String)}.
+     *
+     * @param path the path of the file
+     */
+    static void deleteRunFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            RUN_FILES.remove(path);
+        } catch (IOException e) {
+            LOGGER.debug("Error deleting run file {}", path, e);
+        }
+    }
+
+    private static long maxRecordLength(Digest key, LocalFile file) {
+        // A UTF-16 char takes at most 3 bytes in UTF-8, so the filename does not need to be encoded here
+        PathNode path = file.getPath();
+        return 1L + key.length() + Long.BYTES + Integer.BYTES + (path != null ? 3L * path.length() : 0L);
+    }
+
+    private static byte[] filenameBytes(LocalFile file) {
+        String filename = file.getFilename();
+        return filename != null ? filename.getBytes(UTF_8) : null;
+    }
+
+    @Override
+    public synchronized boolean put(Digest key, LocalFile value) {
+        if (!heap.put(key, value)) {
+            return false;
+        }
+
+        size++;
+        distinctSize = -1L;
+        heapBytes += maxRecordLength(key, value);
+
+        if (heap.size() >= maxHeapEntries || heapBytes >= MAX_RUN_BYTES) {
+            spill();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean putAll(Digest key, Iterable<? extends LocalFile> values) {
+        boolean changed = false;
+
+        for (LocalFile value : values) {
+            changed |= put(key, value);
+        }
+
+        return changed;
+    }
+
+    @Override
+    public boolean putAll(Map<? extends Digest, ? extends LocalFile> map) {
+        boolean changed = false;
+
+        for (Entry<? extends Digest, ? extends LocalFile> entry : map.entrySet()) {
+            changed |= put(entry.getKey(), entry.getValue());
+        }
+
+        return changed;
+    }
+
+    @Override
+    public boolean putAll(MultiValuedMap<? extends Digest, ? extends LocalFile> map) {
+        boolean changed = false;
+
+        for (Entry<? extends Digest, ? extends LocalFile> entry : map.entries()) {
+            changed |= put(entry.getKey(), entry.getValue());
+        }
+
+        return changed;
+    }
+
+    private void spill() {
+        List<Entry<Digest, LocalFile>> entries = sortedHeapEntries();
+
+        try {
+            runs.add(Run.write(entries));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Spilled {} checksums to run {}", entries.size(), runs.size());
+        }
+
+        heap = new DigestMultiValuedMap<>();
+        heapBytes = 0L;
+    }
+
+    private List<Entry<Digest, LocalFile>> sortedHeapEntries() {
+        List<Entry<Digest, LocalFile>> entries = new ArrayList<>(heap.entries());
+        entries.sort(Entry.comparingByKey());
+        return entries;
+    }
+
+    /**
+     * Gets the number of entries kept on the heap.
+     *
+     * @return the number of entries on the heap
+     */
+    synchronized int getHeapSize() {
+        return heap.size();
+    }
+
+    /**
+     * Gets the number of run files.
+     *
+     * @return the number of runs
+     */
+    synchronized int getRunCount() {
+        return runs.size();
+    }
+
+    @Override
+    public synchronized int size() {
+        if (runs.isEmpty()) {
+            return heap.size();
+        }
+
+        // The runs may hold a mapping more than once, so they must be merged to count the mappings
+        if (distinctSize < 0L) {
+            Iterator<Entry<Digest, Collection<LocalFile>>> it = mergedIterator();
+            long count = 0L;
+
+            while (it.hasNext()) {
+                count += it.next().getValue().size();
+            }
+
+            distinctSize = count;
+        }
+
+        return (int) Math.min(distinctSize, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size == 0L;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Digest digest && !lookup(digest).isEmpty();
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (LocalFile file : values()) {
+            if (file.equals(value)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean containsMapping(Object key, Object value) {
+        return key instanceof Digest digest && lookup(digest).contains(value);
+    }
+
+    @Override
+    public Collection<LocalFile> get(Digest key) {
+        return lookup(key);
+    }
+
+    private synchronized Set<LocalFile> lookup(Digest key) {
+        Set<LocalFile> files = new LinkedHashSet<>(heap.get(key));
+
+        for (Run run : runs) {
+            run.collect(key, files);
+        }
+
+        return Collections.unmodifiableSet(files);
+    }
+
+    @Override
+    public Collection<LocalFile> remove(Object key) {
+        throw new UnsupportedOperationException("Entries cannot be removed from a spilling checksum map");
+    }
+
+    @Override
+    public boolean removeMapping(Object key, Object item) {
+        throw new UnsupportedOperationException("Entries cannot be removed from a spilling checksum map");
+    }
+
+    @Override
+    public synchronized void clear() {
+        close();
+        heap = new DigestMultiValuedMap<>();
+        heapBytes = 0L;
+        size = 0L;
+        distinctSize = -1L;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Run run : runs) {
+            run.delete();
+        }
+
+        runs.clear();
+    }
+
+    /**
+     * Iterates over the keys in order, with the values of each key. Takes a snapshot of the heap entries, so that the
+     * iteration is not affected by later puts to the heap.
+     *
+     * @return the iterator
+     */
+    private synchronized Iterator<Entry<Digest, Collection<LocalFile>>> mergedIterator() {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparing(Cursor::key));
+        List<Entry<Digest, LocalFile>> heapEntries = sortedHeapEntries();
+
+        if (!heapEntries.isEmpty()) {
+            queue.add(new HeapCursor(heapEntries));
+        }
+
+        for (Run run : runs) {
+            Cursor cursor = run.cursor();
+
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Entry<Digest, Collection<LocalFile>> next() {
+                if (queue.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+
+                Digest key = queue.peek().key();
+                Set<LocalFile> files = new LinkedHashSet<>();
+
+                while (!queue.isEmpty() && queue.peek().key().equals(key)) {
+                    Cursor cursor = queue.poll();
+                    files.add(cursor.file());
+
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+
+                return new SimpleImmutableEntry<>(key, Collections.unmodifiableSet(files));
+            }
+        };
+    }
+
+    @Override
+    public Collection<Entry<Digest, LocalFile>> entries() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Entry<Digest, LocalFile>> iterator() {
+                MapIterator<Digest, LocalFile> it = mapIterator();
+
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Digest, LocalFile> next() {
+                        Digest key = it.next();
+                        return new SimpleImmutableEntry<>(key, it.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SpillingChecksumMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public MultiSet<Digest> keys() {
+        MultiSet<Digest> multiSet = new HashMultiSet<>();
+        Iterator<Entry<Digest, Collection<LocalFile>>> it = mergedIterator();
+
+        while (it.hasNext()) {
+            Entry<Digest, Collection<LocalFile>> entry = it.next();
+            multiSet.add(entry.getKey(), entry.getValue().size());
+        }
+
+        return multiSet;
+    }
+
+    @Override
+    public Set<Digest> keySet() {
+        return asMap().keySet();
+    }
+
+    @Override
+    public Collection<LocalFile> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<LocalFile> iterator() {
+                MapIterator<Digest, LocalFile> it = mapIterator();
+
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public LocalFile next() {
+                        it.next();
+                        return it.getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SpillingChecksumMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Map<Digest, Collection<LocalFile>> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public Collection<LocalFile> get(Object key) {
+                if (!(key instanceof Digest digest)) {
+                    return null;
+                }
+
+                Set<LocalFile> files = lookup(digest);
+                return files.isEmpty() ? null : files;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return SpillingChecksumMap.this.containsKey(key);
+            }
+
+            @Override
+            public Set<Entry<Digest, Collection<LocalFile>>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<Digest, Collection<LocalFile>>> iterator() {
+                        return mergedIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        // The runs may share keys, so they must be merged to count the keys
+                        Iterator<Entry<Digest, Collection<LocalFile>>> it = mergedIterator();
+                        int count = 0;
+
+                        while (it.hasNext()) {
+                            it.next();
+                            count++;
+                        }
+
+                        return count;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public MapIterator<Digest, LocalFile> mapIterator() {
+        return new MapIterator<>() {
+            private final Iterator<Entry<Digest, Collection<LocalFile>>> keyIterator = mergedIterator();
+
+            private Digest key;
+
+            private Iterator<LocalFile> valueIterator = Collections.emptyIterator();
+
+            private LocalFile value;
+
+            @Override
+            public boolean hasNext() {
+                return valueIterator.hasNext() || keyIterator.hasNext();
+            }
+
+            @Override
+            public Digest next() {
+                if (!valueIterator.hasNext()) {
+                    Entry<Digest, Collection<LocalFile>> entry = keyIterator.next();
+                    key = entry.getKey();
+                    valueIterator = entry.getValue().iterator();
+                }
+
+                value = valueIterator.next();
+                return key;
+            }
+
+            @Override
+            public Digest getKey() {
+                if (key == null) {
+                    throw new IllegalStateException();
+                }
+
+                return key;
+            }
+
+            @Override
+            public LocalFile getValue() {
+                if (key == null) {
+                    throw new IllegalStateException();
+                }
+
+                return value;
+            }
+
+            @Override
+            public LocalFile setValue(LocalFile value) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "SpillingChecksumMap{" + "size=" + size() + ", heapSize=" + getHeapSize() + ", runs=" + getRunCount()
+                + '}';
+    }
+
+    private interface Cursor {
+        boolean advance();
+
+        Digest key();
+
+        LocalFile file();
+    }
+
+    private static final class HeapCursor implements Cursor {
+        private final Iterator<Entry<Digest, LocalFile>> it;
+
+        private Entry<Digest, LocalFile> entry;
+
+        HeapCursor(List<Entry<Digest, LocalFile>> entries) {
+            it = entries.iterator();
+            entry = it.next();
+        }
+
+        @Override
+        public boolean advance() {
+            if (!it.hasNext()) {
+                return false;
+            }
+
+            entry = it.next();
+            return true;
+        }
+
+        @Override
+        public Digest key() {
+            return entry.getKey();
+        }
+
+        @Override
+        public LocalFile file() {
+            return entry.getValue();
+        }
+    }
+
+    /**
+     * A sorted run of records. Each record is the digest length and bytes, the file size, and the filename length and
+     * UTF-8 bytes.
+     */
+    private static final class Run {
+        private final Path path;
+
+        private final MappedByteBuffer buffer;
+
+        private final int length;
+
+        private final Digest[] blockKeys;
+
+        private final int[] blockOffsets;
+
+        private Run(Path path, MappedByteBuffer buffer, int length, Digest[] blockKeys, int[] blockOffsets) {
+            this.path = path;
+            this.buffer = buffer;
+            this.length = length;
+            this.blockKeys = blockKeys;
+            this.blockOffsets = blockOffsets;
+        }
+
+        static Run write(List<Entry<Digest, LocalFile>> entries) throws IOException {
+            Path path = createRunFile("build-finder-checksums-");
+            int numBlocks = (entries.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            Digest[] blockKeys = new Digest[numBlocks];
+            int[] blockOffsets = new int[numBlocks];
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                for (int i = 0; i < entries.size(); i++) {
+                    Entry<Digest, LocalFile> entry = entries.get(i);
+                    Digest key = entry.getKey();
+
+                    if (i % BLOCK_SIZE == 0) {
+                        blockKeys[i / BLOCK_SIZE] = key;
+                        blockOffsets[i / BLOCK_SIZE] = out.size();
+                    }
+
+                    byte[] filename = filenameBytes(entry.getValue());
+                    out.writeByte(key.length());
+                    out.write(key.toBytes());
+                    out.writeLong(entry.getValue().getSize());
+
+                    if (filename != null) {
+                        out.writeInt(filename.length);
+                        out.write(filename);
+                    } else {
+                        out.writeInt(NULL_FILENAME);
+                    }
+                }
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                int length = (int) channel.size();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, length);
+                return new Run(path, buffer, length, blockKeys, blockOffsets);
+            }
+        }
+
+        Cursor cursor() {
+            return new RunCursor(0);
+        }
+
+        void collect(Digest key, Collection<LocalFile> files) {
+            // The first block which may contain the key is the one before the first block starting at or after it
+            int low = 0;
+            int high = blockKeys.length;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (blockKeys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            if (low == 0 && blockKeys[0].compareTo(key) > 0) {
+                return;
+            }
+
+            RunCursor cursor = new RunCursor(blockOffsets[Math.max(0, low - 1)]);
+
+            while (cursor.advance()) {
+                int cmp = cursor.key().compareTo(key);
+
+                if (cmp > 0) {
+                    break;
+                }
+
+                if (cmp == 0) {
+                    files.add(cursor.file());
+                }
+            }
+        }
+
+        void delete() {
+            deleteRunFile(path);
+        }
+
+        private final class RunCursor implements Cursor {
+            private int offset;
+
+            private Digest key;
+
+            private LocalFile file;
+
+            RunCursor(int offset) {
+                this.offset = offset;
+            }
+
+            @Override
+            public boolean advance() {
+                if (offset >= length) {
+                    return false;
+                }
+
+                // Absolute reads only, so that cursors can share the buffer
+                byte[] digest = new byte[buffer.get(offset)];
+                buffer.get(offset + 1, digest);
+                offset += 1 + digest.length;
+                long size = buffer.getLong(offset);
+                int filenameLength = buffer.getInt(offset + Long.BYTES);
+                offset += Long.BYTES + Integer.BYTES;
+                String filename = null;
+
+                if (filenameLength != NULL_FILENAME) {
+                    byte[] bytes = new byte[filenameLength];
+                    buffer.get(offset, bytes);
+                    offset += filenameLength;
+                    filename = new String(bytes, UTF_8);
+                }
+
+                key = Digest.of(digest);
+                file = new LocalFile(filename, size);
+                return true;
+            }
+
+            @Override
+            public Digest key() {
+                return key;
+            }
+
+            @Override
+            public LocalFile file() {
+                return file;
+            }
+        }
+    }
+}
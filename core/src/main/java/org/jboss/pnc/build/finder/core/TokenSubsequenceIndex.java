@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Index of token patterns, which finds the first pattern (in index order) whose tokens all occur in a token sequence in
+ * the same order, though not necessarily next to each other. This is the same as calling
+ * {@link LicenseUtils#containsWordsInSameOrder(String[], String[])} for each pattern in order, but in a single pass
+ * over the input tokens.
+ * <p>
+ * Each pattern waits for its next token. The patterns are bucketed by their first token, and while scanning the input,
+ * every pattern waiting for the current token advances to its next token, and moves to the bucket of that token. A
+ * pattern advances on the earliest occurrence of each of its tokens, exactly as the greedy search of
+ * <code>containsWordsInSameOrder</code> does, so a pattern matches if and only if it would have matched there.
+ */
+final class TokenSubsequenceIndex {
+    private static final int NOT_FOUND = -1;
+
+    private final String[][] patterns;
+
+    private final Map<String, int[]> firstTokens;
+
+    private final int firstEmptyPattern;
+
+    /**
+     * Creates an index over the given patterns.
+     *
+     * @param patterns the patterns, in the order in which they should be matched
+     */
+    TokenSubsequenceIndex(List<String[]> patterns) {
+        this.patterns = patterns.toArray(new String[0][]);
+        Map<String, List<Integer>> buckets = new HashMap<>();
+        int empty = NOT_FOUND;
+
+        for (int i = 0; i < this.patterns.length; i++) {
+            String[] pattern = this.patterns[i];
+
+            if (pattern.length == 0) {
+                if (empty == NOT_FOUND) {
+                    empty = i;
+                }
+
+                continue;
+            }
+
+            buckets.computeIfAbsent(pattern[0], k -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, int[]> map = new HashMap<>(buckets.size());
+
+        for (Entry<String, List<Integer>> entry : buckets.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        this.firstTokens = map;
+        this.firstEmptyPattern = empty;
+    }
+
+    /**
+     * Finds the first pattern whose tokens all occur in the given tokens in the same order.
+     *
+     * @param tokens the tokens to search, or <code>null</code>
+     * @return the index of the first matching pattern, or -1 if no pattern matches or the tokens are <code>null</code>
+     */
+    int findFirst(String[] tokens) {
+        if (tokens == null) {
+            return NOT_FOUND;
+        }
+
+        // An empty pattern matches any tokens, so no later pattern can be the first match
+        int best = firstEmptyPattern;
+        int[] positions = new int[patterns.length];
+        Map<String, IntList> waiting = new HashMap<>();
+        Set<String> started = new HashSet<>();
+
+        for (String token : tokens) {
+            IntList advancing = waiting.remove(token);
+
+            if (started.add(token)) {
+                int[] first = firstTokens.get(token);
+
+                if (first != null) {
+                    advancing = advancing != null ? advancing : new IntList(first.length);
+                    advancing.addAll(first);
+                }
+            }
+
+            if (advancing == null) {
+                continue;
+            }
+
+            for (int k = 0; k < advancing.size(); k++) {
+                int i = advancing.get(k);
+
+                if (best != NOT_FOUND && i >= best) {
+                    continue;
+                }
+
+                String[] pattern = patterns[i];
+                int position = ++positions[i];
+
+                if (position == pattern.length) {
+                    best = i;
+                } else {
+                    waiting.computeIfAbsent(pattern[position], key -> new IntList(4)).add(i);
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Gets the number of patterns.
+     *
+     * @return the number of patterns
+     */
+    int size() {
+        return patterns.length;
+    }
+
+    private static final class IntList {
+        private int[] values;
+
+        private int size;
+
+        IntList(int capacity) {
+            values = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        void addAll(int[] array) {
+            if (size + array.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(size * 2, size + array.length));
+            }
+
+            System.arraycopy(array, 0, values, size, array.length);
+            size += array.length;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
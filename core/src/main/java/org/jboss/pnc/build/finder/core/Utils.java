@@ -288,4 +288,48 @@ public final class Utils {
 
         return true;
     }
+
+    /**
+     * Deletes the given directory and all of its contents. Does nothing if the directory does not exist.
+     *
+     * @param dir the directory
+     * @throws IOException if an error occurs deleting the directory
+     */
+    public static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+
+        try (Stream<Path> stream = Files.walk(dir)) {
+            List<Path> paths = stream.sorted(reverseOrder()).toList();
+
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Gets the total size of the regular files in the given directory and its subdirectories.
+     *
+     * @param dir the directory
+     * @return the size in bytes, or 0 if the directory does not exist
+     * @throws IOException if an error occurs reading the directory
+     */
+    public static long sizeOfDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0L;
+        }
+
+        try (Stream<Path> stream = Files.walk(dir)) {
+            List<Path> paths = stream.filter(Files::isRegularFile).toList();
+            long size = 0L;
+
+            for (Path path : paths) {
+                size += Files.size(path);
+            }
+
+            return size;
+        }
+    }
 }
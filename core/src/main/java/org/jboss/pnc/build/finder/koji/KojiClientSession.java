@@ -60,6 +60,8 @@ public final class KojiClientSession extends KojiClient implements ClientSession
 
     private final KojiClientHelper helper;
 
+    private volatile Map<String, KojiArchiveType> archiveTypeMap;
+
     public KojiClientSession(KojiConfig config, PasswordManager passwordManager, ExecutorService executorService)
             throws KojiClientException {
         super(config, passwordManager, executorService);
@@ -122,7 +124,15 @@ public final class KojiClientSession extends KojiClient implements ClientSession
 
     @Override
     public Map<String, KojiArchiveType> getArchiveTypeMap() throws KojiClientException {
-        return getArchiveTypeMap(session);
+        // The archive types rarely change, so they are only asked once for each session, which may be shared by runs
+        Map<String, KojiArchiveType> map = archiveTypeMap;
+
+        if (map == null) {
+            map = Collections.unmodifiableMap(getArchiveTypeMap(session));
+            archiveTypeMap = map;
+        }
+
+        return map;
     }
 
     @Override
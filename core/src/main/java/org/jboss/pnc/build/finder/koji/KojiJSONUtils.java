@@ -17,10 +17,12 @@ package org.jboss.pnc.build.finder.koji;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.jboss.pnc.build.finder.core.BuildFinderObjectMapper;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
+import org.jboss.pnc.build.finder.core.JSONUtils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -33,8 +35,8 @@ public final class KojiJSONUtils {
 
     }
 
-    private static class MapTypeReference extends TypeReference<Map<BuildSystemInteger, KojiBuild>> {
-        MapTypeReference() {
+    private static class KojiBuildTypeReference extends TypeReference<KojiBuild> {
+        KojiBuildTypeReference() {
 
         }
     }
@@ -48,9 +50,11 @@ public final class KojiJSONUtils {
     }
 
     public static Map<BuildSystemInteger, KojiBuild> loadBuildsFile(Path path) throws IOException {
-        TypeReference<Map<BuildSystemInteger, KojiBuild>> typeReference = new MapTypeReference();
+        Map<BuildSystemInteger, KojiBuild> builds = new LinkedHashMap<>();
 
-        return MAPPER.readValue(path.toFile(), typeReference);
+        JSONUtils.readMap(path, BuildSystemInteger.class, new KojiBuildTypeReference(), builds::put);
+
+        return builds;
     }
 
 }
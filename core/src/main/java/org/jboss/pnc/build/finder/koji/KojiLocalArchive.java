@@ -20,6 +20,7 @@ import java.util.TreeSet;
 
 import org.jboss.pnc.build.finder.core.Checksum;
 import org.jboss.pnc.build.finder.core.LicenseInfo;
+import org.jboss.pnc.build.finder.core.PathSet;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -43,25 +44,25 @@ public class KojiLocalArchive {
     private Collection<LicenseInfo> licenses;
 
     public KojiLocalArchive() {
-        this.filenames = new TreeSet<>();
+        this.filenames = new PathSet();
         this.checksums = new TreeSet<>();
-        this.unmatchedFilenames = new TreeSet<>();
+        this.unmatchedFilenames = new PathSet();
         this.licenses = new TreeSet<>();
     }
 
     public KojiLocalArchive(KojiArchiveInfo archive, Collection<String> filenames, Collection<Checksum> checksums) {
         this.archive = archive;
-        this.filenames = new TreeSet<>(filenames);
+        this.filenames = new PathSet(filenames);
         this.checksums = new TreeSet<>(checksums);
-        this.unmatchedFilenames = new TreeSet<>();
+        this.unmatchedFilenames = new PathSet();
         this.licenses = new TreeSet<>();
     }
 
     public KojiLocalArchive(KojiRpmInfo rpm, Collection<String> filenames, Collection<Checksum> checksums) {
         this.rpm = rpm;
-        this.filenames = new TreeSet<>(filenames);
+        this.filenames = new PathSet(filenames);
         this.checksums = new TreeSet<>(checksums);
-        this.unmatchedFilenames = new TreeSet<>();
+        this.unmatchedFilenames = new PathSet();
         this.licenses = new TreeSet<>();
     }
 
@@ -105,7 +106,7 @@ public class KojiLocalArchive {
     }
 
     public void setFilenames(Collection<String> filenames) {
-        this.filenames = new TreeSet<>(filenames);
+        this.filenames = new PathSet(filenames);
     }
 
     public Collection<Checksum> getChecksums() {
@@ -126,7 +127,7 @@ public class KojiLocalArchive {
     }
 
     public void setUnmatchedFilenames(Collection<String> unmatchedFilenames) {
-        this.unmatchedFilenames = new TreeSet<>(unmatchedFilenames);
+        this.unmatchedFilenames = new PathSet(unmatchedFilenames);
     }
 
     public Collection<LicenseInfo> getLicenses() {
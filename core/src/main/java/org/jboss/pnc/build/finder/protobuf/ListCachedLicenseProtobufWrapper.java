@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.protobuf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.jboss.pnc.build.finder.core.CachedLicense;
+
+/**
+ * Class to wrap around a List of {@link CachedLicense}. This is used so that Protostream can properly
+ * marshall/unmarshall the list, including an empty list
+ * (<a href="https://issues.redhat.com/browse/IPROTO-219">IPROTO-219</a>).
+ *
+ * @see ListKojiArchiveInfoProtobufWrapper
+ */
+public class ListCachedLicenseProtobufWrapper {
+    private static final List<CachedLicense> EMPTY_LIST = Collections.unmodifiableList(new ArrayList<>(0));
+
+    private final List<CachedLicense> data;
+
+    @ProtoFactory
+    public ListCachedLicenseProtobufWrapper(List<CachedLicense> data) {
+        this.data = data;
+    }
+
+    @ProtoField(1)
+    public List<CachedLicense> getData() {
+        return data == null ? EMPTY_LIST : data;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.protobuf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.infinispan.protostream.annotations.ProtoFactory;
+import org.infinispan.protostream.annotations.ProtoField;
+import org.jboss.pnc.build.finder.core.Digest;
+import org.jboss.pnc.build.finder.core.DigestMultiValuedMap;
+import org.jboss.pnc.build.finder.core.LocalFile;
+
+/**
+ * Compact representation of the checksum to files map stored in the <code>files-*</code> caches.
+ * <p>
+ * The map is packed into a single byte array: checksums are stored as raw digest bytes instead of hex strings, sizes
+ * and lengths are stored as variable-length integers, and each filename only stores the suffix that differs from the
+ * previous filename (filenames inside a distribution share long prefixes). The payload is versioned so that entries
+ * written by an incompatible version can be detected and recomputed instead of failing to load.
+ *
+ * @see ProtobufSerializer
+ */
+public class LocalFileMapProtobufWrapper {
+    /**
+     * Version of the packed payload format written by this class.
+     */
+    public static final int CURRENT_VERSION = 1;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final int version;
+
+    private final byte[] data;
+
+    /**
+     * This method is called for Protobuf to LocalFileMapProtobufWrapper convertor.
+     *
+     * @param version the payload version
+     * @param data the packed payload
+     */
+    @ProtoFactory
+    public LocalFileMapProtobufWrapper(int version, byte[] data) {
+        this.version = version;
+        this.data = data;
+    }
+
+    /**
+     * Packs the given map.
+     *
+     * @param map the map of checksum to files
+     * @return the packed map
+     */
+    public static LocalFileMapProtobufWrapper of(MultiValuedMap<Digest, LocalFile> map) {
+        TreeMap<Digest, Collection<LocalFile>> sorted = new TreeMap<>(map.asMap());
+        Writer writer = new Writer(INITIAL_BUFFER_SIZE);
+        String previous = "";
+
+        writer.writeVarLong(sorted.size());
+
+        for (Entry<Digest, Collection<LocalFile>> entry : sorted.entrySet()) {
+            byte[] digest = entry.getKey().toBytes();
+            List<LocalFile> files = new ArrayList<>(entry.getValue());
+
+            files.sort(Comparator.comparing(LocalFile::getFilename).thenComparingLong(LocalFile::getSize));
+
+            writer.writeVarLong(digest.length);
+            writer.writeBytes(digest);
+            writer.writeVarLong(files.size());
+
+            for (LocalFile file : files) {
+                String filename = file.getFilename();
+                int prefix = commonPrefixLength(previous, filename);
+                byte[] suffix = filename.substring(prefix).getBytes(UTF_8);
+
+                writer.writeVarLong(prefix);
+                writer.writeVarLong(suffix.length);
+                writer.writeBytes(suffix);
+                writer.writeVarLong(zigZag(file.getSize()));
+
+                previous = filename;
+            }
+        }
+
+        return new LocalFileMapProtobufWrapper(CURRENT_VERSION, writer.toByteArray());
+    }
+
+    @ProtoField(number = 1, defaultValue = "0")
+    public int getVersion() {
+        return version;
+    }
+
+    @ProtoField(number = 2)
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns whether the payload was written in a format this class can read.
+     *
+     * @return whether the payload can be unpacked
+     */
+    public boolean isSupportedVersion() {
+        return version == CURRENT_VERSION && data != null;
+    }
+
+    /**
+     * Unpacks the map.
+     *
+     * @return the map of checksum to files
+     * @throws IllegalStateException if the payload version is not supported or the payload is corrupt
+     */
+    public MultiValuedMap<Digest, LocalFile> toMap() {
+        if (!isSupportedVersion()) {
+            throw new IllegalStateException(
+                    "Unsupported cache entry version " + version + " (expected " + CURRENT_VERSION + ")");
+        }
+
+        Reader reader = new Reader(data);
+        int size = (int) reader.readVarLong();
+        MultiValuedMap<Digest, LocalFile> map = new DigestMultiValuedMap<>(size);
+        String previous = "";
+
+        for (int i = 0; i < size; i++) {
+            Digest key = readKey(reader);
+            int count = (int) reader.readVarLong();
+
+            for (int j = 0; j < count; j++) {
+                int prefix = (int) reader.readVarLong();
+                String suffix = new String(reader.read((int) reader.readVarLong()), UTF_8);
+                long fileSize = unZigZag(reader.readVarLong());
+
+                if (prefix > previous.length()) {
+                    throw new IllegalStateException("Corrupt cache entry: invalid filename prefix length " + prefix);
+                }
+
+                String filename = previous.substring(0, prefix) + suffix;
+                map.put(key, new LocalFile(filename, fileSize));
+                previous = filename;
+            }
+        }
+
+        return map;
+    }
+
+    private static Digest readKey(Reader reader) {
+        int length = (int) reader.readVarLong();
+
+        if (length < 0 || length > Digest.MAX_LENGTH) {
+            throw new IllegalStateException("Corrupt cache entry: invalid checksum length " + length);
+        }
+
+        return Digest.of(reader.read(length));
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+
+        // Do not split a surrogate pair between the shared prefix and the suffix
+        if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1))) {
+            i--;
+        }
+
+        return i;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+        Writer(int size) {
+            super(size);
+        }
+
+        void writeVarLong(long value) {
+            long v = value;
+
+            while ((v & ~0x7FL) != 0L) {
+                write((int) ((v & 0x7FL) | 0x80L));
+                v >>>= 7;
+            }
+
+            write((int) v);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        long readVarLong() {
+            long result = 0L;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= buf.length) {
+                    throw new IllegalStateException("Corrupt cache entry: truncated variable-length integer");
+                }
+
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+
+            throw new IllegalStateException("Corrupt cache entry: malformed variable-length integer");
+        }
+
+        byte[] read(int length) {
+            if (length < 0 || length > buf.length - pos) {
+                throw new IllegalStateException("Corrupt cache entry: invalid length " + length);
+            }
+
+            byte[] b = new byte[length];
+            System.arraycopy(buf, pos, b, 0, length);
+            pos += length;
+            return b;
+        }
+    }
+}
@@ -17,17 +17,21 @@ package org.jboss.pnc.build.finder.protobuf;
 
 import org.infinispan.protostream.GeneratedSchema;
 import org.infinispan.protostream.annotations.ProtoSchema;
+import org.jboss.pnc.build.finder.core.CachedLicense;
 import org.jboss.pnc.build.finder.core.LocalFile;
 
 @ProtoSchema(
         includeClasses = {
                 LocalFile.class,
                 MultiValuedMapProtobufWrapper.class,
+                LocalFileMapProtobufWrapper.class,
                 KojiArchiveInfoAdapter.class,
                 KojiBuildAdapter.class,
                 PncArtifactAdapter.class,
                 ArtifactStaticRemoteCollection.class,
-                ListKojiArchiveInfoProtobufWrapper.class },
+                ListKojiArchiveInfoProtobufWrapper.class,
+                CachedLicense.class,
+                ListCachedLicenseProtobufWrapper.class },
         schemaFileName = "build-finder.proto",
         schemaFilePath = "proto/",
         schemaPackageName = "org.jboss.pnc.build.finder")
@@ -17,6 +17,7 @@ package org.jboss.pnc.build.finder.core;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.jboss.pnc.build.finder.core.ChecksumType.sha256;
 
 import java.io.IOException;
@@ -85,20 +86,29 @@ class BuildConfigTest {
         assertThat(bc.getArchiveTypes()).isEqualTo(ConfigDefaults.ARCHIVE_TYPES);
         assertThat(bc.getArchiveExtensions()).isEqualTo(ConfigDefaults.ARCHIVE_EXTENSIONS);
         assertThat(bc.getBuildSystems()).isEqualTo(ConfigDefaults.BUILD_SYSTEMS);
+        assertThat(bc.getCacheClusterMode()).isEqualTo(ConfigDefaults.CACHE_CLUSTER_MODE);
         assertThat(bc.getCacheLifespan()).isEqualTo(ConfigDefaults.CACHE_LIFESPAN);
+        assertThat(bc.getCacheMaxEntries()).isEqualTo(ConfigDefaults.CACHE_MAX_ENTRIES);
         assertThat(bc.getChecksumOnly()).isEqualTo(ConfigDefaults.CHECKSUM_ONLY);
+        assertThat(bc.getChecksumQueueSize()).isEqualTo(ConfigDefaults.CHECKSUM_QUEUE_SIZE);
+        assertThat(bc.getChecksumSpillThreshold()).isEqualTo(ConfigDefaults.CHECKSUM_SPILL_THRESHOLD);
         assertThat(bc.getChecksumTypes()).isEqualTo(ConfigDefaults.CHECKSUM_TYPES);
         assertThat(bc.getDisableCache()).isEqualTo(ConfigDefaults.DISABLE_CACHE);
         assertThat(bc.getDisableRecursion()).isEqualTo(ConfigDefaults.DISABLE_RECURSION);
         assertThat(bc.getExcludes()).isEqualTo(ConfigDefaults.EXCLUDES);
+        assertThat(bc.getJsonCompact()).isEqualTo(ConfigDefaults.JSON_COMPACT);
+        assertThat(bc.getJsonCompression()).isEqualTo(ConfigDefaults.JSON_COMPRESSION);
         assertThat(bc.getKojiHubURL()).isEqualTo(ConfigDefaults.KOJI_HUB_URL);
         assertThat(bc.getKojiMulticallSize()).isEqualTo(ConfigDefaults.KOJI_MULTICALL_SIZE);
         assertThat(bc.getKojiNumThreads()).isEqualTo(ConfigDefaults.KOJI_NUM_THREADS);
         assertThat(bc.getKojiWebURL()).isEqualTo(ConfigDefaults.KOJI_WEB_URL);
+        assertThat(bc.getLicenseExtractionMode()).isEqualTo(ConfigDefaults.LICENSE_EXTRACTION_MODE);
         assertThat(bc.getOutputDirectory()).isEqualTo(ConfigDefaults.OUTPUT_DIR);
         assertThat(bc.getPncNumThreads()).isEqualTo(ConfigDefaults.PNC_NUM_THREADS);
         assertThat(bc.getPncPartitionSize()).isEqualTo(ConfigDefaults.PNC_PARTITION_SIZE);
         assertThat(bc.getPncURL()).isEqualTo(ConfigDefaults.PNC_URL);
+        assertThat(bc.getReportArchivesPageSize()).isEqualTo(ConfigDefaults.REPORT_ARCHIVES_PAGE_SIZE);
+        assertThat(bc.getResultBundle()).isEqualTo(ConfigDefaults.RESULT_BUNDLE);
         assertThat(bc.getUseBuildsFile()).isEqualTo(ConfigDefaults.USE_BUILDS_FILE);
         assertThat(bc.getUseChecksumsFile()).isEqualTo(ConfigDefaults.USE_CHECKSUMS_FILE);
     }
@@ -128,6 +138,20 @@ class BuildConfigTest {
         assertThat(bc.getKojiWebURL().toExternalForm()).isEqualTo("https://my.url.com/web");
     }
 
+    @Test
+    void testCacheFamilyLimits() throws IOException {
+        String json = "{\"cache-max-entries\":100," + "\"cache-max-entries-per-family\":{\"files\":10},"
+                + "\"cache-max-stored-entries-per-family\":{\"checksums\":1000}}";
+        BuildConfig bc = BuildConfig.load(json);
+
+        assertThat(bc.getCacheMaxEntries(CacheFamily.files)).isEqualTo(10L);
+        assertThat(bc.getCacheMaxEntries(CacheFamily.builds)).isEqualTo(100L);
+        assertThat(bc.getCacheMaxStoredEntriesPerFamily()).containsExactly(entry(CacheFamily.checksums, 1000L));
+        assertThat(CacheFamily.checksums.getCacheNames(List.of(ChecksumType.md5)))
+                .containsExactly("checksums-md5", "checksums-pnc-md5");
+        assertThat(CacheFamily.builds.getCacheNames(List.of(ChecksumType.md5))).containsExactly("builds", "builds-pnc");
+    }
+
     @Test
     void testIgnoreUnknownProperties() throws IOException {
         String json = "{\"foo\":\"bar\"}";
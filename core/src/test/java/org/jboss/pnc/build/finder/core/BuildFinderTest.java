@@ -20,13 +20,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.stream.Stream;
 
+import org.apache.commons.collections4.MultiValuedMap;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -79,8 +83,45 @@ class BuildFinderTest {
         da.checksumFiles();
         da.outputToFile(checksumType);
 
-        Map<String, Collection<LocalFile>> checksums = JSONUtils.loadChecksumsFile(da.getChecksumFile(checksumType));
+        Map<Digest, Collection<LocalFile>> checksums = JSONUtils.loadChecksumsFile(da.getChecksumFile(checksumType));
 
-        assertThat(checksums).hasSize(1);
+        assertThat(checksums).hasSize(1).containsOnlyKeys(da.getChecksums(checksumType).keySet());
+    }
+
+    @Test
+    void testLoadChecksumsTask(@TempDir Path folder) throws Exception {
+        BuildConfig config = new BuildConfig();
+
+        config.setChecksumTypes(EnumSet.of(ChecksumType.md5, ChecksumType.sha256));
+        config.setOutputDirectory(folder.toAbsolutePath().toString());
+        config.setJsonCompression(JsonCompression.gzip);
+
+        DistributionAnalyzer da = new DistributionAnalyzer(files, config);
+        da.checksumFiles();
+        da.outputToFile(ChecksumType.md5);
+        da.outputToFile(ChecksumType.sha256);
+
+        Map<ChecksumType, Path> checksumFiles = new EnumMap<>(ChecksumType.class);
+        checksumFiles.put(ChecksumType.md5, da.getChecksumFile(ChecksumType.md5));
+        checksumFiles.put(ChecksumType.sha256, da.getChecksumFile(ChecksumType.sha256));
+
+        DistributionAnalyzer loader = new DistributionAnalyzer(files, config);
+        Callable<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> task = loader.loadChecksumsTask(checksumFiles);
+
+        assertThat(loader.getQueue()).isEmpty();
+
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = task.call();
+        List<Checksum> queued = new ArrayList<>(loader.getQueue());
+
+        assertThat(checksums.get(ChecksumType.md5).asMap()).isEqualTo(da.getChecksums(ChecksumType.md5));
+        assertThat(checksums.get(ChecksumType.sha256).asMap()).isEqualTo(da.getChecksums(ChecksumType.sha256));
+        assertThat(queued).hasSize(2);
+        assertThat(queued.get(1).getDigest()).isNull();
+
+        Checksum md5 = queued.get(0);
+
+        assertThat(md5.getType()).isEqualTo(ChecksumType.md5);
+        assertThat(loader.getContents().toPreferred(md5, ChecksumType.sha256).getDigest())
+                .isEqualTo(da.getChecksums(ChecksumType.sha256).keySet().iterator().next());
     }
 }
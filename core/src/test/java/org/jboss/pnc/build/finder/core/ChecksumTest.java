@@ -53,4 +53,13 @@ class ChecksumTest {
         Collections.sort(l);
         assertThat(l).containsExactly(c1, c3, c4, c2);
     }
+
+    @Test
+    void testValue() {
+        Checksum checksum = new Checksum(md5, "7215EE9C7D9DC229D2921A40E899EC5F", "c.txt", 2L);
+
+        assertThat(checksum.getValue()).isEqualTo("7215ee9c7d9dc229d2921a40e899ec5f");
+        assertThat(checksum.getDigest()).isEqualTo(Digest.fromHex("7215ee9c7d9dc229d2921a40e899ec5f"));
+        assertThat(new Checksum().getValue()).isNull();
+    }
 }
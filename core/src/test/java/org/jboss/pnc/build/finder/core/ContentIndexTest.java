@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.build.finder.core.ChecksumType.md5;
+import static org.jboss.pnc.build.finder.core.ChecksumType.sha1;
+import static org.jboss.pnc.build.finder.core.ChecksumType.sha256;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ContentIndexTest {
+    private static final String MD5 = "d41d8cd98f00b204e9800998ecf8427e";
+
+    private static final String SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final String OTHER_MD5 = "0cc175b9c0f1b6a831c399e269772661";
+
+    @Test
+    void testSharedRecord() {
+        ContentIndex index = new ContentIndex();
+
+        index.addAll(List.of(new Checksum(md5, MD5, "a.txt", 0L), new Checksum(sha256, SHA256, "a.txt", 0L)));
+        // The checksums of a file may also be added one type at a time, as when they are loaded from the cache
+        index.add(new Checksum(md5, MD5, "b.txt", 0L));
+        index.add(new Checksum(sha256, SHA256, "b.txt", 0L));
+
+        ContentRecord record = index.get(md5, Digest.fromHex(MD5));
+
+        assertThat(record).isSameAs(index.get(sha256, Digest.fromHex(SHA256)));
+        assertThat(record.getDigests()).containsOnlyKeys(md5, sha256);
+        assertThat(record.getDigest(sha1)).isNull();
+        assertThat(record.getFilenames()).containsExactly("a.txt", "b.txt");
+        assertThat(record.getChecksums(PathNode.of("b.txt")))
+                .containsExactlyInAnyOrder(
+                        new Checksum(md5, MD5, "b.txt", 0L),
+                        new Checksum(sha256, SHA256, "b.txt", 0L));
+    }
+
+    @Test
+    void testToPreferred() {
+        ContentIndex index = new ContentIndex();
+        Checksum checksum = new Checksum(md5, MD5, "a.txt", 0L);
+        Checksum other = new Checksum(md5, OTHER_MD5, "c.txt", 1L);
+
+        index.addAll(List.of(checksum, new Checksum(sha256, SHA256, "a.txt", 0L)));
+        index.add(other);
+
+        assertThat(index.toPreferred(checksum, sha256)).isEqualTo(new Checksum(sha256, SHA256, "a.txt", 0L));
+        assertThat(index.toPreferred(checksum, md5)).isSameAs(checksum);
+        assertThat(index.toPreferred(other, sha256)).isSameAs(other);
+    }
+
+    @Test
+    void testWithPreferredType() {
+        ContentIndex index = new ContentIndex();
+        Checksum checksum = new Checksum(md5, MD5, "a.txt", 0L);
+        Checksum preferred = new Checksum(sha256, SHA256, "a.txt", 0L);
+        Checksum other = new Checksum(md5, OTHER_MD5, "c.txt", 1L);
+
+        index.addAll(List.of(checksum, preferred));
+        index.add(other);
+
+        Map<Checksum, Collection<String>> map = Map.of(checksum, List.of("a.txt"), other, List.of("c.txt"));
+        Map<Checksum, Collection<String>> view = index.withPreferredType(map, sha256);
+
+        assertThat(view).hasSize(2)
+                .containsEntry(preferred, List.of("a.txt"))
+                .containsEntry(other, List.of("c.txt"))
+                .doesNotContainKey(checksum);
+        assertThat(view.get(preferred)).containsExactly("a.txt");
+        assertThat(index.withPreferredType(view, md5)).isEqualTo(map);
+    }
+
+    @Test
+    void testSpill() {
+        try (ContentIndex index = new ContentIndex(2L)) {
+            index.add(new Checksum(md5, MD5, "a.txt", 0L));
+            index.add(new Checksum(md5, MD5, "b.txt", 0L));
+            // The other checksums of the files are added after their records were spilled
+            index.add(new Checksum(sha256, SHA256, "b.txt", 0L));
+            index.add(new Checksum(md5, OTHER_MD5, "c.txt", 1L));
+            index.add(new Checksum(sha256, SHA256, "a.txt", 0L));
+
+            assertThat(index.getRunCount()).isEqualTo(2);
+            assertThat(index.get(md5, Digest.fromHex(MD5)).getDigests()).containsOnlyKeys(md5, sha256);
+            assertThat(index.get(sha256, Digest.fromHex(SHA256)).getDigest(md5)).isEqualTo(Digest.fromHex(MD5));
+            assertThat(index.get(sha1, Digest.fromHex(MD5))).isNull();
+            assertThat(index.toPreferred(new Checksum(md5, MD5, "b.txt", 0L), sha256))
+                    .isEqualTo(new Checksum(sha256, SHA256, "b.txt", 0L));
+
+            Map<PathNode, ContentRecord> records = index.getRecordsByPath();
+
+            assertThat(records).hasSize(3).containsKey(PathNode.of("c.txt"));
+            assertThat(records.keySet()).extracting(PathNode::toString).containsExactly("a.txt", "b.txt", "c.txt");
+            assertThat(records.get(PathNode.of("a.txt")).getChecksums(PathNode.of("a.txt")))
+                    .containsExactlyInAnyOrder(
+                            new Checksum(md5, MD5, "a.txt", 0L),
+                            new Checksum(sha256, SHA256, "a.txt", 0L));
+            assertThat(records.get(PathNode.of("c.txt")).getSize()).isEqualTo(1L);
+            assertThat(records.get(PathNode.of("d.txt"))).isNull();
+        }
+    }
+
+    @Test
+    void testSpillMatchesHeap() {
+        ContentIndex heap = new ContentIndex();
+
+        try (ContentIndex spilling = new ContentIndex(10L)) {
+            for (int i = 0; i < 100; i++) {
+                String md5Hex = String.format("%032x", i % 30);
+                String sha256Hex = String.format("%064x", i % 30);
+                String filename = "dir-" + i % 7 + "/file-" + i + ".txt";
+                List<Checksum> checksums = List.of(
+                        new Checksum(md5, md5Hex, filename, i % 30),
+                        new Checksum(sha256, sha256Hex, filename, i % 30));
+
+                heap.addAll(checksums);
+                spilling.addAll(checksums);
+            }
+
+            assertThat(spilling.getRunCount()).isEqualTo(10);
+
+            Map<PathNode, ContentRecord> expected = heap.getRecordsByPath();
+            Map<PathNode, ContentRecord> actual = spilling.getRecordsByPath();
+
+            assertThat(actual).hasSameSizeAs(expected);
+
+            for (Map.Entry<PathNode, ContentRecord> entry : actual.entrySet()) {
+                assertThat(entry.getValue().getDigests()).isEqualTo(expected.get(entry.getKey()).getDigests());
+                assertThat(spilling.get(md5, entry.getValue().getDigest(md5)).getDigests())
+                        .isEqualTo(entry.getValue().getDigests());
+            }
+        }
+    }
+}
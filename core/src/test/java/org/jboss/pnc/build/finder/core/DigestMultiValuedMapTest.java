@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
+import org.junit.jupiter.api.Test;
+
+class DigestMultiValuedMapTest {
+    private static final Digest KEY = Digest.fromHex("d41d8cd98f00b204e9800998ecf8427e");
+
+    private static final Digest OTHER_KEY = Digest.fromHex("0cc175b9c0f1b6a831c399e269772661");
+
+    @Test
+    void testPut() {
+        MultiValuedMap<Digest, String> map = new DigestMultiValuedMap<>();
+
+        assertThat(map.put(KEY, "a")).isTrue();
+        assertThat(map.put(KEY, "a")).isFalse();
+        assertThat(map.put(KEY, "b")).isTrue();
+        assertThat(map.put(OTHER_KEY, "c")).isTrue();
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.keySet()).containsExactlyInAnyOrder(KEY, OTHER_KEY);
+        assertThat(map.get(KEY)).containsExactly("a", "b");
+        assertThat(map.asMap()).hasSize(2).containsKey(OTHER_KEY);
+        assertThat(map.containsMapping(OTHER_KEY, "c")).isTrue();
+        assertThat(map.containsMapping(OTHER_KEY, "a")).isFalse();
+    }
+
+    @Test
+    void testReadOnlyViews() {
+        MultiValuedMap<Digest, String> map = new DigestMultiValuedMap<>();
+        map.put(KEY, "a");
+        map.put(KEY, "b");
+
+        assertThatThrownBy(() -> map.get(KEY).add("c")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> map.asMap().remove(KEY)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testSameAsHashSetValuedHashMap() {
+        Random random = new Random(0L);
+        List<Digest> keys = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[16];
+            random.nextBytes(bytes);
+            keys.add(Digest.of(bytes));
+        }
+
+        MultiValuedMap<Digest, String> map = new DigestMultiValuedMap<>();
+        MultiValuedMap<Digest, String> expected = new HashSetValuedHashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            Digest key = keys.get(random.nextInt(random.nextBoolean() ? 10 : keys.size()));
+            String value = String.valueOf(random.nextInt(20));
+
+            int operation = random.nextInt(4);
+
+            if (operation == 0) {
+                assertThat(map.removeMapping(key, value)).isEqualTo(expected.removeMapping(key, value));
+            } else if (operation == 1) {
+                assertThat(map.remove(key)).containsExactlyInAnyOrderElementsOf(expected.remove(key));
+            } else {
+                assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        assertThat(map.keySet()).containsExactlyInAnyOrderElementsOf(expected.keySet());
+        assertThat(map.entries()).containsExactlyInAnyOrderElementsOf(expected.entries());
+        assertThat(map).isEqualTo(expected).hasSameHashCodeAs(expected);
+    }
+}
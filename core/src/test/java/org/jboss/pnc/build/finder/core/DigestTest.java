@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DigestTest {
+    @Test
+    void testRoundTrip() {
+        Random random = new Random(0L);
+
+        for (int length = 0; length <= Digest.MAX_LENGTH; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String hex = Hex.encodeHexString(bytes);
+            Digest digest = Digest.of(bytes);
+
+            assertThat(digest.length()).isEqualTo(length);
+            assertThat(digest.toBytes()).isEqualTo(bytes);
+            assertThat(digest.toHex()).isEqualTo(hex);
+            assertThat(Digest.fromHex(hex)).isEqualTo(digest).hasSameHashCodeAs(digest);
+            assertThat(Digest.fromHex(hex.toUpperCase())).isEqualTo(digest);
+        }
+    }
+
+    @Test
+    void testEquals() {
+        Digest md5 = Digest.fromHex("d41d8cd98f00b204e9800998ecf8427e");
+
+        assertThat(md5).isEqualTo(Digest.of(DigestUtils.md5("")))
+                .isNotEqualTo(Digest.fromHex("d41d8cd98f00b204e9800998ecf8427f"))
+                .isNotEqualTo(Digest.fromHex("d41d8cd98f00b204e9800998ecf8427e00"));
+    }
+
+    @Test
+    void testCompareTo() {
+        List<String> hexes = Arrays.asList(
+                "ff",
+                "7215ee9c7d9dc229d2921a40e899ec5f",
+                "b858cb282617fb0956d960215c8e84d1ccf909c6",
+                "80",
+                "7215ee9c7d9dc229d2921a40e899ec5f00",
+                "",
+                "0000000000000000000000000000000000000000000000000000000000000001");
+        List<Digest> digests = new ArrayList<>(hexes.stream().map(Digest::fromHex).toList());
+
+        Collections.sort(hexes);
+        Collections.sort(digests);
+
+        assertThat(digests).extracting(Digest::toHex).containsExactlyElementsOf(hexes);
+    }
+
+    @Test
+    void testInvalid() {
+        assertThatThrownBy(() -> Digest.fromHex("abc")).isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("odd number");
+        assertThatThrownBy(() -> Digest.fromHex("not-a-checksum")).isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not a hexadecimal string");
+        assertThatThrownBy(() -> Digest.of(new byte[Digest.MAX_LENGTH + 1]))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds maximum");
+    }
+
+    @Test
+    void testJsonMapKey(@TempDir Path folder) throws IOException {
+        Digest digest = Digest.fromHex("ac7ba0ddb5c9d4c7d6a6ad3d4a3e4bee");
+        Map<Digest, Collection<LocalFile>> map = Collections.singletonMap(
+                digest,
+                Collections.singletonList(new LocalFile("a.jar", 1024L)));
+        Path path = folder.resolve("checksums-md5.json");
+
+        JSONUtils.dumpObjectToFile(map, path);
+
+        assertThat(path).content().contains("\"ac7ba0ddb5c9d4c7d6a6ad3d4a3e4bee\"");
+        assertThat(JSONUtils.loadChecksumsFile(path)).containsOnlyKeys(digest);
+    }
+}
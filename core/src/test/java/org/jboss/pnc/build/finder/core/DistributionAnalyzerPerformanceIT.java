@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Analyzes a synthetic distribution in a JVM whose heap is much smaller than the checksums and the content index of
+ * its files would need on the heap.
+ */
+class DistributionAnalyzerPerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistributionAnalyzerPerformanceIT.class);
+
+    private static final String MAX_HEAP = "-Xmx128m";
+
+    private static final int NUM_ARCHIVES = 30;
+
+    private static final int NUM_ENTRIES = 20_000;
+
+    private static final long SPILL_THRESHOLD = 20_000L;
+
+    private static final int CHECK_EVERY = 1_000;
+
+    private static final long TIMEOUT_MINUTES = 20L;
+
+    private static String entryName(int archive, int entry) {
+        return "org/example/artifact-" + archive + "/" + (entry % 100) + "/entry-" + entry + ".txt";
+    }
+
+    private static byte[] entryContent(int archive, int entry) {
+        return ("archive " + archive + " entry " + entry + "\n").getBytes(UTF_8);
+    }
+
+    private static Digest digest(ChecksumType type, byte[] content) throws NoSuchAlgorithmException {
+        return Digest.of(MessageDigest.getInstance(type.getAlgorithm()).digest(content));
+    }
+
+    /**
+     * Runs in the JVM with the capped heap.
+     *
+     * @param args the directory containing the archives, and the output directory
+     * @throws Exception if an error occurs while analyzing the archives
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> inputs = new ArrayList<>(NUM_ARCHIVES);
+
+        for (int i = 0; i < NUM_ARCHIVES; i++) {
+            inputs.add(Path.of(args[0], "archive-" + i + ".zip").toString());
+        }
+
+        BuildConfig config = new BuildConfig();
+        config.setArchiveExtensions(Collections.emptyList());
+        config.setLicenseExtractionMode(LicenseExtractionMode.none);
+        config.setChecksumSpillThreshold(SPILL_THRESHOLD);
+        config.setOutputDirectory(args[1]);
+
+        try (DistributionAnalyzer analyzer = new DistributionAnalyzer(inputs, config)) {
+            analyzer.checksumFiles();
+
+            ContentIndex contents = analyzer.getContents();
+
+            for (int i = 0; i < NUM_ARCHIVES; i++) {
+                for (int j = 0; j < NUM_ENTRIES; j += CHECK_EVERY) {
+                    byte[] content = entryContent(i, j);
+                    ContentRecord record = contents.get(ChecksumType.md5, digest(ChecksumType.md5, content));
+
+                    if (record == null
+                            || !digest(ChecksumType.sha256, content).equals(record.getDigest(ChecksumType.sha256))) {
+                        throw new IllegalStateException("Missing content of " + entryName(i, j) + ": " + record);
+                    }
+
+                    if (analyzer.getChecksums(ChecksumType.sha1).get(digest(ChecksumType.sha1, content)) == null) {
+                        throw new IllegalStateException("Missing checksum of " + entryName(i, j));
+                    }
+                }
+            }
+
+            long count = analyzer.getFiles().keySet().stream().filter(path -> path.contains("/entry-")).count();
+
+            if (count != (long) NUM_ARCHIVES * NUM_ENTRIES) {
+                throw new IllegalStateException("Expected " + NUM_ARCHIVES * NUM_ENTRIES + " files, got " + count);
+            }
+        }
+    }
+
+    private static void writeArchive(Path path, int archive) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (int j = 0; j < NUM_ENTRIES; j++) {
+                out.putNextEntry(new ZipEntry(entryName(archive, j)));
+                out.write(entryContent(archive, j));
+                out.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    void testCappedHeap(@TempDir Path folder) throws IOException, InterruptedException {
+        Path inputDirectory = Files.createDirectory(folder.resolve("input"));
+        Path outputDirectory = Files.createDirectory(folder.resolve("output"));
+
+        for (int i = 0; i < NUM_ARCHIVES; i++) {
+            writeArchive(inputDirectory.resolve("archive-" + i + ".zip"), i);
+        }
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(
+                java,
+                MAX_HEAP,
+                "-cp",
+                System.getProperty("java.class.path"),
+                DistributionAnalyzerPerformanceIT.class.getName(),
+                inputDirectory.toString(),
+                outputDirectory.toString()).inheritIO().start();
+
+        boolean exited = process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES);
+
+        if (!exited) {
+            process.destroyForcibly();
+        }
+
+        assertThat(exited).isTrue();
+        assertThat(process.exitValue()).isZero();
+
+        LOGGER.info(
+                "Analyzed {} files with {} and at most {} checksums and file records on the heap",
+                NUM_ARCHIVES * NUM_ENTRIES,
+                MAX_HEAP,
+                SPILL_THRESHOLD);
+    }
+}
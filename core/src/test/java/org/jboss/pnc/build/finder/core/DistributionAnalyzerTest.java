@@ -34,6 +34,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import org.apache.commons.collections4.MultiValuedMap;
@@ -60,7 +63,7 @@ class DistributionAnalyzerTest {
         BuildConfig config = new BuildConfig();
         config.setArchiveExtensions(Collections.emptyList());
         DistributionAnalyzer da = new DistributionAnalyzer(af, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> map = da.checksumFiles();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map = da.checksumFiles();
         map.forEach((key, value) -> assertThat(value.asMap()).isEmpty());
     }
 
@@ -75,7 +78,7 @@ class DistributionAnalyzerTest {
             BuildConfig config = new BuildConfig();
             config.setArchiveExtensions(Collections.emptyList());
             DistributionAnalyzer da = new DistributionAnalyzer(af, config);
-            Map<ChecksumType, MultiValuedMap<String, LocalFile>> map = da.checksumFiles();
+            Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map = da.checksumFiles();
             map.forEach((key, value) -> assertThat(value.asMap().values()).hasSize(1));
         }
     }
@@ -94,7 +97,7 @@ class DistributionAnalyzerTest {
         BuildConfig config = new BuildConfig();
         config.setArchiveExtensions(Collections.emptyList());
         DistributionAnalyzer da = new DistributionAnalyzer(af, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> map = da.checksumFiles();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map = da.checksumFiles();
         map.forEach((key, value) -> assertThat(value.asMap()).hasSize(1));
     }
 
@@ -125,7 +128,7 @@ class DistributionAnalyzerTest {
         BuildConfig config = new BuildConfig();
         config.setArchiveExtensions(Collections.emptyList());
         DistributionAnalyzer da = new DistributionAnalyzer(target, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = da.checksumFiles();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.checksumFiles();
 
         assertThat(checksums.get(md5).size()).isEqualTo(25);
     }
@@ -136,11 +139,34 @@ class DistributionAnalyzerTest {
         BuildConfig config = new BuildConfig();
         config.setArchiveExtensions(Collections.emptyList());
         DistributionAnalyzer da = new DistributionAnalyzer(target, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = da.checksumFiles();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.checksumFiles();
 
         assertThat(checksums.get(md5).size()).isEqualTo(7);
     }
 
+    @Test
+    void testLoadNestedZipSpilled() throws IOException {
+        List<String> target = Collections.singletonList(TestUtils.loadFile("nested.zip").toAbsolutePath().toString());
+        BuildConfig config = new BuildConfig();
+        config.setArchiveExtensions(Collections.emptyList());
+        DistributionAnalyzer expectedDa = new DistributionAnalyzer(target, config);
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> expected = expectedDa.checksumFiles();
+        config.setChecksumSpillThreshold(4L);
+        DistributionAnalyzer da = new DistributionAnalyzer(target, config);
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.checksumFiles();
+
+        assertThat(checksums.get(md5).size()).isEqualTo(25);
+
+        for (ChecksumType checksumType : config.getChecksumTypes()) {
+            assertThat(da.getChecksums(checksumType)).hasSameSizeAs(expectedDa.getChecksums(checksumType));
+
+            for (Digest digest : expected.get(checksumType).keySet()) {
+                assertThat(checksums.get(checksumType).get(digest))
+                        .containsExactlyInAnyOrderElementsOf(expected.get(checksumType).get(digest));
+            }
+        }
+    }
+
     @StdIo
     @Test
     void testLoadManPageZip(StdOut out) throws IOException {
@@ -148,7 +174,7 @@ class DistributionAnalyzerTest {
         BuildConfig config = new BuildConfig();
         config.setArchiveExtensions(Collections.emptyList());
         DistributionAnalyzer da = new DistributionAnalyzer(target, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = da.checksumFiles();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.checksumFiles();
 
         assertThat(checksums.get(md5).size()).isEqualTo(4);
         // FIXME: No longer works with logback 1.4.x
@@ -161,11 +187,36 @@ class DistributionAnalyzerTest {
         BuildConfig config = new BuildConfig();
         config.setArchiveExtensions(Collections.emptyList());
         DistributionAnalyzer da = new DistributionAnalyzer(target, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = da.call();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.call();
 
         assertThat(checksums.get(md5).size()).isEqualTo(25);
     }
 
+    @Test
+    void testAnalyzeTaskBoundedQueue() throws Exception {
+        List<String> target = Collections.singletonList(TestUtils.loadFile("nested.zip").toAbsolutePath().toString());
+        BuildConfig config = new BuildConfig();
+        config.setArchiveExtensions(Collections.emptyList());
+        DistributionAnalyzer da = new DistributionAnalyzer(target, config);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> future = pool.submit(da.analyzeTask(2));
+            List<Checksum> taken = new ArrayList<>();
+            Checksum checksum;
+
+            while ((checksum = da.getQueue().take()).getDigest() != null) {
+                taken.add(checksum);
+            }
+
+            assertThat(future.get().get(md5).size()).isEqualTo(25);
+            assertThat(taken).hasSize(25).allMatch(c -> c.getType() == md5);
+            assertThat(da.getQueue()).isEmpty();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     @Test
     void testLoadNestedZipMultiThreadedMultipleChecksumTypes() throws IOException {
         List<String> target = Collections.singletonList(TestUtils.loadFile("nested.zip").toAbsolutePath().toString());
@@ -176,7 +227,7 @@ class DistributionAnalyzerTest {
         assertThat(config.getChecksumTypes()).hasSize(3);
 
         DistributionAnalyzer da = new DistributionAnalyzer(target, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = da.call();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.call();
 
         assertThat(checksums.keySet()).hasSameSizeAs(config.getChecksumTypes());
         assertThat(config.getChecksumTypes()).containsExactlyInAnyOrder(md5, sha1, sha256);
@@ -217,7 +268,7 @@ class DistributionAnalyzerTest {
         config.setArchiveExtensions(Collections.emptyList());
         config.setDisableRecursion(true);
         DistributionAnalyzer da = new DistributionAnalyzer(target, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = da.checksumFiles();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.checksumFiles();
 
         assertThat(checksums.get(md5).size()).isEqualTo(numChecksums);
     }
@@ -233,7 +284,7 @@ class DistributionAnalyzerTest {
         config.setArchiveExtensions(Collections.emptyList());
         config.setChecksumTypes(Collections.singleton(md5));
         DistributionAnalyzer da = new DistributionAnalyzer(target, config);
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = da.call();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = da.call();
         assertThat(checksums).hasSize(1).containsKey(md5);
         Map<String, Collection<LicenseInfo>> licensesMap = da.getLicensesMap();
         assertThat(licensesMap).hasSize(1).containsKey(filename);
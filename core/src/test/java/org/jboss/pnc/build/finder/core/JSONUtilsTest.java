@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class JSONUtilsTest {
+    private static final Digest DIGEST_1 = Digest.fromHex("ac7ba0ddb5c9d4c7d6a6ad3d4a3e4bee");
+
+    private static final Digest DIGEST_2 = Digest.fromHex("d41d8cd98f00b204e9800998ecf8427e");
+
+    private static final Map<Digest, Collection<LocalFile>> CHECKSUMS = Map.of(
+            DIGEST_1,
+            List.of(new LocalFile("a.zip!/a.jar", 1024L), new LocalFile("b.zip!/a.jar", 1024L)),
+            DIGEST_2,
+            List.of(new LocalFile("empty.txt", 0L)));
+
+    @ParameterizedTest
+    @EnumSource(JsonCompression.class)
+    void testWriteAndReadMap(JsonCompression compression, @TempDir Path folder) throws IOException {
+        Path path = folder.resolve("checksums-md5.json" + compression.getExtension());
+
+        JSONUtils.writeMap(CHECKSUMS, path, true, compression);
+
+        MultiValuedMap<Digest, LocalFile> checksums = new DigestMultiValuedMap<>();
+        JSONUtils.loadChecksumsFile(path, checksums::putAll);
+
+        assertThat(checksums.asMap()).containsOnlyKeys(DIGEST_1, DIGEST_2);
+        assertThat(checksums.get(DIGEST_1)).containsExactlyInAnyOrderElementsOf(CHECKSUMS.get(DIGEST_1));
+        assertThat(checksums.get(DIGEST_2)).containsExactlyInAnyOrderElementsOf(CHECKSUMS.get(DIGEST_2));
+        assertThat(JSONUtils.resolveFile(folder.resolve("checksums-md5.json"))).isEqualTo(path);
+    }
+
+    @Test
+    void testResolveNewestFile(@TempDir Path folder) throws IOException {
+        Path plain = folder.resolve("checksums-md5.json");
+        Path zstd = folder.resolve("checksums-md5.json.zst");
+
+        JSONUtils.writeMap(CHECKSUMS, plain, true, JsonCompression.none);
+        JSONUtils.writeMap(CHECKSUMS, zstd, true, JsonCompression.zstd);
+        Files.setLastModifiedTime(plain, FileTime.fromMillis(Files.getLastModifiedTime(zstd).toMillis() - 1000L));
+
+        // The plain file was left by an earlier run before switching the compression
+        assertThat(JSONUtils.resolveFile(plain)).isEqualTo(zstd);
+
+        Files.setLastModifiedTime(plain, FileTime.fromMillis(Files.getLastModifiedTime(zstd).toMillis() + 1000L));
+
+        assertThat(JSONUtils.resolveFile(plain)).isEqualTo(plain);
+    }
+
+    @Test
+    void testCompactOutput(@TempDir Path folder) throws IOException {
+        Path pretty = folder.resolve("pretty.json");
+        Path compact = folder.resolve("compact.json");
+
+        JSONUtils.writeMap(CHECKSUMS, pretty, false, JsonCompression.none);
+        JSONUtils.writeMap(CHECKSUMS, compact, true, JsonCompression.none);
+
+        assertThat(Files.readAllLines(compact)).hasSize(1);
+        assertThat(Files.size(compact)).isLessThan(Files.size(pretty));
+        assertThat(JSONUtils.loadChecksumsFile(pretty)).isEqualTo(JSONUtils.loadChecksumsFile(compact));
+    }
+
+    @Test
+    void testReadDumpedFile(@TempDir Path folder) throws IOException {
+        Path path = folder.resolve("checksums-md5.json");
+
+        JSONUtils.dumpObjectToFile(CHECKSUMS, path);
+
+        assertThat(JSONUtils.loadChecksumsFile(path)).containsOnlyKeys(DIGEST_1, DIGEST_2);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.VFS;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.jboss.pnc.build.finder.core.LicenseCache.Source;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LicenseCacheTest {
+    private static final String TEXT = "SPDX-License-Identifier: Apache-2.0";
+
+    private static final List<CachedLicense> LICENSES = List
+            .of(new CachedLicense(null, null, "LICENSE", null, "Apache-2.0"));
+
+    @TempDir
+    Path folder;
+
+    private FileObject createFile(String name, String content) throws IOException {
+        Path path = folder.resolve(name);
+        Files.writeString(path, content, UTF_8);
+        return VFS.getManager().resolveFile(path.toUri());
+    }
+
+    @Test
+    void testReuseWithinRun() throws IOException {
+        LicenseCache licenseCache = new LicenseCache(ChecksumType.sha256, null);
+        AtomicInteger count = new AtomicInteger();
+        LicenseCache.Detector detector = content -> {
+            count.incrementAndGet();
+            assertThat(new String(content, UTF_8)).isEqualTo(TEXT);
+            return LICENSES;
+        };
+
+        try (FileObject fo1 = createFile("LICENSE1", TEXT); FileObject fo2 = createFile("LICENSE2", TEXT)) {
+            assertThat(licenseCache.get(Source.text, fo1, detector)).isEqualTo(LICENSES);
+            assertThat(licenseCache.get(Source.text, fo2, detector)).isEqualTo(LICENSES);
+            assertThat(count).hasValue(1);
+            assertThat(licenseCache.getDetected()).isEqualTo(1L);
+            assertThat(licenseCache.getReused()).isEqualTo(1L);
+
+            assertThat(licenseCache.get(Source.manifest, fo1, detector)).isEqualTo(LICENSES);
+            assertThat(count).hasValue(2);
+        }
+    }
+
+    @Test
+    void testFailureIsNotCached() throws IOException {
+        LicenseCache licenseCache = new LicenseCache(ChecksumType.md5, null);
+        AtomicInteger count = new AtomicInteger();
+        LicenseCache.Detector detector = content -> {
+            count.incrementAndGet();
+            throw new IOException("Invalid file");
+        };
+
+        try (FileObject fo = createFile("pom.xml", "<project>")) {
+            assertThatThrownBy(() -> licenseCache.get(Source.pom, fo, detector)).isInstanceOf(IOException.class)
+                    .hasMessage("Invalid file");
+            assertThatThrownBy(() -> licenseCache.get(Source.pom, fo, detector)).isInstanceOf(IOException.class);
+            assertThat(count).hasValue(2);
+        }
+    }
+
+    @Test
+    void testReuseAcrossRuns() throws IOException {
+        try (DefaultCacheManager cacheManager = new DefaultCacheManager()) {
+            cacheManager.defineConfiguration(LicenseCache.CACHE_NAME, new ConfigurationBuilder().build());
+            Cache<String, Object> cache = cacheManager.getCache(LicenseCache.CACHE_NAME);
+            AtomicInteger count = new AtomicInteger();
+            LicenseCache.Detector detector = content -> {
+                count.incrementAndGet();
+                return LICENSES;
+            };
+
+            try (FileObject fo = createFile("LICENSE", TEXT)) {
+                LicenseCache firstRun = new LicenseCache(ChecksumType.sha256, cache);
+                assertThat(firstRun.get(Source.text, fo, detector)).isEqualTo(LICENSES);
+                assertThat(cache).hasSize(1);
+
+                LicenseCache secondRun = new LicenseCache(ChecksumType.sha256, cache);
+                assertThat(secondRun.get(Source.text, fo, detector)).usingRecursiveFieldByFieldElementComparator()
+                        .isEqualTo(LICENSES);
+                assertThat(secondRun.getLoaded()).isEqualTo(1L);
+                assertThat(secondRun.getDetected()).isZero();
+                assertThat(count).hasValue(1);
+            }
+        }
+    }
+
+    @Test
+    void testGetCache() throws IOException {
+        assertThat(LicenseCache.getCache(null)).isNull();
+
+        try (DefaultCacheManager cacheManager = new DefaultCacheManager()) {
+            assertThat(LicenseCache.getCache(cacheManager)).isNull();
+
+            cacheManager.defineConfiguration(LicenseCache.CACHE_NAME, new ConfigurationBuilder().build());
+
+            assertThat(LicenseCache.getCache(cacheManager)).isNotNull();
+        }
+    }
+}
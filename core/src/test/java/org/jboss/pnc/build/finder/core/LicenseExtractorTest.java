@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.pnc.build.finder.core.LicenseCache.Source;
+import org.jboss.pnc.build.finder.core.LicenseExtractor.Candidate;
+import org.jboss.pnc.build.finder.core.LicenseExtractor.Job;
+import org.junit.jupiter.api.Test;
+
+class LicenseExtractorTest {
+    private static final byte[] MANIFEST = "Manifest-Version: 1.0\nBundle-License: LICENSE.txt\n\n".getBytes(UTF_8);
+
+    private static final byte[] LICENSE = "SPDX-License-Identifier: Apache-2.0\n".getBytes(UTF_8);
+
+    private static final byte[] POM = """
+            <project>
+              <groupId>org.example</groupId>
+              <artifactId>example</artifactId>
+              <version>1.0</version>
+              <licenses>
+                <license>
+                  <name>Apache License, Version 2.0</name>
+                  <url>https://www.apache.org/licenses/LICENSE-2.0.txt</url>
+                </license>
+              </licenses>
+            </project>
+            """.getBytes(UTF_8);
+
+    private final Map<String, List<LicenseInfo>> licenses = new ConcurrentHashMap<>();
+
+    private static Job jar(String key) {
+        return new Job(
+                key,
+                true,
+                List.of(
+                        new Candidate(
+                                Source.manifest,
+                                "/META-INF/MANIFEST.MF",
+                                key + "!/META-INF/MANIFEST.MF",
+                                "META-INF/MANIFEST.MF",
+                                MANIFEST),
+                        new Candidate(Source.text, "/LICENSE.txt", key + "!/LICENSE.txt", "LICENSE.txt", LICENSE)));
+    }
+
+    private LicenseExtractor createExtractor(LicenseExtractionMode mode) {
+        return new LicenseExtractor(mode, new LicenseCache(ChecksumType.sha256, null), licenses::put, 2);
+    }
+
+    @Test
+    void testAll() throws IOException {
+        LicenseExtractor extractor = createExtractor(LicenseExtractionMode.all);
+        int numJobs = 2 * LicenseExtractor.QUEUE_CAPACITY;
+
+        assertThat(extractor.isEnabled()).isTrue();
+
+        for (int i = 0; i < numJobs; i++) {
+            extractor.submit(jar("example-" + i + ".jar"));
+        }
+
+        extractor.finish();
+
+        assertThat(extractor.getProcessed()).isEqualTo(numJobs);
+        assertThat(licenses).hasSize(numJobs);
+        // The relative Bundle-License is resolved against the license file of the same jar
+        assertThat(licenses.get("example-0.jar")).extracting(LicenseInfo::getSpdxLicenseId)
+                .containsExactly("Apache-2.0", "Apache-2.0");
+        assertThat(licenses.get("example-0.jar")).extracting(LicenseInfo::getSourceUrl)
+                .containsExactly("META-INF/MANIFEST.MF", "LICENSE.txt");
+    }
+
+    @Test
+    void testBuilds() throws IOException {
+        LicenseExtractor extractor = createExtractor(LicenseExtractionMode.builds);
+
+        assertThat(extractor.isEnabled()).isTrue();
+
+        extractor.submit(jar("found.jar"));
+        extractor.submit(jar("not-found.jar"));
+        extractor.finish();
+
+        assertThat(licenses).isEmpty();
+
+        extractor.extractDeferred(Set.of("found.jar")::contains);
+
+        assertThat(licenses).containsOnlyKeys("found.jar");
+        // The contents of the kept jobs were read back from disk
+        assertThat(licenses.get("found.jar")).extracting(LicenseInfo::getSpdxLicenseId)
+                .containsExactly("Apache-2.0", "Apache-2.0");
+        assertThat(extractor.getProcessed()).isEqualTo(1L);
+        assertThat(extractor.getSkipped()).isEqualTo(1L);
+    }
+
+    @Test
+    void testSubmitAfterFinish() throws IOException {
+        LicenseExtractor extractor = createExtractor(LicenseExtractionMode.all);
+
+        extractor.submit(jar("example-0.jar"));
+        extractor.finish();
+        extractor.submit(jar("example-1.jar"));
+
+        // No workers are started after the extractor has finished, so the job was processed by the calling thread
+        assertThat(licenses).containsOnlyKeys("example-0.jar", "example-1.jar");
+        assertThat(extractor.getProcessed()).isEqualTo(2L);
+    }
+
+    @Test
+    void testPomReadOnce() throws IOException {
+        LicenseCache licenseCache = new LicenseCache(ChecksumType.sha256, null);
+        LicenseExtractor extractor = new LicenseExtractor(LicenseExtractionMode.all, licenseCache, licenses::put, 2);
+        String pomXml = "/META-INF/maven/org.example/example/pom.xml";
+
+        extractor.submit(
+                new Job(
+                        "example-1.0.pom",
+                        false,
+                        List.of(new Candidate(Source.pom, "/example-1.0.pom", "example-1.0.pom", "", POM))));
+        extractor.submit(
+                new Job(
+                        "example-1.0.jar",
+                        true,
+                        List.of(new Candidate(Source.pom, pomXml, "example-1.0.jar!" + pomXml, pomXml, POM))));
+        extractor.finish();
+
+        // The standalone POM file and the one embedded in the jar have the same contents, so it is only read once
+        assertThat(licenseCache.getDetected()).isEqualTo(1L);
+        assertThat(licenseCache.getReused()).isEqualTo(1L);
+        assertThat(licenses.get("example-1.0.pom")).extracting(LicenseInfo::getSpdxLicenseId)
+                .containsExactly("Apache-2.0");
+        assertThat(licenses.get("example-1.0.jar")).extracting(LicenseInfo::getSpdxLicenseId)
+                .containsExactly("Apache-2.0");
+    }
+
+    @Test
+    void testNone() throws IOException {
+        LicenseExtractor extractor = createExtractor(LicenseExtractionMode.none);
+
+        assertThat(extractor.isEnabled()).isFalse();
+
+        extractor.submit(jar("example.jar"));
+        extractor.finish();
+
+        assertThat(licenses).isEmpty();
+        assertThat(extractor.getProcessed()).isZero();
+    }
+}
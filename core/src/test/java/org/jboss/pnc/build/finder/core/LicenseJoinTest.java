@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.pnc.build.finder.koji.KojiBuild;
+import org.jboss.pnc.build.finder.koji.KojiLocalArchive;
+import org.junit.jupiter.api.Test;
+
+import com.redhat.red.build.koji.model.xmlrpc.KojiArchiveInfo;
+import com.redhat.red.build.koji.model.xmlrpc.KojiBuildInfo;
+
+class LicenseJoinTest {
+    private static KojiBuild createBuild(int id, String... filenames) {
+        KojiBuildInfo buildInfo = new KojiBuildInfo();
+        buildInfo.setId(id);
+        KojiBuild build = new KojiBuild(buildInfo);
+
+        for (String filename : filenames) {
+            build.getArchives()
+                    .add(new KojiLocalArchive(new KojiArchiveInfo(), List.of(filename), Collections.emptyList()));
+        }
+
+        return build;
+    }
+
+    private static LicenseInfo createLicense(String name) {
+        return LicenseInfo.of(name, new CachedLicense(null, null, name, null, name));
+    }
+
+    @Test
+    void testJoin() {
+        KojiBuild buildZero = BuildFinderUtils.createKojiBuildZero();
+        buildZero.getArchives()
+                .add(new KojiLocalArchive(new KojiArchiveInfo(), List.of("c.jar"), Collections.emptyList()));
+        KojiBuild build1 = createBuild(1, "a.jar", "a.pom");
+        KojiBuild build2 = createBuild(2, "b.jar", "a.jar");
+        KojiBuild build3 = createBuild(3, "d.jar");
+        Map<String, Collection<LicenseInfo>> licensesMap = new TreeMap<>();
+        licensesMap.put("a.jar!/", List.of(createLicense("Apache-2.0")));
+        licensesMap.put("b.jar!/", List.of(createLicense("MIT")));
+        licensesMap.put("c.jar!/", List.of(createLicense("MIT")));
+        licensesMap.put("d.jar!/", Collections.emptyList());
+        licensesMap.put("e.jar!/", List.of(createLicense("EPL-2.0")));
+        LicenseJoin licenseJoin = new LicenseJoin(List.of(buildZero, build1, build2, build3));
+
+        assertThat(licenseJoin.join(licensesMap)).extracting(LicenseInfo::getSpdxLicenseId)
+                .containsExactlyInAnyOrder("Apache-2.0", "MIT");
+        // The first archive with the file name gets the licenses
+        assertThat(build1.getArchives().get(0).getLicenses()).extracting(LicenseInfo::getSpdxLicenseId)
+                .containsExactly("Apache-2.0");
+        assertThat(build2.getArchives().get(1).getLicenses()).isEmpty();
+        assertThat(licenseJoin.getNumArchives()).isEqualTo(6);
+        assertThat(licenseJoin.getNumArchivesWithLicenses()).isEqualTo(3);
+        assertThat(licenseJoin.getNumBuildsWithLicenses()).isEqualTo(3);
+        assertThat(licenseJoin.getNumMissingArchives()).isEqualTo(1);
+        assertThat(licenseJoin.getBuildsWithoutLicenses()).containsExactly(build3);
+    }
+}
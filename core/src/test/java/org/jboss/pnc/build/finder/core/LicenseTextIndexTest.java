@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LicenseTextIndexTest {
+    private static final String TEXT_A = "Permission is hereby granted, free of charge, to any person obtaining a copy";
+
+    private static final String TEXT_B = "Redistribution and use in source and binary forms, with or without "
+            + "modification, are permitted provided that the following conditions are met";
+
+    private static final String TEXT_C = "Licensed under the Apache License, Version 2.0 (the License); you may not "
+            + "use this file except in compliance with the License";
+
+    @Test
+    void testShingles() {
+        assertThat(LicenseTextIndex.shingles("")).isEmpty();
+        assertThat(LicenseTextIndex.shingles("One two")).hasSize(1);
+        assertThat(LicenseTextIndex.shingles("one, two; three four")).hasSize(2);
+        assertThat(LicenseTextIndex.shingles("One Two Three")).isEqualTo(LicenseTextIndex.shingles("one\ntwo - three"));
+        assertThat(LicenseTextIndex.shingles("a b c a b c")).hasSize(3).isSorted();
+    }
+
+    @Test
+    void testRank() {
+        Map<String, String> texts = new LinkedHashMap<>();
+        texts.put("C", TEXT_C);
+        texts.put("A", TEXT_A);
+        texts.put("B", TEXT_B);
+        texts.put("N", null);
+        LicenseTextIndex index = new LicenseTextIndex(texts, 3);
+
+        assertThat(index.rank("Copyright 2017\n\n" + TEXT_A)).containsExactly("A", "N", "C", "B");
+        assertThat(index.rank(TEXT_B + "\n\n" + TEXT_C)).containsExactly("C", "B", "N", "A");
+        assertThat(index.rank("Nothing to see here")).containsExactly("N", "C", "A", "B");
+    }
+
+    @Test
+    void testRankTopK() {
+        Map<String, String> texts = new LinkedHashMap<>();
+        texts.put("C", TEXT_C);
+        texts.put("A", TEXT_A);
+        texts.put("B", TEXT_B);
+        LicenseTextIndex index = new LicenseTextIndex(texts, 1);
+
+        // C is ranked below B, but it is still compared before the licenses that come after it
+        assertThat(index.rank(TEXT_B + "\n\n" + TEXT_C.substring(0, TEXT_C.length() * 3 / 4)))
+                .containsExactly("B", "C", "A");
+        assertThat(index.rank(TEXT_A)).containsExactly("A", "C", "B");
+    }
+}
@@ -26,6 +26,8 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import java.util.stream.Stream;
 
@@ -46,6 +48,35 @@ class LicenseUtilsTest {
                 .isEqualTo("cc-org/publicdomain/zero/1.0");
     }
 
+    @Test
+    void testFindLicenseCandidates(@TempDir Path tempDir) throws IOException {
+        Path jarPath = tempDir.resolve("example.jar");
+
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarPath, CREATE_NEW))) {
+            for (String entry : List.of(
+                    "LICENSE",
+                    "Apache-2.0.txt",
+                    "META-INF/MANIFEST.MF",
+                    "META-INF/LICENSE.txt",
+                    "META-INF/maven/org.example/example/pom.xml",
+                    "org/example/Example.class",
+                    "org/example/LICENSE")) {
+                jar.putNextEntry(new JarEntry(entry));
+                jar.closeEntry();
+            }
+        }
+
+        FileObject fo = VFS.getManager().resolveFile("jar:" + jarPath.toUri() + "!/");
+
+        assertThat(LicenseUtils.findLicenseCandidates(fo)).extracting(file -> file.getName().getPath())
+                .containsExactlyInAnyOrder(
+                        "/LICENSE",
+                        "/Apache-2.0.txt",
+                        "/META-INF/MANIFEST.MF",
+                        "/META-INF/LICENSE.txt",
+                        "/META-INF/maven/org.example/example/pom.xml");
+    }
+
     @Test
     void testContainsWordsInSameOrder() {
         String name = "Apache License, Version 2.0";
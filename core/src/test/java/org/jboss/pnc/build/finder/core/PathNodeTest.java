@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PathNodeTest {
+    private static final List<String> PATHS = List.of(
+            "dist.zip!/lib/a.war!/WEB-INF/lib/b.jar!/META-INF/MANIFEST.MF",
+            "dist.zip!/lib/a.war!/WEB-INF/lib/b.jar",
+            "dist.zip!/lib/a.war",
+            "dist.zip!/lib/a.wa",
+            "dist.zip!/lib-x/c.jar",
+            "dist.zip!/lib",
+            "dist.zip",
+            "a/b",
+            "a-b/c",
+            "a.b",
+            "a/",
+            "/a",
+            "a//b",
+            "");
+
+    @Test
+    void testToString() {
+        for (String path : PATHS) {
+            PathNode node = PathNode.of(path);
+
+            assertThat(node).hasToString(path);
+            assertThat(node.length()).isEqualTo(path.length());
+        }
+    }
+
+    @Test
+    void testSharedParents() {
+        PathNode a = PathNode.of("dist.zip!/lib/a.war!/WEB-INF/lib/a.jar");
+        PathNode b = PathNode.of("dist.zip!/lib/a.war!/WEB-INF/lib/b.jar");
+
+        assertThat(a.getParent()).isSameAs(b.getParent()).hasToString("dist.zip!/lib/a.war!/WEB-INF/lib");
+        assertThat(a.getSegment()).isEqualTo("a.jar");
+        assertThat(a.getParent().child("b.jar")).isEqualTo(b);
+        assertThatThrownBy(() -> a.child("c/d.jar")).isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testEqualsAndCompareTo() {
+        for (String p1 : PATHS) {
+            for (String p2 : PATHS) {
+                PathNode n1 = PathNode.of(p1);
+                PathNode n2 = PathNode.of(p2);
+
+                assertThat(n1.equals(n2)).as("%s equals %s", p1, p2).isEqualTo(p1.equals(p2));
+                assertThat(Integer.signum(n1.compareTo(n2))).as("%s compared to %s", p1, p2)
+                        .isEqualTo(Integer.signum(p1.compareTo(p2)));
+
+                if (p1.equals(p2)) {
+                    assertThat(n1).hasSameHashCodeAs(n2);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSerialization() throws IOException, ClassNotFoundException {
+        PathNode node = PathNode.of("dist.zip!/lib/a.jar");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(node);
+        }
+
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            PathNode read = (PathNode) ois.readObject();
+
+            assertThat(read).isEqualTo(node);
+            assertThat(read.getParent()).isSameAs(node.getParent());
+        }
+    }
+
+    @Test
+    void testPathSet() {
+        PathSet set = new PathSet(new ArrayList<>(PATHS));
+
+        assertThat(set).hasSameSizeAs(PATHS)
+                .containsExactlyElementsOf(PATHS.stream().sorted().toList())
+                .contains("dist.zip!/lib/a.war");
+        assertThat(set.remove("dist.zip!/lib/a.war")).isTrue();
+        assertThat(set.add("dist.zip!/lib/a.war")).isTrue();
+        assertThat(set.add("dist.zip!/lib/a.war")).isFalse();
+        assertThat(set).doesNotContain("dist.zip!/lib/z.war");
+    }
+}
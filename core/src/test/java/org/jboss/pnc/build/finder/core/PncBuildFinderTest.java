@@ -82,7 +82,7 @@ class PncBuildFinderTest {
     @Test
     void testFindOneBuildInPnc() throws RemoteResourceException {
         // given
-        String md5 = "md5-checksum";
+        String md5 = "5b3c8a1f2d7e9b6c4a0f1e2d3c4b5a69";
         LocalFile filename = new LocalFile("empty.jar", -1L);
         Checksum checksum = new Checksum(ChecksumType.md5, md5, filename);
         PncClient pncClient = Mockito.mock(PncClient.class);
@@ -140,7 +140,7 @@ class PncBuildFinderTest {
     @Test
     void testNotFindABuildInPnc() throws RemoteResourceException {
         // given
-        String givenMd5 = "md5-different";
+        String givenMd5 = "9d6e2c4b1a3f5e7d8c0b2a4f6e8d0c1b";
         LocalFile filename = new LocalFile("empty.jar", -1L);
         Checksum checksum = new Checksum(ChecksumType.md5, givenMd5, filename);
 
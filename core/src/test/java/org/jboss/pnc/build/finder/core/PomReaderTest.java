@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.maven.model.License;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.interpolation.InterpolationException;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.jupiter.api.Test;
+
+class PomReaderTest {
+    private static final String POM = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <project xmlns="http://maven.apache.org/POM/4.0.0">
+              <modelVersion>4.0.0</modelVersion>
+              <!-- The parent -->
+              <parent>
+                <groupId>org.example</groupId>
+                <artifactId>example-parent</artifactId>
+                <version>1.0.0</version>
+                <relativePath>../pom.xml</relativePath>
+              </parent>
+              <artifactId>example</artifactId>
+              <name>Example ${project.artifactId}</name>
+              <properties>
+                <license.name>Apache License, Version 2.0</license.name>
+                <license.url>https://www.apache.org/licenses/LICENSE-2.0.txt</license.url>
+              </properties>
+              <licenses>
+                <license>
+                  <name>${license.name}</name>
+                  <url>
+                    ${license.url}
+                  </url>
+                  <distribution>repo</distribution>
+                </license>
+                <license>
+                  <name>MIT</name>
+                  <comments>Used for the ${project.artifactId} examples</comments>
+                </license>
+              </licenses>
+              <dependencies>
+                <dependency>
+                  <groupId>org.example</groupId>
+                  <artifactId>example-dependency</artifactId>
+                  <version>${project.version}</version>
+                </dependency>
+              </dependencies>
+              <build>
+                <plugins>
+                  <plugin>
+                    <artifactId>maven-jar-plugin</artifactId>
+                    <configuration>
+                      <archive><manifest><version>2</version></manifest></archive>
+                    </configuration>
+                  </plugin>
+                </plugins>
+              </build>
+            </project>
+            """;
+
+    private static InputStream pom() {
+        return new ByteArrayInputStream(POM.getBytes(UTF_8));
+    }
+
+    @Test
+    void testRead() throws IOException, XmlPullParserException {
+        Model expected = new MavenXpp3Reader().read(pom());
+        Model actual = PomReader.read(pom());
+
+        assertThat(actual.getGroupId()).isNull();
+        assertThat(actual.getArtifactId()).isEqualTo(expected.getArtifactId());
+        assertThat(actual.getVersion()).isNull();
+        assertThat(actual.getParent().getId()).isEqualTo(expected.getParent().getId());
+        assertThat(actual.getParent().getRelativePath()).isEqualTo(expected.getParent().getRelativePath());
+        assertThat(actual.getProperties()).isEqualTo(expected.getProperties());
+        assertThat(actual.getLicenses()).hasSameSizeAs(expected.getLicenses());
+
+        for (int i = 0; i < expected.getLicenses().size(); i++) {
+            License expectedLicense = expected.getLicenses().get(i);
+            License actualLicense = actual.getLicenses().get(i);
+
+            assertThat(actualLicense.getName()).isEqualTo(expectedLicense.getName());
+            assertThat(actualLicense.getUrl()).isEqualTo(expectedLicense.getUrl());
+            assertThat(actualLicense.getDistribution()).isEqualTo(expectedLicense.getDistribution());
+            assertThat(actualLicense.getComments()).isEqualTo(expectedLicense.getComments());
+        }
+
+        assertThat(actual.getDependencies()).isEmpty();
+        assertThat(actual.getBuild()).isNull();
+    }
+
+    @Test
+    void testGetMavenProject() throws InterpolationException, XmlPullParserException {
+        MavenProject project = MavenUtils.getMavenProject(pom());
+
+        assertThat(MavenUtils.getGAV(project)).isEqualTo("org.example:example:1.0.0");
+        assertThat(project.getLicenses()).extracting(License::getName)
+                .containsExactly("Apache License, Version 2.0", "MIT");
+        assertThat(project.getLicenses()).extracting(License::getUrl)
+                .containsExactly("https://www.apache.org/licenses/LICENSE-2.0.txt", null);
+        assertThat(project.getLicenses().get(1).getComments()).isEqualTo("Used for the example examples");
+    }
+
+    @Test
+    void testReadEntities() throws IOException, XmlPullParserException {
+        String pom = """
+                <project>
+                  <artifactId>example</artifactId>
+                  <licenses>
+                    <license>
+                      <name>Example&nbsp;License</name>
+                      <comments>Copyright &copy; 2017 Example&trade;</comments>
+                    </license>
+                  </licenses>
+                </project>
+                """;
+        Model expected = new MavenXpp3Reader().read(new ByteArrayInputStream(pom.getBytes(UTF_8)));
+        Model actual = PomReader.read(new ByteArrayInputStream(pom.getBytes(UTF_8)));
+
+        assertThat(actual.getLicenses()).hasSize(1);
+        assertThat(actual.getLicenses().get(0).getName()).isEqualTo(expected.getLicenses().get(0).getName())
+                .isEqualTo("Example\u00a0License");
+        assertThat(actual.getLicenses().get(0).getComments()).isEqualTo(expected.getLicenses().get(0).getComments())
+                .isEqualTo("Copyright \u00a9 2017 Example\u2122");
+    }
+
+    @Test
+    void testReadInvalid() {
+        assertThatThrownBy(() -> MavenUtils.getMavenProject(new ByteArrayInputStream("<settings/>".getBytes(UTF_8))))
+                .isInstanceOf(XmlPullParserException.class);
+        assertThatThrownBy(
+                () -> MavenUtils.getMavenProject(new ByteArrayInputStream("<project><licenses>".getBytes(UTF_8))))
+                .isInstanceOf(XmlPullParserException.class);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.build.finder.core.Utils.byteCountToDisplaySize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class ResultBundlePerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultBundlePerformanceIT.class);
+
+    private static final int NUM_FILES = 200_000;
+
+    private static final int FILES_PER_JAR = 100;
+
+    private static Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> createChecksums()
+            throws NoSuchAlgorithmException {
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = new EnumMap<>(ChecksumType.class);
+
+        for (ChecksumType checksumType : ChecksumType.values()) {
+            Random random = new Random(checksumType.ordinal());
+            byte[] bytes = new byte[MessageDigest.getInstance(checksumType.getAlgorithm()).getDigestLength()];
+            MultiValuedMap<Digest, LocalFile> map = new DigestMultiValuedMap<>(NUM_FILES);
+
+            for (int i = 0; i < NUM_FILES; i++) {
+                String path = "dist.zip!/lib/module-" + i / FILES_PER_JAR + ".jar!/org/example/module/Class" + i
+                        + ".class";
+                random.nextBytes(bytes);
+                map.put(Digest.of(bytes), new LocalFile(path, i));
+            }
+
+            checksums.put(checksumType, map);
+        }
+
+        return checksums;
+    }
+
+    @Test
+    void testSizeAndLoadTime(@TempDir Path folder) throws IOException, NoSuchAlgorithmException {
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = createChecksums();
+        long jsonSize = 0L;
+
+        for (Map.Entry<ChecksumType, MultiValuedMap<Digest, LocalFile>> entry : checksums.entrySet()) {
+            Path path = folder.resolve(BuildFinder.getChecksumFilename(entry.getKey()));
+            JSONUtils.writeMap(entry.getValue().asMap(), path, false, JsonCompression.none);
+            jsonSize += Files.size(path);
+        }
+
+        Path bundleFile = folder.resolve(BuildFinder.getResultBundleFilename());
+        new ResultBundle(checksums, Collections.emptyMap()).write(bundleFile);
+        long bundleSize = Files.size(bundleFile);
+
+        Instant start = Instant.now();
+
+        for (ChecksumType checksumType : checksums.keySet()) {
+            MultiValuedMap<Digest, LocalFile> map = new DigestMultiValuedMap<>();
+            JSONUtils.loadChecksumsFile(folder.resolve(BuildFinder.getChecksumFilename(checksumType)), map::putAll);
+            assertThat(map.size()).isEqualTo(NUM_FILES);
+        }
+
+        Duration jsonTime = Duration.between(start, Instant.now());
+
+        start = Instant.now();
+        ResultBundle bundle = ResultBundle.read(bundleFile);
+        Duration bundleTime = Duration.between(start, Instant.now());
+
+        assertThat(bundle.getChecksums().get(ChecksumType.sha256).size()).isEqualTo(NUM_FILES);
+
+        LOGGER.info(
+                "{} files for {} checksum types: JSON {} loaded in {}, result bundle {} loaded in {}",
+                NUM_FILES,
+                checksums.size(),
+                byteCountToDisplaySize(jsonSize),
+                jsonTime,
+                byteCountToDisplaySize(bundleSize),
+                bundleTime);
+
+        assertThat(bundleSize).isLessThan(jsonSize / 2L);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.jboss.pnc.build.finder.core.TestUtils.loadFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.jboss.pnc.build.finder.koji.KojiBuild;
+import org.jboss.pnc.build.finder.koji.KojiJSONUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResultBundleTest {
+    private static final List<String> PATHS = List.of(
+            "dist.zip!/lib/a.war!/WEB-INF/lib/b.jar!/META-INF/MANIFEST.MF",
+            "dist.zip!/lib/a.war!/WEB-INF/lib/b.jar",
+            "dist.zip!/lib/a.war",
+            "dist.zip!/lib",
+            "dist.zip",
+            "/a",
+            "a//b",
+            "");
+
+    private static Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> createChecksums() {
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = new EnumMap<>(ChecksumType.class);
+        MultiValuedMap<Digest, LocalFile> md5 = new DigestMultiValuedMap<>();
+        MultiValuedMap<Digest, LocalFile> sha1 = new DigestMultiValuedMap<>();
+
+        for (int i = 0; i < PATHS.size(); i++) {
+            md5.put(Digest.of(new byte[] { (byte) (i % 3), 1, 2, 3 }), new LocalFile(PATHS.get(i), i * 1000L));
+            sha1.put(Digest.of(new byte[] { (byte) i, 4, 5 }), new LocalFile(PATHS.get(i), i * 1000L));
+        }
+
+        md5.put(Digest.of(new byte[0]), new LocalFile((String) null, 0L));
+        checksums.put(ChecksumType.md5, md5);
+        checksums.put(ChecksumType.sha1, sha1);
+
+        return checksums;
+    }
+
+    @Test
+    void testWriteAndRead(@TempDir Path folder) throws IOException {
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = createChecksums();
+        Map<BuildSystemInteger, KojiBuild> builds = KojiJSONUtils.loadBuildsFile(loadFile("pnc-id-test/builds.json"));
+        Path path = folder.resolve(BuildFinder.getResultBundleFilename());
+
+        new ResultBundle(checksums, builds).write(path);
+
+        ResultBundle bundle = ResultBundle.read(path);
+
+        assertThat(bundle.getChecksums()).containsOnlyKeys(ChecksumType.md5, ChecksumType.sha1);
+        assertThat(bundle.getChecksums().get(ChecksumType.md5)).isEqualTo(checksums.get(ChecksumType.md5));
+        assertThat(bundle.getChecksums().get(ChecksumType.sha1)).isEqualTo(checksums.get(ChecksumType.sha1));
+        assertThat(bundle.getBuilds()).containsOnlyKeys(builds.keySet());
+        assertThat(bundle.getBuildList()).extracting(KojiBuild::getId).containsExactly("0", "AN3KE4EQQ3ABC");
+    }
+
+    @Test
+    void testInvalid(@TempDir Path folder) throws IOException {
+        Path path = folder.resolve("builds.json");
+
+        Files.writeString(path, "{ \"0, none\" : { } }");
+
+        assertThatThrownBy(() -> ResultBundle.read(path)).isInstanceOf(IOException.class)
+                .hasMessageContaining("is not a result bundle");
+    }
+
+    @Test
+    void testCorrupt(@TempDir Path folder) throws IOException {
+        Path path = folder.resolve(BuildFinder.getResultBundleFilename());
+        Map<BuildSystemInteger, KojiBuild> builds = KojiJSONUtils.loadBuildsFile(loadFile("pnc-id-test/builds.json"));
+
+        new ResultBundle(createChecksums(), builds).write(path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        Path corrupt = folder.resolve("corrupt.bin");
+
+        // Whichever byte is corrupted, the bundle is either still readable or rejected with an IOException
+        for (int i = 0; i < bytes.length; i++) {
+            for (byte value : new byte[] { (byte) 0x00, (byte) 0xFF }) {
+                byte[] copy = bytes.clone();
+                copy[i] = value;
+                Files.write(corrupt, copy);
+
+                Throwable thrown = catchThrowable(() -> ResultBundle.read(corrupt));
+
+                if (thrown != null) {
+                    assertThat(thrown).as("byte %d set to %d", i, value).isInstanceOf(IOException.class);
+                }
+            }
+        }
+    }
+}
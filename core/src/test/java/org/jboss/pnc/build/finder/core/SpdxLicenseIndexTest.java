@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jboss.pnc.build.finder.core.SpdxLicenseIndex.License;
+import org.jboss.pnc.build.finder.core.SpdxLicenseIndex.Term;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SpdxLicenseIndexTest {
+    private static SpdxLicenseIndex index;
+
+    @BeforeAll
+    static void setup() {
+        index = SpdxLicenseIndex.create(SpdxLicenseUtils.getLicenseIdsTextList());
+    }
+
+    @Test
+    void testCreate() {
+        assertThat(index.getLicenseListVersion()).isNotEmpty();
+        assertThat(index.getLicenses()).hasSameSizeAs(index.getIdTerms());
+        assertThat(index.getLicense("Apache-2.0")).isNotNull()
+                .extracting(License::getName, License::getText)
+                .doesNotContainNull();
+        assertThat(index.getLicense("GPL-2.0-only").getText()).isNull();
+        assertThat(index.getLicense("GPL-2.0-only").getIdTerm().getNameTokens())
+                .containsExactlyElementsOf(LicenseUtils.tokenizeLicenseString("GPL-2.0"));
+        assertThat(index.getLicense("Apache-2.0").getNormalizedSeeAlsos()).isNotEmpty();
+        assertThat(index.getNameTerms()).extracting(Term::getValue).contains("Apache License 2.0");
+        assertThat(index.getDeprecated()).isNotEmpty();
+        assertThat(index.getMapping()).containsKey("Apache-2.0");
+    }
+
+    @Test
+    void testWriteRead() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        SpdxLicenseIndex read = SpdxLicenseIndex.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(read.getLicenseListVersion()).isEqualTo(index.getLicenseListVersion());
+        assertThat(read.getLicenses()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(index.getLicenses());
+        assertThat(read.getNameTerms()).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(index.getNameTerms());
+        assertThat(read.getDeprecated()).containsExactlyEntriesOf(index.getDeprecated());
+        assertThat(read.getMapping()).containsExactlyEntriesOf(index.getMapping());
+    }
+
+    @Test
+    void testReadInvalid() {
+        byte[] bytes = new byte[16];
+        Arrays.fill(bytes, (byte) 1);
+
+        assertThatThrownBy(() -> SpdxLicenseIndex.read(new ByteArrayInputStream(bytes)))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testReadTruncated() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        byte[] bytes;
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            bytes = in.readAllBytes();
+        }
+
+        // Cut the index in the middle of the license list version, after the magic, the version and the length
+        ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(truncated)) {
+            gzip.write(bytes, 0, 3 * Integer.BYTES + 1);
+        }
+
+        assertThatThrownBy(() -> SpdxLicenseIndex.read(new ByteArrayInputStream(truncated.toByteArray())))
+                .isInstanceOf(EOFException.class)
+                .hasMessageContaining("license index");
+    }
+}
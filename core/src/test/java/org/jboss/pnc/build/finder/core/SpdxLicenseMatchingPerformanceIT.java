@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the indexed license matching against the exhaustive matching. The results must be identical, while the
+ * timings are only logged, since they depend on the machine and on the JIT.
+ */
+class SpdxLicenseMatchingPerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpdxLicenseMatchingPerformanceIT.class);
+
+    private static final int NUM_ROUNDS = 5;
+
+    @Test
+    void testFindMatchingLicenseText() throws IOException {
+        List<String> corpus = new ArrayList<>();
+
+        try (Stream<Path> paths = Files.list(TestUtils.loadFile("licenses"))) {
+            for (Path path : paths.sorted().toList()) {
+                corpus.add(Files.readString(path, UTF_8));
+            }
+        }
+
+        List<Optional<String>> expected = corpus.stream()
+                .map(SpdxLicenseUtils::findMatchingLicenseTextWithoutIndex)
+                .toList();
+        List<Optional<String>> actual = corpus.stream().map(SpdxLicenseUtils::findMatchingLicenseText).toList();
+
+        assertThat(actual).isEqualTo(expected);
+
+        long withoutIndex = time(corpus, SpdxLicenseUtils::findMatchingLicenseTextWithoutIndex);
+        long withIndex = time(corpus, SpdxLicenseUtils::findMatchingLicenseText);
+
+        LOGGER.info(
+                "Matched {} of {} license files: without index {} ms, with index {} ms",
+                actual.stream().filter(Optional::isPresent).count(),
+                corpus.size(),
+                withoutIndex / 1_000_000L,
+                withIndex / 1_000_000L);
+    }
+
+    @Test
+    void testFindMatchingLicenseName() {
+        List<String> corpus = SpdxLicenseUtils.getIndex()
+                .getLicenses()
+                .stream()
+                .map(SpdxLicenseIndex.License::getName)
+                .map(name -> "The " + name + ", or any later version")
+                .toList();
+        List<Optional<String>> expected = corpus.stream()
+                .map(name -> SpdxLicenseUtils.findMatchingLicenseNameWithoutIndex(name, null))
+                .toList();
+        List<Optional<String>> actual = corpus.stream()
+                .map(name -> SpdxLicenseUtils.findMatchingLicenseName(name, null))
+                .toList();
+
+        assertThat(actual).isEqualTo(expected);
+
+        long withoutIndex = time(corpus, name -> SpdxLicenseUtils.findMatchingLicenseNameWithoutIndex(name, null));
+        long withIndex = time(corpus, name -> SpdxLicenseUtils.findMatchingLicenseName(name, null));
+
+        LOGGER.info(
+                "Matched {} of {} license names: without index {} ms, with index {} ms",
+                actual.stream().filter(Optional::isPresent).count(),
+                corpus.size(),
+                withoutIndex / 1_000_000L,
+                withIndex / 1_000_000L);
+    }
+
+    /**
+     * Times the given matcher over the corpus. Both matchers have already run over the whole corpus, so that neither
+     * one pays for loading the license templates or for the warm-up of the other.
+     */
+    private static long time(List<String> corpus, Function<String, Optional<String>> matcher) {
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            long start = System.nanoTime();
+
+            for (String text : corpus) {
+                matcher.apply(text);
+            }
+
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+}
@@ -25,12 +25,16 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.VFS;
+import org.jboss.pnc.build.finder.core.SpdxLicenseIndex.License;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -279,4 +283,63 @@ class SpdxLicenseUtilsTest {
     void testGetSPDXLicenseName() {
         assertThat(SpdxLicenseUtils.getSPDXLicenseName("Apache-2.0")).isEqualTo("Apache License 2.0");
     }
+
+    @Test
+    void testFindMatchingLicenseTextWithIndex() {
+        for (String id : SpdxLicenseUtils.getLicenseIdsTextList()) {
+            String text = SpdxLicenseUtils.getLicenseText(id).orElseThrow();
+            String variant = "Copyright (c) 2017 Red Hat, Inc.\n\n" + text.replace("\n", "\n\n");
+
+            assertThat(SpdxLicenseUtils.findMatchingLicenseText(text)).hasValue(id)
+                    .isEqualTo(SpdxLicenseUtils.findMatchingLicenseTextWithoutIndex(text));
+            assertThat(SpdxLicenseUtils.findMatchingLicenseText(variant))
+                    .isEqualTo(SpdxLicenseUtils.findMatchingLicenseTextWithoutIndex(variant));
+        }
+
+        String text = "This is not a license";
+
+        assertThat(SpdxLicenseUtils.findMatchingLicenseText(text)).isEmpty()
+                .isEqualTo(SpdxLicenseUtils.findMatchingLicenseTextWithoutIndex(text));
+    }
+
+    @Test
+    void testFindMatchingLicenseTextWithIndexInFixtures() throws IOException {
+        try (Stream<Path> paths = Files.list(TestUtils.loadFile("licenses"))) {
+            for (Path path : paths.sorted().toList()) {
+                String text = Files.readString(path, UTF_8);
+
+                assertThat(SpdxLicenseUtils.findMatchingLicenseText(text)).as(path.getFileName().toString())
+                        .isEqualTo(SpdxLicenseUtils.findMatchingLicenseTextWithoutIndex(text));
+            }
+        }
+    }
+
+    @Test
+    void testFindMatchingLicenseNameWithIndex() {
+        SpdxLicenseIndex index = SpdxLicenseUtils.getIndex();
+        List<String> names = new ArrayList<>();
+
+        for (License license : index.getLicenses()) {
+            names.add(license.getId());
+            names.add(license.getName());
+            names.addAll(license.getSeeAlsos());
+        }
+
+        index.getMapping().values().forEach(names::addAll);
+        names.add("This is not a license");
+        names.add("");
+        names.add(null);
+
+        for (String name : names) {
+            String variant = name != null ? "The " + name.toUpperCase(Locale.ROOT) + " only, or any later version"
+                    : null;
+
+            assertThat(SpdxLicenseUtils.findMatchingLicenseName(name, null)).as(name)
+                    .isEqualTo(SpdxLicenseUtils.findMatchingLicenseNameWithoutIndex(name, null));
+            assertThat(SpdxLicenseUtils.findMatchingLicenseName(null, name)).as(name)
+                    .isEqualTo(SpdxLicenseUtils.findMatchingLicenseNameWithoutIndex(null, name));
+            assertThat(SpdxLicenseUtils.findMatchingLicenseName(variant, name)).as(variant)
+                    .isEqualTo(SpdxLicenseUtils.findMatchingLicenseNameWithoutIndex(variant, name));
+        }
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checksums a synthetic input in a JVM whose heap is much smaller than the input would need on the heap.
+ */
+class SpillingChecksumMapPerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillingChecksumMapPerformanceIT.class);
+
+    private static final String MAX_HEAP = "-Xmx64m";
+
+    private static final int NUM_ENTRIES = 2_000_000;
+
+    private static final long MAX_HEAP_ENTRIES = 100_000L;
+
+    private static final int CHECK_EVERY = 1_000;
+
+    private static final long TIMEOUT_MINUTES = 10L;
+
+    private static Digest nextDigest(Random random) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Digest.of(bytes);
+    }
+
+    private static String filename(int i) {
+        return "repository.zip!/org/example/artifact-" + i + "/1.0/artifact-" + i + "-1.0.jar";
+    }
+
+    /**
+     * Runs in the JVM with the capped heap.
+     *
+     * @param args the arguments (unused)
+     */
+    public static void main(String[] args) {
+        try (SpillingChecksumMap map = new SpillingChecksumMap(MAX_HEAP_ENTRIES)) {
+            Random random = new Random(0L);
+
+            for (int i = 0; i < NUM_ENTRIES; i++) {
+                map.put(nextDigest(random), new LocalFile(filename(i), i));
+            }
+
+            random = new Random(0L);
+
+            for (int i = 0; i < NUM_ENTRIES; i++) {
+                Digest key = nextDigest(random);
+
+                if (i % CHECK_EVERY == 0 && !map.get(key).contains(new LocalFile(filename(i), i))) {
+                    throw new IllegalStateException("Missing checksum " + key);
+                }
+            }
+
+            Digest previous = null;
+            int count = 0;
+
+            for (Entry<Digest, Collection<LocalFile>> entry : map.asMap().entrySet()) {
+                if (previous != null && previous.compareTo(entry.getKey()) >= 0) {
+                    throw new IllegalStateException("Unsorted checksum " + entry.getKey());
+                }
+
+                previous = entry.getKey();
+                count += entry.getValue().size();
+            }
+
+            if (count != NUM_ENTRIES) {
+                throw new IllegalStateException("Expected " + NUM_ENTRIES + " checksums, got " + count);
+            }
+        }
+    }
+
+    @Test
+    void testCappedHeap() throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(
+                java,
+                MAX_HEAP,
+                "-cp",
+                System.getProperty("java.class.path"),
+                SpillingChecksumMapPerformanceIT.class.getName()).inheritIO().start();
+
+        boolean exited = process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES);
+
+        if (!exited) {
+            process.destroyForcibly();
+        }
+
+        assertThat(exited).isTrue();
+        assertThat(process.exitValue()).isZero();
+
+        LOGGER.info(
+                "Checksummed {} files with {} and at most {} checksums on the heap",
+                NUM_ENTRIES,
+                MAX_HEAP,
+                MAX_HEAP_ENTRIES);
+    }
+}
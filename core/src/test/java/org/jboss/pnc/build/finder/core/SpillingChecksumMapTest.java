@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
+import org.junit.jupiter.api.Test;
+
+class SpillingChecksumMapTest {
+    private static final int MAX_HEAP_ENTRIES = 100;
+
+    private static final int NUM_ENTRIES = 10_000;
+
+    private static final int NUM_KEYS = 3_000;
+
+    @Test
+    void testSpill() {
+        Random random = new Random(0L);
+        List<Digest> keys = new ArrayList<>(NUM_KEYS);
+
+        for (int i = 0; i < NUM_KEYS; i++) {
+            byte[] bytes = new byte[16];
+            random.nextBytes(bytes);
+            keys.add(Digest.of(bytes));
+        }
+
+        MultiValuedMap<Digest, LocalFile> expected = new HashSetValuedHashMap<>();
+
+        try (SpillingChecksumMap map = new SpillingChecksumMap(MAX_HEAP_ENTRIES)) {
+            for (int i = 0; i < NUM_ENTRIES; i++) {
+                Digest key = keys.get(random.nextInt(NUM_KEYS));
+                LocalFile file = new LocalFile(i % 100 == 0 ? null : "dist.zip!/lib/" + i + ".jar", i);
+                map.put(key, file);
+                expected.put(key, file);
+
+                assertThat(map.getHeapSize()).isLessThan(MAX_HEAP_ENTRIES);
+            }
+
+            assertThat(map.getRunCount()).isEqualTo(NUM_ENTRIES / MAX_HEAP_ENTRIES);
+            assertThat(map.size()).isEqualTo(NUM_ENTRIES);
+
+            for (Digest key : keys) {
+                assertThat(map.get(key)).containsExactlyInAnyOrderElementsOf(expected.get(key));
+            }
+
+            List<Digest> iteratedKeys = new ArrayList<>();
+
+            for (Entry<Digest, Collection<LocalFile>> entry : map.asMap().entrySet()) {
+                iteratedKeys.add(entry.getKey());
+                assertThat(entry.getValue()).containsExactlyInAnyOrderElementsOf(expected.get(entry.getKey()));
+            }
+
+            assertThat(iteratedKeys).isSorted().containsExactlyInAnyOrderElementsOf(expected.keySet());
+            assertThat(map.entries()).hasSize(NUM_ENTRIES);
+        }
+    }
+
+    @Test
+    void testPutAgainAfterSpill() {
+        try (SpillingChecksumMap map = new SpillingChecksumMap(2L)) {
+            Digest key = Digest.fromHex("d41d8cd98f00b204e9800998ecf8427e");
+            LocalFile a = new LocalFile("a.txt", 0L);
+            LocalFile b = new LocalFile("b.txt", 0L);
+            map.put(key, a);
+            map.put(key, b);
+
+            assertThat(map.getRunCount()).isOne();
+
+            map.put(key, a);
+
+            assertThat(map.size()).isEqualTo(2);
+            assertThat(map.entries()).hasSize(2);
+            assertThat(map.get(key)).containsExactly(a, b);
+
+            map.put(key, b);
+
+            assertThat(map.getRunCount()).isEqualTo(2);
+            assertThat(map.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testClear() {
+        try (SpillingChecksumMap map = new SpillingChecksumMap(1L)) {
+            Digest key = Digest.fromHex("d41d8cd98f00b204e9800998ecf8427e");
+            map.put(key, new LocalFile("a.txt", 0L));
+
+            assertThat(map.getRunCount()).isOne();
+            assertThat(map.containsKey(key)).isTrue();
+            assertThatThrownBy(() -> map.remove(key)).isInstanceOf(UnsupportedOperationException.class);
+
+            map.clear();
+
+            assertThat(map.isEmpty()).isTrue();
+            assertThat(map.getRunCount()).isZero();
+            assertThat(map.containsKey(key)).isFalse();
+        }
+    }
+}
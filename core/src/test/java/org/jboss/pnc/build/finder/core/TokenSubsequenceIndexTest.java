@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TokenSubsequenceIndexTest {
+    private static String[] tokens(String s) {
+        return s.isEmpty() ? new String[0] : s.split(" ");
+    }
+
+    private static TokenSubsequenceIndex index(String... patterns) {
+        return new TokenSubsequenceIndex(List.of(patterns).stream().map(TokenSubsequenceIndexTest::tokens).toList());
+    }
+
+    @Test
+    void testFindFirst() {
+        TokenSubsequenceIndex index = index("gpl 3 0 or later", "gpl 3 0", "gpl 2 0", "lgpl 2 1");
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.findFirst(tokens("gnu gpl version 3 0 or any later version"))).isZero();
+        assertThat(index.findFirst(tokens("gpl 3 0"))).isEqualTo(1);
+        assertThat(index.findFirst(tokens("lgpl 2 1 or gpl 2 0"))).isEqualTo(2);
+        assertThat(index.findFirst(tokens("lgpl 2 1"))).isEqualTo(3);
+        assertThat(index.findFirst(tokens("0 3 gpl"))).isEqualTo(-1);
+        assertThat(index.findFirst(tokens(""))).isEqualTo(-1);
+        assertThat(index.findFirst(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void testFindFirstRepeatedTokens() {
+        TokenSubsequenceIndex index = index("a a b", "a b b");
+
+        assertThat(index.findFirst(tokens("a b a b"))).isZero();
+        assertThat(index.findFirst(tokens("a b b"))).isEqualTo(1);
+        assertThat(index.findFirst(tokens("a a b"))).isZero();
+        assertThat(index.findFirst(tokens("b a a"))).isEqualTo(-1);
+    }
+
+    @Test
+    void testFindFirstEmptyPattern() {
+        TokenSubsequenceIndex index = index("a b", "", "c");
+
+        assertThat(index.findFirst(tokens("a b"))).isZero();
+        assertThat(index.findFirst(tokens("c"))).isEqualTo(1);
+        assertThat(index.findFirst(tokens(""))).isEqualTo(1);
+        assertThat(index.findFirst(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void testFindFirstSameAsContainsWordsInSameOrder() {
+        List<String[]> patterns = List.of(tokens("a b c"), tokens("b a"), tokens("c c"), tokens("a"), tokens("b"));
+        TokenSubsequenceIndex index = new TokenSubsequenceIndex(patterns);
+        List<String> inputs = List.of("a b c", "c b a", "c a c", "b", "a", "", "d c c", "b b a");
+
+        for (String input : inputs) {
+            String[] candidates = tokens(input);
+            int expected = -1;
+
+            for (int i = 0; i < patterns.size(); i++) {
+                if (LicenseUtils.containsWordsInSameOrder(candidates, patterns.get(i))) {
+                    expected = i;
+                    break;
+                }
+            }
+
+            assertThat(index.findFirst(candidates)).as(input).isEqualTo(expected);
+        }
+    }
+}
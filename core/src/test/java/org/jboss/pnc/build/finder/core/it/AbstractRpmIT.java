@@ -34,6 +34,7 @@ import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.Checksum;
 import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.LocalFile;
 import org.jboss.pnc.build.finder.core.Utils;
@@ -70,7 +71,7 @@ public abstract class AbstractRpmIT extends AbstractKojiIT {
 
         try {
             DistributionAnalyzer analyzer;
-            Future<Map<ChecksumType, MultiValuedMap<String, LocalFile>>> futureChecksum;
+            Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum;
 
             try (Context ignored = timer.time()) {
                 analyzer = new DistributionAnalyzer(getFiles(), getConfig());
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.build.finder.core.Utils.byteCountToDisplaySize;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
+import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
+import org.jboss.pnc.build.finder.core.LocalFile;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class DigestMemoryPerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DigestMemoryPerformanceIT.class);
+
+    private static final int NUM_FILES = 300_000;
+
+    private static final LocalFile LOCAL_FILE = new LocalFile("dist.zip!/lib/artifact.jar", 1024L);
+
+    private static <K> Map<ChecksumType, MultiValuedMap<K, LocalFile>> createMaps(Function<Digest, K> key) {
+        Map<ChecksumType, MultiValuedMap<K, LocalFile>> maps = new EnumMap<>(ChecksumType.class);
+
+        for (ChecksumType checksumType : ChecksumType.values()) {
+            Random random = new Random(checksumType.ordinal());
+            byte[] bytes;
+
+            try {
+                bytes = new byte[MessageDigest.getInstance(checksumType.getAlgorithm()).getDigestLength()];
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+
+            MultiValuedMap<K, LocalFile> map = new HashSetValuedHashMap<>(NUM_FILES);
+
+            for (int i = 0; i < NUM_FILES; i++) {
+                random.nextBytes(bytes);
+                map.put(key.apply(Digest.of(bytes)), LOCAL_FILE);
+            }
+
+            maps.put(checksumType, map);
+        }
+
+        return maps;
+    }
+
+    static final class HexKeys implements HeapMeasurement.Fixture {
+        @Override
+        public Object create(Object prepared) {
+            return createMaps(Digest::toHex);
+        }
+    }
+
+    static final class DigestKeys implements HeapMeasurement.Fixture {
+        @Override
+        public Object create(Object prepared) {
+            return createMaps(Function.identity());
+        }
+    }
+
+    @Test
+    void testHeapUsage() throws IOException, InterruptedException {
+        long hexHeap = HeapMeasurement.measure(HexKeys.class);
+        long digestHeap = HeapMeasurement.measure(DigestKeys.class);
+
+        LOGGER.info(
+                "Heap used by {} files for {} checksum types: hex string keys {}, digest keys {}",
+                NUM_FILES,
+                ChecksumType.values().length,
+                byteCountToDisplaySize(hexHeap),
+                byteCountToDisplaySize(digestHeap));
+
+        assertThat(digestHeap).isLessThan(hexHeap);
+    }
+}
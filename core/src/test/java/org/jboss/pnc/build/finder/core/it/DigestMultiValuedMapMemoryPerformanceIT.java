@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.build.finder.core.Utils.byteCountToDisplaySize;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
+import org.jboss.pnc.build.finder.core.Digest;
+import org.jboss.pnc.build.finder.core.DigestMultiValuedMap;
+import org.jboss.pnc.build.finder.core.LocalFile;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class DigestMultiValuedMapMemoryPerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DigestMultiValuedMapMemoryPerformanceIT.class);
+
+    private static final int NUM_ENTRIES = 300_000;
+
+    private static final int ENTRIES_PER_REPORT = 100_000;
+
+    // Every tenth file has the same content as the previous one
+    private static final int DUPLICATE_EVERY = 10;
+
+    private static final LocalFile LOCAL_FILE = new LocalFile("dist.zip!/lib/artifact.jar", 1024L);
+
+    private static final LocalFile DUPLICATE_LOCAL_FILE = new LocalFile("dist.zip!/lib/artifact-copy.jar", 1024L);
+
+    private static List<Digest> createKeys() {
+        Random random = new Random(0L);
+        List<Digest> keys = new ArrayList<>(NUM_ENTRIES);
+        byte[] bytes = new byte[32];
+
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            random.nextBytes(bytes);
+            keys.add(Digest.of(bytes));
+        }
+
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MultiValuedMap<Digest, LocalFile> fill(Object prepared, MultiValuedMap<Digest, LocalFile> map) {
+        List<Digest> keys = (List<Digest>) prepared;
+
+        for (int i = 0; i < keys.size(); i++) {
+            if (i % DUPLICATE_EVERY == 0 && i > 0) {
+                map.put(keys.get(i - 1), DUPLICATE_LOCAL_FILE);
+            } else {
+                map.put(keys.get(i), LOCAL_FILE);
+            }
+        }
+
+        return map;
+    }
+
+    // The keys and values are shared by both maps, so that only the maps themselves are measured
+    abstract static class MapFixture implements HeapMeasurement.Fixture {
+        @Override
+        public Object prepare() {
+            return createKeys();
+        }
+    }
+
+    static final class HashSetMap extends MapFixture {
+        @Override
+        public Object create(Object prepared) {
+            return fill(prepared, new HashSetValuedHashMap<>());
+        }
+    }
+
+    static final class DigestMap extends MapFixture {
+        @Override
+        public Object create(Object prepared) {
+            return fill(prepared, new DigestMultiValuedMap<>());
+        }
+    }
+
+    private static long measureHeap(Class<? extends MapFixture> fixture) throws IOException, InterruptedException {
+        return HeapMeasurement.measure(fixture) * ENTRIES_PER_REPORT / NUM_ENTRIES;
+    }
+
+    @Test
+    void testHeapUsage() throws IOException, InterruptedException {
+        long hashSetHeap = measureHeap(HashSetMap.class);
+        long digestHeap = measureHeap(DigestMap.class);
+
+        LOGGER.info(
+                "Heap used per {} entries: HashSetValuedHashMap {}, DigestMultiValuedMap {}",
+                ENTRIES_PER_REPORT,
+                byteCountToDisplaySize(hashSetHeap),
+                byteCountToDisplaySize(digestHeap));
+
+        assertThat(digestHeap).isLessThan(hashSetHeap);
+    }
+}
@@ -36,6 +36,7 @@ import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.Checksum;
 import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.FileError;
 import org.jboss.pnc.build.finder.core.LocalFile;
@@ -59,7 +60,7 @@ class FileErrorIT extends AbstractKojiIT {
 
         try {
             DistributionAnalyzer analyzer;
-            Future<Map<ChecksumType, MultiValuedMap<String, LocalFile>>> futureChecksum;
+            Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum;
 
             try (Context ignored = timer.time()) {
                 analyzer = new DistributionAnalyzer(Collections.singletonList(URL), getConfig());
@@ -73,7 +74,7 @@ class FileErrorIT extends AbstractKojiIT {
                 BuildFinder finder = new BuildFinder(session, getConfig(), analyzer, null, getPncClient());
                 finder.setOutputDirectory(folder);
                 Future<Map<BuildSystemInteger, KojiBuild>> futureBuilds = pool.submit(finder);
-                Map<ChecksumType, MultiValuedMap<String, LocalFile>> map = futureChecksum.get();
+                Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map = futureChecksum.get();
                 Map<BuildSystemInteger, KojiBuild> builds = futureBuilds.get();
                 Collection<FileError> fileErrors = analyzer.getFileErrors();
                 Map<String, Collection<Checksum>> files = analyzer.getFiles();
@@ -95,18 +96,18 @@ class FileErrorIT extends AbstractKojiIT {
                                         .containsOnly("jboss-jaxb-intros-1.0.2.GA-sources.jar"));
                 assertThat(analyzer.getChecksums(ChecksumType.md5)).hasSize(1)
                         .hasEntrySatisfying(
-                                "ac2a6ab1fbf6afba37789e2e88a916a6",
+                                Digest.fromHex("ac2a6ab1fbf6afba37789e2e88a916a6"),
                                 cksums -> assertThat(cksums).extracting("filename", "size")
                                         .containsExactly(tuple("jboss-jaxb-intros-1.0.2.GA-sources.jar", 29537L)));
                 assertThat(analyzer.getChecksums(ChecksumType.sha1)).hasSize(1)
                         .hasEntrySatisfying(
-                                "ab2f490dd83035bee3a719d2118cbab90508082f",
+                                Digest.fromHex("ab2f490dd83035bee3a719d2118cbab90508082f"),
                                 cksums -> assertThat(cksums).singleElement()
                                         .extracting("filename", "size")
                                         .containsExactly("jboss-jaxb-intros-1.0.2.GA-sources.jar", 29537L));
                 assertThat(analyzer.getChecksums(sha256)).hasSize(1)
                         .hasEntrySatisfying(
-                                "987dd27e51ba77cb067dbec1baa5169eb184313688640e3951e3cb34d9a85c48",
+                                Digest.fromHex("987dd27e51ba77cb067dbec1baa5169eb184313688640e3951e3cb34d9a85c48"),
                                 cksums -> assertThat(cksums).singleElement()
                                         .extracting("filename", "size")
                                         .containsExactly("jboss-jaxb-intros-1.0.2.GA-sources.jar", 29537L));
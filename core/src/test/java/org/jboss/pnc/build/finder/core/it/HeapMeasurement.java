@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core.it;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by a data structure. Each measurement runs in a new JVM with a fixed heap and the serial
+ * collector, whose full collections leave only the live objects, so that the result depends neither on the other tests
+ * nor on the collector of the test JVM.
+ */
+final class HeapMeasurement {
+    private static final String MAX_HEAP = "-Xmx2g";
+
+    private static final String RESULT_PREFIX = "retained-heap=";
+
+    private static final long TIMEOUT_MINUTES = 10L;
+
+    /**
+     * Creates the data structure to measure. Implementations must have a constructor without arguments.
+     */
+    interface Fixture {
+        /**
+         * Creates the objects which the data structure refers to but which are not part of it, and so are not measured.
+         *
+         * @return the shared objects, or null
+         */
+        default Object prepare() {
+            return null;
+        }
+
+        /**
+         * Creates the data structure.
+         *
+         * @param prepared the objects returned by {@link #prepare()}
+         * @return the data structure
+         */
+        Object create(Object prepared);
+    }
+
+    private HeapMeasurement() {
+        throw new IllegalArgumentException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Measures the heap retained by the data structure created by the given fixture.
+     *
+     * @param fixture the fixture class
+     * @return the retained heap in bytes
+     * @throws IOException if the measurement fails
+     * @throws InterruptedException if interrupted while waiting for the measurement
+     */
+    static long measure(Class<? extends Fixture> fixture) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(
+                java,
+                MAX_HEAP,
+                "-XX:+UseSerialGC",
+                "-cp",
+                System.getProperty("java.class.path"),
+                HeapMeasurement.class.getName(),
+                fixture.getName()).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Long retained = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    retained = Long.parseLong(line.substring(RESULT_PREFIX.length()));
+                }
+            }
+        }
+
+        if (!process.waitFor(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            throw new IOException("Timed out measuring " + fixture.getName());
+        }
+
+        if (process.exitValue() != 0 || retained == null) {
+            throw new IOException(
+                    "Failed measuring " + fixture.getName() + " with exit value " + process.exitValue());
+        }
+
+        return retained;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        // Collect twice, so that the objects only released by reference processing in the first collection are freed
+        memory.gc();
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Runs in the measuring JVM.
+     *
+     * @param args the fixture class name
+     * @throws ReflectiveOperationException if the fixture cannot be created
+     */
+    public static void main(String[] args) throws ReflectiveOperationException {
+        Fixture fixture = Class.forName(args[0]).asSubclass(Fixture.class).getDeclaredConstructor().newInstance();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Object prepared = fixture.prepare();
+        long before = usedHeapAfterGc(memory);
+        Object created = fixture.create(prepared);
+        long after = usedHeapAfterGc(memory);
+
+        Reference.reachabilityFence(prepared);
+        Reference.reachabilityFence(created);
+
+        System.out.println(RESULT_PREFIX + (after - before));
+    }
+}
@@ -31,6 +31,7 @@ import org.commonjava.o11yphant.metrics.api.Timer.Context;
 import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.LocalFile;
 import org.jboss.pnc.build.finder.core.Utils;
@@ -60,7 +61,7 @@ class KojiBuildFinderIT extends AbstractKojiIT {
         try {
             DistributionAnalyzer analyzer;
 
-            Future<Map<ChecksumType, MultiValuedMap<String, LocalFile>>> futureChecksum;
+            Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum;
 
             try (Context ignored = timer.time()) {
                 analyzer = new DistributionAnalyzer(Collections.singletonList(URL), getConfig());
@@ -75,7 +76,7 @@ class KojiBuildFinderIT extends AbstractKojiIT {
                 finder.setOutputDirectory(folder);
                 Future<Map<BuildSystemInteger, KojiBuild>> futureBuilds = pool.submit(finder);
                 Map<BuildSystemInteger, KojiBuild> builds = futureBuilds.get();
-                Map<ChecksumType, MultiValuedMap<String, LocalFile>> map = futureChecksum.get();
+                Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map = futureChecksum.get();
 
                 assertThat(getConfig().getChecksumTypes()).hasSizeGreaterThanOrEqualTo(1);
                 assertThat(map).hasSize(getConfig().getChecksumTypes().size());
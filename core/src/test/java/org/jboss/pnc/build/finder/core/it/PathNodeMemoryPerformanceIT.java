@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.core.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.build.finder.core.Utils.byteCountToDisplaySize;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.jboss.pnc.build.finder.core.PathNode;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class PathNodeMemoryPerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PathNodeMemoryPerformanceIT.class);
+
+    private static final int NUM_FILES = 300_000;
+
+    private static <T> List<T> createPaths(Function<String, T> path) {
+        List<T> paths = new ArrayList<>(NUM_FILES);
+
+        for (int i = 0; i < NUM_FILES; i++) {
+            paths.add(
+                    path.apply(
+                            String.format(
+                                    "product-1.0.0.zip!/product-1.0.0/standalone/deployments/app-%d.ear!/lib/"
+                                            + "module-%d.war!/WEB-INF/lib/artifact-%d.jar!/org/example/Class%d.class",
+                                    i / 10000,
+                                    i / 1000,
+                                    i / 100,
+                                    i)));
+        }
+
+        return paths;
+    }
+
+    static final class Strings implements HeapMeasurement.Fixture {
+        @Override
+        public Object create(Object prepared) {
+            return createPaths(Function.identity());
+        }
+    }
+
+    static final class PathNodes implements HeapMeasurement.Fixture {
+        @Override
+        public Object create(Object prepared) {
+            return createPaths(PathNode::of);
+        }
+    }
+
+    @Test
+    void testHeapUsage() throws IOException, InterruptedException {
+        long stringHeap = HeapMeasurement.measure(Strings.class);
+        long nodeHeap = HeapMeasurement.measure(PathNodes.class);
+
+        LOGGER.info(
+                "Heap used by {} nested paths: strings {}, path nodes {}",
+                NUM_FILES,
+                byteCountToDisplaySize(stringHeap),
+                byteCountToDisplaySize(nodeHeap));
+
+        assertThat(nodeHeap).isLessThan(stringHeap);
+    }
+}
@@ -31,6 +31,7 @@ import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.Checksum;
 import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.FileError;
 import org.jboss.pnc.build.finder.core.LocalFile;
@@ -55,7 +56,7 @@ class RpmBuildIdNotFoundIT extends AbstractRpmIT {
         Map<Checksum, Collection<String>> foundChecksums = finder.getFoundChecksums();
         Map<Checksum, Collection<String>> notFoundChecksums = finder.getNotFoundChecksums();
         List<KojiBuild> buildsFound = finder.getBuildsFound();
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = analyzer.getChecksums();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = analyzer.getChecksums();
         Map<BuildSystemInteger, KojiBuild> builds = finder.getBuildsMap();
 
         assertThat(checksums).hasSize(3);
@@ -63,7 +64,7 @@ class RpmBuildIdNotFoundIT extends AbstractRpmIT {
         assertThat(fileErrors).isEmpty();
         assertThat(analyzer.getChecksums(ChecksumType.md5)).hasSize(1)
                 .hasEntrySatisfying(
-                        "84ed0982a77b1c3a0c093409eb19c8ab",
+                        Digest.fromHex("84ed0982a77b1c3a0c093409eb19c8ab"),
                         localFiles -> assertThat(localFiles).extracting("filename", "size")
                                 .containsExactly(tuple("libdnf-0.48.0-4.fc33.x86_64.rpm", 605175L)));
         assertThat(notFoundChecksums).isEmpty();
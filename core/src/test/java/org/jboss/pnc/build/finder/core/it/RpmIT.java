@@ -32,6 +32,7 @@ import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.Checksum;
 import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.FileError;
 import org.jboss.pnc.build.finder.core.LocalFile;
@@ -58,7 +59,7 @@ class RpmIT extends AbstractRpmIT {
         Map<Checksum, Collection<String>> foundChecksums = finder.getFoundChecksums();
         Map<Checksum, Collection<String>> notFoundChecksums = finder.getNotFoundChecksums();
         List<KojiBuild> buildsFound = finder.getBuildsFound();
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = analyzer.getChecksums();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = analyzer.getChecksums();
         Map<BuildSystemInteger, KojiBuild> builds = finder.getBuildsMap();
 
         assertThat(checksums).hasSize(3);
@@ -66,7 +67,7 @@ class RpmIT extends AbstractRpmIT {
         assertThat(fileErrors).isEmpty();
         assertThat(analyzer.getChecksums(ChecksumType.md5)).hasSize(1)
                 .hasEntrySatisfying(
-                        "16b9266485a71b7dd230d14a3986f170",
+                        Digest.fromHex("16b9266485a71b7dd230d14a3986f170"),
                         localFiles -> assertThat(localFiles).extracting("filename", "size")
                                 .containsExactly(tuple("basesystem-11-7.fc30.noarch.rpm", 7092L)));
         assertThat(files).hasSize(1)
@@ -31,6 +31,7 @@ import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.Checksum;
 import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.FileError;
 import org.jboss.pnc.build.finder.core.LocalFile;
@@ -55,7 +56,7 @@ class RpmNvrNotFoundIT extends AbstractRpmIT {
         Map<Checksum, Collection<String>> foundChecksums = finder.getFoundChecksums();
         Map<Checksum, Collection<String>> notFoundChecksums = finder.getNotFoundChecksums();
         List<KojiBuild> buildsFound = finder.getBuildsFound();
-        Map<ChecksumType, MultiValuedMap<String, LocalFile>> checksums = analyzer.getChecksums();
+        Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> checksums = analyzer.getChecksums();
         Map<BuildSystemInteger, KojiBuild> builds = finder.getBuildsMap();
 
         assertThat(checksums).hasSize(3);
@@ -69,7 +70,7 @@ class RpmNvrNotFoundIT extends AbstractRpmIT {
                                         .isEqualTo("aa585b870f59ef457f26fa32a0daf923")));
         assertThat(analyzer.getChecksums(ChecksumType.md5)).hasSize(1)
                 .hasEntrySatisfying(
-                        "aa585b870f59ef457f26fa32a0daf923",
+                        Digest.fromHex("aa585b870f59ef457f26fa32a0daf923"),
                         cksums -> assertThat(cksums).extracting("filename", "size")
                                 .contains(tuple("java-11-openjdk-11.0.8.10-1.fc33.x86_64.rpm", 258129L)));
         assertThat(notFoundChecksums).hasSize(1)
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.protobuf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
+import org.infinispan.protostream.ProtobufUtil;
+import org.infinispan.protostream.SerializationContext;
+import org.jboss.pnc.build.finder.core.Digest;
+import org.jboss.pnc.build.finder.core.LocalFile;
+import org.junit.jupiter.api.Test;
+
+class LocalFileMapProtobufWrapperTest {
+    private static MultiValuedMap<Digest, LocalFile> createMap() {
+        MultiValuedMap<Digest, LocalFile> map = new HashSetValuedHashMap<>();
+        map.put(Digest.fromHex("ac7ba0ddb5c9d4c7d6a6ad3d4a3e4bee"), new LocalFile("dist.zip!/lib/a.jar", 1024L));
+        map.put(Digest.fromHex("ac7ba0ddb5c9d4c7d6a6ad3d4a3e4bee"), new LocalFile("dist.zip!/lib/a-copy.jar", 1024L));
+        map.put(
+                Digest.fromHex("d41d8cd98f00b204e9800998ecf8427e"),
+                new LocalFile("dist.zip!/lib/a.jar!/META-INF/empty", 0L));
+        map.put(Digest.fromHex("7215ee9c7d9dc229d2921a40e899ec5f"), new LocalFile("dist.zip!/😀/café.txt", -1L));
+        map.put(Digest.fromHex("7215ee9c7d9dc229d2921a40e899ec5f"), new LocalFile("dist.zip!/😁/café.txt", 2L));
+        map.put(
+                Digest.fromHex("b858cb282617fb0956d960215c8e84d1ccf909c6b858cb282617fb09"),
+                new LocalFile("dist.zip!/big.bin", Long.MAX_VALUE));
+        return map;
+    }
+
+    @Test
+    void testRoundTrip() {
+        MultiValuedMap<Digest, LocalFile> map = createMap();
+        LocalFileMapProtobufWrapper wrapper = LocalFileMapProtobufWrapper.of(map);
+
+        assertThat(wrapper.getVersion()).isEqualTo(LocalFileMapProtobufWrapper.CURRENT_VERSION);
+        assertThat(wrapper.isSupportedVersion()).isTrue();
+        assertThat(wrapper.toMap().asMap()).isEqualTo(map.asMap());
+    }
+
+    @Test
+    void testEmptyMap() {
+        LocalFileMapProtobufWrapper wrapper = LocalFileMapProtobufWrapper.of(new HashSetValuedHashMap<>());
+
+        assertThat(wrapper.toMap().isEmpty()).isTrue();
+    }
+
+    @Test
+    void testProtobufRoundTrip() throws Exception {
+        SerializationContext ctx = ProtobufUtil.newSerializationContext();
+        ProtobufSerializer serializer = new ProtobufSerializerImpl();
+        serializer.registerSchema(ctx);
+        serializer.registerMarshallers(ctx);
+        MultiValuedMap<Digest, LocalFile> map = createMap();
+        byte[] bytes = ProtobufUtil.toWrappedByteArray(ctx, LocalFileMapProtobufWrapper.of(map));
+        Object object = ProtobufUtil.fromWrappedByteArray(ctx, bytes);
+
+        assertThat(object).isInstanceOf(LocalFileMapProtobufWrapper.class);
+        assertThat(((LocalFileMapProtobufWrapper) object).toMap().asMap()).isEqualTo(map.asMap());
+    }
+
+    @Test
+    void testUnsupportedVersion() {
+        LocalFileMapProtobufWrapper wrapper = new LocalFileMapProtobufWrapper(
+                LocalFileMapProtobufWrapper.CURRENT_VERSION + 1,
+                LocalFileMapProtobufWrapper.of(createMap()).getData());
+
+        assertThat(wrapper.isSupportedVersion()).isFalse();
+        assertThatThrownBy(wrapper::toMap).isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Unsupported cache entry version");
+    }
+
+    @Test
+    void testTruncatedData() {
+        byte[] data = LocalFileMapProtobufWrapper.of(createMap()).getData();
+        LocalFileMapProtobufWrapper wrapper = new LocalFileMapProtobufWrapper(
+                LocalFileMapProtobufWrapper.CURRENT_VERSION,
+                Arrays.copyOf(data, data.length / 2));
+
+        assertThatThrownBy(wrapper::toMap).isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Corrupt cache entry");
+    }
+
+    @Test
+    void testInvalidKeyLength() {
+        LocalFileMapProtobufWrapper wrapper = new LocalFileMapProtobufWrapper(
+                LocalFileMapProtobufWrapper.CURRENT_VERSION,
+                new byte[] { 1, (byte) (Digest.MAX_LENGTH + 1) });
+
+        assertThatThrownBy(wrapper::toMap).isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("Corrupt cache entry: invalid checksum length " + (Digest.MAX_LENGTH + 1));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.protobuf.it;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.HexFormat;
+import java.util.Random;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
+import org.infinispan.protostream.ProtobufUtil;
+import org.infinispan.protostream.SerializationContext;
+import org.jboss.pnc.build.finder.core.Digest;
+import org.jboss.pnc.build.finder.core.LocalFile;
+import org.jboss.pnc.build.finder.protobuf.LocalFileMapProtobufWrapper;
+import org.jboss.pnc.build.finder.protobuf.MultiValuedMapProtobufWrapper;
+import org.jboss.pnc.build.finder.protobuf.ProtobufSerializer;
+import org.jboss.pnc.build.finder.protobuf.ProtobufSerializerImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class LocalFileMapProtobufWrapperPerformanceIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalFileMapProtobufWrapperPerformanceIT.class);
+
+    private static final int NUM_FILES = 100_000;
+
+    private static final int NUM_LOOPS = 10;
+
+    private static final SerializationContext CTX = ProtobufUtil.newSerializationContext();
+
+    private static MultiValuedMap<Digest, LocalFile> hexMap;
+
+    private static MultiValuedMap<Digest, LocalFile> map;
+
+    @BeforeAll
+    static void setup() {
+        ProtobufSerializer serializer = new ProtobufSerializerImpl();
+        serializer.registerSchema(CTX);
+        serializer.registerMarshallers(CTX);
+
+        Random random = new Random(0L);
+        HexFormat hex = HexFormat.of();
+        byte[] digest = new byte[16];
+        hexMap = new HashSetValuedHashMap<>(NUM_FILES);
+        map = new HashSetValuedHashMap<>(NUM_FILES);
+
+        for (int i = 0; i < NUM_FILES; i++) {
+            random.nextBytes(digest);
+            String filename = String.format(
+                    "product-1.0.0.zip!/product-1.0.0/modules/system/layers/base/org/example/module%d/main/"
+                            + "artifact-%d.jar!/org/example/module%d/Class%d.class",
+                    i / 1000,
+                    i / 100,
+                    i / 1000,
+                    i);
+            LocalFile localFile = new LocalFile(filename, random.nextInt(1 << 20));
+            hexMap.put(hex.formatHex(digest), localFile);
+            map.put(Digest.of(digest), localFile);
+        }
+    }
+
+    @Test
+    void testMarshalling() throws IOException {
+        byte[] oldBytes = null;
+        byte[] newBytes = null;
+        long oldWrite = 0L;
+        long oldRead = 0L;
+        long newWrite = 0L;
+        long newRead = 0L;
+
+        for (int i = 0; i < NUM_LOOPS; i++) {
+            long start = System.nanoTime();
+            oldBytes = ProtobufUtil.toWrappedByteArray(CTX, new MultiValuedMapProtobufWrapper<>(hexMap));
+            oldWrite += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Object oldObject = ProtobufUtil.fromWrappedByteArray(CTX, oldBytes);
+            oldRead += System.nanoTime() - start;
+
+            assertThat(oldObject).isInstanceOf(MultiValuedMapProtobufWrapper.class);
+
+            start = System.nanoTime();
+            newBytes = ProtobufUtil.toWrappedByteArray(CTX, LocalFileMapProtobufWrapper.of(map));
+            newWrite += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            MultiValuedMap<Digest, LocalFile> newMap = ((LocalFileMapProtobufWrapper) ProtobufUtil
+                    .fromWrappedByteArray(CTX, newBytes)).toMap();
+            newRead += System.nanoTime() - start;
+
+            assertThat(newMap.size()).isEqualTo(map.size());
+        }
+
+        LOGGER.info(
+                "Old format: {} bytes, write {} ms, read {} ms",
+                oldBytes.length,
+                oldWrite / NUM_LOOPS / 1_000_000L,
+                oldRead / NUM_LOOPS / 1_000_000L);
+        LOGGER.info(
+                "New format: {} bytes, write {} ms, read {} ms",
+                newBytes.length,
+                newWrite / NUM_LOOPS / 1_000_000L,
+                newRead / NUM_LOOPS / 1_000_000L);
+
+        assertThat(newBytes.length).isLessThan(oldBytes.length);
+    }
+}
@@ -51,8 +51,16 @@ public final class BuildStatisticsReport extends Report {
     }
 
     public BuildStatisticsReport(Path outputDirectory, String baseFilename, Collection<KojiBuild> builds) {
+        this(outputDirectory, baseFilename, new BuildStatistics(builds));
+    }
+
+    BuildStatisticsReport(Path outputDirectory, ReportData data) {
+        this(outputDirectory, BASE_FILENAME, data.getBuildStatistics());
+    }
+
+    private BuildStatisticsReport(Path outputDirectory, String baseFilename, BuildStatistics buildStatistics) {
         super(NAME, DESCRIPTION, baseFilename, outputDirectory);
-        buildStatistics = new BuildStatistics(builds);
+        this.buildStatistics = buildStatistics;
     }
 
     public BuildStatistics getBuildStatistics() {
@@ -15,7 +15,6 @@
  */
 package org.jboss.pnc.build.finder.report;
 
-import static com.redhat.red.build.koji.model.xmlrpc.KojiBtype.maven;
 import static j2html.TagCreator.attrs;
 import static j2html.TagCreator.caption;
 import static j2html.TagCreator.each;
@@ -32,6 +31,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.jboss.pnc.build.finder.core.BuildFinderUtils;
 import org.jboss.pnc.build.finder.koji.KojiBuild;
@@ -53,20 +53,23 @@ public final class GAVReport extends Report {
     }
 
     public GAVReport(Path outputDirectory, String baseFilename, Collection<KojiBuild> builds) {
+        this(
+                outputDirectory,
+                baseFilename,
+                builds.stream()
+                        .filter(BuildFinderUtils::isNotBuildZero)
+                        .filter(ReportData::isMaven)
+                        .flatMap(build -> build.getArchives().stream())
+                        .map(ReportData::toGav));
+    }
+
+    GAVReport(Path outputDirectory, ReportData data) {
+        this(outputDirectory, BASE_FILENAME, data.getGavs().stream());
+    }
+
+    private GAVReport(Path outputDirectory, String baseFilename, Stream<String> gavs) {
         super(NAME, DESCRIPTION, baseFilename, outputDirectory);
-        this.gavs = builds.stream()
-                .filter(BuildFinderUtils::isNotBuildZero)
-                .filter(
-                        build -> build.getBuildInfo() != null && build.getBuildInfo().getTypeNames() != null
-                                && build.getBuildInfo().getTypeNames().contains(maven))
-                .flatMap(build -> build.getArchives().stream())
-                .map(
-                        localArchive -> localArchive.getArchive().getGroupId() + ":"
-                                + localArchive.getArchive().getArtifactId() + ":"
-                                + localArchive.getArchive().getVersion())
-                .sorted()
-                .distinct()
-                .toList();
+        this.gavs = gavs.sorted().distinct().toList();
     }
 
     @Override
@@ -20,6 +20,7 @@ import static j2html.TagCreator.a;
 import static j2html.TagCreator.attrs;
 import static j2html.TagCreator.body;
 import static j2html.TagCreator.caption;
+import static j2html.TagCreator.details;
 import static j2html.TagCreator.div;
 import static j2html.TagCreator.document;
 import static j2html.TagCreator.each;
@@ -31,8 +32,10 @@ import static j2html.TagCreator.html;
 import static j2html.TagCreator.li;
 import static j2html.TagCreator.main;
 import static j2html.TagCreator.ol;
+import static j2html.TagCreator.rawHtml;
 import static j2html.TagCreator.span;
 import static j2html.TagCreator.style;
+import static j2html.TagCreator.summary;
 import static j2html.TagCreator.table;
 import static j2html.TagCreator.tbody;
 import static j2html.TagCreator.td;
@@ -51,13 +54,21 @@ import static org.jboss.pnc.build.finder.pnc.client.PncUtils.EXTERNAL_PRODUCT_ID
 import static org.jboss.pnc.build.finder.pnc.client.PncUtils.EXTERNAL_PROJECT_ID;
 import static org.jboss.pnc.build.finder.pnc.client.PncUtils.EXTERNAL_VERSION_ID;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -73,11 +84,17 @@ import com.redhat.red.build.koji.model.xmlrpc.KojiTagInfo;
 
 import j2html.attributes.Attr;
 import j2html.tags.ContainerTag;
+import j2html.tags.DomContent;
 import j2html.tags.Tag;
 import j2html.tags.specialized.ATag;
+import j2html.tags.specialized.DetailsTag;
+import j2html.tags.specialized.DivTag;
+import j2html.tags.specialized.HeadTag;
 import j2html.tags.specialized.HtmlTag;
 import j2html.tags.specialized.LiTag;
 import j2html.tags.specialized.SpanTag;
+import j2html.tags.specialized.TheadTag;
+import j2html.tags.specialized.TrTag;
 
 public final class HTMLReport extends Report {
     private static final String NAME = "Build Report for ";
@@ -109,6 +126,8 @@ public final class HTMLReport extends Report {
 
     private final List<Report> reports;
 
+    private final int archivesPageSize;
+
     public HTMLReport(
             Path outputDirectory,
             Iterable<String> files,
@@ -116,7 +135,18 @@ public final class HTMLReport extends Report {
             URL kojiwebUrl,
             URL pncUrl,
             List<Report> reports) {
-        this(outputDirectory, BASE_FILENAME, files, builds, kojiwebUrl, pncUrl, reports);
+        this(outputDirectory, files, builds, kojiwebUrl, pncUrl, reports, 0);
+    }
+
+    public HTMLReport(
+            Path outputDirectory,
+            Iterable<String> files,
+            List<KojiBuild> builds,
+            URL kojiwebUrl,
+            URL pncUrl,
+            List<Report> reports,
+            int archivesPageSize) {
+        this(outputDirectory, BASE_FILENAME, files, builds, kojiwebUrl, pncUrl, reports, archivesPageSize);
     }
 
     public HTMLReport(
@@ -127,11 +157,36 @@ public final class HTMLReport extends Report {
             URL kojiwebUrl,
             URL pncUrl,
             List<Report> reports) {
+        this(outputDirectory, baseFilename, files, builds, kojiwebUrl, pncUrl, reports, 0);
+    }
+
+    /**
+     * Creates an HTML report which splits the artifact list of each build into collapsible pages.
+     *
+     * @param outputDirectory the directory to write the report to
+     * @param baseFilename the base filename of the report
+     * @param files the input files
+     * @param builds the builds
+     * @param kojiwebUrl the Koji web URL
+     * @param pncUrl the PNC URL
+     * @param reports the sub-reports to include
+     * @param archivesPageSize the maximum number of artifacts per page, or 0 to list all artifacts at once
+     */
+    public HTMLReport(
+            Path outputDirectory,
+            String baseFilename,
+            Iterable<String> files,
+            List<KojiBuild> builds,
+            URL kojiwebUrl,
+            URL pncUrl,
+            List<Report> reports,
+            int archivesPageSize) {
         super(NAME + join(", ", files), DESCRIPTION, baseFilename, outputDirectory);
         this.builds = builds;
         this.kojiwebUrl = kojiwebUrl;
         this.pncUrl = pncUrl;
         this.reports = reports;
+        this.archivesPageSize = archivesPageSize;
     }
 
     private static ContainerTag<SpanTag> errorText(String text) {
@@ -257,200 +312,218 @@ public final class HTMLReport extends Report {
                 .toList();
     }
 
+    private Tag<LiTag> linkLocalArchiveItem(KojiBuild build, KojiLocalArchive archive) {
+        return li(linkLocalArchive(build, archive), text(": "), text(join(", ", archive.getFilenames())));
+    }
+
+    private DomContent linkLocalArchives(KojiBuild build) {
+        List<KojiLocalArchive> archives = build.getArchives();
+
+        if (archives == null) {
+            return text("");
+        }
+
+        int size = archives.size();
+
+        if (archivesPageSize <= 0 || size <= archivesPageSize) {
+            return ol(each(archives, archive -> linkLocalArchiveItem(build, archive)));
+        }
+
+        List<DomContent> pages = new ArrayList<>((size + archivesPageSize - 1) / archivesPageSize);
+
+        for (int start = 0; start < size; start += archivesPageSize) {
+            int end = Math.min(start + archivesPageSize, size);
+            ContainerTag<DetailsTag> page = details(
+                    summary(text("Artifacts " + (start + 1) + "-" + end + " of " + size)),
+                    ol(each(archives.subList(start, end), archive -> linkLocalArchiveItem(build, archive)))
+                            .attr("start", start + 1));
+
+            if (start == 0) {
+                page.attr("open", "open");
+            }
+
+            pages.add(page);
+        }
+
+        return each(pages, page -> page);
+    }
+
+    private static String formatProperties(Map<String, ?> properties) {
+        StringBuilder sb = new StringBuilder();
+
+        for (Map.Entry<String, ?> entry : properties.entrySet()) {
+            sb.append(entry.getKey());
+
+            if (entry.getValue() != null) {
+                sb.append('=').append(entry.getValue());
+            }
+
+            sb.append("; ");
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean hasBuildId(KojiBuild build) {
+        return build.getId() != null && isNotBuildIdZero(build.getId());
+    }
+
+    private static boolean hasMavenProperties(KojiBuild build) {
+        return build.getTaskInfo() != null && MAVEN_INFO.equals(build.getTaskInfo().getMethod())
+                && build.getTaskRequest() != null && build.getTaskRequest().asMavenBuildRequest() != null
+                && build.getTaskRequest().asMavenBuildRequest().getProperties() != null;
+    }
+
+    private ContainerTag<TrTag> buildRow(KojiBuild build, int index) {
+        boolean hasBuildId = hasBuildId(build);
+
+        return tr(
+                td(text(Integer.toString(index))),
+                td(hasBuildId ? linkBuild(build) : errorText(String.valueOf(build.getId()))),
+                td(hasBuildId ? linkPkg(build) : text("")),
+                td(hasBuildId ? text(build.getBuildInfo().getVersion().replace('_', '-')) : text("")),
+                td(linkLocalArchives(build)),
+                td(hl(build) ? ul(each(gln(build), n -> li(text(n)))) : text("")),
+                td(build.getTags() != null ? ul(each(build.getTags(), tag -> linkTag(build, tag))) : text("")),
+                td(
+                        build.getMethod().isPresent() ? text(build.getMethod().get())
+                                : hasBuildId ? errorText("imported build") : text("")),
+                td(
+                        build.getScmSourcesZip().isPresent() ? linkArchive(build, build.getScmSourcesZip().get())
+                                : text("")),
+                td(build.getPatchesZip().isPresent() ? linkArchive(build, build.getPatchesZip().get()) : text("")),
+                td(
+                        build.getSource().isPresent() ? linkSource(build)
+                                : (build.getId() == null || isBuildIdZero(build.getId())) ? text("")
+                                        : errorText("missing URL")),
+                td(
+                        hasMavenProperties(build)
+                                ? text(formatProperties(build.getTaskRequest().asMavenBuildRequest().getProperties()))
+                                : text("")),
+                td(
+                        build.getBuildInfo().getExtra() != null
+                                ? text(formatProperties(build.getBuildInfo().getExtra()))
+                                : text("")));
+    }
+
+    private Stream<DomContent> buildRows() {
+        return IntStream.range(0, builds.size()).mapToObj(i -> buildRow(builds.get(i), i));
+    }
+
+    private ContainerTag<HeadTag> toHead() {
+        return head(style().withText(HTML_STYLE)).with(title().withText(getName()));
+    }
+
+    private ContainerTag<DivTag> toReportsDiv() {
+        return div(
+                attrs("#div-reports"),
+                table(
+                        caption(text("Reports")),
+                        thead(tr(th(text("Name")), th(text("Description")))),
+                        tbody(
+                                tr(
+                                        td(a().withHref(HASH_DIV + getBaseFilename()).with(text("Builds"))),
+                                        td(text(getDescription()))),
+                                each(
+                                        reports,
+                                        report -> tr(
+                                                td(
+                                                        a().withHref(HASH_DIV + report.getBaseFilename())
+                                                                .with(text(report.getName()))),
+                                                td(text(report.getDescription())))))));
+    }
+
+    private static ContainerTag<TheadTag> toBuildsHead() {
+        return thead(
+                tr(
+                        th(text("#")),
+                        th(text("ID")),
+                        th(text("Name")),
+                        th(text("Version")),
+                        th(text("Artifacts")),
+                        th(text("Licenses")),
+                        th(text("Tags")),
+                        th(text("Type")),
+                        th(text("Sources")),
+                        th(text("Patches")),
+                        th(text("SCM URL")),
+                        th(text("Options")),
+                        th(text("Extra"))));
+    }
+
+    private static ContainerTag<DivTag> toReportDiv(Report report) {
+        return div(attrs(HASH_DIV + report.getBaseFilename()), rawHtml(report.renderHTML()));
+    }
+
+    private static ContainerTag<DivTag> toFooterDiv() {
+        return div(
+                attrs("#div-footer"),
+                footer().attr(Attr.CLASS, "footer")
+                        .attr(Attr.ID, "footer")
+                        .with(
+                                text("Created: " + LocalDateTime.now() + " by "),
+                                a().withHref(GITHUB_URL).with(text(REPORT_NAME)),
+                                text(" " + Utils.getBuildFinderVersion() + " (SHA: "),
+                                a().withHref(GITHUB_URL + "/commit/" + Utils.getBuildFinderScmRevision())
+                                        .with(text(Utils.getBuildFinderScmRevision() + ")"))));
+    }
+
     @Override
     public ContainerTag<HtmlTag> toHTML() {
         return html(
-                head(style().withText(HTML_STYLE)).with(title().withText(getName())),
+                toHead(),
                 body().with(
                         header(h1(getName())),
                         main(
-                                div(
-                                        attrs("#div-reports"),
-                                        table(
-                                                caption(text("Reports")),
-                                                thead(tr(th(text("Name")), th(text("Description")))),
-                                                tbody(
-                                                        tr(
-                                                                td(
-                                                                        a().withHref(HASH_DIV + getBaseFilename())
-                                                                                .with(text("Builds"))),
-                                                                td(text(getDescription()))),
-                                                        each(
-                                                                reports,
-                                                                report -> tr(
-                                                                        td(
-                                                                                a().withHref(
-                                                                                        HASH_DIV + report
-                                                                                                .getBaseFilename())
-                                                                                        .with(text(report.getName()))),
-                                                                        td(text(report.getDescription()))))))),
+                                toReportsDiv(),
                                 div(
                                         attrs(HASH_DIV + getBaseFilename()),
                                         table(
                                                 caption(text("Builds")),
-                                                thead(
-                                                        tr(
-                                                                th(text("#")),
-                                                                th(text("ID")),
-                                                                th(text("Name")),
-                                                                th(text("Version")),
-                                                                th(text("Artifacts")),
-                                                                th(text("Licenses")),
-                                                                th(text("Tags")),
-                                                                th(text("Type")),
-                                                                th(text("Sources")),
-                                                                th(text("Patches")),
-                                                                th(text("SCM URL")),
-                                                                th(text("Options")),
-                                                                th(text("Extra")))),
-                                                tbody(
-                                                        each(
-                                                                builds,
-                                                                build -> tr(
-                                                                        td(
-                                                                                text(
-                                                                                        Integer.toString(
-                                                                                                builds.indexOf(
-                                                                                                        build)))),
-                                                                        td(
-                                                                                (build.getId() != null
-                                                                                        && isNotBuildIdZero(
-                                                                                                build.getId()))
-                                                                                                        ? linkBuild(
-                                                                                                                build)
-                                                                                                        : errorText(
-                                                                                                                String.valueOf(
-                                                                                                                        build.getId()))),
-                                                                        td(
-                                                                                (build.getId() != null
-                                                                                        && isNotBuildIdZero(
-                                                                                                build.getId()))
-                                                                                                        ? linkPkg(build)
-                                                                                                        : text("")),
-                                                                        td(
-                                                                                (build.getId() != null
-                                                                                        && isNotBuildIdZero(
-                                                                                                build.getId())) ? text(
-                                                                                                        build.getBuildInfo()
-                                                                                                                .getVersion()
-                                                                                                                .replace(
-                                                                                                                        '_',
-                                                                                                                        '-'))
-                                                                                                        : text("")),
-                                                                        td(
-                                                                                build.getArchives() != null ? ol(
-                                                                                        each(
-                                                                                                build.getArchives(),
-                                                                                                a -> li(
-                                                                                                        linkLocalArchive(
-                                                                                                                build,
-                                                                                                                a),
-                                                                                                        text(": "),
-                                                                                                        text(
-                                                                                                                join(
-                                                                                                                        ", ",
-                                                                                                                        a.getFilenames())))))
-                                                                                        : text("")),
-                                                                        td(
-                                                                                hl(
-                                                                                        build) ? ul(each(gln(build), n -> li(text(n)))) : text("")),
-                                                                        td(
-                                                                                build.getTags() != null
-                                                                                        ? ul(
-                                                                                                each(
-                                                                                                        build.getTags(),
-                                                                                                        tag -> linkTag(
-                                                                                                                build,
-                                                                                                                tag)))
-                                                                                        : text("")),
-                                                                        td(
-                                                                                build.getMethod().isPresent()
-                                                                                        ? text(build.getMethod().get())
-                                                                                        : (build.getId() != null
-                                                                                                && isNotBuildIdZero(
-                                                                                                        build.getId()))
-                                                                                                                ? errorText(
-                                                                                                                        "imported build")
-                                                                                                                : text(
-                                                                                                                        "")),
-                                                                        td(
-                                                                                build.getScmSourcesZip().isPresent()
-                                                                                        ? linkArchive(
-                                                                                                build,
-                                                                                                build.getScmSourcesZip()
-                                                                                                        .get())
-                                                                                        : text("")),
-                                                                        td(
-                                                                                build.getPatchesZip().isPresent()
-                                                                                        ? linkArchive(
-                                                                                                build,
-                                                                                                build.getPatchesZip()
-                                                                                                        .get())
-                                                                                        : text("")),
-                                                                        td(
-                                                                                build.getSource().isPresent()
-                                                                                        ? linkSource(build)
-                                                                                        : (build.getId() == null
-                                                                                                || isBuildIdZero(
-                                                                                                        build.getId()))
-                                                                                                                ? text(
-                                                                                                                        "")
-                                                                                                                : errorText(
-                                                                                                                        "missing URL")),
-                                                                        td(
-                                                                                build.getTaskInfo() != null
-                                                                                        && build.getTaskInfo()
-                                                                                                .getMethod() != null
-                                                                                        && MAVEN_INFO.equals(
-                                                                                                build.getTaskInfo()
-                                                                                                        .getMethod())
-                                                                                        && build.getTaskRequest() != null
-                                                                                        && build.getTaskRequest()
-                                                                                                .asMavenBuildRequest()
-                                                                                                .getProperties() != null
-                                                                                        && build.getTaskRequest()
-                                                                                                .asMavenBuildRequest() != null
-                                                                                                        ? each(
-                                                                                                                build.getTaskRequest()
-                                                                                                                        .asMavenBuildRequest()
-                                                                                                                        .getProperties()
-                                                                                                                        .entrySet(),
-                                                                                                                entry -> text(
-                                                                                                                        entry.getKey()
-                                                                                                                                + (entry.getValue() != null
-                                                                                                                                        ? "=" + entry
-                                                                                                                                                .getValue()
-                                                                                                                                                + "; "
-                                                                                                                                        : "; ")))
-                                                                                                        : text("")),
-                                                                        td(
-                                                                                build.getBuildInfo().getExtra() != null
-                                                                                        ? each(
-                                                                                                build.getBuildInfo()
-                                                                                                        .getExtra()
-                                                                                                        .entrySet(),
-                                                                                                entry -> text(
-                                                                                                        entry.getKey()
-                                                                                                                + (entry.getValue() != null
-                                                                                                                        ? "=" + entry
-                                                                                                                                .getValue()
-                                                                                                                                + "; "
-                                                                                                                        : "; ")))
-                                                                                        : text(""))))))),
-                                each(
-                                        reports,
-                                        report -> div(attrs(HASH_DIV + report.getBaseFilename()), report.toHTML()))),
-                        div(
-                                attrs("#div-footer"),
-                                footer().attr(Attr.CLASS, "footer")
-                                        .attr(Attr.ID, "footer")
-                                        .with(
-                                                text("Created: " + LocalDateTime.now() + " by "),
-                                                a().withHref(GITHUB_URL).with(text(REPORT_NAME)),
-                                                text(" " + Utils.getBuildFinderVersion() + " (SHA: "),
-                                                a().withHref(
-                                                        GITHUB_URL + "/commit/" + Utils.getBuildFinderScmRevision())
-                                                        .with(text(Utils.getBuildFinderScmRevision() + ")"))))));
+                                                toBuildsHead(),
+                                                tbody(each(buildRows()))))),
+                                each(reports, HTMLReport::toReportDiv)),
+                        toFooterDiv()));
+    }
+
+    /**
+     * Writes the report row by row instead of rendering the whole document in memory first. Only the tags of a single
+     * build, or of a single sub-report, are held in memory at a time.
+     *
+     * @throws IOException if an error occurs while writing the report
+     */
+    @Override
+    public void outputHTML() throws IOException {
+        try (Writer writer = Files
+                .newBufferedWriter(getOutputDirectory().resolve(getBaseFilename() + ".html"), StandardCharsets.UTF_8)) {
+            writer.write(document().render());
+            writer.write("<html>");
+            writer.write(toHead().render());
+            writer.write("<body>");
+            writer.write(header(h1(getName())).render());
+            writer.write("<main>");
+            writer.write(toReportsDiv().render());
+            writer.write("<div id=\"div-" + getBaseFilename() + "\"><table>");
+            writer.write(caption(text("Builds")).render());
+            writer.write(toBuildsHead().render());
+            writer.write("<tbody>");
+
+            int index = 0;
+
+            for (KojiBuild build : builds) {
+                writer.write(buildRow(build, index++).render());
+            }
+
+            writer.write("</tbody></table></div>");
+
+            for (Report report : reports) {
+                writer.write(toReportDiv(report).render());
+            }
+
+            writer.write("</main>");
+            writer.write(toFooterDiv().render());
+            writer.write("</body></html>");
+        }
     }
 
     @Override
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.jboss.pnc.build.finder.core.BuildFinderUtils;
 import org.jboss.pnc.build.finder.koji.KojiBuild;
@@ -55,14 +56,22 @@ public final class NVRReport extends Report {
     }
 
     public NVRReport(Path outputDirectory, String baseFilename, Collection<KojiBuild> builds) {
+        this(
+                outputDirectory,
+                baseFilename,
+                builds.stream()
+                        .filter(BuildFinderUtils::isNotBuildZero)
+                        .map(KojiBuild::getBuildInfo)
+                        .map(KojiBuildInfo::getNvr));
+    }
+
+    NVRReport(Path outputDirectory, ReportData data) {
+        this(outputDirectory, BASE_FILENAME, data.getNvrs().stream());
+    }
+
+    private NVRReport(Path outputDirectory, String baseFilename, Stream<String> nvrs) {
         super(NAME, DESCRIPTION, baseFilename, outputDirectory);
-        this.nvrs = builds.stream()
-                .filter(BuildFinderUtils::isNotBuildZero)
-                .map(KojiBuild::getBuildInfo)
-                .map(KojiBuildInfo::getNvr)
-                .sorted(String::compareToIgnoreCase)
-                .distinct()
-                .toList();
+        this.nvrs = nvrs.sorted(String::compareToIgnoreCase).distinct().toList();
     }
 
     @Override
@@ -25,8 +25,6 @@ import static j2html.TagCreator.text;
 import static j2html.TagCreator.th;
 import static j2html.TagCreator.thead;
 import static j2html.TagCreator.tr;
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.counting;
 import static org.apache.commons.collections.IteratorUtils.unmodifiableIterator;
 import static org.apache.commons.collections4.IteratorUtils.arrayListIterator;
 
@@ -41,6 +39,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
@@ -77,34 +76,27 @@ public final class ProductReport extends Report {
     }
 
     public ProductReport(Path outputDirectory, String baseFilename, Collection<KojiBuild> builds) {
+        this(outputDirectory, baseFilename, builds.stream().filter(ReportData::hasTarget));
+    }
+
+    ProductReport(Path outputDirectory, ReportData data) {
+        this(outputDirectory, BASE_FILENAME, data.getTargetBuilds().stream());
+    }
+
+    private ProductReport(Path outputDirectory, String baseFilename, Stream<KojiBuild> builds) {
         super(NAME, DESCRIPTION, baseFilename, outputDirectory);
-        List<String> targets = builds.stream()
+        List<KojiBuild> targetBuilds = builds.toList();
+        Set<String> targets = targetBuilds.stream()
                 .filter(build -> build.getBuildInfo() != null && build.getBuildInfo().getId() > 0)
-                .filter(
-                        build -> build.getTaskRequest() != null && build.getTaskRequest().asBuildRequest() != null
-                                && build.getTaskRequest().asBuildRequest().getTarget() != null)
                 .map(build -> build.getTaskRequest().asBuildRequest().getTarget())
-                .toList();
-        Map<String, Long> map = targets.stream().collect(Collectors.groupingBy(identity(), counting()));
-        List<Entry<String, Long>> countList = map.entrySet()
-                .stream()
-                .sorted(Entry.<String, Long> comparingByValue().reversed())
-                .toList();
+                .collect(Collectors.toSet());
         MultiValuedMap<String, KojiBuild> prodMap = new ArrayListValuedHashMap<>(); // TODO: size
 
-        for (KojiBuild build : builds) {
-            if (build.getTaskRequest() == null || build.getTaskRequest().asBuildRequest() == null
-                    || build.getTaskRequest().asBuildRequest().getTarget() == null) {
-                continue;
-            }
-
-            for (Entry<String, Long> countEntry : countList) {
-                String target = countEntry.getKey();
+        for (KojiBuild build : targetBuilds) {
+            String target = build.getTaskRequest().asBuildRequest().getTarget();
 
-                if (build.getTaskRequest().asBuildRequest().getTarget().equals(target)) {
-                    prodMap.put(targetToProduct(target), build);
-                    break;
-                }
+            if (targets.contains(target)) {
+                prodMap.put(targetToProduct(target), build);
             }
         }
 
@@ -18,10 +18,17 @@ package org.jboss.pnc.build.finder.report;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jboss.pnc.build.finder.core.BuildConfig;
+import org.jboss.pnc.build.finder.core.ResultBundle;
 import org.jboss.pnc.build.finder.koji.KojiBuild;
 
 import j2html.tags.ContainerTag;
@@ -36,6 +43,8 @@ public abstract class Report {
 
     private final Path outputDirectory;
 
+    private String html;
+
     protected Report(String name, String description, String baseFilename, Path outputDirectory) {
         this.name = name;
         this.description = description;
@@ -43,30 +52,94 @@ public abstract class Report {
         this.outputDirectory = outputDirectory;
     }
 
+    /**
+     * Generates the text and HTML reports. The aggregates shared by the reports are computed in a single pass over the
+     * builds, then the reports are created and written in parallel, each rendering its HTML only once.
+     *
+     * @param config the configuration
+     * @param buildList the builds
+     * @param outputDirectory the directory to write the reports to
+     * @param files the input files
+     * @throws IOException if an error occurs while writing the reports
+     */
     public static void generateReports(
             BuildConfig config,
             List<KojiBuild> buildList,
             Path outputDirectory,
             List<String> files) throws IOException {
-        List<Report> reports = List.of(
-                new BuildStatisticsReport(outputDirectory, buildList),
-                new ProductReport(outputDirectory, buildList),
-                new NVRReport(outputDirectory, buildList),
-                new GAVReport(outputDirectory, buildList));
-
-        for (Report report : reports) {
-            report.outputText();
+        ReportData data = new ReportData(buildList);
+        List<Callable<Report>> reportTasks = List.of(
+                () -> new BuildStatisticsReport(outputDirectory, data),
+                () -> new ProductReport(outputDirectory, data),
+                () -> new NVRReport(outputDirectory, data),
+                () -> new GAVReport(outputDirectory, data));
+        int numThreads = Math.min(reportTasks.size() + 1, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+
+        try {
+            List<Report> reports = getReports(pool.invokeAll(reportTasks));
+            Report htmlReport = new HTMLReport(
+                    outputDirectory,
+                    files,
+                    buildList,
+                    config.getKojiWebURL(),
+                    config.getPncURL(),
+                    reports,
+                    config.getReportArchivesPageSize());
+            List<Callable<Report>> outputTasks = new ArrayList<>(reports.size() + 1);
+
+            for (Report report : reports) {
+                outputTasks.add(() -> {
+                    report.outputText();
+                    report.renderHTML();
+                    return report;
+                });
+            }
+
+            outputTasks.add(() -> {
+                htmlReport.outputHTML();
+                return htmlReport;
+            });
+
+            getReports(pool.invokeAll(outputTasks));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } finally {
+            pool.shutdownNow();
         }
+    }
 
-        Report report = new HTMLReport(
-                outputDirectory,
-                files,
-                buildList,
-                config.getKojiWebURL(),
-                config.getPncURL(),
-                reports);
+    private static List<Report> getReports(List<Future<Report>> futures) throws IOException, InterruptedException {
+        List<Report> reports = new ArrayList<>(futures.size());
+
+        for (Future<Report> future : futures) {
+            try {
+                reports.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IOException(e);
+            }
+        }
 
-        report.outputHTML();
+        return reports;
+    }
+
+    /**
+     * Generates the reports from the builds of a result bundle, for example to render them again without loading the
+     * JSON builds file.
+     *
+     * @param config the configuration
+     * @param bundle the result bundle
+     * @param outputDirectory the directory to write the reports to
+     * @param files the input files
+     * @throws IOException if an error occurs while writing the reports
+     */
+    public static void generateReports(
+            BuildConfig config,
+            ResultBundle bundle,
+            Path outputDirectory,
+            List<String> files) throws IOException {
+        generateReports(config, bundle.getBuildList(), outputDirectory, files);
     }
 
     public Optional<String> renderText() {
@@ -85,6 +158,20 @@ public abstract class Report {
 
     public abstract ContainerTag<? extends Tag<?>> toHTML();
 
+    /**
+     * Renders {@link #toHTML()} on the first call and returns the same rendering afterward, so that the HTML of a
+     * report included in another one is computed only once.
+     *
+     * @return the rendered HTML
+     */
+    public synchronized String renderHTML() {
+        if (html == null) {
+            html = toHTML().render();
+        }
+
+        return html;
+    }
+
     public void outputHTML() throws IOException {
         Optional<String> renderText = renderText();
 
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.build.finder.report;
+
+import static com.redhat.red.build.koji.model.xmlrpc.KojiBtype.maven;
+import static org.jboss.pnc.build.finder.core.BuildFinderUtils.isNotBuildZero;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.pnc.build.finder.core.BuildStatistics;
+import org.jboss.pnc.build.finder.koji.KojiBuild;
+import org.jboss.pnc.build.finder.koji.KojiLocalArchive;
+
+/**
+ * Aggregates of the builds shared by the reports, computed in a single pass over the builds so that each report does
+ * not walk the full build list on its own.
+ */
+final class ReportData {
+    private final BuildStatistics buildStatistics;
+
+    private final List<String> nvrs;
+
+    private final List<String> gavs;
+
+    private final List<KojiBuild> targetBuilds;
+
+    ReportData(Collection<KojiBuild> builds) {
+        buildStatistics = new BuildStatistics();
+        nvrs = new ArrayList<>(builds.size());
+        gavs = new ArrayList<>();
+        targetBuilds = new ArrayList<>(builds.size());
+
+        for (KojiBuild build : builds) {
+            buildStatistics.add(build);
+
+            if (hasTarget(build)) {
+                targetBuilds.add(build);
+            }
+
+            if (!isNotBuildZero(build)) {
+                continue;
+            }
+
+            nvrs.add(build.getBuildInfo().getNvr());
+
+            if (isMaven(build)) {
+                for (KojiLocalArchive localArchive : build.getArchives()) {
+                    gavs.add(toGav(localArchive));
+                }
+            }
+        }
+    }
+
+    static boolean hasTarget(KojiBuild build) {
+        return build.getTaskRequest() != null && build.getTaskRequest().asBuildRequest() != null
+                && build.getTaskRequest().asBuildRequest().getTarget() != null;
+    }
+
+    static boolean isMaven(KojiBuild build) {
+        return build.getBuildInfo() != null && build.getBuildInfo().getTypeNames() != null
+                && build.getBuildInfo().getTypeNames().contains(maven);
+    }
+
+    static String toGav(KojiLocalArchive localArchive) {
+        return localArchive.getArchive().getGroupId() + ":" + localArchive.getArchive().getArtifactId() + ":"
+                + localArchive.getArchive().getVersion();
+    }
+
+    BuildStatistics getBuildStatistics() {
+        return buildStatistics;
+    }
+
+    List<String> getNvrs() {
+        return Collections.unmodifiableList(nvrs);
+    }
+
+    List<String> getGavs() {
+        return Collections.unmodifiableList(gavs);
+    }
+
+    List<KojiBuild> getTargetBuilds() {
+        return Collections.unmodifiableList(targetBuilds);
+    }
+}
@@ -30,6 +30,7 @@ import static org.assertj.core.api.InstanceOfAssertFactories.map;
 import static org.jboss.pnc.build.finder.pnc.client.PncUtils.PNC;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -37,6 +38,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
+import org.jboss.pnc.build.finder.core.BuildConfig;
 import org.jboss.pnc.build.finder.core.BuildFinderObjectMapper;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.ConfigDefaults;
@@ -44,6 +46,7 @@ import org.jboss.pnc.build.finder.core.JSONUtils;
 import org.jboss.pnc.build.finder.core.TestUtils;
 import org.jboss.pnc.build.finder.koji.KojiBuild;
 import org.jboss.pnc.build.finder.koji.KojiJSONUtils;
+import org.jboss.pnc.build.finder.koji.KojiLocalArchive;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -294,4 +297,81 @@ class ReportTest {
                 .startsWith("<!DOCTYPE html>")
                 .endsWith("</html>");
     }
+
+    @Test
+    void testHTMLReportStreamed(@TempDir Path folder) throws IOException {
+        List<Report> reports = List.of(new BuildStatisticsReport(folder, builds), new GAVReport(folder, builds));
+        HTMLReport htmlReport = new HTMLReport(
+                folder,
+                Collections.emptyList(),
+                builds,
+                ConfigDefaults.KOJI_WEB_URL,
+                ConfigDefaults.PNC_URL,
+                reports);
+
+        htmlReport.outputHTML();
+
+        String footer = "<div id=\"div-footer\">";
+        String streamed = Files.readString(htmlReport.getOutputDirectory().resolve("output.html"));
+        String rendered = htmlReport.renderText().orElseThrow();
+
+        assertThat(streamed).contains(footer);
+        assertThat(streamed.substring(0, streamed.indexOf(footer)))
+                .isEqualTo(rendered.substring(0, rendered.indexOf(footer)));
+    }
+
+    @Test
+    void testHTMLReportArchivesPages(@TempDir Path folder) throws IOException {
+        List<KojiLocalArchive> archives = builds.stream()
+                .flatMap(build -> build.getArchives().stream())
+                .toList();
+        KojiBuild build = new KojiBuild(builds.get(1).getBuildInfo());
+
+        build.setArchives(archives);
+
+        assertThat(archives).hasSize(5);
+
+        HTMLReport htmlReport = new HTMLReport(
+                folder,
+                Collections.emptyList(),
+                List.of(build),
+                ConfigDefaults.KOJI_WEB_URL,
+                ConfigDefaults.PNC_URL,
+                Collections.emptyList(),
+                2);
+
+        htmlReport.outputHTML();
+
+        assertThat(htmlReport.getOutputDirectory().resolve(htmlReport.getBaseFilename() + ".html")).content(UTF_8)
+                .contains("<details open=\"open\"><summary>Artifacts 1-2 of 5</summary><ol start=\"1\">")
+                .contains("<details><summary>Artifacts 3-4 of 5</summary><ol start=\"3\">")
+                .contains("<details><summary>Artifacts 5-5 of 5</summary><ol start=\"5\">")
+                .endsWith("</html>");
+    }
+
+    @Test
+    void testReportData(@TempDir Path folder) {
+        ReportData data = new ReportData(builds);
+
+        assertThat(new NVRReport(folder, data).renderText()).isEqualTo(new NVRReport(folder, builds).renderText());
+        assertThat(new GAVReport(folder, data).renderText()).isEqualTo(new GAVReport(folder, builds).renderText());
+        assertThat(new ProductReport(folder, data).getProductMap())
+                .isEqualTo(new ProductReport(folder, builds).getProductMap());
+        assertThat(new BuildStatisticsReport(folder, data).renderHTML())
+                .isEqualTo(new BuildStatisticsReport(folder, builds).renderHTML());
+    }
+
+    @Test
+    void testGenerateReports(@TempDir Path folder) throws IOException {
+        Report.generateReports(new BuildConfig(), builds, folder, Collections.emptyList());
+
+        assertThat(folder.resolve("nvr.txt")).content(UTF_8)
+                .isEqualTo(new NVRReport(folder, builds).renderText().orElseThrow());
+        assertThat(folder.resolve("gav.txt")).content(UTF_8)
+                .isEqualTo(new GAVReport(folder, builds).renderText().orElseThrow());
+        assertThat(folder.resolve("output.html")).content(UTF_8)
+                .startsWith("<!DOCTYPE html>")
+                .contains(new GAVReport(folder, builds).renderHTML())
+                .endsWith("</html>");
+    }
 }
@@ -32,6 +32,7 @@ import org.commonjava.o11yphant.metrics.api.Timer.Context;
 import org.jboss.pnc.build.finder.core.BuildFinder;
 import org.jboss.pnc.build.finder.core.BuildSystemInteger;
 import org.jboss.pnc.build.finder.core.ChecksumType;
+import org.jboss.pnc.build.finder.core.Digest;
 import org.jboss.pnc.build.finder.core.DistributionAnalyzer;
 import org.jboss.pnc.build.finder.core.LocalFile;
 import org.jboss.pnc.build.finder.core.Utils;
@@ -64,7 +65,7 @@ class ReportIT extends AbstractKojiIT {
         try {
             DistributionAnalyzer analyzer;
 
-            Future<Map<ChecksumType, MultiValuedMap<String, LocalFile>>> futureChecksum;
+            Future<Map<ChecksumType, MultiValuedMap<Digest, LocalFile>>> futureChecksum;
 
             try (Context ignored = timer.time()) {
                 analyzer = new DistributionAnalyzer(Collections.singletonList(URL), getConfig());
@@ -79,7 +80,7 @@ class ReportIT extends AbstractKojiIT {
                 finder.setOutputDirectory(folder);
                 Future<Map<BuildSystemInteger, KojiBuild>> futureBuilds = pool.submit(finder);
                 Map<BuildSystemInteger, KojiBuild> builds = futureBuilds.get();
-                Map<ChecksumType, MultiValuedMap<String, LocalFile>> map = futureChecksum.get();
+                Map<ChecksumType, MultiValuedMap<Digest, LocalFile>> map = futureChecksum.get();
 
                 assertThat(map).hasSize(3);
                 assertThat(builds).hasSizeGreaterThanOrEqualTo(1);